@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.benchmarks;
+
+import org.jboss.migration.benchmarks.fixtures.Fixtures;
+import org.jboss.migration.core.jboss.DeploymentOverlayLinkMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link DeploymentOverlayLinkMatcher}, matching every deployment of a server against the deployments of an overlay, with the static matching, and with a matcher compiled from the overlay's deployments.
+ * @author emmartins
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DeploymentOverlayLinkMatcherBenchmark {
+
+    @Param({"100", "1000"})
+    public int deployments;
+
+    @Param({"10"})
+    public int overlayDeployments;
+
+    private String[] deploymentNames;
+    private String[] overlayDeploymentNames;
+    private DeploymentOverlayLinkMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(Fixtures.SEED);
+        deploymentNames = new String[deployments];
+        for (int i = 0; i < deployments; i++) {
+            deploymentNames[i] = "app" + i + (random.nextBoolean() ? ".war" : ".ear");
+        }
+        // a mix of wildcard and exact names, as in the overlay deployment links of a server configuration
+        overlayDeploymentNames = new String[overlayDeployments];
+        for (int i = 0; i < overlayDeployments; i++) {
+            switch (i % 3) {
+                case 0:
+                    overlayDeploymentNames[i] = "app" + random.nextInt(deployments) + "*.war";
+                    break;
+                case 1:
+                    overlayDeploymentNames[i] = "app?" + random.nextInt(10) + ".ear";
+                    break;
+                default:
+                    overlayDeploymentNames[i] = "app" + random.nextInt(deployments) + ".war";
+            }
+        }
+        matcher = new DeploymentOverlayLinkMatcher(overlayDeploymentNames);
+    }
+
+    @Benchmark
+    public void matches(Blackhole blackhole) {
+        for (String deploymentName : deploymentNames) {
+            blackhole.consume(DeploymentOverlayLinkMatcher.matches(deploymentName, overlayDeploymentNames));
+        }
+    }
+
+    @Benchmark
+    public void compiledMatches(Blackhole blackhole) {
+        for (String deploymentName : deploymentNames) {
+            blackhole.consume(matcher.matches(deploymentName));
+        }
+    }
+}
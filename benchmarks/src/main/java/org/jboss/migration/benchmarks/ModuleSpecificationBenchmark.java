@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.benchmarks;
+
+import org.jboss.migration.benchmarks.fixtures.Fixtures;
+import org.jboss.migration.core.jboss.ModuleSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link ModuleSpecification.Parser}.
+ * @author emmartins
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ModuleSpecificationBenchmark {
+
+    @Param({"5", "50"})
+    public int dependencies;
+
+    private byte[] moduleXml;
+    private Path dir;
+    private Path moduleXmlFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final String xml = Fixtures.moduleXml("org.benchmark.module", dependencies);
+        moduleXml = xml.getBytes(StandardCharsets.UTF_8);
+        dir = Files.createTempDirectory("module-specification");
+        moduleXmlFile = dir.resolve("module.xml");
+        Fixtures.write(moduleXmlFile, xml);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public ModuleSpecification parseStream() throws IOException, XMLStreamException {
+        return ModuleSpecification.Parser.parse(new ByteArrayInputStream(moduleXml));
+    }
+
+    @Benchmark
+    public ModuleSpecification parseFile() throws IOException, XMLStreamException {
+        return ModuleSpecification.Parser.parse(moduleXmlFile);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.benchmarks;
+
+import org.jboss.migration.benchmarks.fixtures.Fixtures;
+import org.jboss.migration.benchmarks.fixtures.MigrationDataFixtures;
+import org.jboss.migration.core.MigrationData;
+import org.jboss.migration.core.report.HtmlReportWriter;
+import org.jboss.migration.core.report.XmlReportWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the report writers, with synthetic migrations of 10k to 100k task executions.
+ * @author emmartins
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ReportWritersBenchmark {
+
+    private static final String HTML_TEMPLATE = "<html><body><table>$SUMMARY</table><table>$ENVIRONMENT</table><table>$TASK_SUMMARY</table>$TASK_MAP</body></html>";
+
+    @Param({"10000", "100000"})
+    public int tasks;
+
+    @Param({"8"})
+    public int maxSubtasks;
+
+    private MigrationData migrationData;
+    private HtmlReportWriter.ReportTemplate htmlReportTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        migrationData = MigrationDataFixtures.create(tasks, maxSubtasks, Fixtures.SEED);
+        htmlReportTemplate = HtmlReportWriter.ReportTemplate.from(HTML_TEMPLATE);
+    }
+
+    @Benchmark
+    public long htmlReport() {
+        return HtmlReportWriter.INSTANCE.toString(migrationData, htmlReportTemplate).length();
+    }
+
+    @Benchmark
+    public long htmlReportStream() throws IOException {
+        final CountingOutputStream outputStream = new CountingOutputStream();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            HtmlReportWriter.INSTANCE.write(writer, migrationData, htmlReportTemplate);
+        }
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long xmlReport() throws XMLStreamException {
+        final CountingOutputStream outputStream = new CountingOutputStream();
+        final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, "UTF-8");
+        try {
+            XmlReportWriter.INSTANCE.writeContent(writer, migrationData);
+        } finally {
+            writer.close();
+        }
+        return outputStream.count;
+    }
+
+    /**
+     * An output stream which only counts the bytes written, thus the benchmark does not measure file writes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.benchmarks;
+
+import org.jboss.migration.benchmarks.fixtures.Fixtures;
+import org.jboss.migration.core.util.xml.SimpleXMLFileMatcher;
+import org.jboss.migration.core.util.xml.XMLFileFilter;
+import org.jboss.migration.core.util.xml.XMLFileMatcher;
+import org.jboss.migration.core.util.xml.XMLFiles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.Attribute;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link XMLFiles}, filtering and scanning server configurations.
+ * @author emmartins
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class XMLFilesBenchmark {
+
+    private static final QName MODULE = new QName("module");
+
+    @State(Scope.Thread)
+    public static class FilterState {
+
+        @Param({"50", "500"})
+        public int subsystems;
+
+        private Path dir;
+        private Path configFile;
+        private String config;
+        private XMLFileFilter[] filters;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            dir = Files.createTempDirectory("xml-files-filter");
+            configFile = dir.resolve("standalone.xml");
+            config = Fixtures.standaloneXml(subsystems, subsystems);
+            filters = new XMLFileFilter[] {
+                    // the filters of a typical config migration pass: removal of unsupported subsystems and extensions, and filters not applicable
+                    (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
+                        if (!startElement.getName().getLocalPart().equals("subsystem")) {
+                            return XMLFileFilter.Result.NOT_APPLICABLE;
+                        }
+                        final String namespaceURI = startElement.getName().getNamespaceURI();
+                        final int subsystem = Integer.parseInt(namespaceURI.substring(Fixtures.SUBSYSTEM_NAMESPACE_PREFIX.length(), namespaceURI.indexOf(':', Fixtures.SUBSYSTEM_NAMESPACE_PREFIX.length())));
+                        return subsystem % 2 == 0 ? XMLFileFilter.Result.ADD : XMLFileFilter.Result.REMOVE;
+                    },
+                    (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
+                        if (!startElement.getName().getLocalPart().equals("extension")) {
+                            return XMLFileFilter.Result.NOT_APPLICABLE;
+                        }
+                        final Attribute module = startElement.getAttributeByName(MODULE);
+                        return module != null && module.getValue().hashCode() % 2 == 0 ? XMLFileFilter.Result.ADD : XMLFileFilter.Result.REMOVE;
+                    },
+                    (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> startElement.getName().getLocalPart().equals("vault") ? XMLFileFilter.Result.REMOVE : XMLFileFilter.Result.NOT_APPLICABLE
+            };
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() throws IOException {
+            // the filter replaces the file's content
+            Fixtures.write(configFile, config);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Fixtures.delete(dir);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ScanState {
+
+        @Param({"10", "100"})
+        public int configs;
+
+        private Path dir;
+        private XMLFileMatcher matcher;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("xml-files-scan");
+            Fixtures.writeConfigDir(dir.resolve("configuration"), configs, 20);
+            // the matcher used by servers to scan standalone configs
+            matcher = new SimpleXMLFileMatcher() {
+                @Override
+                protected boolean documentElementLocalNameMatches(String localName) {
+                    return "server".equals(localName);
+                }
+                @Override
+                protected boolean documentNamespaceURIMatches(String namespaceURI) {
+                    return namespaceURI.startsWith("urn:jboss:domain:");
+                }
+            };
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Fixtures.delete(dir);
+        }
+    }
+
+    @Benchmark
+    public Path filter(FilterState state) {
+        XMLFiles.filter(state.configFile, state.filters);
+        return state.configFile;
+    }
+
+    @Benchmark
+    public Collection<Path> scan(ScanState state) {
+        return XMLFiles.scan(state.dir.resolve("configuration"), false, state.matcher);
+    }
+
+    @Benchmark
+    public Collection<Path> scanRecursive(ScanState state) {
+        return XMLFiles.scan(state.dir, true, state.matcher);
+    }
+}
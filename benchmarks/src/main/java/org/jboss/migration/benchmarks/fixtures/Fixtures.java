@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.benchmarks.fixtures;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+/**
+ * Generators of the benchmarks fixtures, such as large server configuration files.
+ *
+ * Fixtures are generated from a fixed seed, thus the same fixtures are used by every run of a benchmark, and results of different commits are comparable.
+ * @author emmartins
+ */
+public final class Fixtures {
+
+    /**
+     * the seed of every fixture's random data
+     */
+    public static final long SEED = 20200101L;
+
+    /**
+     * the namespace of the generated server configurations
+     */
+    public static final String DOMAIN_NAMESPACE = "urn:jboss:domain:4.0";
+
+    /**
+     * the prefix of the generated subsystem namespaces
+     */
+    public static final String SUBSYSTEM_NAMESPACE_PREFIX = "urn:jboss:domain:benchmark-";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Generates a standalone server configuration.
+     * @param subsystems the number of subsystems
+     * @param deployments the number of deployments
+     * @return the standalone server configuration XML
+     */
+    public static String standaloneXml(int subsystems, int deployments) {
+        final Random random = new Random(SEED);
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+        sb.append("<server xmlns=\"").append(DOMAIN_NAMESPACE).append("\">\n");
+        appendExtensions(sb, subsystems);
+        appendManagement(sb);
+        sb.append("    <profile>\n");
+        appendSubsystems(sb, subsystems, random, "        ");
+        sb.append("    </profile>\n");
+        appendInterfaces(sb);
+        appendSocketBindingGroup(sb, "standard-sockets", subsystems, "    ");
+        appendDeployments(sb, deployments, random);
+        sb.append("</server>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generates a managed domain configuration.
+     * @param profiles the number of profiles
+     * @param subsystems the number of subsystems in each profile
+     * @param serverGroups the number of server groups
+     * @return the managed domain configuration XML
+     */
+    public static String domainXml(int profiles, int subsystems, int serverGroups) {
+        final Random random = new Random(SEED);
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+        sb.append("<domain xmlns=\"").append(DOMAIN_NAMESPACE).append("\">\n");
+        appendExtensions(sb, subsystems);
+        sb.append("    <profiles>\n");
+        for (int i = 0; i < profiles; i++) {
+            sb.append("        <profile name=\"profile").append(i).append("\">\n");
+            appendSubsystems(sb, subsystems, random, "            ");
+            sb.append("        </profile>\n");
+        }
+        sb.append("    </profiles>\n");
+        appendInterfaces(sb);
+        sb.append("    <socket-binding-groups>\n");
+        for (int i = 0; i < profiles; i++) {
+            appendSocketBindingGroup(sb, "sockets" + i, subsystems, "        ");
+        }
+        sb.append("    </socket-binding-groups>\n");
+        sb.append("    <server-groups>\n");
+        for (int i = 0; i < serverGroups; i++) {
+            sb.append("        <server-group name=\"group").append(i).append("\" profile=\"profile").append(i % profiles).append("\">\n");
+            sb.append("            <jvm name=\"default\"><heap size=\"64m\" max-size=\"512m\"/></jvm>\n");
+            sb.append("            <socket-binding-group ref=\"sockets").append(i % profiles).append("\"/>\n");
+            sb.append("        </server-group>\n");
+        }
+        sb.append("    </server-groups>\n");
+        sb.append("</domain>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generates a host configuration.
+     * @param servers the number of servers
+     * @return the host configuration XML
+     */
+    public static String hostXml(int servers) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+        sb.append("<host xmlns=\"").append(DOMAIN_NAMESPACE).append("\" name=\"master\">\n");
+        appendManagement(sb);
+        sb.append("    <domain-controller><local/></domain-controller>\n");
+        appendInterfaces(sb);
+        sb.append("    <servers>\n");
+        for (int i = 0; i < servers; i++) {
+            sb.append("        <server name=\"server").append(i).append("\" group=\"group").append(i).append("\">\n");
+            sb.append("            <socket-bindings port-offset=\"").append(i * 100).append("\"/>\n");
+            sb.append("        </server>\n");
+        }
+        sb.append("    </servers>\n");
+        sb.append("</host>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generates a module specification.
+     * @param name the module name
+     * @param dependencies the number of module dependencies
+     * @return the module specification XML
+     */
+    public static String moduleXml(String name, int dependencies) {
+        final Random random = new Random(SEED);
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<module name=\"").append(name).append("\" xmlns=\"urn:jboss:module:1.5\">\n");
+        sb.append("    <properties>\n");
+        sb.append("        <property name=\"jboss.api\" value=\"private\"/>\n");
+        sb.append("    </properties>\n");
+        sb.append("    <resources>\n");
+        sb.append("        <resource-root path=\"").append(name).append("-1.0.0.Final.jar\"/>\n");
+        sb.append("    </resources>\n");
+        sb.append("    <dependencies>\n");
+        for (int i = 0; i < dependencies; i++) {
+            sb.append("        <module name=\"org.benchmark.dependency").append(i).append('"');
+            if (random.nextInt(4) == 0) {
+                sb.append(" optional=\"true\"");
+            }
+            if (random.nextInt(8) == 0) {
+                sb.append(" slot=\"1.0\"");
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append(" services=\"import\">\n");
+                sb.append("            <imports><include path=\"META-INF\"/></imports>\n");
+                sb.append("        </module>\n");
+            } else {
+                sb.append("/>\n");
+            }
+        }
+        sb.append("    </dependencies>\n");
+        sb.append("</module>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Writes a server's configuration dir, with standalone, domain and host configurations, and other files which are not server configurations.
+     * @param dir the configuration dir
+     * @param configs the number of each type of server configuration
+     * @param subsystems the number of subsystems in each server configuration
+     * @throws IOException if the configuration dir write failed
+     */
+    public static void writeConfigDir(Path dir, int configs, int subsystems) throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 0; i < configs; i++) {
+            write(dir.resolve("standalone-" + i + ".xml"), standaloneXml(subsystems, 0));
+            write(dir.resolve("domain-" + i + ".xml"), domainXml(1, subsystems, 1));
+            write(dir.resolve("host-" + i + ".xml"), hostXml(1));
+            write(dir.resolve("application-roles-" + i + ".properties"), "#role=admin\n");
+            write(dir.resolve("beans-" + i + ".xml"), "<?xml version='1.0' encoding='UTF-8'?>\n<beans xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\"/>\n");
+        }
+        write(dir.resolve("logging.properties"), "logger.level=INFO\n");
+    }
+
+    /**
+     * Writes a file, creating its parent dirs if needed.
+     * @param file the file
+     * @param content the file content
+     * @throws IOException if the file write failed
+     */
+    public static void write(Path file, String content) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes a dir, and all its content.
+     * @param dir the dir to delete
+     * @throws IOException if the delete failed
+     */
+    public static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void appendExtensions(StringBuilder sb, int subsystems) {
+        sb.append("    <extensions>\n");
+        for (int i = 0; i < subsystems; i++) {
+            sb.append("        <extension module=\"org.benchmark.extension").append(i).append("\"/>\n");
+        }
+        sb.append("    </extensions>\n");
+    }
+
+    private static void appendManagement(StringBuilder sb) {
+        sb.append("    <management>\n");
+        sb.append("        <security-realms>\n");
+        sb.append("            <security-realm name=\"ManagementRealm\">\n");
+        sb.append("                <authentication><local default-user=\"$local\"/><properties path=\"mgmt-users.properties\" relative-to=\"jboss.server.config.dir\"/></authentication>\n");
+        sb.append("            </security-realm>\n");
+        sb.append("        </security-realms>\n");
+        sb.append("        <management-interfaces>\n");
+        sb.append("            <http-interface security-realm=\"ManagementRealm\"><socket-binding http=\"management-http\"/></http-interface>\n");
+        sb.append("        </management-interfaces>\n");
+        sb.append("    </management>\n");
+    }
+
+    private static void appendSubsystems(StringBuilder sb, int subsystems, Random random, String indent) {
+        for (int i = 0; i < subsystems; i++) {
+            sb.append(indent).append("<subsystem xmlns=\"").append(SUBSYSTEM_NAMESPACE_PREFIX).append(i).append(":1.0\">\n");
+            final int resources = 1 + random.nextInt(20);
+            for (int j = 0; j < resources; j++) {
+                sb.append(indent).append("    <resource name=\"resource").append(j).append("\" enabled=\"").append(random.nextBoolean()).append("\" value=\"${jboss.benchmark.value").append(j).append(":").append(random.nextInt(10000)).append("}\">\n");
+                final int properties = random.nextInt(5);
+                for (int k = 0; k < properties; k++) {
+                    sb.append(indent).append("        <property name=\"property").append(k).append("\" value=\"").append(Long.toHexString(random.nextLong())).append("\"/>\n");
+                }
+                sb.append(indent).append("    </resource>\n");
+            }
+            sb.append(indent).append("</subsystem>\n");
+        }
+    }
+
+    private static void appendInterfaces(StringBuilder sb) {
+        sb.append("    <interfaces>\n");
+        sb.append("        <interface name=\"management\"><inet-address value=\"${jboss.bind.address.management:127.0.0.1}\"/></interface>\n");
+        sb.append("        <interface name=\"public\"><inet-address value=\"${jboss.bind.address:127.0.0.1}\"/></interface>\n");
+        sb.append("    </interfaces>\n");
+    }
+
+    private static void appendSocketBindingGroup(StringBuilder sb, String name, int socketBindings, String indent) {
+        sb.append(indent).append("<socket-binding-group name=\"").append(name).append("\" default-interface=\"public\">\n");
+        sb.append(indent).append("    <socket-binding name=\"management-http\" interface=\"management\" port=\"${jboss.management.http.port:9990}\"/>\n");
+        for (int i = 0; i < socketBindings; i++) {
+            sb.append(indent).append("    <socket-binding name=\"binding").append(i).append("\" port=\"").append(10000 + i).append("\"/>\n");
+        }
+        sb.append(indent).append("</socket-binding-group>\n");
+    }
+
+    private static void appendDeployments(StringBuilder sb, int deployments, Random random) {
+        if (deployments < 1) {
+            return;
+        }
+        sb.append("    <deployments>\n");
+        for (int i = 0; i < deployments; i++) {
+            sb.append("        <deployment name=\"app").append(i).append(".war\" runtime-name=\"app").append(i).append(".war\">\n");
+            sb.append("            <content sha1=\"").append(String.format("%016x%016x%08x", random.nextLong(), random.nextLong(), random.nextInt())).append("\"/>\n");
+            sb.append("        </deployment>\n");
+        }
+        sb.append("    </deployments>\n");
+    }
+}
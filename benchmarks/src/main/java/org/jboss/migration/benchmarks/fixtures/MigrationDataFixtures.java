@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.benchmarks.fixtures;
+
+import org.jboss.logging.Logger;
+import org.jboss.migration.core.MigrationData;
+import org.jboss.migration.core.MigrationFiles;
+import org.jboss.migration.core.ProductInfo;
+import org.jboss.migration.core.Server;
+import org.jboss.migration.core.ServerMigrationContext;
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.console.ConsoleWrapper;
+import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.ServerMigrationTaskPath;
+import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskExecution;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
+import org.jboss.migration.core.task.TaskLogger;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of synthetic {@link MigrationData}, with large task trees, for the report writers benchmarks.
+ * @author emmartins
+ */
+public final class MigrationDataFixtures {
+
+    private MigrationDataFixtures() {
+    }
+
+    /**
+     * Creates the data of a migration, with a synthetic task tree.
+     * @param tasks the number of task executions in the tree
+     * @param maxSubtasks the max number of subtasks of each task
+     * @param seed the seed of the task tree's random data
+     * @return the migration data
+     */
+    public static MigrationData create(int tasks, int maxSubtasks, long seed) {
+        final Random random = new Random(seed);
+        final MigrationEnvironment environment = new MigrationEnvironment();
+        for (int i = 0; i < 20; i++) {
+            environment.setProperty("benchmark.property" + i, "value" + i);
+            // properties read are included in the reports
+            environment.getPropertyAsString("benchmark.property" + i);
+        }
+        final ServerMigrationContext context = new SyntheticServerMigrationContext(environment);
+        final SyntheticTaskExecution rootTask = new SyntheticTaskExecution(null, new ServerMigrationTaskName.Builder("server").build(), context, random);
+        // breadth first, thus the tree is as wide as allowed by the max number of subtasks
+        final Deque<SyntheticTaskExecution> parents = new ArrayDeque<>();
+        parents.add(rootTask);
+        int count = 1;
+        while (count < tasks) {
+            final SyntheticTaskExecution parent = parents.poll();
+            final int subtasks = Math.min(tasks - count, 1 + random.nextInt(maxSubtasks));
+            for (int i = 0; i < subtasks; i++) {
+                final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder("task-" + random.nextInt(100))
+                        .addAttribute("name", "resource" + i)
+                        .build();
+                final SyntheticTaskExecution subtask = new SyntheticTaskExecution(parent, taskName, context, random);
+                parent.subtasks.add(subtask);
+                parents.add(subtask);
+            }
+            count += subtasks;
+        }
+        final Server source = new SyntheticServer("source", new ProductInfo("WildFly Full", "10.0.0.Final"));
+        final Server target = new SyntheticServer("target", new ProductInfo("WildFly Full", "19.0.0.Final"));
+        return new MigrationData(source, target, rootTask, environment);
+    }
+
+    private static class SyntheticTaskExecution implements TaskExecution {
+
+        private final String taskNumber;
+        private final ServerMigrationTaskName taskName;
+        private final ServerMigrationTaskPath taskPath;
+        private final ServerMigrationContext context;
+        private final Logger logger;
+        private final ServerMigrationTaskResult result;
+        private final List<TaskExecution> subtasks;
+        private final long startTime;
+        private final long endTime;
+        private final TaskExecutionMetrics metrics;
+
+        SyntheticTaskExecution(SyntheticTaskExecution parent, ServerMigrationTaskName taskName, ServerMigrationContext context, Random random) {
+            this.taskNumber = parent == null ? "1" : parent.taskNumber + ':' + (parent.subtasks.size() + 1);
+            this.taskName = taskName;
+            this.taskPath = new ServerMigrationTaskPath(taskName, parent != null ? parent.taskPath : null);
+            this.context = context;
+            this.logger = new TaskLogger(taskNumber);
+            this.subtasks = new ArrayList<>();
+            this.startTime = 1577836800000L + random.nextInt(3600000);
+            final long duration = random.nextInt(1000000000);
+            this.endTime = startTime + duration / 1000000;
+            // the same values for self and total, the reports do not check these
+            final TaskExecutionMetrics.Values values = new TaskExecutionMetrics.Values(duration, duration / 2, random.nextInt(1000000), random.nextInt(1000), random.nextInt(10), duration / 4);
+            this.metrics = new TaskExecutionMetrics(values, values);
+            final int status = random.nextInt(100);
+            if (status < 80) {
+                this.result = new ServerMigrationTaskResult.Builder().success()
+                        .addAttribute("resource", "resource" + random.nextInt(1000))
+                        .build();
+            } else if (status < 98) {
+                this.result = ServerMigrationTaskResult.SKIPPED;
+            } else {
+                this.result = ServerMigrationTaskResult.fail(new ServerMigrationFailureException("synthetic failure " + random.nextInt(1000)));
+            }
+        }
+
+        @Override
+        public Logger getLogger() {
+            return logger;
+        }
+
+        @Override
+        public ServerMigrationTaskResult getResult() {
+            return result;
+        }
+
+        @Override
+        public ServerMigrationContext getServerMigrationContext() {
+            return context;
+        }
+
+        @Override
+        public List<TaskExecution> getSubtasks() {
+            return Collections.unmodifiableList(subtasks);
+        }
+
+        @Override
+        public long getStartTime() {
+            return startTime;
+        }
+
+        @Override
+        public long getEndTime() {
+            return endTime;
+        }
+
+        @Override
+        public TaskExecutionMetrics getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public ServerMigrationTaskName getTaskName() {
+            return taskName;
+        }
+
+        @Override
+        public String getTaskNumber() {
+            return taskNumber;
+        }
+
+        @Override
+        public ServerMigrationTaskPath getTaskPath() {
+            return taskPath;
+        }
+    }
+
+    private static class SyntheticServerMigrationContext implements ServerMigrationContext {
+
+        private final MigrationEnvironment migrationEnvironment;
+
+        SyntheticServerMigrationContext(MigrationEnvironment migrationEnvironment) {
+            this.migrationEnvironment = migrationEnvironment;
+        }
+
+        @Override
+        public ConsoleWrapper getConsoleWrapper() {
+            return null;
+        }
+
+        @Override
+        public MigrationFiles getMigrationFiles() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isInteractive() {
+            return false;
+        }
+
+        @Override
+        public MigrationEnvironment getMigrationEnvironment() {
+            return migrationEnvironment;
+        }
+    }
+
+    private static class SyntheticServer implements Server {
+
+        private final String migrationName;
+        private final ProductInfo productInfo;
+
+        SyntheticServer(String migrationName, ProductInfo productInfo) {
+            this.migrationName = migrationName;
+            this.productInfo = productInfo;
+        }
+
+        @Override
+        public String getMigrationName() {
+            return migrationName;
+        }
+
+        @Override
+        public Path getBaseDir() {
+            return Paths.get("/opt", migrationName);
+        }
+
+        @Override
+        public ProductInfo getProductInfo() {
+            return productInfo;
+        }
+
+        @Override
+        public ServerMigrationTaskResult migrate(Server source, TaskContext context) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -22,7 +22,9 @@ import org.jboss.migration.cli.logger.CommandLineMigrationLogger;
  */
 public enum CommandLineConstants {
    ENVIRONMENT("environment", CommandLineMigrationLogger.ROOT_LOGGER.argEnvironment()),
+   FLEET("fleet", CommandLineMigrationLogger.ROOT_LOGGER.argFleet()),
    INTERACTIVE("interactive", CommandLineMigrationLogger.ROOT_LOGGER.argInteractive()),
+   JFR("jfr", CommandLineMigrationLogger.ROOT_LOGGER.argJfr()),
    NON_INTERACTIVE("non-interactive", CommandLineMigrationLogger.ROOT_LOGGER.argInteractive()),
    SOURCE("source", CommandLineMigrationLogger.ROOT_LOGGER.argSource()),
    TARGET("target", CommandLineMigrationLogger.ROOT_LOGGER.argTarget()),
@@ -28,6 +28,14 @@ public interface CommandLineOption {
             .hasArg(true)
             .build();
 
+    Option FLEET = Option.builder()
+            .longOpt(CommandLineConstants.FLEET.getArgument())
+            .argName("manifest file")
+            .desc(CommandLineConstants.FLEET.getDescription())
+            .hasArg(true)
+            .numberOfArgs(1)
+            .build();
+
     Option HELP = Option.builder("h")
             .longOpt(CommandLineConstants.HELP.getArgument())
             .argName("help")
@@ -42,6 +50,14 @@ public interface CommandLineOption {
             .hasArg(true)
             .build();
 
+    Option JFR = Option.builder()
+            .longOpt(CommandLineConstants.JFR.getArgument())
+            .argName("recording file")
+            .desc(CommandLineConstants.JFR.getDescription())
+            .hasArg(true)
+            .numberOfArgs(1)
+            .build();
+
     Option NON_INTERACTIVE = Option.builder("n")
             .longOpt(CommandLineConstants.NON_INTERACTIVE.getArgument())
             .desc(CommandLineConstants.NON_INTERACTIVE.getDescription())
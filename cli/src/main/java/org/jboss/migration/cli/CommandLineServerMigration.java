@@ -24,6 +24,8 @@ import org.jboss.migration.core.MigrationData;
 import org.jboss.migration.core.ServerMigration;
 import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.env.SystemEnvironment;
+import org.jboss.migration.core.jboss.JBossServer;
+import org.jboss.migration.core.jfr.FlightRecording;
 import org.jboss.migration.core.logger.ServerMigrationLogger;
 import org.jboss.migration.core.report.HtmlReportWriter;
 import org.jboss.migration.core.report.XmlReportWriter;
@@ -51,7 +53,9 @@ public class CommandLineServerMigration {
 
     private static final CommandLineOptions COMMAND_LINE_OPTIONS = CommandLineOptions.builder()
             .nonDeprecatedOption(ENVIRONMENT)
+            .nonDeprecatedOption(FLEET)
             .nonDeprecatedOption(HELP)
+            .nonDeprecatedOption(JFR)
             .nonDeprecatedOption(NON_INTERACTIVE)
             .nonDeprecatedOption(SOURCE)
             .nonDeprecatedOption(TARGET)
@@ -77,18 +81,30 @@ public class CommandLineServerMigration {
                 return;
             }
 
-            if (!cmdLine.hasOption(CommandLineConstants.SOURCE.getArgument())) {
-                throw new MissingOptionException("Missing required option: " + CommandLineConstants.SOURCE.getArgument());
-            }
-            final Path source = resolvePath(cmdLine.getOptionValue(CommandLineConstants.SOURCE.getArgument()));
+            final Path fleet = cmdLine.hasOption(CommandLineConstants.FLEET.getArgument()) ? resolvePath(cmdLine.getOptionValue(CommandLineConstants.FLEET.getArgument())) : null;
+
+            final Path source;
+            final Path target;
+            if (fleet == null) {
+                if (!cmdLine.hasOption(CommandLineConstants.SOURCE.getArgument())) {
+                    throw new MissingOptionException("Missing required option: " + CommandLineConstants.SOURCE.getArgument());
+                }
+                source = resolvePath(cmdLine.getOptionValue(CommandLineConstants.SOURCE.getArgument()));
 
-            if (!cmdLine.hasOption(CommandLineConstants.TARGET.getArgument())) {
-                throw new MissingOptionException("Missing required option: " + CommandLineConstants.TARGET.getArgument());
+                if (!cmdLine.hasOption(CommandLineConstants.TARGET.getArgument())) {
+                    throw new MissingOptionException("Missing required option: " + CommandLineConstants.TARGET.getArgument());
+                }
+                target = resolvePath(cmdLine.getOptionValue(CommandLineConstants.TARGET.getArgument()));
+            } else {
+                // the fleet manifest lists the sources and targets
+                source = null;
+                target = null;
             }
-            final Path target = resolvePath(cmdLine.getOptionValue(CommandLineConstants.TARGET.getArgument()));
 
             final Path environment = cmdLine.hasOption(CommandLineConstants.ENVIRONMENT.getArgument()) ? resolvePath(cmdLine.getOptionValue(CommandLineConstants.ENVIRONMENT.getArgument())) : null;
 
+            final Path jfrRecording = cmdLine.hasOption(CommandLineConstants.JFR.getArgument()) ? Paths.get(System.getProperty("user.dir")).resolve(cmdLine.getOptionValue(CommandLineConstants.JFR.getArgument())).normalize() : null;
+
             final boolean interactive;
             if (cmdLine.hasOption(CommandLineConstants.NON_INTERACTIVE.getArgument())) {
                 interactive = false;
@@ -110,6 +126,7 @@ public class CommandLineServerMigration {
             final Path baseDirPath = Paths.get(baseDir);
             final Path configDirPath = baseDirPath.resolve("configuration");
             final Path reportsDirPath = baseDirPath.resolve("reports");
+            final Path dataDirPath = baseDirPath.resolve("data");
 
             // setup user environment
             final MigrationEnvironment userEnvironment = new MigrationEnvironment();
@@ -121,35 +138,30 @@ public class CommandLineServerMigration {
                 userEnvironment.setProperties(loadProperties(environment));
             }
             userEnvironment.setProperties(SystemEnvironment.INSTANCE);
+            if (userEnvironment.getPropertyAsString(JBossServer.Modules.ENVIRONMENT_PROPERTY_INDEX_DIR) == null) {
+                // store the servers' modules indexes in the tool's data dir
+                userEnvironment.setProperty(JBossServer.Modules.ENVIRONMENT_PROPERTY_INDEX_DIR, dataDirPath.resolve("modules").toString());
+            }
 
-            // run migration
-            final MigrationData migrationData = new ServerMigration()
-                    .from(source)
-                    .to(target)
-                    .interactive(interactive)
-                    .userEnvironment(userEnvironment)
-                    .run();
-
-            // write reports
-            final String htmlReportFileName = userEnvironment.getPropertyAsString(EnvironmentProperties.REPORT_HTML_FILE_NAME);
-            final String xmlReportFileName = userEnvironment.getPropertyAsString(EnvironmentProperties.REPORT_XML_FILE_NAME);
-            if (htmlReportFileName != null) {
-                try {
-                    final String htmlReportTemplateFileName = userEnvironment.getPropertyAsString(EnvironmentProperties.REPORT_HTML_TEMPLATE_FILE_NAME, "migration-report-template.html");
-                    final Path htmlReportTemplatePath = configDirPath.resolve(htmlReportTemplateFileName);
-                    HtmlReportWriter.INSTANCE.toPath(reportsDirPath.resolve(htmlReportFileName), migrationData, HtmlReportWriter.ReportTemplate.from(htmlReportTemplatePath));
-                } catch (Throwable e) {
-                    ServerMigrationLogger.ROOT_LOGGER.error("HTML Report write failed", e);
+            // start the JFR recording, which is written when the migration and reports are done
+            final FlightRecording flightRecording = jfrRecording != null ? FlightRecording.start(jfrRecording) : null;
+            final boolean failed;
+            try {
+                if (fleet == null) {
+                    final MigrationData migrationData = migrate(source, target, interactive, userEnvironment, configDirPath, reportsDirPath);
+                    failed = migrationData.getRootTask().getResult().getStatus() == ServerMigrationTaskResult.Status.FAIL;
+                } else {
+                    // a fleet's migrations are never interactive, these may run concurrently, each with its own copy of the user environment
+                    final int parallelism = Integer.parseInt(userEnvironment.getPropertyAsString(EnvironmentProperties.FLEET_PARALLELISM, "1"));
+                    final String fleetReportFileName = userEnvironment.getPropertyAsString(EnvironmentProperties.FLEET_REPORT_FILE_NAME, "fleet-migration-report.xml");
+                    failed = !FleetMigration.read(fleet).run((migration, migrationReportsDirPath) -> migrate(migration.getSource(), migration.getTarget(), false, new MigrationEnvironment(userEnvironment), configDirPath, migrationReportsDirPath), parallelism, reportsDirPath, fleetReportFileName);
                 }
-            }
-            if (xmlReportFileName != null) {
-                try {
-                    XmlReportWriter.INSTANCE.writeContent(reportsDirPath.resolve(xmlReportFileName).toFile(), migrationData);
-                } catch (Throwable e) {
-                    ServerMigrationLogger.ROOT_LOGGER.error("XML Report write failed", e);
+            } finally {
+                if (flightRecording != null) {
+                    flightRecording.close();
                 }
             }
-            if (migrationData.getRootTask().getResult().getStatus() == ServerMigrationTaskResult.Status.FAIL) {
+            if (failed) {
                 System.exit(1);
             }
         } catch (ParseException pex) {
@@ -162,6 +174,49 @@ public class CommandLineServerMigration {
         }
     }
 
+    /**
+     * Runs a migration, and writes its reports.
+     * @param source the source server's base dir
+     * @param target the target server's base dir
+     * @param interactive if the migration is interactive
+     * @param userEnvironment the user environment
+     * @param configDirPath the tool's configuration dir
+     * @param reportsDirPath the dir where the reports are written
+     * @return the migration data
+     */
+    private static MigrationData migrate(Path source, Path target, boolean interactive, MigrationEnvironment userEnvironment, Path configDirPath, Path reportsDirPath) {
+        final String htmlReportFileName = userEnvironment.getPropertyAsString(EnvironmentProperties.REPORT_HTML_FILE_NAME);
+        final String xmlReportFileName = userEnvironment.getPropertyAsString(EnvironmentProperties.REPORT_XML_FILE_NAME);
+
+        // run migration
+        final MigrationData migrationData = new ServerMigration()
+                .from(source)
+                .to(target)
+                .interactive(interactive)
+                .userEnvironment(userEnvironment)
+                .xmlReport(xmlReportFileName != null ? reportsDirPath.resolve(xmlReportFileName) : null)
+                .run();
+
+        // write reports
+        if (htmlReportFileName != null) {
+            try {
+                final String htmlReportTemplateFileName = userEnvironment.getPropertyAsString(EnvironmentProperties.REPORT_HTML_TEMPLATE_FILE_NAME, "migration-report-template.html");
+                final Path htmlReportTemplatePath = configDirPath.resolve(htmlReportTemplateFileName);
+                HtmlReportWriter.INSTANCE.toPath(reportsDirPath.resolve(htmlReportFileName), migrationData, HtmlReportWriter.ReportTemplate.from(htmlReportTemplatePath));
+            } catch (Throwable e) {
+                ServerMigrationLogger.ROOT_LOGGER.error("HTML Report write failed", e);
+            }
+        }
+        if (xmlReportFileName != null) {
+            try {
+                XmlReportWriter.INSTANCE.writeContentAtomically(reportsDirPath.resolve(xmlReportFileName), migrationData);
+            } catch (Throwable e) {
+                ServerMigrationLogger.ROOT_LOGGER.error("XML Report write failed", e);
+            }
+        }
+        return migrationData;
+    }
+
     private static void help() {
         System.out.println(CommandLineMigrationLogger.ROOT_LOGGER.helpHeader());
         HelpFormatter help = new HelpFormatter();
@@ -41,4 +41,14 @@ public interface EnvironmentProperties {
      */
     String REPORT_HTML_TEMPLATE_FILE_NAME = org.jboss.migration.core.report.EnvironmentProperties.HTML_REPORT_PROPERTIES_PREFIX + "templateFileName";
 
+    /**
+     * The number of migrations a fleet migration runs concurrently.
+     */
+    String FLEET_PARALLELISM = "fleet.parallelism";
+
+    /**
+     * The fleet migration report file name.
+     */
+    String FLEET_REPORT_FILE_NAME = "fleet.report.fileName";
+
 }
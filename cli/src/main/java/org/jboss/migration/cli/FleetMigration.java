@@ -0,0 +1,304 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.migration.cli;
+
+import org.jboss.migration.core.MigrationData;
+import org.jboss.migration.core.logger.ServerMigrationLogger;
+import org.jboss.migration.core.task.ServerMigrationTaskResult;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fleet migration, i.e. several migrations, each with its own source and target servers, run by the same JVM.
+ *
+ * The migrations are listed by a manifest file, a line per migration with the source server's base dir, the target server's base dir, and optionally the migration's name, separated by commas. Empty lines and lines starting with # are ignored, relative paths are resolved against the manifest's dir, and a migration without name is named after its line number and target server's base dir.
+ *
+ * The migrations run on a bounded pool of threads, yet migrations with the same target server run one after the other, in the order listed. The metadata of the target servers, such as the parsed module specifications, is shared by the JVM among the targets of the same product and version, and thus only retrieved once for these, even if installed in different dirs. The embedded processes of concurrent migrations, which need the same system properties with different values, run one after the other.
+ * @author emmartins
+ */
+class FleetMigration {
+
+    private static final String REPORT_NAMESPACE = "urn:jboss:server-migration-fleet:1.0";
+
+    private final List<Migration> migrations;
+
+    private FleetMigration(List<Migration> migrations) {
+        this.migrations = migrations;
+    }
+
+    /**
+     * Reads a fleet migration's manifest.
+     * @param manifest the manifest file
+     * @return the fleet migration
+     * @throws IOException if the manifest failed to be read
+     * @throws IllegalArgumentException if the manifest is not valid
+     */
+    static FleetMigration read(Path manifest) throws IOException, IllegalArgumentException {
+        final Path manifestDir = manifest.toAbsolutePath().getParent();
+        final List<Migration> migrations = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] values = line.split(",");
+            if (values.length < 2 || values.length > 3) {
+                throw new IllegalArgumentException("Fleet manifest "+manifest+" line "+lineNumber+" is not source,target[,name]");
+            }
+            final Path source = resolvePath(manifestDir, values[0].trim(), manifest, lineNumber);
+            final Path target = resolvePath(manifestDir, values[1].trim(), manifest, lineNumber);
+            final String name = values.length == 3 && !values[2].trim().isEmpty() ? values[2].trim() : String.format("%03d-%s", lineNumber, target.getFileName());
+            if (name.contains("/") || name.contains("\\") || name.equals(".") || name.equals("..")) {
+                throw new IllegalArgumentException("Fleet manifest "+manifest+" line "+lineNumber+" migration name "+name+" is not a valid file name");
+            }
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Fleet manifest "+manifest+" line "+lineNumber+" migration name "+name+" is not unique");
+            }
+            migrations.add(new Migration(name, source, target));
+        }
+        if (migrations.isEmpty()) {
+            throw new IllegalArgumentException("Fleet manifest "+manifest+" has no migrations");
+        }
+        return new FleetMigration(Collections.unmodifiableList(migrations));
+    }
+
+    private static Path resolvePath(Path manifestDir, String value, Path manifest, int lineNumber) {
+        final Path path = manifestDir.resolve(value).normalize();
+        if (!Files.isDirectory(path)) {
+            throw new IllegalArgumentException("Fleet manifest "+manifest+" line "+lineNumber+" dir "+path+" does not exists.");
+        }
+        return path;
+    }
+
+    /**
+     * Runs the fleet's migrations, and writes the fleet's report.
+     * @param runner the runner of each migration
+     * @param parallelism the max number of migrations running concurrently
+     * @param reportsDir the dir where each migration's reports dir, and the fleet's report, are written
+     * @param reportFileName the file name of the fleet's report
+     * @return true if all migrations succeeded, false otherwise
+     * @throws InterruptedException if interrupted while waiting for the migrations
+     */
+    boolean run(MigrationRunner runner, int parallelism, Path reportsDir, String reportFileName) throws InterruptedException {
+        // migrations with the same target run sequentially, in the same pool job
+        final Map<Path, List<Migration>> migrationsByTarget = new LinkedHashMap<>();
+        for (Migration migration : migrations) {
+            migrationsByTarget.computeIfAbsent(migration.getTarget(), k -> new ArrayList<>()).add(migration);
+        }
+        final Map<Migration, MigrationOutcome> outcomes = Collections.synchronizedMap(new LinkedHashMap<>());
+        final long startTime = System.currentTimeMillis();
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, migrationsByTarget.size())), new FleetThreadFactory());
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (List<Migration> targetMigrations : migrationsByTarget.values()) {
+                futures.add(executorService.submit(() -> {
+                    for (Migration migration : targetMigrations) {
+                        outcomes.put(migration, run(migration, runner, reportsDir.resolve(migration.getName())));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    ServerMigrationLogger.ROOT_LOGGER.error("Fleet migration job failed", e.getCause());
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        boolean succeeded = true;
+        for (Migration migration : migrations) {
+            final MigrationOutcome outcome = outcomes.get(migration);
+            final ServerMigrationTaskResult.Status status = outcome != null ? outcome.status : ServerMigrationTaskResult.Status.FAIL;
+            ServerMigrationLogger.ROOT_LOGGER.infof("Fleet migration %s (%s -> %s): %s", migration.getName(), migration.getSource(), migration.getTarget(), status);
+            if (status == ServerMigrationTaskResult.Status.FAIL) {
+                succeeded = false;
+            }
+        }
+        if (reportFileName != null) {
+            try {
+                writeReport(reportsDir.resolve(reportFileName), startTime, outcomes);
+            } catch (Throwable e) {
+                ServerMigrationLogger.ROOT_LOGGER.error("Fleet Report write failed", e);
+            }
+        }
+        return succeeded;
+    }
+
+    private static MigrationOutcome run(Migration migration, MigrationRunner runner, Path reportsDir) {
+        final long startTime = System.currentTimeMillis();
+        final long startNanoTime = System.nanoTime();
+        ServerMigrationTaskResult.Status status;
+        String error = null;
+        try {
+            final MigrationData migrationData = runner.run(migration, reportsDir);
+            status = migrationData.getRootTask().getResult().getStatus();
+        } catch (Throwable e) {
+            ServerMigrationLogger.ROOT_LOGGER.error("Fleet migration "+migration.getName()+" failed", e);
+            status = ServerMigrationTaskResult.Status.FAIL;
+            error = String.valueOf(e);
+        }
+        return new MigrationOutcome(status, error, startTime, (System.nanoTime() - startNanoTime) / 1000000, reportsDir);
+    }
+
+    private void writeReport(Path reportFile, long startTime, Map<Migration, MigrationOutcome> outcomes) throws IOException, XMLStreamException {
+        final SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final Path dir = reportFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        final Path tmpFile = Files.createTempFile(dir, reportFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+                final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+                try {
+                    writer.writeStartDocument("UTF-8", "1.0");
+                    writer.setDefaultNamespace(REPORT_NAMESPACE);
+                    writer.writeStartElement("fleet-migration-report");
+                    writer.writeDefaultNamespace(REPORT_NAMESPACE);
+                    writer.writeAttribute("start-time", sdf.format(new Date(startTime)));
+                    for (Migration migration : migrations) {
+                        final MigrationOutcome outcome = outcomes.get(migration);
+                        writer.writeStartElement(REPORT_NAMESPACE, "migration");
+                        writer.writeAttribute("name", migration.getName());
+                        writer.writeAttribute("source", migration.getSource().toString());
+                        writer.writeAttribute("target", migration.getTarget().toString());
+                        if (outcome != null) {
+                            writer.writeAttribute("status", outcome.status.name());
+                            writer.writeAttribute("start-time", sdf.format(new Date(outcome.startTime)));
+                            writer.writeAttribute("duration", String.valueOf(outcome.duration));
+                            writer.writeAttribute("reports-dir", dir.relativize(outcome.reportsDir.toAbsolutePath()).toString());
+                            if (outcome.error != null) {
+                                writer.writeStartElement(REPORT_NAMESPACE, "error");
+                                writer.writeCharacters(outcome.error);
+                                writer.writeEndElement();
+                            }
+                        } else {
+                            writer.writeAttribute("status", ServerMigrationTaskResult.Status.FAIL.name());
+                        }
+                        writer.writeEndElement();
+                    }
+                    writer.writeEndElement();
+                    writer.writeEndDocument();
+                } finally {
+                    writer.close();
+                }
+            }
+            Files.move(tmpFile, reportFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * A migration of the fleet.
+     */
+    static class Migration {
+
+        private final String name;
+        private final Path source;
+        private final Path target;
+
+        Migration(String name, Path source, Path target) {
+            this.name = name;
+            this.source = source;
+            this.target = target;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Path getSource() {
+            return source;
+        }
+
+        Path getTarget() {
+            return target;
+        }
+    }
+
+    /**
+     * Runs a migration of the fleet.
+     */
+    interface MigrationRunner {
+        /**
+         * Runs a migration, and writes its reports.
+         * @param migration the migration
+         * @param reportsDir the dir where the migration's reports should be written
+         * @return the migration data
+         * @throws Exception if the migration failed to run
+         */
+        MigrationData run(Migration migration, Path reportsDir) throws Exception;
+    }
+
+    private static class MigrationOutcome {
+
+        private final ServerMigrationTaskResult.Status status;
+        private final String error;
+        private final long startTime;
+        private final long duration;
+        private final Path reportsDir;
+
+        private MigrationOutcome(ServerMigrationTaskResult.Status status, String error, long startTime, long duration, Path reportsDir) {
+            this.status = status;
+            this.error = error;
+            this.startTime = startTime;
+            this.duration = duration;
+            this.reportsDir = reportsDir;
+        }
+    }
+
+    private static class FleetThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "fleet-migration-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -44,6 +44,22 @@ public interface CommandLineMigrationLogger extends BasicLogger {
     @Message(id = Message.NONE, value = "Indicates if the migration tool should not interact with the user.")
     String argInteractive();
 
+    /**
+     * Instructions for the {@link org.jboss.migration.cli.CommandLineConstants#FLEET} command line arguments.
+     *
+     * @return the message.
+     */
+    @Message(id = Message.NONE, value = "Path to the manifest file listing the source and target servers of several migrations, which are run instead of the source and target arguments' migration.")
+    String argFleet();
+
+    /**
+     * Instructions for the {@link org.jboss.migration.cli.CommandLineConstants#JFR} command line arguments.
+     *
+     * @return the message.
+     */
+    @Message(id = Message.NONE, value = "Path to the file where a Java Flight Recorder recording of the migration is written.")
+    String argJfr();
+
     /**
      * Instructions for the {@link org.jboss.migration.cli.CommandLineConstants#SOURCE} command line arguments.
      *
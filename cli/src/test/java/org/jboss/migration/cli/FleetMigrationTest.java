@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.migration.cli;
+
+import org.jboss.migration.core.MigrationData;
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.TaskExecution;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FleetMigrationTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path writeManifest(String... lines) throws IOException {
+        final Path manifest = tmp.getRoot().toPath().resolve("fleet.txt");
+        Files.write(manifest, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        return manifest;
+    }
+
+    private static MigrationData migrationData(ServerMigrationTaskResult result) {
+        final TaskExecution rootTask = (TaskExecution) Proxy.newProxyInstance(FleetMigrationTest.class.getClassLoader(), new Class<?>[] {TaskExecution.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getResult")) {
+                return result;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return new MigrationData(null, null, rootTask, new MigrationEnvironment());
+    }
+
+    private static void assertInvalid(Path manifest) throws IOException {
+        try {
+            FleetMigration.read(manifest);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void read() throws IOException, InterruptedException {
+        tmp.newFolder("source1");
+        tmp.newFolder("source2");
+        tmp.newFolder("target1");
+        final Path manifest = writeManifest("# a comment", "", "source1, target1, first", "source2,target1");
+        final List<String> names = new ArrayList<>();
+        final List<Path> targets = new ArrayList<>();
+        final FleetMigration fleetMigration = FleetMigration.read(manifest);
+        fleetMigration.run((migration, reportsDir) -> {
+            names.add(migration.getName());
+            targets.add(migration.getTarget());
+            return migrationData(ServerMigrationTaskResult.SUCCESS);
+        }, 1, tmp.getRoot().toPath().resolve("reports"), null);
+        // migrations without name are named after their line number and target
+        assertEquals(2, names.size());
+        assertEquals("first", names.get(0));
+        assertEquals("004-target1", names.get(1));
+        // relative to the manifest's dir
+        assertEquals(Collections.nCopies(2, tmp.getRoot().toPath().toAbsolutePath().resolve("target1")), targets);
+    }
+
+    @Test
+    public void readInvalid() throws IOException {
+        tmp.newFolder("source1");
+        tmp.newFolder("target1");
+        assertInvalid(writeManifest("# no migrations"));
+        assertInvalid(writeManifest("source1"));
+        assertInvalid(writeManifest("source1,target1,name,other"));
+        assertInvalid(writeManifest("source1,target2"));
+        assertInvalid(writeManifest("source1,target1,a", "source1,target1,a"));
+        assertInvalid(writeManifest("source1,target1,../a"));
+    }
+
+    @Test
+    public void run() throws IOException, InterruptedException {
+        tmp.newFolder("source");
+        tmp.newFolder("target1");
+        tmp.newFolder("target2");
+        tmp.newFolder("target3");
+        final Path manifest = writeManifest("source,target1,a", "source,target1,b", "source,target2,c", "source,target3,d");
+        final Map<Path, AtomicInteger> runningByTarget = new ConcurrentHashMap<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger maxRunningByTarget = new AtomicInteger();
+        final Path reportsDir = tmp.getRoot().toPath().resolve("reports");
+        final boolean succeeded = FleetMigration.read(manifest).run((migration, migrationReportsDir) -> {
+            final int targetRunning = runningByTarget.computeIfAbsent(migration.getTarget(), k -> new AtomicInteger()).incrementAndGet();
+            maxRunningByTarget.accumulateAndGet(targetRunning, Math::max);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+                assertEquals(reportsDir.resolve(migration.getName()), migrationReportsDir);
+                if (migration.getName().equals("c")) {
+                    throw new IllegalStateException("c failed");
+                }
+                return migrationData(migration.getName().equals("d") ? ServerMigrationTaskResult.fail(new ServerMigrationFailureException("d failed")) : ServerMigrationTaskResult.SUCCESS);
+            } finally {
+                running.decrementAndGet();
+                runningByTarget.get(migration.getTarget()).decrementAndGet();
+            }
+        }, 2, reportsDir, "fleet-report.xml");
+        assertFalse(succeeded);
+        // the migrations with the same target run one after the other, the others concurrently, up to the parallelism
+        assertEquals(1, maxRunningByTarget.get());
+        assertEquals(2, maxRunning.get());
+        final String report = new String(Files.readAllBytes(reportsDir.resolve("fleet-report.xml")), StandardCharsets.UTF_8);
+        assertTrue(report, report.contains("name=\"a\""));
+        assertTrue(report, report.contains("status=\"SUCCESS\""));
+        assertTrue(report, report.contains("c failed"));
+        assertTrue(report, report.contains("reports-dir=\"d\""));
+        assertTrue(report, report.contains("status=\"FAIL\""));
+    }
+}
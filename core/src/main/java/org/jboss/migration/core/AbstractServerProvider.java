@@ -19,6 +19,8 @@ import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.logger.ServerMigrationLogger;
 
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
@@ -27,12 +29,52 @@ import java.util.regex.Pattern;
  */
 public abstract class AbstractServerProvider implements ServerProvider {
 
+    private volatile Pattern productNamePattern;
+    private volatile Pattern productVersionPattern;
+
     @Override
     public Server getServer(String migrationName, Path baseDir, MigrationEnvironment migrationEnvironment) throws ServerMigrationFailureException {
-        final ProductInfo productInfo = getProductInfo(baseDir, migrationEnvironment);
+        return getServer(migrationName, baseDir, migrationEnvironment, new HashMap<>());
+    }
+
+    /**
+     * Retrieves a server from its base directory, reusing the product info already retrieved by other providers with the same product info key.
+     * @param migrationName the migration server's name
+     * @param baseDir the server's base directory
+     * @param migrationEnvironment the migration environment
+     * @param productInfos the product infos retrieved from the base directory, by product info key
+     * @return null if the specified base directory is not the base directory of the provider's server
+     * @throws ServerMigrationFailureException if there was a failure retrieving the server
+     */
+    Server getServer(String migrationName, Path baseDir, MigrationEnvironment migrationEnvironment, Map<Object, ProductInfo> productInfos) throws ServerMigrationFailureException {
+        final Object productInfoKey = getProductInfoKey();
+        final ProductInfo productInfo;
+        if (productInfoKey == null) {
+            productInfo = getProductInfo(baseDir, migrationEnvironment);
+        } else if (productInfos.containsKey(productInfoKey)) {
+            productInfo = productInfos.get(productInfoKey);
+        } else {
+            ProductInfo retrievedProductInfo = null;
+            try {
+                retrievedProductInfo = getProductInfo(baseDir, migrationEnvironment);
+            } catch (Throwable e) {
+                // no provider with the same key would recognize the server
+                ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failure retrieving product info %s from %s", productInfoKey, baseDir);
+            }
+            productInfo = retrievedProductInfo;
+            productInfos.put(productInfoKey, productInfo);
+        }
         return isProviderFor(productInfo) ? constructServer(migrationName, productInfo, baseDir, migrationEnvironment) : null;
     }
 
+    /**
+     * Retrieves the key of the provider's product info retrieval. Providers with the same key retrieve the same product info from a base dir, e.g. these read the same product module's manifest, and thus the product info is retrieved once, and shared by such providers. A provider overriding {@link #getProductInfo(Path, MigrationEnvironment)} should override this method too.
+     * @return the key of the provider's product info retrieval, null if the product info should not be shared
+     */
+    protected Object getProductInfoKey() {
+        return null;
+    }
+
     /**
      * Retrieves the {@link ProductInfo} from the specified base dir.
      * @param baseDir the server's base dir
@@ -47,18 +89,36 @@ public abstract class AbstractServerProvider implements ServerProvider {
             return false;
         }
         final String productName = productInfo.getName();
-        if (productName == null || !Pattern.matches(getProductNameRegex(), productName)) {
+        if (productName == null || !getProductNamePattern().matcher(productName).matches()) {
             ServerMigrationLogger.ROOT_LOGGER.debugf("Product name %s doesn't match!", productName);
             return false;
         }
         final String productVersion = productInfo.getVersion();
-        if (productVersion == null || !Pattern.matches(getProductVersionRegex(), productVersion)) {
+        if (productVersion == null || !getProductVersionPattern().matcher(productVersion).matches()) {
             ServerMigrationLogger.ROOT_LOGGER.debugf("Product version %s doesn't match!", productVersion);
             return false;
         }
         return true;
     }
 
+    private Pattern getProductNamePattern() {
+        Pattern result = productNamePattern;
+        if (result == null) {
+            result = Pattern.compile(getProductNameRegex());
+            productNamePattern = result;
+        }
+        return result;
+    }
+
+    private Pattern getProductVersionPattern() {
+        Pattern result = productVersionPattern;
+        if (result == null) {
+            result = Pattern.compile(getProductVersionRegex());
+            productVersionPattern = result;
+        }
+        return result;
+    }
+
     /**
      * Retrieves the pattern to match product's name.
      * @return the pattern to match product's name
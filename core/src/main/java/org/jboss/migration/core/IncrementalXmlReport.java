@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core;
+
+import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.logger.ServerMigrationLogger;
+import org.jboss.migration.core.report.XmlReportWriter;
+import org.jboss.migration.core.task.TaskExecution;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the XML report of a running migration, so that if the migration process crashes the report of the tasks executed is still available.
+ * @author emmartins
+ */
+class IncrementalXmlReport implements AutoCloseable {
+
+    private final Path path;
+    private final Server source;
+    private final Server target;
+    private final TaskExecution rootTask;
+    private final MigrationEnvironment migrationEnvironment;
+    private final ScheduledExecutorService executorService;
+
+    IncrementalXmlReport(Path path, Server source, Server target, TaskExecution rootTask, MigrationEnvironment migrationEnvironment, long interval) {
+        this.path = path;
+        this.source = source;
+        this.target = target;
+        this.rootTask = rootTask;
+        this.migrationEnvironment = migrationEnvironment;
+        this.executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "server-migration-xml-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.scheduleWithFixedDelay(this::write, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void write() {
+        try {
+            // the task tree is safe to read while the migration runs, the data only snapshots the tasks already registered
+            XmlReportWriter.INSTANCE.writeContentAtomically(path, new MigrationData(source, target, rootTask, migrationEnvironment));
+        } catch (Throwable t) {
+            ServerMigrationLogger.ROOT_LOGGER.debugf(t, "Failed to write the incremental XML report %s", path);
+        }
+    }
+
+    /**
+     * Stops the periodic writing, and waits for any write in progress to complete.
+     */
+    @Override
+    public void close() {
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.jboss.migration.core;
 import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskExecution;
+import org.jboss.migration.core.task.TaskExecutionImpl;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -25,6 +26,8 @@ import java.util.List;
 
 /**
  * The data collected from the server migration.
+ *
+ * The data does not copy the task execution tree, which should be walked from the root task, and the task counts are retrieved from the counters the tree keeps up to date.
  * @author emmartins
  */
 public class MigrationData {
@@ -32,15 +35,22 @@ public class MigrationData {
     private final Server source;
     private final Server target;
     private final TaskExecution rootTask;
-    private final List<TaskExecution> tasks;
+    // lazily created, only if all tasks are retrieved
+    private volatile List<TaskExecution> tasks;
     private final MigrationEnvironment migrationEnvironment;
 
-    MigrationData(Server source, Server target, TaskExecution rootTask, MigrationEnvironment migrationEnvironment) {
+    /**
+     *
+     * @param source the migration source server
+     * @param target the migration target server
+     * @param rootTask the migration root task execution
+     * @param migrationEnvironment the migration environment
+     */
+    public MigrationData(Server source, Server target, TaskExecution rootTask, MigrationEnvironment migrationEnvironment) {
         this.source = source;
         this.target = target;
         this.rootTask = rootTask;
         this.migrationEnvironment = migrationEnvironment;
-        this.tasks = initTasks();
     }
 
     /**
@@ -88,18 +98,38 @@ public class MigrationData {
      * @return all tasks
      */
     public List<TaskExecution> getTasks() {
+        List<TaskExecution> tasks = this.tasks;
+        if (tasks == null) {
+            tasks = initTasks();
+            this.tasks = tasks;
+        }
         return tasks;
     }
 
+    /**
+     * Retrieves the number of tasks.
+     * @return the number of tasks
+     */
+    public int getTaskCount() {
+        if (rootTask instanceof TaskExecutionImpl) {
+            return ((TaskExecutionImpl) rootTask).getTreeCounters().getTaskCount();
+        }
+        return getTasks().size();
+    }
+
     /**
      * Retrieves the number of tasks with the specified status result.
      * @param status the status result
      * @return the number of tasks with the specified status result
      */
     public int getTaskCount(ServerMigrationTaskResult.Status status) {
+        if (rootTask instanceof TaskExecutionImpl) {
+            return ((TaskExecutionImpl) rootTask).getTreeCounters().getTaskCount(status);
+        }
         int count = 0;
-        for (TaskExecution task : tasks) {
-            if (task.getResult().getStatus() == status) {
+        for (TaskExecution task : getTasks()) {
+            final ServerMigrationTaskResult result = task.getResult();
+            if (result != null && result.getStatus() == status) {
                 count++;
             }
         }
@@ -15,9 +15,14 @@
  */
 package org.jboss.migration.core;
 
+import org.jboss.migration.core.jfr.FileCopyEvent;
+import org.jboss.migration.core.jfr.FlightRecorderEvents;
 import org.jboss.migration.core.logger.ServerMigrationLogger;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
+import org.jboss.migration.core.task.TaskFingerprint;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.CopyOption;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitOption;
@@ -25,10 +30,13 @@ import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
@@ -36,14 +44,29 @@ import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 /**
  * The migration files.
+ *
+ * Files may be copied concurrently, the copies are only serialized if the target paths share a lock stripe. If the migration files have a {@link MigrationFilesJournal}, each file copy is recorded in it, so that an interrupted migration may be resumed, without copying again the files already copied, or rolled back.
  * @author emmartins
  */
 public class MigrationFiles {
 
-    private final Map<Path, Path> copiedFiles;
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentMap<Path, Path> copiedFiles;
+    private final Object[] locks;
+    private final MigrationFilesJournal journal;
 
     MigrationFiles() {
-        this.copiedFiles = new HashMap<>();
+        this(null);
+    }
+
+    MigrationFiles(MigrationFilesJournal journal) {
+        this.copiedFiles = new ConcurrentHashMap<>();
+        this.locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.journal = journal;
     }
 
     /**
@@ -53,7 +76,48 @@ public class MigrationFiles {
      * @throws IllegalArgumentException if the source does not exists or any of the paths is not absolute
      * @throws ServerMigrationFailureException if the path copy failed
      */
-    public synchronized void copy(final Path source, final Path target) throws IllegalArgumentException, ServerMigrationFailureException {
+    public void copy(final Path source, final Path target) throws IllegalArgumentException, ServerMigrationFailureException {
+        checkPaths(source, target);
+        TaskFingerprint.recordFileCopy(source, target);
+        try {
+            createDirectories(target.getParent());
+            if (Files.isDirectory(source)) {
+                copyDir(source, target);
+            } else {
+                copyFile(source, target, false);
+            }
+        } catch (IOException e) {
+            throw new ServerMigrationFailureException("Failed to copy "+source+" to "+target, e);
+        }
+    }
+
+    /**
+     * Links a file, i.e. the target path becomes a hard link to the source file. If hard links are not supported, or the paths are not in the same file store, the file is copied instead.
+     * Hard links should only be used for files which are never modified, such as the contents of a content repository.
+     * @param source the source file
+     * @param target the target path
+     * @throws IllegalArgumentException if the source does not exists, is a directory, or any of the paths is not absolute
+     * @throws ServerMigrationFailureException if the file link, or copy, failed
+     */
+    public void link(final Path source, final Path target) throws IllegalArgumentException, ServerMigrationFailureException {
+        checkPaths(source, target);
+        if (Files.isDirectory(source)) {
+            throw new IllegalArgumentException("Source path "+source+" is a directory.");
+        }
+        TaskFingerprint.recordFileCopy(source, target);
+        try {
+            if (Files.exists(target) && Files.isSameFile(source, target)) {
+                // already linked
+                return;
+            }
+            createDirectories(target.getParent());
+            copyFile(source, target, true);
+        } catch (IOException e) {
+            throw new ServerMigrationFailureException("Failed to link "+source+" to "+target, e);
+        }
+    }
+
+    private static void checkPaths(final Path source, final Path target) throws IllegalArgumentException {
         if (!Files.exists(source)) {
             throw new IllegalArgumentException("Source path "+source+" does not exists.");
         }
@@ -63,58 +127,151 @@ public class MigrationFiles {
         if (!target.isAbsolute()) {
             throw new IllegalArgumentException("Target path "+target+" is not an absolute path.");
         }
+    }
+
+    /**
+     *
+     * @return the journal of the migration files, null if there is none
+     */
+    public MigrationFilesJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Creates a dir, and its non existent parent dirs, recording each dir created in the journal, if any, before its creation.
+     */
+    private void createDirectories(Path dir) throws IOException {
+        if (journal == null) {
+            Files.createDirectories(dir);
+            return;
+        }
+        if (Files.isDirectory(dir)) {
+            return;
+        }
+        final Path parent = dir.getParent();
+        if (parent != null) {
+            createDirectories(parent);
+        }
+        journal.dirCreated(dir);
         try {
-            Files.createDirectories(target.getParent());
-            if (Files.isDirectory(source)) {
-                copyDir(source, target, copiedFiles);
-            } else {
-                copyFile(source, target, copiedFiles);
+            Files.createDirectory(dir);
+        } catch (FileAlreadyExistsException e) {
+            // concurrently created
+            if (!Files.isDirectory(dir)) {
+                throw e;
             }
-        } catch (IOException e) {
-            throw new ServerMigrationFailureException("Failed to copy "+source+" to "+target, e);
         }
     }
 
-    private static final CopyOption[] COPY_FILE_OPTIONS = { COPY_ATTRIBUTES, REPLACE_EXISTING };
+    private Object getLock(Path target) {
+        return locks[(target.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
     private static final CopyOption[] BACKUP_FILE_OPTIONS = { REPLACE_EXISTING };
 
-    private static void copyFile(Path source, Path target, Map<Path, Path> copiedFiles) throws IOException {
-        if (copiedFiles.put(target, source) == null) {
-            if (Files.exists(target)) {
-                // backup
-                ServerMigrationLogger.ROOT_LOGGER.tracef("Backing up target %s before copy", target);
-                final Path backup = target.resolveSibling(target.getFileName().toString()+".beforeMigration");
-                Files.move(target, backup, BACKUP_FILE_OPTIONS);
+    private void copyFile(Path source, Path target, boolean link) throws IOException {
+        synchronized (getLock(target)) {
+            if (journal != null && journal.isCopied(source, target)) {
+                // copied by the interrupted migration
+                ServerMigrationLogger.ROOT_LOGGER.tracef("File %s already copied to %s.", source, target);
+                copiedFiles.putIfAbsent(target, source);
+                return;
+            }
+            Path backup = null;
+            if (copiedFiles.put(target, source) == null) {
+                if (journal != null && journal.isCopyStarted(target)) {
+                    // target backed up by the interrupted migration
+                    backup = journal.getBackup(target);
+                } else if (Files.exists(target)) {
+                    // backup
+                    ServerMigrationLogger.ROOT_LOGGER.tracef("Backing up target %s before copy", target);
+                    backup = target.resolveSibling(target.getFileName().toString()+".beforeMigration");
+                    Files.move(target, backup, BACKUP_FILE_OPTIONS);
+                }
+            }
+            if (journal != null) {
+                journal.copyStarted(source, target, backup);
+            }
+            transferOrLinkFile(source, target, link);
+            if (journal != null) {
+                journal.copyCompleted(source, target);
+            }
+        }
+    }
+
+    private static void transferOrLinkFile(Path source, Path target, boolean link) throws IOException {
+        if (link) {
+            try {
+                Files.deleteIfExists(target);
+                Files.createLink(target, source);
+                ServerMigrationLogger.ROOT_LOGGER.tracef("File %s linked to %s.", source, target);
+                return;
+            } catch (UnsupportedOperationException | IOException e) {
+                ServerMigrationLogger.ROOT_LOGGER.tracef("Failed to link file %s to %s, copying it instead.", source, target);
             }
         }
         ServerMigrationLogger.ROOT_LOGGER.tracef("Copying file %s to %s", source, target);
-        Files.copy(source, target, COPY_FILE_OPTIONS);
+        transferFile(source, target);
         ServerMigrationLogger.ROOT_LOGGER.tracef("File %s copied to %s.", source, target);
     }
 
-    private static void copyDir(Path source, Path target, Map<Path, Path> copiedFiles) throws IOException {
-        Files.walkFileTree(source, CopyVisitor.FILE_VISITOR_OPTIONS, Integer.MAX_VALUE, new CopyVisitor(source, target, copiedFiles));
+    /**
+     * Copies a file's data through {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which the OS may do without copying the data to user space, and then copies the file's attributes.
+     * An existing target is replaced, and not overwritten, since it may be a link to another file, e.g. a source file linked previously.
+     */
+    private static void transferFile(Path source, Path target) throws IOException {
+        final FileCopyEvent event = FlightRecorderEvents.beginFileCopy();
+        long size = 0;
+        Files.deleteIfExists(target);
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+            size = sourceChannel.size();
+            long position = 0;
+            while (position < size) {
+                position += sourceChannel.transferTo(position, size - position, targetChannel);
+            }
+            TaskExecutionMetrics.recordCopiedBytes(size);
+        } finally {
+            if (event != null) {
+                event.complete(source, target, size);
+            }
+        }
+        final BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+        Files.getFileAttributeView(target, BasicFileAttributeView.class).setTimes(sourceAttributes.lastModifiedTime(), sourceAttributes.lastAccessTime(), sourceAttributes.creationTime());
+        final PosixFileAttributeView sourcePosixView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        if (sourcePosixView != null) {
+            try {
+                Files.setPosixFilePermissions(target, sourcePosixView.readAttributes().permissions());
+            } catch (UnsupportedOperationException e) {
+                // target file store is not posix
+            }
+        }
     }
 
-    private static class CopyVisitor extends SimpleFileVisitor<Path> {
+    private static final EnumSet<FileVisitOption> FILE_VISITOR_OPTIONS = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+    private static final CopyOption[] COPY_DIR_OPTIONS = new CopyOption[] { COPY_ATTRIBUTES };
 
-        static final EnumSet<FileVisitOption> FILE_VISITOR_OPTIONS = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
-        static final CopyOption[] COPY_DIR_OPTIONS = new CopyOption[] { COPY_ATTRIBUTES };
+    private void copyDir(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, FILE_VISITOR_OPTIONS, Integer.MAX_VALUE, new CopyVisitor(source, target));
+    }
+
+    private class CopyVisitor extends SimpleFileVisitor<Path> {
 
-        private final Map<Path, Path> copiedFiles;
         private final Path source;
         private final Path target;
 
-        CopyVisitor(Path source, Path target, Map<Path, Path> copiedFiles) {
+        CopyVisitor(Path source, Path target) {
             this.source = source;
             this.target = target;
-            this.copiedFiles = copiedFiles;
         }
 
         @Override
         public FileVisitResult preVisitDirectory(Path sourceDir, BasicFileAttributes attrs) throws IOException {
             Path targetDir = getTargetPath(sourceDir);
             try {
+                if (journal != null && !Files.exists(targetDir)) {
+                    journal.dirCreated(targetDir);
+                }
                 Files.copy(sourceDir, targetDir, COPY_DIR_OPTIONS);
             } catch (FileAlreadyExistsException e) {
                 if (!Files.isDirectory(targetDir)) {
@@ -127,7 +284,7 @@ public class MigrationFiles {
         @Override
         public FileVisitResult visitFile(Path sourceFile, BasicFileAttributes attrs) throws IOException {
             final Path targetFile = getTargetPath(sourceFile);
-            copyFile(sourceFile, targetFile, copiedFiles);
+            copyFile(sourceFile, targetFile, false);
             return CONTINUE;
         }
 
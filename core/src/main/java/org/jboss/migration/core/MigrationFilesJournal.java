@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core;
+
+import org.jboss.migration.core.logger.ServerMigrationLogger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An on disk journal of the files copied by a migration.
+ *
+ * Each file copy appends a record before the copy starts, with the target's backup, and another when the copy completes, and each target dir created appends a record before its creation. Records are flushed as these are appended, thus if a migration is interrupted its journal allows the next migration to either resume, without copying again the files already copied, or to roll back the files copied and the dirs created.
+ * @author emmartins
+ */
+public class MigrationFilesJournal {
+
+    /**
+     * the journal file path, if not absolute it is relative to the target server's base dir; if not set there is no journal
+     */
+    public static final String ENVIRONMENT_PROPERTY_FILE = "files.journal";
+    /**
+     * if true an interrupted migration's copied files are rolled back, instead of resumed
+     */
+    public static final String ENVIRONMENT_PROPERTY_ROLLBACK = "files.journal.rollback";
+
+    private static final String COPY_STARTED = "S";
+    private static final String COPY_COMPLETED = "C";
+    private static final String DIR_CREATED = "D";
+    private static final String SEPARATOR = "\t";
+
+    private final Path file;
+    private final List<CopyStarted> copiesStarted;
+    private final Map<Path, CopyStarted> copiesStartedByTarget;
+    private final Map<Path, CopyCompleted> copiesCompleted;
+    private final List<Path> dirsCreated;
+    private BufferedWriter writer;
+
+    private MigrationFilesJournal(Path file) {
+        this.file = file;
+        this.copiesStarted = new ArrayList<>();
+        this.copiesStartedByTarget = new HashMap<>();
+        this.copiesCompleted = new HashMap<>();
+        this.dirsCreated = new ArrayList<>();
+    }
+
+    /**
+     * Opens a journal, reading the records of an interrupted migration, if the journal file exists.
+     * @param file the journal file
+     * @return the journal opened
+     * @throws IOException if the journal file read or open failed
+     */
+    public static MigrationFilesJournal open(Path file) throws IOException {
+        final MigrationFilesJournal journal = new MigrationFilesJournal(file);
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    journal.readRecord(line);
+                }
+            }
+        } else if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        journal.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return journal;
+    }
+
+    private void readRecord(String line) {
+        final String[] fields = line.split(SEPARATOR, -1);
+        try {
+            if (fields.length == 4 && COPY_STARTED.equals(fields[0])) {
+                addCopyStarted(new CopyStarted(Paths.get(fields[1]), Paths.get(fields[2]), fields[3].isEmpty() ? null : Paths.get(fields[3])));
+                return;
+            } else if (fields.length == 5 && COPY_COMPLETED.equals(fields[0])) {
+                final CopyCompleted copyCompleted = new CopyCompleted(Paths.get(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+                copiesCompleted.put(Paths.get(fields[1]), copyCompleted);
+                return;
+            } else if (fields.length == 2 && DIR_CREATED.equals(fields[0])) {
+                dirsCreated.add(Paths.get(fields[1]));
+                return;
+            }
+        } catch (RuntimeException e) {
+            // invalid record
+        }
+        // a record partially written when the migration was interrupted
+        ServerMigrationLogger.ROOT_LOGGER.debugf("Ignoring invalid migration files journal record: %s", line);
+    }
+
+    private void addCopyStarted(CopyStarted copyStarted) {
+        copiesStarted.add(copyStarted);
+        copiesStartedByTarget.putIfAbsent(copyStarted.target, copyStarted);
+    }
+
+    /**
+     *
+     * @return the journal file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     *
+     * @return true if the journal has file copies, false otherwise
+     */
+    public synchronized boolean hasCopies() {
+        return !copiesStarted.isEmpty() || !dirsCreated.isEmpty();
+    }
+
+    /**
+     * Indicates if the specified file copy was completed, and neither the source or target file changed after it. Since the copy sets the target's last modified time to the source's, a target changed after the copy is detected by its last modified time.
+     * @param source the source file
+     * @param target the target file
+     * @return true if the file copy was completed, false otherwise
+     */
+    public synchronized boolean isCopied(Path source, Path target) {
+        final CopyCompleted copyCompleted = copiesCompleted.get(target);
+        if (copyCompleted == null || !copyCompleted.source.equals(source)) {
+            return false;
+        }
+        try {
+            return Files.isRegularFile(target)
+                    && Files.size(source) == copyCompleted.size
+                    && Files.getLastModifiedTime(source).toMillis() == copyCompleted.lastModifiedTime
+                    && Files.size(target) == copyCompleted.size
+                    && Files.getLastModifiedTime(target).toMillis() == copyCompleted.lastModifiedTime;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     *
+     * @param target the target file
+     * @return true if a copy to the specified target was started, false otherwise
+     */
+    public synchronized boolean isCopyStarted(Path target) {
+        return copiesStartedByTarget.containsKey(target);
+    }
+
+    /**
+     *
+     * @param target the target file
+     * @return the backup of the target file, done before the first copy to it was started, null if there was no backup
+     */
+    public synchronized Path getBackup(Path target) {
+        final CopyStarted copyStarted = copiesStartedByTarget.get(target);
+        return copyStarted != null ? copyStarted.backup : null;
+    }
+
+    /**
+     * Records the start of a file copy.
+     * @param source the source file
+     * @param target the target file
+     * @param backup the target file's backup, null if there is none
+     * @throws IOException if the record write failed
+     */
+    public synchronized void copyStarted(Path source, Path target, Path backup) throws IOException {
+        addCopyStarted(new CopyStarted(target, source, backup));
+        copiesCompleted.remove(target);
+        writeRecord(COPY_STARTED, target.toString(), source.toString(), backup != null ? backup.toString() : "");
+    }
+
+    /**
+     * Records the completion of a file copy.
+     * @param source the source file
+     * @param target the target file
+     * @throws IOException if the record write failed
+     */
+    public synchronized void copyCompleted(Path source, Path target) throws IOException {
+        final CopyCompleted copyCompleted = new CopyCompleted(source, Files.size(source), Files.getLastModifiedTime(source).toMillis());
+        copiesCompleted.put(target, copyCompleted);
+        writeRecord(COPY_COMPLETED, target.toString(), source.toString(), String.valueOf(copyCompleted.size), String.valueOf(copyCompleted.lastModifiedTime));
+    }
+
+    /**
+     * Records the creation of a target dir, which should be done before the dir is created.
+     * @param dir the dir to be created
+     * @throws IOException if the record write failed
+     */
+    public synchronized void dirCreated(Path dir) throws IOException {
+        dirsCreated.add(dir);
+        writeRecord(DIR_CREATED, dir.toString());
+    }
+
+    private void writeRecord(String... fields) throws IOException {
+        if (writer == null) {
+            throw new IllegalStateException("journal closed");
+        }
+        writer.write(String.join(SEPARATOR, fields));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Rolls back the journal's file copies, i.e. deletes the copied files and restores their backups, then deletes the dirs created, if empty, and then clears the journal.
+     * @throws IOException if the roll back failed
+     */
+    public synchronized void rollback() throws IOException {
+        for (int i = copiesStarted.size() - 1; i >= 0; i--) {
+            final CopyStarted copyStarted = copiesStarted.get(i);
+            if (copiesStartedByTarget.get(copyStarted.target) != copyStarted) {
+                // not the target's first copy
+                continue;
+            }
+            ServerMigrationLogger.ROOT_LOGGER.tracef("Rolling back copy of file %s", copyStarted.target);
+            Files.deleteIfExists(copyStarted.target);
+            if (copyStarted.backup != null && Files.exists(copyStarted.backup)) {
+                Files.move(copyStarted.backup, copyStarted.target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        for (int i = dirsCreated.size() - 1; i >= 0; i--) {
+            final Path dir = dirsCreated.get(i);
+            ServerMigrationLogger.ROOT_LOGGER.tracef("Rolling back creation of dir %s", dir);
+            try {
+                Files.deleteIfExists(dir);
+            } catch (DirectoryNotEmptyException e) {
+                // has files not copied by the migration
+                ServerMigrationLogger.ROOT_LOGGER.debugf("Dir %s not deleted by roll back, not empty.", dir);
+            }
+        }
+        copiesStarted.clear();
+        copiesStartedByTarget.clear();
+        copiesCompleted.clear();
+        dirsCreated.clear();
+        writer.close();
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Closes the journal.
+     * @param delete if true the journal file is deleted, which should be done only if the migration completed
+     * @throws IOException if the journal close failed
+     */
+    public synchronized void close(boolean delete) throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (delete) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static class CopyStarted {
+
+        private final Path target;
+        private final Path source;
+        private final Path backup;
+
+        CopyStarted(Path target, Path source, Path backup) {
+            this.target = target;
+            this.source = source;
+            this.backup = backup;
+        }
+    }
+
+    private static class CopyCompleted {
+
+        private final Path source;
+        private final long size;
+        private final long lastModifiedTime;
+
+        CopyCompleted(Path source, long size, long lastModifiedTime) {
+            this.source = source;
+            this.size = size;
+            this.lastModifiedTime = lastModifiedTime;
+        }
+    }
+}
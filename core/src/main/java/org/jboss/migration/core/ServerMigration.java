@@ -20,6 +20,7 @@ import org.jboss.migration.core.console.JavaConsole;
 import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.env.SystemEnvironment;
 import org.jboss.migration.core.logger.ServerMigrationLogger;
+import org.jboss.migration.core.report.EnvironmentProperties;
 import org.jboss.migration.core.report.SummaryReportWriter;
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
@@ -27,6 +28,7 @@ import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.task.TaskExecutionImpl;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
 /**
@@ -48,6 +50,7 @@ public class ServerMigration {
     private ConsoleWrapper console;
     private boolean interactive = true;
     private MigrationEnvironment userEnvironment;
+    private Path xmlReport;
 
     /**
      * Sets the migration source's base dir.
@@ -100,6 +103,16 @@ public class ServerMigration {
         return this;
     }
 
+    /**
+     * Sets the path of the XML report, which is written while the migration runs if the environment property {@link EnvironmentProperties#PROPERTY_INCREMENTAL_WRITE_INTERVAL} is greater than zero.
+     * @param path the XML report's path
+     * @return the server migration after applying the configuration change
+     */
+    public ServerMigration xmlReport(Path path) {
+        this.xmlReport = path;
+        return this;
+    }
+
     /**
      * Executes the configured server migration, i.e. retrieves the source and target {@link Server}s, from base dirs, creates the migration context, and then delegates the migration to the target {@link Server}.
      * @throws IllegalArgumentException if a server was not retrieved from configured base dir.
@@ -138,7 +151,10 @@ public class ServerMigration {
         console.printf("----------------------------------------------------------%n");
         console.printf("%n");
 
-        final ServerMigrationContext serverMigrationContext = new ServerMigrationContextImpl(console, interactive, migrationEnvironment);
+        // validated before the journal is opened
+        final long xmlReportInterval = getIncrementalWriteInterval(migrationEnvironment);
+        final MigrationFilesJournal migrationFilesJournal = openMigrationFilesJournal(migrationEnvironment, console);
+        final ServerMigrationContext serverMigrationContext = new ServerMigrationContextImpl(console, interactive, migrationEnvironment, new MigrationFiles(migrationFilesJournal));
         final ServerMigrationTaskName serverMigrationTaskName = new ServerMigrationTaskName.Builder("server")
                 .build();
         final ServerMigrationTask serverMigrationTask = new ServerMigrationTask() {
@@ -156,10 +172,26 @@ public class ServerMigration {
             }
         };
         final TaskExecutionImpl taskExecutionImpl = new TaskExecutionImpl(serverMigrationTask, serverMigrationContext);
+        final IncrementalXmlReport incrementalXmlReport = xmlReport != null && xmlReportInterval > 0 ? new IncrementalXmlReport(xmlReport, sourceServer, targetServer, taskExecutionImpl, migrationEnvironment, xmlReportInterval) : null;
+        boolean migrationCompleted = false;
         try {
             taskExecutionImpl.run();
+            migrationCompleted = taskExecutionImpl.getResult().getStatus() != ServerMigrationTaskResult.Status.FAIL;
         } catch (Throwable t) {
             ServerMigrationLogger.ROOT_LOGGER.error("Migration failed", t);
+        } finally {
+            if (incrementalXmlReport != null) {
+                // the complete report is written by the caller
+                incrementalXmlReport.close();
+            }
+            if (migrationFilesJournal != null) {
+                try {
+                    // the journal is only needed to resume or roll back a migration which did not complete
+                    migrationFilesJournal.close(migrationCompleted);
+                } catch (IOException e) {
+                    ServerMigrationLogger.ROOT_LOGGER.debug("Failed to close the migration files journal", e);
+                }
+            }
         }
 
         // build migration data
@@ -169,6 +201,50 @@ public class ServerMigration {
         return migrationData;
     }
 
+    /**
+     * Retrieves the interval of the XML report's incremental writes, set by the migration environment.
+     * @param migrationEnvironment the migration environment
+     * @return the interval in milliseconds, zero or less if the XML report is not written while the migration runs
+     * @throws ServerMigrationFailureException if the interval environment property value is not valid
+     */
+    protected static long getIncrementalWriteInterval(MigrationEnvironment migrationEnvironment) throws ServerMigrationFailureException {
+        final String interval = migrationEnvironment.getPropertyAsString(EnvironmentProperties.PROPERTY_INCREMENTAL_WRITE_INTERVAL, "0");
+        try {
+            return Long.parseLong(interval.trim());
+        } catch (NumberFormatException e) {
+            throw new ServerMigrationFailureException("Invalid value for environment property "+EnvironmentProperties.PROPERTY_INCREMENTAL_WRITE_INTERVAL+": "+interval);
+        }
+    }
+
+    /**
+     * Opens the migration files journal, if configured, and if the journal has the file copies of an interrupted migration, these are either rolled back, or kept to resume the migration.
+     * @param migrationEnvironment the migration environment
+     * @param console the console
+     * @return the migration files journal, null if not configured
+     * @throws ServerMigrationFailureException if the journal failed to open or roll back
+     */
+    protected MigrationFilesJournal openMigrationFilesJournal(MigrationEnvironment migrationEnvironment, ConsoleWrapper console) throws ServerMigrationFailureException {
+        final String journalFileName = migrationEnvironment.getPropertyAsString(MigrationFilesJournal.ENVIRONMENT_PROPERTY_FILE);
+        if (journalFileName == null || journalFileName.trim().isEmpty()) {
+            return null;
+        }
+        final Path journalFile = to.resolve(journalFileName.trim());
+        try {
+            final MigrationFilesJournal journal = MigrationFilesJournal.open(journalFile);
+            if (journal.hasCopies()) {
+                if (migrationEnvironment.getPropertyAsBoolean(MigrationFilesJournal.ENVIRONMENT_PROPERTY_ROLLBACK, Boolean.FALSE)) {
+                    console.printf("Rolling back the files copied by the interrupted migration...%n");
+                    journal.rollback();
+                } else {
+                    console.printf("Resuming the interrupted migration, files already copied will not be copied again.%n");
+                }
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new ServerMigrationFailureException("Failed to open the migration files journal "+journalFile, e);
+        }
+    }
+
     /**
      * Retrieves a {@link Server} from its base dir.
      * @param name the assigned server name
@@ -30,10 +30,14 @@ class ServerMigrationContextImpl implements ServerMigrationContext {
     private final MigrationEnvironment migrationEnvironment;
 
     ServerMigrationContextImpl(ConsoleWrapper consoleWrapper, boolean interactive, MigrationEnvironment migrationEnvironment) {
+        this(consoleWrapper, interactive, migrationEnvironment, new MigrationFiles());
+    }
+
+    ServerMigrationContextImpl(ConsoleWrapper consoleWrapper, boolean interactive, MigrationEnvironment migrationEnvironment, MigrationFiles migrationFiles) {
         this.consoleWrapper = consoleWrapper;
         this.interactive = interactive;
         this.migrationEnvironment = migrationEnvironment;
-        this.migrationFiles = new MigrationFiles();
+        this.migrationFiles = migrationFiles;
     }
 
     @Override
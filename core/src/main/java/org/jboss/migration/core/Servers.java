@@ -20,18 +20,30 @@ import org.jboss.migration.core.logger.ServerMigrationLogger;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 
 /**
  * The {@link Server}s for migration.
  *
- * Each supported {@link Server} is provided by a {@link ServerProvider}, which is loaded through the {@link ServiceLoader} framework.
+ * Each supported {@link Server} is provided by a {@link ServerProvider}, which is loaded through the {@link ServiceLoader} framework. The providers are loaded once, and may be used concurrently, e.g. by several migrations running in the same JVM. When retrieving a server, the product info of its base directory is retrieved once for each {@link AbstractServerProvider#getProductInfoKey()}, and matched by every provider with such key.
  * @author emmartins
  */
 public final class Servers {
 
-    private static final ServiceLoader<ServerProvider> SERVER_PROVIDERS_LOADER = ServiceLoader.load(ServerProvider.class);
+    // a ServiceLoader's iteration is not thread safe, thus the providers are loaded once, into an immutable list
+    private static final List<ServerProvider> SERVER_PROVIDERS = loadServerProviders();
+
+    private static List<ServerProvider> loadServerProviders() {
+        final List<ServerProvider> serverProviders = new ArrayList<>();
+        for (ServerProvider serverProvider : ServiceLoader.load(ServerProvider.class)) {
+            serverProviders.add(serverProvider);
+        }
+        return Collections.unmodifiableList(serverProviders);
+    }
 
     private Servers() {
     }
@@ -45,9 +57,11 @@ public final class Servers {
      */
     public static Server getServer(String migrationName, Path baseDir, MigrationEnvironment migrationEnvironment) {
         ServerMigrationLogger.ROOT_LOGGER.debugf("Retrieving server from base dir %s", baseDir);
-        for (ServerProvider serverProvider : SERVER_PROVIDERS_LOADER) {
+        // the product infos retrieved, shared by providers with the same product info key
+        final Map<Object, ProductInfo> productInfos = new HashMap<>();
+        for (ServerProvider serverProvider : SERVER_PROVIDERS) {
             try {
-                Server server = serverProvider.getServer(migrationName, baseDir, migrationEnvironment);
+                Server server = serverProvider instanceof AbstractServerProvider ? ((AbstractServerProvider) serverProvider).getServer(migrationName, baseDir, migrationEnvironment, productInfos) : serverProvider.getServer(migrationName, baseDir, migrationEnvironment);
                 if (server != null) {
                     ServerMigrationLogger.ROOT_LOGGER.debugf("%s recognized as %s base dir. Server product info: %s", baseDir, serverProvider.getName(), server.getProductInfo());
                     return server;
@@ -69,7 +83,7 @@ public final class Servers {
      */
     public static List<String> getServerProviderNames() {
         final List<String> serverNames = new ArrayList<>();
-        for (ServerProvider serverProvider : SERVER_PROVIDERS_LOADER) {
+        for (ServerProvider serverProvider : SERVER_PROVIDERS) {
             serverNames.add(serverProvider.getName());
         }
         return serverNames;
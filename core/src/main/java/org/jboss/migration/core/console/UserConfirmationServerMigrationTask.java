@@ -21,6 +21,7 @@ import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskResources;
 
 /**
  * @author emmartins
@@ -40,6 +41,11 @@ public class UserConfirmationServerMigrationTask implements ServerMigrationTask
         return task.getName();
     }
 
+    @Override
+    public TaskResources getResources() {
+        return task.getResources();
+    }
+
     protected ServerMigrationTaskResult confirmTaskRun(final TaskContext context) {
         final BasicResultHandlers.UserConfirmation resultHandler = new BasicResultHandlers.UserConfirmation();
         new UserConfirmation(context.getConsoleWrapper(), message, ServerMigrationLogger.ROOT_LOGGER.yesNo(), resultHandler).execute();
@@ -16,10 +16,12 @@
 package org.jboss.migration.core.env;
 
 import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.task.TaskFingerprint;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -38,6 +40,17 @@ public class MigrationEnvironment implements Environment {
         this.properties = new TreeMap<>();
     }
 
+    /**
+     * Creates a copy of a migration environment, with its own property values, thus properties read from the copy are not marked as read in the original, and vice versa.
+     * @param migrationEnvironment the migration environment to copy
+     */
+    public MigrationEnvironment(MigrationEnvironment migrationEnvironment) {
+        this();
+        for (Map.Entry<String, PropertyValue> entry : migrationEnvironment.properties.entrySet()) {
+            properties.put(entry.getKey(), new PropertyValue(entry.getValue().stringValue));
+        }
+    }
+
     public Boolean getPropertyAsBoolean(String propertyName) {
         final String propertyValue  = getPropertyAsString(propertyName);
         if (propertyValue == null || propertyValue.isEmpty()) {
@@ -54,10 +67,9 @@ public class MigrationEnvironment implements Environment {
     public String getPropertyAsString(String propertyName) {
         //readed.add(propertyName);
         final PropertyValue propertyValue = properties.get(propertyName);
-        if (propertyValue == null) {
-            return null;
-        }
-        return propertyValue.getStringValue();
+        final String stringValue = propertyValue != null ? propertyValue.getStringValue() : null;
+        TaskFingerprint.recordEnvironmentProperty(propertyName, stringValue);
+        return stringValue;
     }
 
     public String getPropertyAsString(String propertyName, String defaultValue) {
@@ -69,8 +81,10 @@ public class MigrationEnvironment implements Environment {
         //readed.add(propertyName);
         final PropertyValue propertyValue = properties.get(propertyName);
         if (propertyValue == null) {
+            TaskFingerprint.recordEnvironmentProperty(propertyName, null);
             return null;
         }
+        TaskFingerprint.recordEnvironmentProperty(propertyName, propertyValue.stringValue);
         return propertyValue.getListValue();
     }
 
@@ -20,6 +20,7 @@ import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskResources;
 
 /**
  * @author emmartins
@@ -42,6 +43,11 @@ public class SkippableByEnvServerMigrationTask implements ServerMigrationTask {
         return task.getName();
     }
 
+    @Override
+    public TaskResources getResources() {
+        return task.getResources();
+    }
+
     @Override
     public ServerMigrationTaskResult run(final TaskContext context) {
         return !context.getMigrationEnvironment().getPropertyAsBoolean(propertyName, Boolean.FALSE) ? task.run(context) : ServerMigrationTaskResult.SKIPPED;
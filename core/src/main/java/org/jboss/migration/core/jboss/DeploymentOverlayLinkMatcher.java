@@ -16,13 +16,79 @@
 
 package org.jboss.migration.core.jboss;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
+ * Matches deployment names against the deployment links of a deployment overlay, which may be exact or wildcard names.
+ *
+ * An instance is compiled from an overlay's deployment links, with the exact names in a set and the wildcard names in a single pattern, and should be used to match several deployment names against the same links.
  * @author emmartins
  */
 public class DeploymentOverlayLinkMatcher {
 
+    // the max number of compiled wildcard names cached for the static matching
+    static final int MAX_PATTERNS = 256;
+
+    // the compiled wildcard names, used by the static matching, guarded by itself, the least recently used evicted when full
+    private static final Map<String, Pattern> PATTERNS = new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+            return size() > MAX_PATTERNS;
+        }
+    };
+
+    private final Set<String> names;
+    private final Pattern wildcardsPattern;
+
+    /**
+     * Compiles a matcher from an overlay's deployment links.
+     * @param overlayDeployments the overlay's deployment links
+     */
+    public DeploymentOverlayLinkMatcher(String... overlayDeployments) {
+        this.names = new HashSet<>();
+        final StringBuilder wildcardsRegexp = new StringBuilder();
+        for (String overlayDeployment : overlayDeployments) {
+            if (isWildcard(overlayDeployment)) {
+                if (wildcardsRegexp.length() > 0) {
+                    wildcardsRegexp.append('|');
+                }
+                wildcardsRegexp.append("(?:").append(wildcardToJavaRegexp(overlayDeployment)).append(')');
+            } else {
+                names.add(overlayDeployment);
+            }
+        }
+        this.wildcardsPattern = wildcardsRegexp.length() > 0 ? Pattern.compile(wildcardsRegexp.toString()) : null;
+    }
+
+    /**
+     * Indicates if a deployment is linked.
+     * @param deploymentName the deployment's name
+     * @return true if the deployment's name matches any of the overlay's deployment links, false otherwise
+     */
+    public boolean matches(String deploymentName) {
+        return names.contains(deploymentName) || (wildcardsPattern != null && wildcardsPattern.matcher(deploymentName).matches());
+    }
+
+    /**
+     *
+     * @return true if any of the overlay's deployment links is a wildcard name, false otherwise
+     */
+    public boolean hasWildcards() {
+        return wildcardsPattern != null;
+    }
+
+    /**
+     *
+     * @return the overlay's deployment links which are exact names
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+
     public static boolean matches(String deploymentName, String[] overlayDeployments) {
         for (String overlayDeployment : overlayDeployments) {
             if (isWildcard(overlayDeployment)) {
@@ -43,7 +109,28 @@ public class DeploymentOverlayLinkMatcher {
     }
 
     private static Pattern getPattern(String name) {
-        return Pattern.compile(wildcardToJavaRegexp(name));
+        synchronized (PATTERNS) {
+            final Pattern pattern = PATTERNS.get(name);
+            if (pattern != null) {
+                return pattern;
+            }
+        }
+        // compiled without holding the lock, concurrent compilations of the same name are harmless
+        final Pattern pattern = Pattern.compile(wildcardToJavaRegexp(name));
+        synchronized (PATTERNS) {
+            PATTERNS.put(name, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     *
+     * @return the number of compiled wildcard names cached for the static matching
+     */
+    static int getCachedPatterns() {
+        synchronized (PATTERNS) {
+            return PATTERNS.size();
+        }
     }
 
     private static String wildcardToJavaRegexp(String expr) {
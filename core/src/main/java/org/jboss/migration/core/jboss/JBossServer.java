@@ -22,9 +22,6 @@ import org.jboss.migration.core.ProductInfo;
 import org.jboss.migration.core.ServerMigrationFailureException;
 import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.logger.ServerMigrationLogger;
-import org.jboss.migration.core.util.xml.SimpleXMLFileMatcher;
-import org.jboss.migration.core.util.xml.XMLFileMatcher;
-import org.jboss.migration.core.util.xml.XMLFiles;
 
 import javax.xml.stream.XMLStreamException;
 import java.io.File;
@@ -33,12 +30,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * An abstract JBoss {@link org.jboss.migration.core.Server} impl, which is usable only as migration source.
@@ -65,6 +65,8 @@ public abstract class JBossServer<S extends JBossServer<S>> extends AbstractServ
 
     private final Extensions extensions;
 
+    private final XmlConfigurationDiscovery xmlConfigurationDiscovery = new XmlConfigurationDiscovery();
+
     public JBossServer(String migrationName, ProductInfo productInfo, Path baseDir, MigrationEnvironment migrationEnvironment, Extensions extensions) {
         super(migrationName, productInfo, baseDir, migrationEnvironment);
         this.environment = new Environment(this);
@@ -97,7 +99,7 @@ public abstract class JBossServer<S extends JBossServer<S>> extends AbstractServ
         this.pathResolver.put("jboss.domain.servers.dir", domainBaseDir.resolve("servers"));
         this.pathResolver.put("jboss.domain.temp.dir", domainBaseDir.resolve("tmp"));
 
-        this.modules = new Modules(baseDir);
+        this.modules = new Modules(baseDir, productInfo, migrationEnvironment);
 
         this.extensions = extensions;
     }
@@ -140,17 +142,7 @@ public abstract class JBossServer<S extends JBossServer<S>> extends AbstractServ
             }
         } else {
             // scan config dir
-            final XMLFileMatcher scanMatcher = new SimpleXMLFileMatcher() {
-                @Override
-                protected boolean documentElementLocalNameMatches(String localName) {
-                    return xmlDocumentElementName.equals(localName);
-                }
-                @Override
-                protected boolean documentNamespaceURIMatches(String namespaceURI) {
-                    return namespaceURI.startsWith("urn:jboss:domain:");
-                }
-            };
-            for (Path path : XMLFiles.scan(getConfigurationDir(configurationType), false, scanMatcher)) {
+            for (Path path : xmlConfigurationDiscovery.getConfigs(getConfigurationDir(configurationType), xmlDocumentElementName)) {
                 configs.add(new JBossServerConfiguration<>(path, configurationType, (S) this));
             }
         }
@@ -338,29 +330,62 @@ public abstract class JBossServer<S extends JBossServer<S>> extends AbstractServ
 
     public static class Modules {
 
+        /**
+         * the dir where modules indexes are stored, if not set the indexes are not stored
+         */
+        public static final String ENVIRONMENT_PROPERTY_INDEX_DIR = "modules.indexDir";
+
         private final Path modulesDir;
-        private final Path systemLayersBaseDir;
-        private final Path overlayDir;
+        private final Path indexDir;
+        // the product of the server, which module specifications are shared with other servers of the same product, null if unknown
+        private final ProductInfo productInfo;
+        // the modules index, retrieved, and thus validated, once per instance
+        private volatile ModulesIndex index;
+        // modules found, their specifications are only parsed once
+        private final ConcurrentMap<ModuleIdentifier, Module> modules = new ConcurrentHashMap<>();
+        // specifications parsed by any server in the JVM, e.g. the targets of several migrations, by product and module.xml path, or by module.xml absolute path if the product is unknown, reused while the module.xml file has the same content
+        private static final ConcurrentMap<String, ParsedModuleSpecification> PARSED_SPECIFICATIONS = new ConcurrentHashMap<>();
 
         public Modules(Path serverBaseDir) {
+            this(serverBaseDir, (Path) null);
+        }
+
+        public Modules(Path serverBaseDir, MigrationEnvironment migrationEnvironment) {
+            this(serverBaseDir, getIndexDir(migrationEnvironment));
+        }
+
+        public Modules(Path serverBaseDir, Path indexDir) {
+            this(serverBaseDir, null, indexDir);
+        }
+
+        /**
+         *
+         * @param serverBaseDir the server's base dir
+         * @param productInfo the server's product, the specifications of its modules are shared with the other servers of the same product and version, e.g. the targets of a fleet migration installed in different dirs
+         * @param migrationEnvironment the migration environment
+         */
+        public Modules(Path serverBaseDir, ProductInfo productInfo, MigrationEnvironment migrationEnvironment) {
+            this(serverBaseDir, productInfo, getIndexDir(migrationEnvironment));
+        }
+
+        private Modules(Path serverBaseDir, ProductInfo productInfo, Path indexDir) {
             this.modulesDir = serverBaseDir.resolve("modules");
-            this.systemLayersBaseDir = modulesDir.resolve("system").resolve("layers").resolve("base");
-            final Path overlaysDir = systemLayersBaseDir.resolve(".overlays");
-            final Path overlaysFile = overlaysDir.resolve(".overlays");
-            if (Files.exists(overlaysFile)) {
-                try {
-                    final String activeOverlayFileName = new String(Files.readAllBytes(overlaysFile)).trim();
-                    if (!activeOverlayFileName.isEmpty()) {
-                        overlayDir = overlaysDir.resolve(activeOverlayFileName);
-                    } else {
-                        overlayDir = null;
-                    }
-                } catch (IOException e) {
-                    throw new ServerMigrationFailureException("failed to read overlays file", e);
-                }
-            } else {
-                overlayDir = null;
+            this.productInfo = productInfo;
+            this.indexDir = indexDir;
+        }
+
+        private static Path getIndexDir(MigrationEnvironment migrationEnvironment) {
+            final String indexDir = migrationEnvironment != null ? migrationEnvironment.getPropertyAsString(ENVIRONMENT_PROPERTY_INDEX_DIR) : null;
+            return indexDir != null && !indexDir.isEmpty() ? Paths.get(indexDir) : null;
+        }
+
+        private ModulesIndex getIndex() {
+            ModulesIndex result = index;
+            if (result == null) {
+                result = ModulesIndex.get(modulesDir, indexDir);
+                index = result;
             }
+            return result;
         }
 
         public Path getModulesDir() {
@@ -368,6 +393,10 @@ public abstract class JBossServer<S extends JBossServer<S>> extends AbstractServ
         }
 
         public Module getModule(ModuleIdentifier moduleId) throws ServerMigrationFailureException {
+            final Module cachedModule = modules.get(moduleId);
+            if (cachedModule != null) {
+                return cachedModule;
+            }
             final Path moduleDir = getModuleDir(moduleId);
             if (!Files.exists(moduleDir)) {
                 return null;
@@ -378,11 +407,43 @@ public abstract class JBossServer<S extends JBossServer<S>> extends AbstractServ
             }
             final ModuleSpecification moduleSpecification;
             try {
-                moduleSpecification = ModuleSpecification.Parser.parse(moduleSpecPath);
+                moduleSpecification = parseModuleSpecification(moduleSpecPath);
             } catch (XMLStreamException | IOException e) {
                 throw new ServerMigrationFailureException(e);
             }
-            return new Module(moduleDir, moduleSpecification);
+            final Module module = new Module(moduleDir, moduleSpecification);
+            final Module previousModule = modules.putIfAbsent(moduleId, module);
+            return previousModule != null ? previousModule : module;
+        }
+
+        private ModuleSpecification parseModuleSpecification(Path moduleSpecPath) throws IOException, XMLStreamException {
+            final Path path = moduleSpecPath.toAbsolutePath().normalize();
+            final String key;
+            final Path absoluteModulesDir = modulesDir.toAbsolutePath().normalize();
+            if (productInfo != null && path.startsWith(absoluteModulesDir)) {
+                key = productInfo.getName() + ":" + productInfo.getVersion() + ":" + absoluteModulesDir.relativize(path).toString().replace(File.separatorChar, '/');
+            } else {
+                key = path.toString();
+            }
+            // the content is compared instead of the last modified time, since the module.xml files of the same product, in different dirs, may have been installed at different times, and any may have been modified
+            final byte[] content = Files.readAllBytes(path);
+            final ParsedModuleSpecification parsedModuleSpecification = PARSED_SPECIFICATIONS.get(key);
+            if (parsedModuleSpecification != null && Arrays.equals(parsedModuleSpecification.content, content)) {
+                return parsedModuleSpecification.moduleSpecification;
+            }
+            final ModuleSpecification moduleSpecification = ModuleSpecification.Parser.parse(path);
+            PARSED_SPECIFICATIONS.put(key, new ParsedModuleSpecification(moduleSpecification, content));
+            return moduleSpecification;
+        }
+
+        private static class ParsedModuleSpecification {
+            private final ModuleSpecification moduleSpecification;
+            private final byte[] content;
+
+            private ParsedModuleSpecification(ModuleSpecification moduleSpecification, byte[] content) {
+                this.moduleSpecification = moduleSpecification;
+                this.content = content;
+            }
         }
 
         public Module getModule(String moduleId) throws ServerMigrationFailureException {
@@ -393,19 +454,14 @@ public abstract class JBossServer<S extends JBossServer<S>> extends AbstractServ
             if (moduleId == null) {
                 throw new IllegalArgumentException("The module identifier cannot be null.");
             }
+            final Path indexedModuleDir = getIndex().getModuleDir(moduleId.getName(), moduleId.getSlot());
+            if (indexedModuleDir != null) {
+                return indexedModuleDir;
+            }
+            // not installed when indexed, the module's dir in the modules root
             final Path modulePath = Paths.get(moduleId.getName().replace('.', File.separatorChar) +
                     File.separator +
                     moduleId.getSlot());
-            if (overlayDir != null) {
-                final Path overlayModuleDir = overlayDir.resolve(modulePath);
-                if (Files.exists(overlayModuleDir)) {
-                    return overlayModuleDir;
-                }
-            }
-            final Path systemLayersBaseModuleDir = systemLayersBaseDir.resolve(modulePath);
-            if (Files.exists(systemLayersBaseModuleDir)) {
-                return systemLayersBaseModuleDir;
-            }
             return modulesDir.resolve(modulePath);
         }
     }
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.jboss;
+
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.logger.ServerMigrationLogger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An index of the modules installed in a server's modules dir, including the modules in all layers, overlays and add-ons.
+ *
+ * The module dirs are searched in the same order as JBoss Modules does, i.e. the modules dir, then each layer in {@code layers.conf} (the base layer is implicitly last), with the layer's active overlays before the layer, and then the add-ons. An index is built once per process, and if an index dir is specified it is also stored there, and loaded by further processes while still valid. Each retrieval of an index previously built or stored validates it, by checking that the last modified time of every dir and config file scanned is unchanged, and {@link JBossServer.Modules} retrieves the index once, i.e. the index is validated once per {@link JBossServer.Modules} instance.
+ * @author emmartins
+ */
+class ModulesIndex {
+
+    private static final String FILE_HEADER = "modules-index 1";
+    private static final String FILE_SUFFIX = ".idx";
+    private static final String TIMESTAMP = "T";
+    private static final String MODULE = "M";
+    private static final String SEPARATOR = "\t";
+
+    // the indexes built or loaded, by modules dir, each holder is the lock of its modules dir when (re)building the index, thus no I/O is done while computing the map
+    private static final ConcurrentMap<Path, Holder> INDEXES = new ConcurrentHashMap<>();
+
+    private static class Holder {
+        // guarded by this for writes
+        volatile ModulesIndex index;
+    }
+
+    private final Path modulesDir;
+    // the last modified time of every dir and config file scanned, -1 if these did not exist
+    private final Map<Path, Long> timestamps;
+    // module dirs by module id
+    private final Map<String, Path> moduleDirs;
+
+    private ModulesIndex(Path modulesDir) {
+        this.modulesDir = modulesDir;
+        this.timestamps = new LinkedHashMap<>();
+        this.moduleDirs = new HashMap<>();
+    }
+
+    /**
+     * Retrieves the index of the specified modules dir, the index previously built, or stored in the index dir, is validated on every retrieval, and only reused if still valid. The validation, and the building or loading of the index, are not done while holding any lock on other modules dirs' indexes.
+     * @param modulesDir the modules dir
+     * @param indexDir the dir where indexes are stored, if null the index is not stored
+     * @return the index of the specified modules dir
+     */
+    static ModulesIndex get(Path modulesDir, Path indexDir) {
+        final Path key = modulesDir.toAbsolutePath().normalize();
+        final Holder holder = INDEXES.computeIfAbsent(key, k -> new Holder());
+        final ModulesIndex index = holder.index;
+        if (index != null && index.isValid()) {
+            return index;
+        }
+        synchronized (holder) {
+            // another thread may have replaced the index meanwhile
+            final ModulesIndex currentIndex = holder.index;
+            if (currentIndex != null && currentIndex != index && currentIndex.isValid()) {
+                return currentIndex;
+            }
+            if (currentIndex != null) {
+                ServerMigrationLogger.ROOT_LOGGER.debugf("Modules index of %s is outdated.", key);
+            }
+            final ModulesIndex newIndex = load(key, indexDir);
+            holder.index = newIndex;
+            return newIndex;
+        }
+    }
+
+    /**
+     *
+     * @param moduleName the module name
+     * @param moduleSlot the module slot
+     * @return the dir of the module, or null if the module was not found when the index was built
+     */
+    Path getModuleDir(String moduleName, String moduleSlot) {
+        return moduleDirs.get(moduleName + ':' + moduleSlot);
+    }
+
+    private static ModulesIndex load(Path modulesDir, Path indexDir) {
+        if (indexDir == null) {
+            return scan(modulesDir);
+        }
+        final Path indexFile = indexDir.resolve(Integer.toHexString(modulesDir.toString().hashCode()) + FILE_SUFFIX);
+        if (Files.exists(indexFile)) {
+            try {
+                final ModulesIndex index = read(modulesDir, indexFile);
+                if (index != null && index.isValid()) {
+                    ServerMigrationLogger.ROOT_LOGGER.debugf("Modules index of %s loaded from %s", modulesDir, indexFile);
+                    return index;
+                }
+            } catch (IOException | RuntimeException e) {
+                ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failed to read modules index %s", indexFile);
+            }
+        }
+        final ModulesIndex index = scan(modulesDir);
+        try {
+            index.write(indexFile);
+        } catch (IOException e) {
+            ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failed to store modules index %s", indexFile);
+        }
+        return index;
+    }
+
+    private boolean isValid() {
+        for (Map.Entry<Path, Long> timestamp : timestamps.entrySet()) {
+            if (getTimestamp(modulesDir.resolve(timestamp.getKey())) != timestamp.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getTimestamp(Path path) {
+        try {
+            return Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static ModulesIndex scan(Path modulesDir) {
+        final long startTime = System.currentTimeMillis();
+        final ModulesIndex index = new ModulesIndex(modulesDir);
+        try {
+            index.scanDir(modulesDir, true);
+            final Path systemDir = modulesDir.resolve("system");
+            final Path layersDir = systemDir.resolve("layers");
+            final Path addOnsDir = systemDir.resolve("add-ons");
+            index.addTimestamp(systemDir);
+            index.addTimestamp(layersDir);
+            index.addTimestamp(addOnsDir);
+            for (String layer : index.readLayers()) {
+                index.scanLayerDir(layersDir.resolve(layer));
+            }
+            if (Files.isDirectory(addOnsDir)) {
+                final List<Path> addOnDirs;
+                try (Stream<Path> stream = Files.list(addOnsDir)) {
+                    addOnDirs = stream.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+                }
+                for (Path addOnDir : addOnDirs) {
+                    index.scanLayerDir(addOnDir);
+                }
+            }
+        } catch (IOException e) {
+            throw new ServerMigrationFailureException("failed to scan modules dir " + modulesDir, e);
+        }
+        ServerMigrationLogger.ROOT_LOGGER.debugf("Modules index of %s built in %d ms, %d modules found.", modulesDir, System.currentTimeMillis() - startTime, index.moduleDirs.size());
+        return index;
+    }
+
+    private List<String> readLayers() throws IOException {
+        final Path layersFile = modulesDir.resolve("layers.conf");
+        addTimestamp(layersFile);
+        final List<String> layers = new ArrayList<>();
+        if (Files.exists(layersFile)) {
+            final Properties properties = new Properties();
+            try (BufferedReader reader = Files.newBufferedReader(layersFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            final String layersProperty = properties.getProperty("layers");
+            if (layersProperty != null) {
+                for (String layer : layersProperty.split(",")) {
+                    layer = layer.trim();
+                    if (!layer.isEmpty() && !layers.contains(layer)) {
+                        layers.add(layer);
+                    }
+                }
+            }
+        }
+        // the base layer is always the last
+        layers.remove("base");
+        layers.add("base");
+        return layers;
+    }
+
+    private void scanLayerDir(Path layerDir) throws IOException {
+        final Path overlaysDir = layerDir.resolve(".overlays");
+        final Path overlaysFile = overlaysDir.resolve(".overlays");
+        addTimestamp(overlaysDir);
+        addTimestamp(overlaysFile);
+        if (Files.exists(overlaysFile)) {
+            for (String overlay : Files.readAllLines(overlaysFile, StandardCharsets.UTF_8)) {
+                overlay = overlay.trim();
+                if (!overlay.isEmpty()) {
+                    scanDir(overlaysDir.resolve(overlay), false);
+                }
+            }
+        }
+        scanDir(layerDir, false);
+    }
+
+    private void addTimestamp(Path path) {
+        timestamps.put(modulesDir.relativize(path), getTimestamp(path));
+    }
+
+    private void scanDir(final Path rootDir, final boolean modulesRootDir) throws IOException {
+        if (!Files.isDirectory(rootDir)) {
+            addTimestamp(rootDir);
+            return;
+        }
+        Files.walkFileTree(rootDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(rootDir)) {
+                    final String dirName = dir.getFileName().toString();
+                    if (dirName.startsWith(".") || (modulesRootDir && dir.getParent().equals(rootDir) && dirName.equals("system"))) {
+                        // overlays and system layers are scanned separately
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+                timestamps.put(modulesDir.relativize(dir), attrs.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (file.getFileName().toString().equals("module.xml")) {
+                    final Path moduleDir = file.getParent();
+                    final Path modulePath = rootDir.relativize(moduleDir);
+                    final int nameCount = modulePath.getNameCount();
+                    if (nameCount > 1) {
+                        final StringBuilder moduleId = new StringBuilder(modulePath.getName(0).toString());
+                        for (int i = 1; i < nameCount - 1; i++) {
+                            moduleId.append('.').append(modulePath.getName(i));
+                        }
+                        moduleId.append(':').append(modulePath.getName(nameCount - 1));
+                        // the first dir found has priority
+                        moduleDirs.putIfAbsent(moduleId.toString(), moduleDir);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static ModulesIndex read(Path modulesDir, Path indexFile) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(indexFile)), StandardCharsets.UTF_8))) {
+            if (!FILE_HEADER.equals(reader.readLine()) || !modulesDir.toString().equals(reader.readLine())) {
+                // another version, or another modules dir with the same hash
+                return null;
+            }
+            final ModulesIndex index = new ModulesIndex(modulesDir);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split(SEPARATOR, -1);
+                if (fields.length != 3) {
+                    return null;
+                }
+                if (TIMESTAMP.equals(fields[0])) {
+                    index.timestamps.put(modulesDir.getFileSystem().getPath(fields[2]), Long.parseLong(fields[1]));
+                } else if (MODULE.equals(fields[0])) {
+                    index.moduleDirs.put(fields[1], modulesDir.resolve(fields[2]));
+                } else {
+                    return null;
+                }
+            }
+            return index;
+        }
+    }
+
+    private void write(Path indexFile) throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        final Path tmpFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tmpFile)), StandardCharsets.UTF_8))) {
+                writer.write(FILE_HEADER);
+                writer.newLine();
+                writer.write(modulesDir.toString());
+                writer.newLine();
+                for (Map.Entry<Path, Long> timestamp : timestamps.entrySet()) {
+                    writer.write(String.join(SEPARATOR, TIMESTAMP, String.valueOf(timestamp.getValue()), timestamp.getKey().toString()));
+                    writer.newLine();
+                }
+                for (Map.Entry<String, Path> moduleDir : moduleDirs.entrySet()) {
+                    writer.write(String.join(SEPARATOR, MODULE, moduleDir.getKey(), modulesDir.relativize(moduleDir.getValue()).toString()));
+                    writer.newLine();
+                }
+            }
+            // concurrent processes may store the same index
+            Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+}
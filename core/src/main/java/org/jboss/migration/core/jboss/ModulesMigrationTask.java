@@ -16,16 +16,22 @@
 
 package org.jboss.migration.core.jboss;
 
+import org.jboss.migration.core.ServerMigrationFailureException;
 import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.env.TaskEnvironment;
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskResources;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -35,9 +41,15 @@ public class ModulesMigrationTask implements ServerMigrationTask {
 
     public static final String ENVIRONMENT_PROPERTY_INCLUDES = "modules.includes";
     public static final String ENVIRONMENT_PROPERTY_EXCLUDES = "modules.excludes";
+    public static final String ENVIRONMENT_PROPERTY_PARALLELISM = "modules.parallelism";
+
+    public static final int DEFAULT_PARALLELISM = 1;
 
     private static final ServerMigrationTaskName TASK_NAME = new ServerMigrationTaskName.Builder("modules.migrate-modules-requested-by-user").build();
 
+    // the task only reads the source server, and writes the target server's modules
+    private static final TaskResources RESOURCES = new TaskResources.Builder().writes(TaskResources.MODULES).build();
+
     private final JBossServer source;
     private final JBossServer target;
     private final String requestedBy;
@@ -57,6 +69,11 @@ public class ModulesMigrationTask implements ServerMigrationTask {
         return TASK_NAME;
     }
 
+    @Override
+    public TaskResources getResources() {
+        return RESOURCES;
+    }
+
     @Override
     public ServerMigrationTaskResult run(TaskContext context) {
         final TaskEnvironment taskEnvironment = new TaskEnvironment(context.getMigrationEnvironment(), getName());
@@ -82,9 +99,11 @@ public class ModulesMigrationTask implements ServerMigrationTask {
             context.getLogger().infof("No modules to migrate.", requestedBy);
             return;
         }
+        final Map<ModuleIdentifier, String> modules = new LinkedHashMap<>();
         for (String module : includedModules) {
-            moduleMigrator.migrateModule(module, "requested by environment", context);
+            modules.putIfAbsent(ModuleIdentifier.fromString(module), "requested by environment");
         }
+        moduleMigrator.migrateModules(modules, context);
     }
 
     public static class ModuleMigrator {
@@ -92,6 +111,7 @@ public class ModulesMigrationTask implements ServerMigrationTask {
         private final JBossServer.Modules sourceModules;
         private final JBossServer.Modules targetModules;
         private final Set<ModuleIdentifier> excludedByEnvironment;
+        private final int parallelism;
 
         protected ModuleMigrator(JBossServer source, JBossServer target, MigrationEnvironment environment) {
             this.sourceModules = source.getModules();
@@ -100,6 +120,12 @@ public class ModulesMigrationTask implements ServerMigrationTask {
             for (String excludedModule : environment.getPropertyAsList(ENVIRONMENT_PROPERTY_EXCLUDES, Collections.emptyList())) {
                 this.excludedByEnvironment.add(ModuleIdentifier.fromString(excludedModule));
             }
+            final String parallelism = environment.getPropertyAsString(ENVIRONMENT_PROPERTY_PARALLELISM, String.valueOf(DEFAULT_PARALLELISM));
+            try {
+                this.parallelism = Integer.parseInt(parallelism.trim());
+            } catch (NumberFormatException e) {
+                throw new ServerMigrationFailureException("Invalid value for environment property "+ENVIRONMENT_PROPERTY_PARALLELISM+": "+parallelism);
+            }
         }
 
         public void migrateModule(String moduleId, String reason, final TaskContext context) {
@@ -107,38 +133,134 @@ public class ModulesMigrationTask implements ServerMigrationTask {
         }
 
         public void migrateModule(final ModuleIdentifier moduleIdentifier, final String reason, final TaskContext context) throws IllegalStateException {
-            if (excludedByEnvironment.contains(moduleIdentifier)) {
-                context.getLogger().debugf("Skipping module %s migration, it's excluded by environment.", moduleIdentifier);
-                return;
+            migrateModules(Collections.singletonMap(moduleIdentifier, reason), context);
+        }
+
+        /**
+         * Migrates the specified modules, and their dependencies. The modules to migrate are resolved first, and then copied, concurrently up to the parallelism set by the environment, in topological order, i.e. a module is only copied after its dependencies.
+         * @param modules the modules to migrate, and the reason to migrate each
+         * @param context the task context
+         * @throws IllegalStateException if a module to migrate is not found in the source server
+         */
+        public void migrateModules(final Map<ModuleIdentifier, String> modules, final TaskContext context) throws IllegalStateException {
+            final ModuleGraphResolver resolver = new ModuleGraphResolver(context);
+            for (Map.Entry<ModuleIdentifier, String> module : modules.entrySet()) {
+                resolver.resolve(module.getKey(), module.getValue());
             }
-            final JBossServer.Module sourceModule = sourceModules.getModule(moduleIdentifier);
-            if (sourceModule == null) {
-                throw new IllegalStateException("Migration of module "+moduleIdentifier+" required, but module not found in source server.");
+            for (List<ModuleMigration> level : resolver.getLevels()) {
+                final List<ServerMigrationTask> subtasks = new ArrayList<>();
+                for (ModuleMigration moduleMigration : level) {
+                    subtasks.add(moduleMigration.getTask(context));
+                }
+                context.execute(subtasks, parallelism);
             }
-            if (targetModules.getModule(moduleIdentifier) != null) {
-                context.getLogger().debugf("Skipping module %s migration, already exists in target.", moduleIdentifier, reason);
-                return;
+        }
+
+        /**
+         * Resolves the modules to migrate, a module is resolved once, and only after its dependencies.
+         */
+        private class ModuleGraphResolver {
+
+            private final TaskContext context;
+            private final Map<ModuleIdentifier, ModuleMigration> resolved = new LinkedHashMap<>();
+            private final Set<ModuleIdentifier> notMigrated = new HashSet<>();
+            private final Set<ModuleIdentifier> resolving = new LinkedHashSet<>();
+
+            ModuleGraphResolver(TaskContext context) {
+                this.context = context;
             }
-            final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder(context.getTaskName().getName()+".migrate-module").addAttribute("id", moduleIdentifier.toString()).build();
-            final ServerMigrationTask subtask = new ServerMigrationTask() {
-                @Override
-                public ServerMigrationTaskName getName() {
-                    return taskName;
+
+            /**
+             *
+             * @return the module's level in the graph, i.e. the max number of dependencies to migrate before the module, or -1 if the module should not be migrated
+             */
+            int resolve(final ModuleIdentifier moduleIdentifier, final String reason) throws IllegalStateException {
+                final ModuleMigration moduleMigration = resolved.get(moduleIdentifier);
+                if (moduleMigration != null) {
+                    return moduleMigration.level;
+                }
+                if (notMigrated.contains(moduleIdentifier)) {
+                    return -1;
                 }
+                if (resolving.contains(moduleIdentifier)) {
+                    context.getLogger().debugf("Module dependency cycle found: %s -> %s", resolving, moduleIdentifier);
+                    return -1;
+                }
+                if (excludedByEnvironment.contains(moduleIdentifier)) {
+                    context.getLogger().debugf("Skipping module %s migration, it's excluded by environment.", moduleIdentifier);
+                    notMigrated.add(moduleIdentifier);
+                    return -1;
+                }
+                final JBossServer.Module sourceModule = sourceModules.getModule(moduleIdentifier);
+                if (sourceModule == null) {
+                    throw new IllegalStateException("Migration of module "+moduleIdentifier+" required, but module not found in source server.");
+                }
+                if (targetModules.getModule(moduleIdentifier) != null) {
+                    context.getLogger().debugf("Skipping module %s migration, already exists in target.", moduleIdentifier, reason);
+                    notMigrated.add(moduleIdentifier);
+                    return -1;
+                }
+                resolving.add(moduleIdentifier);
+                int level = 0;
+                try {
+                    for (ModuleSpecification.Dependency dependency : sourceModule.getModuleSpecification().getDependencies()) {
+                        level = Math.max(level, resolve(dependency.getId(), "migrated module " + moduleIdentifier + " depends on it") + 1);
+                    }
+                } finally {
+                    resolving.remove(moduleIdentifier);
+                }
+                resolved.put(moduleIdentifier, new ModuleMigration(moduleIdentifier, sourceModule, reason, level));
+                return level;
+            }
 
-                @Override
-                public ServerMigrationTaskResult run(TaskContext context) {
-                    context.getMigrationFiles().copy(sourceModule.getModuleDir(), targetModules.getModuleDir(moduleIdentifier));
-                    context.getLogger().infof("Module %s migrated.", moduleIdentifier);
-                    return new ServerMigrationTaskResult.Builder()
-                            .success()
-                            .addAttribute("reason", reason)
-                            .build();
+            /**
+             *
+             * @return the resolved module migrations, grouped by level
+             */
+            List<List<ModuleMigration>> getLevels() {
+                final List<List<ModuleMigration>> levels = new ArrayList<>();
+                for (ModuleMigration moduleMigration : resolved.values()) {
+                    while (levels.size() <= moduleMigration.level) {
+                        levels.add(new ArrayList<>());
+                    }
+                    levels.get(moduleMigration.level).add(moduleMigration);
                 }
-            };
-            context.execute(subtask);
-            for (ModuleSpecification.Dependency dependency : sourceModule.getModuleSpecification().getDependencies()) {
-                migrateModule(dependency.getId(), "migrated module " + moduleIdentifier + " depends on it", context);
+                return levels;
+            }
+        }
+
+        private class ModuleMigration {
+
+            private final ModuleIdentifier moduleIdentifier;
+            private final JBossServer.Module sourceModule;
+            private final String reason;
+            private final int level;
+
+            ModuleMigration(ModuleIdentifier moduleIdentifier, JBossServer.Module sourceModule, String reason, int level) {
+                this.moduleIdentifier = moduleIdentifier;
+                this.sourceModule = sourceModule;
+                this.reason = reason;
+                this.level = level;
+            }
+
+            ServerMigrationTask getTask(TaskContext context) {
+                final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder(context.getTaskName().getName()+".migrate-module").addAttribute("id", moduleIdentifier.toString()).build();
+                return new ServerMigrationTask() {
+                    @Override
+                    public ServerMigrationTaskName getName() {
+                        return taskName;
+                    }
+
+                    @Override
+                    public ServerMigrationTaskResult run(TaskContext context) {
+                        context.getMigrationFiles().copy(sourceModule.getModuleDir(), targetModules.getModuleDir(moduleIdentifier));
+                        context.getLogger().infof("Module %s migrated.", moduleIdentifier);
+                        return new ServerMigrationTaskResult.Builder()
+                                .success()
+                                .addAttribute("reason", reason)
+                                .build();
+                    }
+                };
             }
         }
     }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.jboss;
+
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.jfr.FlightRecorderEvents;
+import org.jboss.migration.core.jfr.XMLFilesEvent;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Discovers the XML configuration files in a server's configuration dirs, i.e. the XML files with a document element in the urn:jboss:domain namespace.
+ *
+ * Only the document element of each XML file is read, usually from a bounded prefix of the file, and the files are probed in parallel, by a dedicated and bounded pool of daemon threads, which terminate when idle. The document element of each file is cached, and probed again only if the file's size or last modified time changed, thus discovering the configurations of the same dir again, e.g. after the migration added configuration files to it, only reads the new or modified files. The cached document elements of the files no longer found in a dir are dropped when the dir is discovered again, thus the cache never grows beyond the XML files present in the discovered dirs.
+ * @author emmartins
+ */
+class XmlConfigurationDiscovery {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    private static final String NAMESPACE_URI_PREFIX = "urn:jboss:domain:";
+
+    // the size of the file prefix read, the document element of a configuration file is expected to be found in it, otherwise the whole file is read
+    private static final int PREFIX_SIZE = 8 * 1024;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private final ConcurrentMap<Path, DocumentElement> documentElements = new ConcurrentHashMap<>();
+
+    // the number of files which document element was not in the prefix, thus were read as a whole
+    private final AtomicInteger fullReads = new AtomicInteger();
+
+    private static ThreadPoolExecutor createExecutor() {
+        final int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "xml-configuration-discovery-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Retrieves the configuration files in a dir.
+     * @param dir the dir
+     * @param documentElementLocalName the local name of the configuration's document element, e.g. server, domain or host
+     * @return the paths of the configuration files, sorted
+     * @throws ServerMigrationFailureException if the dir could not be read, or a XML file could not be parsed
+     */
+    List<Path> getConfigs(Path dir, String documentElementLocalName) throws ServerMigrationFailureException {
+        final XMLFilesEvent event = FlightRecorderEvents.beginXMLFiles();
+        final List<Path> configs = new ArrayList<>();
+        try {
+            final List<Path> xmlFiles = new ArrayList<>();
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(dir, "*.xml")) {
+                for (Path path : directoryStream) {
+                    if (Files.isRegularFile(path)) {
+                        xmlFiles.add(path);
+                    }
+                }
+            } catch (IOException e) {
+                throw new ServerMigrationFailureException("XML file scan failed!", e);
+            }
+            // drop the cached document elements of the dir's files which were deleted
+            final Set<Path> xmlFilesSet = new HashSet<>(xmlFiles);
+            documentElements.keySet().removeIf(path -> dir.equals(path.getParent()) && !xmlFilesSet.contains(path));
+            final List<DocumentElement> xmlFilesDocumentElements = getDocumentElements(xmlFiles);
+            for (int i = 0; i < xmlFiles.size(); i++) {
+                final DocumentElement documentElement = xmlFilesDocumentElements.get(i);
+                if (documentElementLocalName.equals(documentElement.localName) && documentElement.namespaceURI != null && documentElement.namespaceURI.startsWith(NAMESPACE_URI_PREFIX)) {
+                    configs.add(xmlFiles.get(i));
+                }
+            }
+            Collections.sort(configs);
+        } finally {
+            if (event != null) {
+                event.complete("scan", dir, configs.size());
+            }
+        }
+        return Collections.unmodifiableList(configs);
+    }
+
+    private List<DocumentElement> getDocumentElements(List<Path> xmlFiles) throws ServerMigrationFailureException {
+        final List<DocumentElement> xmlFilesDocumentElements = new ArrayList<>(xmlFiles.size());
+        if (xmlFiles.size() < 2) {
+            for (Path xmlFile : xmlFiles) {
+                xmlFilesDocumentElements.add(getDocumentElement(xmlFile));
+            }
+            return xmlFilesDocumentElements;
+        }
+        final List<Future<DocumentElement>> futures = new ArrayList<>(xmlFiles.size());
+        try {
+            for (Path xmlFile : xmlFiles) {
+                futures.add(EXECUTOR.submit(() -> getDocumentElement(xmlFile)));
+            }
+            for (Future<DocumentElement> future : futures) {
+                xmlFilesDocumentElements.add(future.get());
+            }
+            return xmlFilesDocumentElements;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServerMigrationFailureException) {
+                throw (ServerMigrationFailureException) e.getCause();
+            }
+            throw new ServerMigrationFailureException("XML file scan failed!", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerMigrationFailureException("XML file scan interrupted!", e);
+        } finally {
+            for (Future<DocumentElement> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private DocumentElement getDocumentElement(Path path) throws ServerMigrationFailureException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new ServerMigrationFailureException("failed to parse xml file "+path, e);
+        }
+        final long size = attributes.size();
+        final long lastModifiedTime = attributes.lastModifiedTime().toMillis();
+        final DocumentElement cachedDocumentElement = documentElements.get(path);
+        if (cachedDocumentElement != null && cachedDocumentElement.size == size && cachedDocumentElement.lastModifiedTime == lastModifiedTime) {
+            return cachedDocumentElement;
+        }
+        final DocumentElement documentElement = readDocumentElement(path, size, lastModifiedTime);
+        documentElements.put(path, documentElement);
+        return documentElement;
+    }
+
+    private DocumentElement readDocumentElement(Path path, long size, long lastModifiedTime) throws ServerMigrationFailureException {
+        try {
+            final byte[] prefix = readPrefix(path);
+            if (prefix.length < PREFIX_SIZE) {
+                // the prefix is the whole file
+                try (InputStream inputStream = new ByteArrayInputStream(prefix)) {
+                    return readDocumentElement(inputStream, size, lastModifiedTime);
+                }
+            }
+            try (InputStream inputStream = new ByteArrayInputStream(prefix)) {
+                final DocumentElement documentElement = readDocumentElement(inputStream, size, lastModifiedTime);
+                if (documentElement.localName != null) {
+                    return documentElement;
+                }
+            } catch (XMLStreamException e) {
+                // the prefix ends before the document element, e.g. in a comment
+            }
+            // the document element is not in the prefix, read the whole file
+            fullReads.incrementAndGet();
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                return readDocumentElement(inputStream, size, lastModifiedTime);
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new ServerMigrationFailureException("failed to parse xml file "+path, e);
+        }
+    }
+
+    private static byte[] readPrefix(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            final byte[] buffer = new byte[PREFIX_SIZE];
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+            if (length == buffer.length) {
+                return buffer;
+            }
+            final byte[] prefix = new byte[length];
+            System.arraycopy(buffer, 0, prefix, 0, length);
+            return prefix;
+        }
+    }
+
+    private static DocumentElement readDocumentElement(InputStream inputStream, long size, long lastModifiedTime) throws XMLStreamException {
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == START_ELEMENT) {
+                    return new DocumentElement(reader.getLocalName(), reader.getNamespaceURI(), size, lastModifiedTime);
+                }
+            }
+            // no document element
+            return new DocumentElement(null, null, size, lastModifiedTime);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Retrieves the number of files which document element was not found in the prefix read, thus were read as a whole.
+     * @return the number of files which were read as a whole
+     */
+    int getFullReads() {
+        return fullReads.get();
+    }
+
+    /**
+     * Retrieves the number of files which document element is cached.
+     * @return the number of files which document element is cached
+     */
+    int getCachedDocumentElements() {
+        return documentElements.size();
+    }
+
+    private static class DocumentElement {
+
+        private final String localName;
+        private final String namespaceURI;
+        private final long size;
+        private final long lastModifiedTime;
+
+        private DocumentElement(String localName, String namespaceURI, long size, long lastModifiedTime) {
+            this.localName = localName;
+            this.namespaceURI = namespaceURI;
+            this.size = size;
+            this.lastModifiedTime = lastModifiedTime;
+        }
+    }
+}
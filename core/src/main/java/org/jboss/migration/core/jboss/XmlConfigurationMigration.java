@@ -16,17 +16,13 @@
 
 package org.jboss.migration.core.jboss;
 
-import org.jboss.migration.core.ServerMigrationFailureException;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.task.component.TaskRunnable;
+import org.jboss.migration.core.util.xml.XMLFilePass;
 
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,9 +31,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import static javax.xml.stream.XMLStreamConstants.START_DOCUMENT;
-import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
-
 /**
  * A {@link TaskRunnable} to migrate {@link JBossServerConfiguration}s at XML level, delegating all the XML processing to a set of components, each responsible for processing specific XML Element(s).
  * @author emmartins
@@ -56,6 +49,19 @@ public class XmlConfigurationMigration<S extends JBossServer<S>> implements Task
 
     @Override
     public ServerMigrationTaskResult run(TaskContext context) {
+        final XMLFilePass pass = new XMLFilePass();
+        final TaskRunnable afterPass = addTo(pass, context);
+        pass.run(targetConfiguration.getPath());
+        return afterPass.run(context);
+    }
+
+    /**
+     * Adds the migration's XML processing to the specified pass over the target configuration.
+     * @param pass the pass over the target configuration
+     * @param context the context of the task running the pass
+     * @return the {@link TaskRunnable} which completes the migration, after the pass is run
+     */
+    public TaskRunnable addTo(XMLFilePass pass, TaskContext context) {
         // retrieve all components from factories and map these to related element name
         final Map<String, List<Component>> componentsMap = new HashMap<>();
         for (ComponentFactory componentFactory : componentFactories) {
@@ -70,30 +76,24 @@ public class XmlConfigurationMigration<S extends JBossServer<S>> implements Task
                 elementComponents.add(component);
             }
         }
-        // parse config
-        try (InputStream in = new BufferedInputStream(new FileInputStream(targetConfiguration.getPath().toFile()))) {
-            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
-            reader.require(START_DOCUMENT, null, null);
-            while (reader.hasNext()) {
-                if (reader.next() == START_ELEMENT) {
-                    final List<Component> elementComponents = componentsMap.get(reader.getLocalName());
-                    if (elementComponents != null) {
-                        for (Component elementComponent : elementComponents) {
-                            elementComponent.processElement(reader, sourceConfiguration, targetConfiguration, context);
-                        }
-                    }
+        // process config elements
+        pass.visitor(reader -> {
+            final List<Component> elementComponents = componentsMap.get(reader.getLocalName());
+            if (elementComponents != null) {
+                for (Component elementComponent : elementComponents) {
+                    elementComponent.processElement(reader, sourceConfiguration, targetConfiguration, context);
                 }
             }
-        } catch (Exception e) {
-            throw new ServerMigrationFailureException(e);
-        }
-        // signal components that element processing is done
-        for (List<Component> components : componentsMap.values()) {
-            for (Component component : components) {
-                component.afterProcessingElements(sourceConfiguration, targetConfiguration, context);
+        });
+        return taskContext -> {
+            // signal components that element processing is done
+            for (List<Component> components : componentsMap.values()) {
+                for (Component component : components) {
+                    component.afterProcessingElements(sourceConfiguration, targetConfiguration, taskContext);
+                }
             }
-        }
-        return context.hasSucessfulSubtasks() ? ServerMigrationTaskResult.SUCCESS : ServerMigrationTaskResult.SKIPPED;
+            return taskContext.hasSucessfulSubtasks() ? ServerMigrationTaskResult.SUCCESS : ServerMigrationTaskResult.SKIPPED;
+        };
     }
 
     /**
@@ -119,7 +119,7 @@ public class XmlConfigurationMigration<S extends JBossServer<S>> implements Task
 
         /**
          * {@link XmlConfigurationMigration} component callback, invoked when a component's element is found.
-         * @param reader the XML stream reader, positioned at the start of an element of interest
+         * @param reader the XML stream reader, positioned at the start of an element of interest, which should not be moved by the component
          */
         void processElement(XMLStreamReader reader, JBossServerConfiguration sourceConfiguration, JBossServerConfiguration targetConfiguration, TaskContext context) throws IOException;
 
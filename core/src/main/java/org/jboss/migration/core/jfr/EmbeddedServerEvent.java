@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jboss.migration.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of an embedded server's boot or stop.
+ * @author emmartins
+ */
+@Name("org.jboss.migration.EmbeddedServer")
+@Label("Embedded Server")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("The boot or stop of an embedded server, to manage a target server configuration")
+public class EmbeddedServerEvent extends jdk.jfr.Event {
+
+    @Label("Configuration")
+    String configuration;
+
+    @Label("Action")
+    String action;
+
+    /**
+     * Ends and commits the event, if recorded.
+     * @param configuration the server configuration
+     * @param action the action, i.e. start or stop
+     */
+    public void complete(Object configuration, String action) {
+        end();
+        if (shouldCommit()) {
+            this.configuration = String.valueOf(configuration);
+            this.action = action;
+            commit();
+        }
+    }
+}
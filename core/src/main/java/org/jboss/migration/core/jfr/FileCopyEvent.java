@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jboss.migration.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of a file copy.
+ * @author emmartins
+ */
+@Name("org.jboss.migration.FileCopy")
+@Label("File Copy")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("The copy of a file from the source to the target server")
+public class FileCopyEvent extends jdk.jfr.Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("Target")
+    String target;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Ends and commits the event, if recorded.
+     * @param source the source file
+     * @param target the target file
+     * @param bytes the bytes copied
+     */
+    public void complete(Object source, Object target, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.source = String.valueOf(source);
+            this.target = String.valueOf(target);
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.jfr;
+
+/**
+ * The factory of the tool's Java Flight Recorder events.
+ *
+ * Each method begins and returns a new event, which should be completed when the event's activity ends, or returns null if the JVM does not include JFR, in which case the event classes must not be used, or if JFR was not initialized, i.e. no recording was ever started.
+ * @author emmartins
+ */
+public final class FlightRecorderEvents {
+
+    static final String CATEGORY = "JBoss Server Migration";
+
+    /**
+     * if the JVM includes JFR
+     */
+    public static final boolean AVAILABLE = isAvailable();
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private FlightRecorderEvents() {
+    }
+
+    private static boolean isRecording() {
+        // avoids the cost of initializing JFR's event classes when there is no recording, e.g. started with the CLI flag or jcmd
+        return AVAILABLE && jdk.jfr.FlightRecorder.isInitialized();
+    }
+
+    /**
+     *
+     * @return the begun event, null if JFR is not available
+     */
+    public static TaskExecutionEvent beginTaskExecution() {
+        if (!isRecording()) {
+            return null;
+        }
+        final TaskExecutionEvent event = new TaskExecutionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     *
+     * @return the begun event, null if JFR is not available
+     */
+    public static ManagementOperationEvent beginManagementOperation() {
+        if (!isRecording()) {
+            return null;
+        }
+        final ManagementOperationEvent event = new ManagementOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     *
+     * @return the begun event, null if JFR is not available
+     */
+    public static EmbeddedServerEvent beginEmbeddedServer() {
+        if (!isRecording()) {
+            return null;
+        }
+        final EmbeddedServerEvent event = new EmbeddedServerEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     *
+     * @return the begun event, null if JFR is not available
+     */
+    public static FileCopyEvent beginFileCopy() {
+        if (!isRecording()) {
+            return null;
+        }
+        final FileCopyEvent event = new FileCopyEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     *
+     * @return the begun event, null if JFR is not available
+     */
+    public static XMLFilesEvent beginXMLFiles() {
+        if (!isRecording()) {
+            return null;
+        }
+        final XMLFilesEvent event = new XMLFilesEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * A Java Flight Recorder recording of the migration, written to a file when closed.
+ * @author emmartins
+ */
+public class FlightRecording implements AutoCloseable {
+
+    private static final String CONFIGURATION_NAME = "profile";
+
+    private final Recording recording;
+
+    private FlightRecording(Recording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Starts a recording, with the JVM's profile settings and the tool's events.
+     * @param path the path of the file where the recording is written
+     * @return the recording started
+     * @throws IllegalStateException if JFR is not available
+     * @throws IOException if the recording's file is not writable
+     */
+    public static FlightRecording start(Path path) throws IllegalStateException, IOException {
+        if (!FlightRecorderEvents.AVAILABLE) {
+            throw new IllegalStateException("Java Flight Recorder is not available in this JVM");
+        }
+        final Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(CONFIGURATION_NAME);
+        } catch (ParseException e) {
+            throw new IOException("Failed to read the JFR configuration "+CONFIGURATION_NAME, e);
+        }
+        final Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        final Recording recording = new Recording(configuration);
+        recording.setName("jboss-server-migration");
+        recording.enable(TaskExecutionEvent.class);
+        recording.enable(ManagementOperationEvent.class);
+        recording.enable(EmbeddedServerEvent.class);
+        recording.enable(FileCopyEvent.class);
+        recording.enable(XMLFilesEvent.class);
+        recording.setDestination(path);
+        recording.start();
+        return new FlightRecording(recording);
+    }
+
+    /**
+     * Stops the recording, and writes it to its file.
+     */
+    @Override
+    public void close() {
+        recording.stop();
+        recording.close();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jboss.migration.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of a management operation execution.
+ * @author emmartins
+ */
+@Name("org.jboss.migration.ManagementOperation")
+@Label("Management Operation")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("The execution of a management operation on a target server configuration")
+public class ManagementOperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Address")
+    String address;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Ends and commits the event, if recorded.
+     * @param operation the operation's name
+     * @param address the operation's address
+     * @param outcome the operation's outcome
+     */
+    public void complete(Object operation, Object address, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.operation = String.valueOf(operation);
+            this.address = String.valueOf(address);
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jboss.migration.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of a task execution.
+ * @author emmartins
+ */
+@Name("org.jboss.migration.TaskExecution")
+@Label("Task Execution")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("The execution of a server migration task")
+public class TaskExecutionEvent extends jdk.jfr.Event {
+
+    @Label("Task Path")
+    String taskPath;
+
+    @Label("Task Number")
+    String taskNumber;
+
+    @Label("Result Status")
+    String status;
+
+    /**
+     * Ends and commits the event, if recorded.
+     * @param taskPath the task's path
+     * @param taskNumber the task's number
+     * @param status the task's result status
+     */
+    public void complete(Object taskPath, String taskNumber, Object status) {
+        end();
+        if (shouldCommit()) {
+            this.taskPath = String.valueOf(taskPath);
+            this.taskNumber = taskNumber;
+            this.status = String.valueOf(status);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jboss.migration.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of a XML files filter or scan.
+ * @author emmartins
+ */
+@Name("org.jboss.migration.XMLFiles")
+@Label("XML Files")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("The filtering of a XML file, or the scan of a dir for XML files")
+public class XMLFilesEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Files")
+    int files;
+
+    /**
+     * Ends and commits the event, if recorded.
+     * @param operation the operation, i.e. filter or scan
+     * @param path the file filtered, or the dir scanned
+     * @param files the number of files filtered or matched by the scan
+     */
+    public void complete(String operation, Object path, int files) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.path = String.valueOf(path);
+            this.files = files;
+            commit();
+        }
+    }
+}
@@ -41,11 +41,21 @@ public interface EnvironmentProperties {
      */
     String SUMMARY_REPORT_PROPERTIES_PREFIX = REPORT_PROPERTIES_PREFIX + "summary.";
 
+    /**
+     * If greater than zero, and the XML report file is known when the migration starts, the XML report is also written while the migration runs, with this interval in milliseconds, thus a migration which crashes still leaves a partial report.
+     */
+    String PROPERTY_INCREMENTAL_WRITE_INTERVAL = XML_REPORT_PROPERTIES_PREFIX + "incrementalWriteInterval";
+
     /**
      * The HTML report will show subtasks, if the task has a path size smaller or equal, than this property value.
      */
     String PROPERTY_MAX_TASK_PATH_SIZE_TO_DISPLAY_SUBTASKS = HTML_REPORT_PROPERTIES_PREFIX + "maxTaskPathSizeToDisplaySubtasks";
 
+    /**
+     * If greater than zero the HTML report's task details are written to JSON chunk files, each with the details of this number of tasks, which are only loaded when needed.
+     */
+    String PROPERTY_TASK_DETAILS_CHUNK_SIZE = HTML_REPORT_PROPERTIES_PREFIX + "taskDetailsChunkSize";
+
     /**
      * The SUMMARY report will show subtasks, if the task has a path size smaller or equal, than this property value.
      */
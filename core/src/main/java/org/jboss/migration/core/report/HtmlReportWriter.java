@@ -16,11 +16,17 @@
 package org.jboss.migration.core.report;
 
 import org.jboss.migration.core.MigrationData;
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskExecution;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -29,209 +35,472 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * The HTML report writer.
+ *
+ * The report is streamed to its writer, task by task, thus the memory used does not depend on the size of the report. Optionally the task details may be split from the report file, into lazily loaded JSON chunk files, so that browsers do not have to render the details of every task when opening huge reports.
  * @author emmartins
  */
 public class HtmlReportWriter {
 
     public static HtmlReportWriter INSTANCE = new HtmlReportWriter();
 
+    private static final String TASK_DETAILS_DIR_SUFFIX = "-details";
+    private static final String TASK_DETAILS_CALLBACK = "migrationReportTaskDetails";
+
     private HtmlReportWriter() {
 
     }
 
-    public void toPath(Path path, MigrationData migrationData, ReportTemplate template) throws IOException {
-        final String s = toString(migrationData,template);
+    /**
+     * Writes the report to the specified path, and if the migration environment sets a task details chunk size, the task details to chunk files in a dir next to the report.
+     * @param path the report's path
+     * @param migrationData the migration data
+     * @param template the report template
+     * @throws IOException if the write failed
+     * @throws ServerMigrationFailureException if the task details chunk size environment property value is not valid
+     */
+    public void toPath(Path path, MigrationData migrationData, ReportTemplate template) throws IOException, ServerMigrationFailureException {
+        final int taskDetailsChunkSize = getTaskDetailsChunkSize(migrationData.getServerMigrationEnvironment());
         Files.createDirectories(path.getParent());
         try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
-            writer.write(s, 0, s.length());
+            if (taskDetailsChunkSize > 0) {
+                final String fileName = path.getFileName().toString();
+                final int extensionIndex = fileName.lastIndexOf('.');
+                final String taskDetailsDirName = (extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName) + TASK_DETAILS_DIR_SUFFIX;
+                try (TaskDetailsChunks taskDetailsChunks = new TaskDetailsChunks(path.resolveSibling(taskDetailsDirName), taskDetailsChunkSize)) {
+                    new Report(migrationData, writer, taskDetailsChunks).write(template);
+                }
+            } else {
+                write(writer, migrationData, template);
+            }
         }
     }
 
-    public String toString(MigrationData migrationData, ReportTemplate template) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append(template.header);
-        appendSummary(migrationData, sb);
-        sb.append(template.summaryToEnvironment);
-        appendEnvironment(migrationData, sb);
-        sb.append(template.environmentToTaskSummary);
-        appendTaskSummary(migrationData, sb);
-        sb.append(template.taskSummaryToTaskMap);
-        appendTaskMap(migrationData, sb);
-        sb.append(template.footer);
-        return sb.toString();
+    private static int getTaskDetailsChunkSize(MigrationEnvironment migrationEnvironment) throws ServerMigrationFailureException {
+        final String taskDetailsChunkSize = migrationEnvironment.getPropertyAsString(EnvironmentProperties.PROPERTY_TASK_DETAILS_CHUNK_SIZE, "0");
+        try {
+            return Integer.parseInt(taskDetailsChunkSize.trim());
+        } catch (NumberFormatException e) {
+            throw new ServerMigrationFailureException("Invalid value for environment property "+EnvironmentProperties.PROPERTY_TASK_DETAILS_CHUNK_SIZE+": "+taskDetailsChunkSize);
+        }
     }
 
-    private void appendSummary(MigrationData migrationData, StringBuilder sb) {
-        final SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        final String utcTime = sdf.format(new Date(migrationData.getRootTask().getStartTime()));
-        appendProperty("Start Time", utcTime, sb);
-        appendProperty("Source Server", migrationData.getSource().getProductInfo().getName() + ' ' + migrationData.getSource().getProductInfo().getVersion(), sb);
-        appendProperty("Source Path", migrationData.getSource().getBaseDir(), sb);
-        appendProperty("Target Server", migrationData.getTarget().getProductInfo().getName() + ' ' + migrationData.getTarget().getProductInfo().getVersion(), sb);
-        appendProperty("Target Path", migrationData.getTarget().getBaseDir(), sb);
-        appendProperty("Result", getTaskStatus(migrationData.getRootTask().getResult(), migrationData.getRootTask().getResult().getStatus()), sb);
+    /**
+     * Writes the report, with the task details included.
+     * @param writer the report writer
+     * @param migrationData the migration data
+     * @param template the report template
+     * @throws IOException if the write failed
+     */
+    public void write(Writer writer, MigrationData migrationData, ReportTemplate template) throws IOException {
+        new Report(migrationData, writer, null).write(template);
     }
 
-    private void appendEnvironment(MigrationData migrationData, StringBuilder sb) {
-        for (String property : migrationData.getServerMigrationEnvironment().getPropertyNamesReaded()) {
-            appendProperty(property, migrationData.getServerMigrationEnvironment().getPropertyAsString(property, "null"), sb);
+    public String toString(MigrationData migrationData, ReportTemplate template) {
+        final StringWriter writer = new StringWriter();
+        try {
+            write(writer, migrationData, template);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return writer.toString();
     }
 
-    private void appendTaskSummary(MigrationData migrationData, StringBuilder sb) {
-        appendProperty("Executed", migrationData.getTasks().size(), sb);
-        appendProperty("Successful", migrationData.getTaskCount(ServerMigrationTaskResult.Status.SUCCESS), sb);
-        appendProperty("Skipped", migrationData.getTaskCount(ServerMigrationTaskResult.Status.SKIPPED), sb);
-        appendProperty("Failed", migrationData.getTaskCount(ServerMigrationTaskResult.Status.FAIL), sb);
-    }
-
-    private void appendTaskMap(MigrationData migrationData, StringBuilder sb) {
-        final int maxTaskPathSizeToDisplaySubtasks = Integer.valueOf(migrationData.getServerMigrationEnvironment().getPropertyAsString(EnvironmentProperties.PROPERTY_MAX_TASK_PATH_SIZE_TO_DISPLAY_SUBTASKS, "4"));
-        appendTask(migrationData.getRootTask(), sb, maxTaskPathSizeToDisplaySubtasks);
-    }
+    /**
+     * The writing of a report.
+     */
+    private static class Report {
+
+        private final MigrationData migrationData;
+        private final Writer writer;
+        private final TaskDetailsChunks taskDetailsChunks;
+        private final int maxTaskPathSizeToDisplaySubtasks;
+
+        Report(MigrationData migrationData, Writer writer, TaskDetailsChunks taskDetailsChunks) {
+            this.migrationData = migrationData;
+            this.writer = writer;
+            this.taskDetailsChunks = taskDetailsChunks;
+            this.maxTaskPathSizeToDisplaySubtasks = Integer.valueOf(migrationData.getServerMigrationEnvironment().getPropertyAsString(EnvironmentProperties.PROPERTY_MAX_TASK_PATH_SIZE_TO_DISPLAY_SUBTASKS, "4"));
+        }
 
-    private void appendTask(TaskExecution task, StringBuilder sb, int maxTaskPathSizeToDisplaySubtasks) {
-        final String tableClass = (task.getTaskPath().size() % 2) == 0 ? "task-map-even" : "task-map-odd";
-        sb.append("<table class=\"").append(tableClass).append("\">");
-        appendTaskHeader(task, sb, maxTaskPathSizeToDisplaySubtasks);
-        appendTaskDetails(task, sb);
-        appendTaskSubtasks(task, sb, maxTaskPathSizeToDisplaySubtasks);
-        sb.append("</table>");
-    }
+        void write(ReportTemplate template) throws IOException {
+            writer.append(template.header);
+            appendSummary();
+            writer.append(template.summaryToEnvironment);
+            appendEnvironment();
+            writer.append(template.environmentToTaskSummary);
+            appendTaskSummary();
+            writer.append(template.taskSummaryToTaskMap);
+            appendTaskMap();
+            writer.append(template.footer);
+        }
 
-    private void appendTaskHeader(TaskExecution task, StringBuilder sb, int maxTaskPathSizeToDisplaySubtasks) {
-        sb.append("<tr>");
-        sb.append("<td class=\"task-map-header\">");
-        sb.append("<table class=\"task-header\">");
-        sb.append("<tr>");
-        // name
-        sb.append("<td class=\"task-header-name\" id=\"task").append(task.getTaskNumber()).append("\">");
-        sb.append("<a class=\"task-display-toggle\" href=\"#task").append(task.getTaskNumber()).append("\" title=\"Show or hide the task details\" onclick=\"toggleDisplayTaskDetails('task").append(task.getTaskNumber()).append("'); return false\">").append(getTaskStatus(task.getResult(), task.getTaskName())).append("</a>");
-        sb.append("</td>");
-        // subtasks toggles
-        if (!task.getSubtasks().isEmpty()) {
-            sb.append("<td class=\"task-header-toggles\">");
-            sb.append("<table>");
-            sb.append("<tr>");
-            if (task.getTaskPath().size() > maxTaskPathSizeToDisplaySubtasks) {
-                sb.append("<td class=\"task-display-toggle\" style=\"display: none\" id=\"task").append(task.getTaskNumber()).append("-subtasks-hide\">");
-            } else {
-                sb.append("<td class=\"task-display-toggle\" id=\"task").append(task.getTaskNumber()).append("-subtasks-hide\">");
+        private void appendSummary() throws IOException {
+            final SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
+            sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+            final String utcTime = sdf.format(new Date(migrationData.getRootTask().getStartTime()));
+            appendProperty("Start Time", utcTime);
+            appendProperty("Source Server", migrationData.getSource().getProductInfo().getName() + ' ' + migrationData.getSource().getProductInfo().getVersion());
+            appendProperty("Source Path", migrationData.getSource().getBaseDir());
+            appendProperty("Target Server", migrationData.getTarget().getProductInfo().getName() + ' ' + migrationData.getTarget().getProductInfo().getVersion());
+            appendProperty("Target Path", migrationData.getTarget().getBaseDir());
+            appendProperty("Result", getTaskStatus(migrationData.getRootTask().getResult(), migrationData.getRootTask().getResult().getStatus()));
+            final TaskExecutionMetrics metrics = migrationData.getRootTask().getMetrics();
+            if (metrics != null) {
+                appendProperty("Duration", formatTime(metrics.getTotal().getDuration()));
             }
-            sb.append("<a class=\"task-display-toggle\" title=\"Hide subtasks\" href=\"#task").append(task.getTaskNumber()).append("\" onclick=\"hideSubtasks('task").append(task.getTaskNumber()).append("'); return false\">-</a>");
-            sb.append("</td>");
-            if (task.getTaskPath().size() > maxTaskPathSizeToDisplaySubtasks) {
-                sb.append("<td class=\"task-display-toggle\" id=\"task").append(task.getTaskNumber()).append("-subtasks-show\">");
-            } else {
-                sb.append("<td class=\"task-display-toggle\" style=\"display: none\" id=\"task").append(task.getTaskNumber()).append("-subtasks-show\">");
+        }
+
+        private void appendEnvironment() throws IOException {
+            for (String property : migrationData.getServerMigrationEnvironment().getPropertyNamesReaded()) {
+                appendProperty(property, migrationData.getServerMigrationEnvironment().getPropertyAsString(property, "null"));
             }
-            sb.append("<a class=\"task-display-toggle\" title=\"Show subtasks\" href=\"#task").append(task.getTaskNumber()).append("\" onclick=\"showSubtasks('task").append(task.getTaskNumber()).append("'); return false\">+</a>");
-            sb.append("</td>");
-            sb.append("</tr>");
-            sb.append("</table>");
-            sb.append("</td>");
         }
-        sb.append("</tr>");
-        sb.append("</table>");
-        sb.append("</td>");
-        sb.append("</tr>");
-    }
 
-    private void appendTaskDetails(TaskExecution task, StringBuilder sb) {
-        sb.append("<tr>");
-        sb.append("<td id=\"task").append(task.getTaskNumber()).append("-details\" style=\"display: none\" class=\"task-map-details\"><table class=\"task-details\">");
+        private void appendTaskSummary() throws IOException {
+            appendProperty("Executed", migrationData.getTaskCount());
+            appendProperty("Successful", migrationData.getTaskCount(ServerMigrationTaskResult.Status.SUCCESS));
+            appendProperty("Skipped", migrationData.getTaskCount(ServerMigrationTaskResult.Status.SKIPPED));
+            appendProperty("Failed", migrationData.getTaskCount(ServerMigrationTaskResult.Status.FAIL));
+        }
 
-        appendTaskDetailsProperty("Task Number", task.getTaskNumber(), sb);
-        appendTaskDetailsProperty("Task Name", task.getTaskName(), sb);
-        appendTaskDetailsProperty("Task Path", task.getTaskPath(), sb);
-        appendTaskDetailsProperty("Logger Name", task.getLogger().getName(), sb);
+        private void appendTaskMap() throws IOException {
+            if (taskDetailsChunks != null) {
+                taskDetailsChunks.appendLoader(writer);
+            }
+            appendTask(migrationData.getRootTask());
+        }
 
-        // result
-        final ServerMigrationTaskResult result = task.getResult();
-        appendTaskDetailsProperty("Result Status", getTaskStatus(result, result.getStatus()), sb);
-        if (result.getStatus() == ServerMigrationTaskResult.Status.FAIL) {
-            appendTaskDetailsProperty("Fail Reason", result.getFailReason(), sb);
+        private void appendTask(TaskExecution task) throws IOException {
+            final String tableClass = (task.getTaskPath().size() % 2) == 0 ? "task-map-even" : "task-map-odd";
+            writer.append("<table class=\"").append(tableClass).append("\">");
+            appendTaskHeader(task);
+            appendTaskDetails(task);
+            appendTaskSubtasks(task);
+            writer.append("</table>");
         }
-        final Map<String, String> attributes = result.getAttributes();
-        if (attributes != null && !attributes.isEmpty()) {
-            final StringBuilder temp = new StringBuilder();
-            boolean first = true;
-            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
-                if (first) {
-                    first = false;
+
+        private void appendTaskHeader(TaskExecution task) throws IOException {
+            writer.append("<tr>");
+            writer.append("<td class=\"task-map-header\">");
+            writer.append("<table class=\"task-header\">");
+            writer.append("<tr>");
+            // name
+            writer.append("<td class=\"task-header-name\" id=\"task").append(task.getTaskNumber()).append("\">");
+            writer.append("<a class=\"task-display-toggle\" href=\"#task").append(task.getTaskNumber()).append("\" title=\"Show or hide the task details\" onclick=\"");
+            appendLoadTaskDetails(task, writer);
+            writer.append("toggleDisplayTaskDetails('task").append(task.getTaskNumber()).append("'); return false\">").append(getTaskStatus(task.getResult(), task.getTaskName())).append("</a>");
+            writer.append("</td>");
+            // time
+            final TaskExecutionMetrics metrics = task.getMetrics();
+            if (metrics != null) {
+                writer.append("<td class=\"task-header-time\" title=\"Total time / self time\">").append(formatTime(metrics.getTotal().getDuration())).append(" / ").append(formatTime(metrics.getSelf().getDuration())).append("</td>");
+            }
+            // subtasks toggles
+            if (!task.getSubtasks().isEmpty()) {
+                writer.append("<td class=\"task-header-toggles\">");
+                writer.append("<table>");
+                writer.append("<tr>");
+                if (task.getTaskPath().size() > maxTaskPathSizeToDisplaySubtasks) {
+                    writer.append("<td class=\"task-display-toggle\" style=\"display: none\" id=\"task").append(task.getTaskNumber()).append("-subtasks-hide\">");
+                } else {
+                    writer.append("<td class=\"task-display-toggle\" id=\"task").append(task.getTaskNumber()).append("-subtasks-hide\">");
+                }
+                writer.append("<a class=\"task-display-toggle\" title=\"Hide subtasks\" href=\"#task").append(task.getTaskNumber()).append("\" onclick=\"hideSubtasks('task").append(task.getTaskNumber()).append("'); return false\">-</a>");
+                writer.append("</td>");
+                if (task.getTaskPath().size() > maxTaskPathSizeToDisplaySubtasks) {
+                    writer.append("<td class=\"task-display-toggle\" id=\"task").append(task.getTaskNumber()).append("-subtasks-show\">");
                 } else {
-                    temp.append("<br/>");
+                    writer.append("<td class=\"task-display-toggle\" style=\"display: none\" id=\"task").append(task.getTaskNumber()).append("-subtasks-show\">");
+                }
+                writer.append("<a class=\"task-display-toggle\" title=\"Show subtasks\" href=\"#task").append(task.getTaskNumber()).append("\" onclick=\"showSubtasks('task").append(task.getTaskNumber()).append("'); return false\">+</a>");
+                writer.append("</td>");
+                writer.append("</tr>");
+                writer.append("</table>");
+                writer.append("</td>");
+            }
+            writer.append("</tr>");
+            writer.append("</table>");
+            writer.append("</td>");
+            writer.append("</tr>");
+        }
+
+        private void appendLoadTaskDetails(TaskExecution task, Appendable appendable) throws IOException {
+            if (taskDetailsChunks != null) {
+                appendable.append("loadTaskDetails('task").append(task.getTaskNumber()).append("'); ");
+            }
+        }
+
+        private void appendTaskDetails(TaskExecution task) throws IOException {
+            writer.append("<tr>");
+            writer.append("<td id=\"task").append(task.getTaskNumber()).append("-details\" style=\"display: none\" class=\"task-map-details\"");
+            if (taskDetailsChunks == null) {
+                writer.append(">");
+                appendTaskDetailsTable(task, writer);
+            } else {
+                // only one task's details are kept in memory
+                final StringBuilder details = new StringBuilder();
+                appendTaskDetailsTable(task, details);
+                final int chunk = taskDetailsChunks.add("task" + task.getTaskNumber(), details);
+                writer.append(" data-chunk=\"").append(String.valueOf(chunk)).append("\">");
+            }
+            writer.append("</td></tr>");
+        }
+
+        private void appendTaskDetailsTable(TaskExecution task, Appendable writer) throws IOException {
+            writer.append("<table class=\"task-details\">");
+
+            appendTaskDetailsProperty("Task Number", task.getTaskNumber(), writer);
+            appendTaskDetailsProperty("Task Name", task.getTaskName(), writer);
+            appendTaskDetailsProperty("Task Path", task.getTaskPath(), writer);
+            appendTaskDetailsProperty("Logger Name", task.getLogger().getName(), writer);
+
+            // result
+            final ServerMigrationTaskResult result = task.getResult();
+            appendTaskDetailsProperty("Result Status", getTaskStatus(result, result.getStatus()), writer);
+            if (result.getStatus() == ServerMigrationTaskResult.Status.FAIL) {
+                appendTaskDetailsProperty("Fail Reason", result.getFailReason(), writer);
+            }
+            final Map<String, String> attributes = result.getAttributes();
+            if (attributes != null && !attributes.isEmpty()) {
+                final StringBuilder temp = new StringBuilder();
+                boolean first = true;
+                for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                    if (first) {
+                        first = false;
+                    } else {
+                        temp.append("<br/>");
+                    }
+                    temp.append(attribute.getKey()).append(" = ").append(attribute.getValue());
+                }
+                appendTaskDetailsProperty("Result Attributes", temp, writer);
+            }
+
+            // metrics, total / self
+            final TaskExecutionMetrics metrics = task.getMetrics();
+            if (metrics != null) {
+                final TaskExecutionMetrics.Values total = metrics.getTotal();
+                final TaskExecutionMetrics.Values self = metrics.getSelf();
+                appendTaskDetailsProperty("Time (Total / Self)", formatTime(total.getDuration()) + " / " + formatTime(self.getDuration()), writer);
+                if (total.getCpuTime() >= 0) {
+                    appendTaskDetailsProperty("CPU Time (Total / Self)", formatTime(total.getCpuTime()) + " / " + formatTime(self.getCpuTime()), writer);
+                }
+                if (total.getAllocatedBytes() >= 0) {
+                    appendTaskDetailsProperty("Allocated Bytes (Total / Self)", total.getAllocatedBytes() + " / " + self.getAllocatedBytes(), writer);
+                }
+                if (total.getCopiedBytes() > 0) {
+                    appendTaskDetailsProperty("Copied Bytes (Total / Self)", total.getCopiedBytes() + " / " + self.getCopiedBytes(), writer);
+                }
+                if (total.getManagementOperations() > 0) {
+                    appendTaskDetailsProperty("Management Operations (Total / Self)", total.getManagementOperations() + " in " + formatTime(total.getManagementOperationsTime()) + " / " + self.getManagementOperations() + " in " + formatTime(self.getManagementOperationsTime()), writer);
                 }
-                temp.append(attribute.getKey()).append(" = ").append(attribute.getValue());
             }
-            appendTaskDetailsProperty("Result Attributes", temp, sb);
+
+            // subtasks
+            if (!task.getSubtasks().isEmpty()) {
+                final StringBuilder temp = new StringBuilder();
+                boolean first = true;
+                for (TaskExecution subtask : task.getSubtasks()) {
+                    if (first) {
+                        first = false;
+                    } else {
+                        temp.append("<br/>");
+                    }
+                    temp.append("<a onclick=\"showSubtasks('task").append(task.getTaskNumber()).append("'); ");
+                    appendLoadTaskDetails(subtask, temp);
+                    temp.append("showTaskDetails('task").append(subtask.getTaskNumber()).append("')\" href=\"#task").append(subtask.getTaskNumber()).append("\">").append(subtask.getTaskName()).append("</a>");
+                }
+                appendTaskDetailsProperty("Subtasks", temp, writer);
+            }
+
+            writer.append("</table>");
         }
 
-        // subtasks
-        if (!task.getSubtasks().isEmpty()) {
-            final StringBuilder temp = new StringBuilder();
-            boolean first = true;
-            for (TaskExecution subtask : task.getSubtasks()) {
-                if (first) {
-                    first = false;
+        private void appendTaskSubtasks(TaskExecution task) throws IOException {
+            final List<TaskExecution> subtasks = task.getSubtasks();
+            if (!subtasks.isEmpty()) {
+                writer.append("<tr>");
+                if (task.getTaskPath().size() > maxTaskPathSizeToDisplaySubtasks) {
+                    writer.append("<td class=\"task-map-subtasks\" style=\"display: none\" id=\"task").append(task.getTaskNumber()).append("-subtasks\">");
                 } else {
-                    temp.append("<br/>");
+                    writer.append("<td class=\"task-map-subtasks\" id=\"task").append(task.getTaskNumber()).append("-subtasks\">");
                 }
-                temp.append("<a onclick=\"showSubtasks('task").append(task.getTaskNumber()).append("'); showTaskDetails('task").append(subtask.getTaskNumber()).append("')\" href=\"#task").append(subtask.getTaskNumber()).append("\">").append(subtask.getTaskName()).append("</a>");
+                writer.append("<table class=\"task-subtasks\">");
+                for (TaskExecution subtask : subtasks) {
+                    writer.append("<tr>");
+                    writer.append("<td>");
+                    appendTask(subtask);
+                    writer.append("</td>");
+                    writer.append("</tr>");
+                }
+                writer.append("</table>");
+                writer.append("</td>");
+                writer.append("</tr>");
             }
-            appendTaskDetailsProperty("Subtasks", temp, sb);
         }
 
-        sb.append("</table></td></tr>");
+        private static void appendTaskDetailsProperty(String propertyName, Object propertyValue, Appendable writer) throws IOException {
+            writer.append("<tr><td class=\"task-details-property-name\">")
+                    .append(propertyName)
+                    .append(":</td><td class=\"task-details-property-value\">")
+                    .append(String.valueOf(propertyValue))
+                    .append("</td></tr>");
+        }
+
+        private void appendProperty(String propertyName, Object propertyValue) throws IOException {
+            writer.append("<tr><td class=\"property-name\">")
+                    .append(propertyName)
+                    .append(":</td><td class=\"property-value\">")
+                    .append(String.valueOf(propertyValue))
+                    .append("</td></tr>");
+        }
+
+        private static String formatTime(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+        }
+
+        private static String getTaskStatus(ServerMigrationTaskResult result, Object text) {
+            String writer = "<span class=\"task-result-" + result.getStatus() +
+                    "\">" + text + "</span>";
+            return writer;
+        }
     }
 
-    private void appendTaskSubtasks(TaskExecution task, StringBuilder sb, int maxTaskPathSizeToDisplaySubtasks) {
-        final List<TaskExecution> subtasks = task.getSubtasks();
-        if (!subtasks.isEmpty()) {
-            sb.append("<tr>");
-            if (task.getTaskPath().size() > maxTaskPathSizeToDisplaySubtasks) {
-                sb.append("<td class=\"task-map-subtasks\" style=\"display: none\" id=\"task").append(task.getTaskNumber()).append("-subtasks\">");
+    /**
+     * The task details split from the report, written as JSON chunk files, each loaded by the report, through a script element, when the details of one of its tasks are displayed.
+     */
+    private static class TaskDetailsChunks implements AutoCloseable {
+
+        private final Path dir;
+        private final int chunkSize;
+        private int chunk = -1;
+        private int chunkTasks;
+        private Writer chunkWriter;
+
+        TaskDetailsChunks(Path dir, int chunkSize) throws IOException {
+            this.dir = dir;
+            this.chunkSize = chunkSize;
+            Files.createDirectories(dir);
+            // remove chunks of a previous report
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (file.getFileName().toString().endsWith(".js")) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds a task's details.
+         * @param id the task's id
+         * @param details the task's details html
+         * @return the chunk the task's details were added to
+         * @throws IOException if the chunk write failed
+         */
+        int add(String id, CharSequence details) throws IOException {
+            if (chunkWriter == null || chunkTasks == chunkSize) {
+                closeChunk();
+                chunk++;
+                chunkTasks = 0;
+                chunkWriter = Files.newBufferedWriter(dir.resolve(chunk + ".js"), StandardCharsets.UTF_8);
+                chunkWriter.append(TASK_DETAILS_CALLBACK).append('(').append(String.valueOf(chunk)).append(", {");
             } else {
-                sb.append("<td class=\"task-map-subtasks\" id=\"task").append(task.getTaskNumber()).append("-subtasks\">");
+                chunkWriter.append(',');
             }
-            sb.append("<table class=\"task-subtasks\">");
-            for (TaskExecution subtask : subtasks) {
-                sb.append("<tr>");
-                sb.append("<td>");
-                appendTask(subtask, sb, maxTaskPathSizeToDisplaySubtasks);
-                sb.append("</td>");
-                sb.append("</tr>");
+            chunkWriter.append('\n');
+            appendJsonString(id, chunkWriter);
+            chunkWriter.append(':');
+            appendJsonString(details, chunkWriter);
+            chunkTasks++;
+            return chunk;
+        }
+
+        private void closeChunk() throws IOException {
+            if (chunkWriter != null) {
+                chunkWriter.append("\n});\n");
+                chunkWriter.close();
+                chunkWriter = null;
             }
-            sb.append("</table>");
-            sb.append("</td>");
-            sb.append("</tr>");
         }
-    }
 
-    private void appendTaskDetailsProperty(String propertyName, Object propertyValue, StringBuilder sb) {
-        sb.append("<tr><td class=\"task-details-property-name\">")
-                .append(propertyName)
-                .append(":</td><td class=\"task-details-property-value\">")
-                .append(propertyValue)
-                .append("</td></tr>");
-    }
+        /**
+         * Appends the script which loads the task details chunks.
+         * @param writer the report writer
+         * @throws IOException if the write failed
+         */
+        void appendLoader(Writer writer) throws IOException {
+            writer.append("<script>")
+                    .append("var taskDetailsDir = ");
+            appendJsonString(dir.getFileName().toString(), writer);
+            writer.append(";")
+                    .append("var taskDetailsChunks = {};")
+                    .append("function ").append(TASK_DETAILS_CALLBACK).append("(chunk, details) {")
+                    .append("taskDetailsChunks[chunk] = true;")
+                    .append("for (var id in details) {")
+                    .append("var x = document.getElementById(id+'-details');")
+                    .append("if (x != null) { x.innerHTML = details[id]; }")
+                    .append("}")
+                    .append("}")
+                    .append("function loadTaskDetails(id) {")
+                    .append("var x = document.getElementById(id+'-details');")
+                    .append("if (x == null) { return; }")
+                    .append("var chunk = x.getAttribute('data-chunk');")
+                    .append("if (chunk == null || taskDetailsChunks[chunk]) { return; }")
+                    .append("taskDetailsChunks[chunk] = true;")
+                    .append("var script = document.createElement('script');")
+                    .append("script.src = taskDetailsDir + '/' + chunk + '.js';")
+                    .append("document.body.appendChild(script);")
+                    .append("}")
+                    .append("</script>");
+        }
 
-    private void appendProperty(String propertyName, Object propertyValue, StringBuilder sb) {
-        sb.append("<tr><td class=\"property-name\">")
-                .append(propertyName)
-                .append(":</td><td class=\"property-value\">")
-                .append(propertyValue)
-                .append("</td></tr>");
-    }
+        @Override
+        public void close() throws IOException {
+            closeChunk();
+        }
 
-    private String getTaskStatus(ServerMigrationTaskResult result, Object text) {
-        String sb = "<span class=\"task-result-" + result.getStatus() +
-                "\">" + text + "</span>";
-        return sb;
+        private static void appendJsonString(CharSequence s, Writer writer) throws IOException {
+            // escaped in memory, writers are synchronized per char
+            final StringBuilder json = new StringBuilder(s.length() + 16);
+            json.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                final char c = s.charAt(i);
+                switch (c) {
+                    case '"':
+                        json.append("\\\"");
+                        break;
+                    case '\\':
+                        json.append("\\\\");
+                        break;
+                    case '\n':
+                        json.append("\\n");
+                        break;
+                    case '\r':
+                        json.append("\\r");
+                        break;
+                    case '\t':
+                        json.append("\\t");
+                        break;
+                    case '/':
+                        // no closing tags in the scripts
+                        json.append("\\/");
+                        break;
+                    default:
+                        if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                            json.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            json.append(c);
+                        }
+                }
+            }
+            json.append('"');
+            writer.append(json);
+        }
     }
 
     public static class ReportTemplate {
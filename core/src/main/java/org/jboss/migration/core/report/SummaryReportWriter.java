@@ -18,9 +18,11 @@ package org.jboss.migration.core.report;
 import org.jboss.migration.core.MigrationData;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskExecution;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The summary report writer.
@@ -37,6 +39,8 @@ public class SummaryReportWriter {
     private static final String TASK_NAME_LEVEL_INDENT = " ";
     private static final char SEPARATOR_CHAR = '.';
     private static final int MIN_SEPARATOR_LENGTH = 3;
+    private static final int STATUS_LENGTH = 7;
+    private static final String TIME_FORMAT = "  total %8d ms  self %8d ms";
 
     public String toString(MigrationData migrationData) {
         final List<SummaryTaskEntry> summaryTaskEntries = getSummaryTaskEntries(migrationData);
@@ -69,7 +73,7 @@ public class SummaryReportWriter {
             return;
         }
         String taskNameWithPrefix = prefix+task.getTaskName().toString();
-        summaryTaskEntries.add(new SummaryTaskEntry(taskNameWithPrefix, task.getResult()));
+        summaryTaskEntries.add(new SummaryTaskEntry(taskNameWithPrefix, task.getResult(), task.getMetrics()));
         String subtaskPrefix = TASK_NAME_LEVEL_INDENT + prefix;
         taskDepth++;
         if (taskDepth > maxTaskPathSizeToDisplaySubtasks) {
@@ -119,16 +123,27 @@ public class SummaryReportWriter {
             }
             sb.append(' ');
             // append task result status
-            sb.append(summaryTaskEntry.taskResult.getStatus()).append('\n');
+            final String status = summaryTaskEntry.taskResult.getStatus().toString();
+            sb.append(status);
+            // append task total and self time
+            if (summaryTaskEntry.taskMetrics != null) {
+                for (int i = status.length(); i < STATUS_LENGTH; i++) {
+                    sb.append(' ');
+                }
+                sb.append(String.format(TIME_FORMAT, TimeUnit.NANOSECONDS.toMillis(summaryTaskEntry.taskMetrics.getTotal().getDuration()), TimeUnit.NANOSECONDS.toMillis(summaryTaskEntry.taskMetrics.getSelf().getDuration())));
+            }
+            sb.append('\n');
         }
     }
 
     private static class SummaryTaskEntry {
         private final String taskName;
         private final ServerMigrationTaskResult taskResult;
-        private SummaryTaskEntry(String taskName, ServerMigrationTaskResult taskResult) {
+        private final TaskExecutionMetrics taskMetrics;
+        private SummaryTaskEntry(String taskName, ServerMigrationTaskResult taskResult, TaskExecutionMetrics taskMetrics) {
             this.taskName = taskName;
             this.taskResult = taskResult;
+            this.taskMetrics = taskMetrics;
         }
     }
 }
\ No newline at end of file
@@ -21,8 +21,7 @@ import org.jboss.migration.core.Server;
 import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskExecution;
-import org.jboss.migration.core.util.xml.AttributeValue;
-import org.jboss.migration.core.util.xml.ElementNode;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
 import org.jboss.staxmapper.XMLElementWriter;
 import org.jboss.staxmapper.XMLExtendedStreamWriter;
 import org.jboss.staxmapper.XMLMapper;
@@ -30,10 +29,15 @@ import org.jboss.staxmapper.XMLMapper;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
@@ -42,10 +46,14 @@ import java.util.TimeZone;
 
 /**
  * The XML report writer.
+ *
+ * The report is streamed directly from the task execution tree, and tasks without result yet, i.e. still running, are written without the result element, which allows writing partial reports while the migration runs.
  * @author emmartins
  */
 public class XmlReportWriter implements XMLElementWriter<MigrationData> {
 
+    public static final String NAMESPACE = "urn:jboss:server-migration:1.0";
+
     public static XmlReportWriter INSTANCE = new XmlReportWriter();
 
     private XmlReportWriter() {
@@ -59,8 +67,8 @@ public class XmlReportWriter implements XMLElementWriter<MigrationData> {
 
     public void writeContent(File file, MigrationData value) throws XMLStreamException, IOException {
         Files.createDirectories(file.toPath().getParent());
-        try (FileOutputStream out = new FileOutputStream(file)) {
-            final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
             try {
                 writeContent(writer, value);
             } finally {
@@ -72,93 +80,145 @@ public class XmlReportWriter implements XMLElementWriter<MigrationData> {
         }
     }
 
+    /**
+     * Writes the report to the specified file, replacing it only after the report is completely written, thus a failure, or a concurrent reader, never sees a truncated report.
+     * @param path the report file's path
+     * @param value the migration data
+     * @throws XMLStreamException if the report writing failed
+     * @throws IOException if the report file writing failed
+     */
+    public void writeContentAtomically(Path path, MigrationData value) throws XMLStreamException, IOException {
+        final Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        final Path tmpFile = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            writeContent(tmpFile.toFile(), value);
+            try {
+                Files.move(tmpFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
     @Override
     public void writeContent(XMLExtendedStreamWriter streamWriter, MigrationData description) throws XMLStreamException {
-        // build node tree
-        final ElementNode rootElementNode = new ElementNode(null, "server-migration-report", "urn:jboss:server-migration:1.0");
-        processMigrationData(description, rootElementNode);
-        // write the xml
         streamWriter.writeStartDocument();
-        rootElementNode.marshall(streamWriter);
+        streamWriter.setDefaultNamespace(NAMESPACE);
+        streamWriter.writeStartElement("server-migration-report");
+        streamWriter.writeNamespace(null, NAMESPACE);
+        processMigrationData(description, streamWriter);
+        streamWriter.writeEndElement();
         streamWriter.writeEndDocument();
     }
 
-    protected void processMigrationData(MigrationData description, ElementNode rootElementNode) {
+    protected void processMigrationData(MigrationData description, XMLStreamWriter streamWriter) throws XMLStreamException {
         final SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z");
         sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
         final String utcTime = sdf.format(new Date(description.getRootTask().getStartTime()));
-        rootElementNode.addAttribute("start-time", new AttributeValue(utcTime));
-        final ElementNode serversNode = new ElementNode(rootElementNode, "servers");
-        processServer(description.getSource(), serversNode, "source");
-        processServer(description.getTarget(), serversNode, "target");
-        rootElementNode.addChild(serversNode);
-        processEnvironment(description.getServerMigrationEnvironment(), rootElementNode);
-        processTask(description.getRootTask(), rootElementNode);
+        streamWriter.writeAttribute("start-time", utcTime);
+        streamWriter.writeStartElement(NAMESPACE, "servers");
+        processServer(description.getSource(), streamWriter, "source");
+        processServer(description.getTarget(), streamWriter, "target");
+        streamWriter.writeEndElement();
+        processEnvironment(description.getServerMigrationEnvironment(), streamWriter);
+        processTask(description.getRootTask(), streamWriter);
     }
 
-    protected void processServer(Server server, ElementNode parentElementNode, String elementLocalName) {
-        final ElementNode serverNode = new ElementNode(parentElementNode, elementLocalName);
-        serverNode.addAttribute("name", new AttributeValue(server.getProductInfo().getName()));
-        serverNode.addAttribute("version", new AttributeValue(server.getProductInfo().getVersion()));
-        serverNode.addAttribute("base-dir", new AttributeValue(server.getBaseDir().toString()));
-        parentElementNode.addChild(serverNode);
+    protected void processServer(Server server, XMLStreamWriter streamWriter, String elementLocalName) throws XMLStreamException {
+        streamWriter.writeEmptyElement(NAMESPACE, elementLocalName);
+        streamWriter.writeAttribute("name", server.getProductInfo().getName());
+        streamWriter.writeAttribute("version", server.getProductInfo().getVersion());
+        streamWriter.writeAttribute("base-dir", server.getBaseDir().toString());
     }
 
-    protected void processEnvironment(MigrationEnvironment environment, ElementNode parentElementNode) {
-        final ElementNode environmentNode = new ElementNode(parentElementNode, "environment");
-        for (String propertyName : environment.getPropertyNamesReaded()) {
-            final ElementNode propertyNode = new ElementNode(environmentNode, "property");
-            propertyNode.addAttribute("name", new AttributeValue(propertyName));
-            propertyNode.addAttribute("value", new AttributeValue(environment.getPropertyAsString(propertyName, "null")));
-            environmentNode.addChild(propertyNode);
+    protected void processEnvironment(MigrationEnvironment environment, XMLStreamWriter streamWriter) throws XMLStreamException {
+        final List<String> propertyNames = environment.getPropertyNamesReaded();
+        if (propertyNames.isEmpty()) {
+            streamWriter.writeEmptyElement(NAMESPACE, "environment");
+            return;
         }
-        parentElementNode.addChild(environmentNode);
+        streamWriter.writeStartElement(NAMESPACE, "environment");
+        for (String propertyName : propertyNames) {
+            streamWriter.writeEmptyElement(NAMESPACE, "property");
+            streamWriter.writeAttribute("name", propertyName);
+            streamWriter.writeAttribute("value", environment.getPropertyAsString(propertyName, "null"));
+        }
+        streamWriter.writeEndElement();
     }
 
-
-    protected void processTask(TaskExecution task, ElementNode parentElementNode) {
-        final ElementNode taskNode = new ElementNode(parentElementNode, "task");
-        taskNode.addAttribute("number", new AttributeValue(String.valueOf(task.getTaskNumber())));
-        taskNode.addAttribute("name", new AttributeValue(task.getTaskName().toString()));
-        processTaskLogger(task.getLogger(), taskNode);
-        processTaskResult(task.getResult(), taskNode);
-        processSubtasks(task.getSubtasks(), taskNode);
-        parentElementNode.addChild(taskNode);
+    protected void processTask(TaskExecution task, XMLStreamWriter streamWriter) throws XMLStreamException {
+        streamWriter.writeStartElement(NAMESPACE, "task");
+        streamWriter.writeAttribute("number", String.valueOf(task.getTaskNumber()));
+        streamWriter.writeAttribute("name", task.getTaskName().toString());
+        processTaskLogger(task.getLogger(), streamWriter);
+        final ServerMigrationTaskResult result = task.getResult();
+        if (result != null) {
+            processTaskResult(result, streamWriter);
+        }
+        final TaskExecutionMetrics metrics = task.getMetrics();
+        if (metrics != null) {
+            processTaskMetrics(metrics, streamWriter);
+        }
+        processSubtasks(task.getSubtasks(), streamWriter);
+        streamWriter.writeEndElement();
     }
 
-    protected void processTaskLogger(Logger logger, ElementNode taskNode) {
-        final ElementNode loggerNode = new ElementNode(taskNode, "logger");
-        loggerNode.addAttribute("logger", new AttributeValue(logger.getName()));
-        taskNode.addChild(loggerNode);
+    protected void processTaskLogger(Logger logger, XMLStreamWriter streamWriter) throws XMLStreamException {
+        streamWriter.writeEmptyElement(NAMESPACE, "logger");
+        streamWriter.writeAttribute("logger", logger.getName());
     }
 
-    protected void processTaskResult(ServerMigrationTaskResult result, ElementNode taskNode) {
-        final ElementNode resultNode = new ElementNode(taskNode, "result");
-        resultNode.addAttribute("status", new AttributeValue(result.getStatus().name()));
+    protected void processTaskResult(ServerMigrationTaskResult result, XMLStreamWriter streamWriter) throws XMLStreamException {
+        final Map<String, String> attributes = result.getAttributes();
+        final boolean hasAttributes = attributes != null && !attributes.isEmpty();
+        if (hasAttributes) {
+            streamWriter.writeStartElement(NAMESPACE, "result");
+        } else {
+            streamWriter.writeEmptyElement(NAMESPACE, "result");
+        }
+        streamWriter.writeAttribute("status", result.getStatus().name());
         if (result.getFailReason() != null) {
-            resultNode.addAttribute("fail-reason", new AttributeValue(result.getFailReason().toString()));
+            streamWriter.writeAttribute("fail-reason", result.getFailReason().toString());
         }
-        final Map<String, String> attributes = result.getAttributes();
-        if (attributes != null && !attributes.isEmpty()) {
-            final ElementNode attributesElementNode = new ElementNode(resultNode, "attributes");
+        if (hasAttributes) {
+            streamWriter.writeStartElement(NAMESPACE, "attributes");
             for (Map.Entry<String, String> attribute : attributes.entrySet()) {
-                final ElementNode attributeElementNode = new ElementNode(resultNode, "attribute");
-                attributeElementNode.addAttribute("name", new AttributeValue(attribute.getKey()));
-                attributeElementNode.addAttribute("value", new AttributeValue(attribute.getValue()));
-                attributesElementNode.addChild(attributeElementNode);
+                streamWriter.writeEmptyElement(NAMESPACE, "attribute");
+                streamWriter.writeAttribute("name", attribute.getKey());
+                streamWriter.writeAttribute("value", attribute.getValue());
             }
-            resultNode.addChild(attributesElementNode);
+            streamWriter.writeEndElement();
+            streamWriter.writeEndElement();
         }
-        taskNode.addChild(resultNode);
     }
 
-    protected void processSubtasks(List<TaskExecution> subtasks, ElementNode taskNode) {
+    protected void processTaskMetrics(TaskExecutionMetrics metrics, XMLStreamWriter streamWriter) throws XMLStreamException {
+        streamWriter.writeStartElement(NAMESPACE, "metrics");
+        processTaskMetricsValues(metrics.getTotal(), streamWriter, "total");
+        processTaskMetricsValues(metrics.getSelf(), streamWriter, "self");
+        streamWriter.writeEndElement();
+    }
+
+    protected void processTaskMetricsValues(TaskExecutionMetrics.Values values, XMLStreamWriter streamWriter, String elementLocalName) throws XMLStreamException {
+        streamWriter.writeEmptyElement(NAMESPACE, elementLocalName);
+        streamWriter.writeAttribute("duration", String.valueOf(values.getDuration()));
+        streamWriter.writeAttribute("cpu-time", String.valueOf(values.getCpuTime()));
+        streamWriter.writeAttribute("allocated-bytes", String.valueOf(values.getAllocatedBytes()));
+        streamWriter.writeAttribute("copied-bytes", String.valueOf(values.getCopiedBytes()));
+        streamWriter.writeAttribute("management-operations", String.valueOf(values.getManagementOperations()));
+        streamWriter.writeAttribute("management-operations-time", String.valueOf(values.getManagementOperationsTime()));
+    }
+
+    protected void processSubtasks(List<TaskExecution> subtasks, XMLStreamWriter streamWriter) throws XMLStreamException {
         if (subtasks != null && !subtasks.isEmpty()) {
-            final ElementNode subtasksNode = new ElementNode(taskNode, "subtasks");
+            streamWriter.writeStartElement(NAMESPACE, "subtasks");
             for (TaskExecution subtask : subtasks) {
-                processTask(subtask, subtasksNode);
+                processTask(subtask, streamWriter);
             }
-            taskNode.addChild(subtasksNode);
+            streamWriter.writeEndElement();
         }
     }
 }
@@ -36,4 +36,12 @@ public interface ServerMigrationTask {
      * @throws ServerMigrationFailureException if the task failed to run
      */
     ServerMigrationTaskResult run(TaskContext context) throws ServerMigrationFailureException;
+
+    /**
+     * Retrieves the resources read and written by the task.
+     * @return the resources read and written by the task, null if unknown, in which case the task is never executed concurrently with other subtasks of its parent
+     */
+    default TaskResources getResources() {
+        return null;
+    }
 }
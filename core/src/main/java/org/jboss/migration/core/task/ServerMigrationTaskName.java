@@ -22,6 +22,8 @@ import java.util.Map;
 
 /**
  * The server migration task id.
+ *
+ * The names, and the attribute names, are interned, since many task executions share them. The JVM string pool is used, which does not retain names no longer referenced.
  * @author emmartins
  */
 public class ServerMigrationTaskName implements Serializable {
@@ -32,8 +34,33 @@ public class ServerMigrationTaskName implements Serializable {
     private final Map<String, String> attributes;
 
     private ServerMigrationTaskName(String name, Map<String, String> attributes) {
-        this.name = name;
-        this.attributes = attributes != null ? Collections.unmodifiableMap(attributes) : NO_ATTRIBUTES;
+        this.name = intern(name);
+        this.attributes = compactAttributes(attributes);
+    }
+
+    /**
+     * Interns a task or attribute name.
+     * @param name the name
+     * @return the interned name
+     */
+    static String intern(String name) {
+        return name != null ? name.intern() : null;
+    }
+
+    /**
+     * Retrieves the read only, and compact, form of the specified attributes.
+     * @param attributes the attributes, with interned names
+     * @return the read only, and compact, form of the specified attributes
+     */
+    static Map<String, String> compactAttributes(Map<String, String> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            return NO_ATTRIBUTES;
+        }
+        if (attributes.size() == 1) {
+            final Map.Entry<String, String> attribute = attributes.entrySet().iterator().next();
+            return Collections.singletonMap(attribute.getKey(), attribute.getValue());
+        }
+        return Collections.unmodifiableMap(attributes);
     }
 
     /**
@@ -110,7 +137,7 @@ public class ServerMigrationTaskName implements Serializable {
             if (attributes == null) {
                 attributes = new HashMap<>();
             }
-            attributes.put(name, value);
+            attributes.put(intern(name), value);
             return this;
         }
 
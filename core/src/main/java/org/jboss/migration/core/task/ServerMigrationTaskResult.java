@@ -63,7 +63,7 @@ public class ServerMigrationTaskResult {
             throw new IllegalArgumentException("null status");
         }
         this.failReason = failReason;
-        this.attributes = attributes != null ? Collections.unmodifiableMap(attributes) : NO_ATTRIBUTES;
+        this.attributes = attributes != null ? ServerMigrationTaskName.compactAttributes(attributes) : NO_ATTRIBUTES;
     }
 
     /**
@@ -143,7 +143,7 @@ public class ServerMigrationTaskResult {
             if (attributes == null) {
                 attributes = new HashMap<>();
             }
-            attributes.put(name, value.toString());
+            attributes.put(ServerMigrationTaskName.intern(name), value.toString());
             return this;
         }
 
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.migration.core.task;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor of the concurrent subtasks of a task execution tree, shared by all its task executions, and thus by the whole migration.
+ *
+ * Its threads are only created when first needed, and reused afterwards. The pool is not bounded, since a task waiting for its concurrent subtasks may have these, in turn, waiting for their own, and the parallelism of each execution is bounded by the number of workers it submits instead.
+ * @author emmartins
+ */
+class SubtaskExecutor {
+
+    private static final AtomicInteger EXECUTOR_NUMBER = new AtomicInteger();
+
+    // guarded by this, null until first needed
+    private ExecutorService executorService;
+    private boolean shutdown;
+
+    /**
+     * Submits a worker.
+     * @param worker the worker to submit
+     * @return the worker's future
+     * @throws IllegalStateException if the executor was shutdown
+     */
+    synchronized Future<?> submit(Runnable worker) throws IllegalStateException {
+        if (shutdown) {
+            throw new IllegalStateException("Subtask executor is shutdown");
+        }
+        if (executorService == null) {
+            executorService = Executors.newCachedThreadPool(new SubtaskThreadFactory(EXECUTOR_NUMBER.incrementAndGet()));
+        }
+        return executorService.submit(worker);
+    }
+
+    /**
+     * Shuts down the executor, its idle threads terminate immediately.
+     */
+    synchronized void shutdown() {
+        shutdown = true;
+        if (executorService != null) {
+            executorService.shutdown();
+            executorService = null;
+        }
+    }
+
+    private static class SubtaskThreadFactory implements ThreadFactory {
+
+        private final int executorNumber;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        SubtaskThreadFactory(int executorNumber) {
+            this.executorNumber = executorNumber;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "migration-" + executorNumber + "-subtask-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
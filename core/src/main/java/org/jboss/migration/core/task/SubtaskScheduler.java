@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.task;
+
+import org.jboss.migration.core.ServerMigrationFailureException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Executes a task's subtasks, in the order these are submitted, yet concurrently if these declare {@link TaskResources} which do not conflict.
+ *
+ * Consecutive subtasks which declare resources, not conflicting with each other, are grouped and executed concurrently once a subtask which does not fit the group is submitted, or the scheduler is flushed. A subtask which does not declare its resources is only executed after all previously submitted subtasks, and before any other submitted later. The subtask executions are registered, and numbered, in the order the subtasks are submitted, thus the migration reports are the same as if these were executed sequentially.
+ *
+ * If the parallelism is not greater than one, which is the default, or the migration is interactive, each subtask is executed when submitted.
+ * @author emmartins
+ */
+public class SubtaskScheduler {
+
+    public static final String ENVIRONMENT_PROPERTY_PARALLELISM = "subtasks.parallelism";
+
+    public static final int DEFAULT_PARALLELISM = 1;
+
+    private final TaskContext context;
+    private final int parallelism;
+    private final List<ServerMigrationTask> group = new ArrayList<>();
+    private final List<TaskResources> groupResources = new ArrayList<>();
+    private final List<TaskExecution> executions = new ArrayList<>();
+
+    /**
+     *
+     * @param context the context of the task which subtasks are executed
+     * @throws ServerMigrationFailureException if the parallelism environment property value is not valid
+     */
+    public SubtaskScheduler(TaskContext context) throws ServerMigrationFailureException {
+        this(context, getParallelism(context));
+    }
+
+    /**
+     *
+     * @param context the context of the task which subtasks are executed
+     * @param parallelism the max number of subtasks executing concurrently
+     */
+    public SubtaskScheduler(TaskContext context, int parallelism) {
+        this.context = context;
+        this.parallelism = context.isInteractive() ? 1 : parallelism;
+    }
+
+    /**
+     * Retrieves the max number of subtasks executing concurrently, set by the migration environment.
+     * @param context the context of the task which subtasks are executed
+     * @return the max number of subtasks executing concurrently
+     * @throws ServerMigrationFailureException if the parallelism environment property value is not valid
+     */
+    public static int getParallelism(TaskContext context) throws ServerMigrationFailureException {
+        final String parallelism = context.getMigrationEnvironment().getPropertyAsString(ENVIRONMENT_PROPERTY_PARALLELISM, String.valueOf(DEFAULT_PARALLELISM));
+        try {
+            return Integer.parseInt(parallelism.trim());
+        } catch (NumberFormatException e) {
+            throw new ServerMigrationFailureException("Invalid value for environment property "+ENVIRONMENT_PROPERTY_PARALLELISM+": "+parallelism);
+        }
+    }
+
+    /**
+     * Submits a subtask for execution, which may be deferred until a conflicting subtask is submitted, or the scheduler is flushed.
+     * @param subtask the subtask
+     * @throws ServerMigrationFailureException if the execution of a previously submitted subtask, or of the subtask, failed
+     */
+    public void execute(ServerMigrationTask subtask) throws ServerMigrationFailureException {
+        final TaskResources resources = parallelism > 1 ? subtask.getResources() : null;
+        if (resources == null) {
+            flush();
+            executions.add(context.execute(subtask));
+            return;
+        }
+        for (TaskResources otherResources : groupResources) {
+            if (resources.conflictsWith(otherResources)) {
+                flush();
+                break;
+            }
+        }
+        group.add(subtask);
+        groupResources.add(resources);
+    }
+
+    /**
+     * Executes the submitted subtasks not executed yet.
+     * @throws ServerMigrationFailureException if the execution of a subtask failed
+     */
+    public void flush() throws ServerMigrationFailureException {
+        if (group.isEmpty()) {
+            return;
+        }
+        final List<ServerMigrationTask> subtasks = new ArrayList<>(group);
+        group.clear();
+        groupResources.clear();
+        if (subtasks.size() == 1) {
+            executions.add(context.execute(subtasks.get(0)));
+        } else {
+            context.getLogger().debugf("Executing %d subtasks concurrently, with parallelism %d...", subtasks.size(), parallelism);
+            executions.addAll(context.execute(subtasks, parallelism));
+        }
+    }
+
+    /**
+     * Retrieves the executions of the submitted subtasks already executed.
+     * @return the executions of the submitted subtasks already executed, in the order the subtasks were submitted
+     */
+    public List<TaskExecution> getExecutions() {
+        return Collections.unmodifiableList(executions);
+    }
+}
@@ -62,6 +62,16 @@ public interface TaskContext extends ServerMigrationContext {
      */
     TaskExecution execute(ServerMigrationTask subtask) throws IllegalStateException, ServerMigrationFailureException;
 
+    /**
+     * Executes subtasks, concurrently if the parallelism is greater than one. The subtask executions are registered in the order the subtasks are specified, independently of the order these complete.
+     * @param subtasks the subtasks to execute
+     * @param parallelism the max number of subtasks executing concurrently
+     * @return the subtask executions
+     * @throws IllegalStateException if the task result is already set
+     * @throws ServerMigrationFailureException if a subtask execution failed
+     */
+    List<? extends TaskExecution> execute(List<? extends ServerMigrationTask> subtasks, int parallelism) throws IllegalStateException, ServerMigrationFailureException;
+
     /**
      * Creates and executes a subtask, from the specified name and runnable components.
      * @param taskName the subtask's name
@@ -68,6 +68,11 @@ public class TaskContextImpl implements TaskContext {
         return taskExecution.execute(subtask);
     }
 
+    @Override
+    public List<TaskExecutionImpl> execute(List<? extends ServerMigrationTask> subtasks, int parallelism) throws IllegalStateException, ServerMigrationFailureException {
+        return taskExecution.execute(subtasks, parallelism);
+    }
+
     @Override
     public TaskExecution execute(ServerMigrationTaskName taskName, TaskRunnable taskRunnable) throws IllegalStateException, ServerMigrationFailureException {
         return execute(new ServerMigrationTask() {
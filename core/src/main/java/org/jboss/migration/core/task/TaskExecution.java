@@ -30,6 +30,8 @@ public interface TaskExecution {
     ServerMigrationContext getServerMigrationContext();
     List<TaskExecution> getSubtasks();
     long getStartTime();
+    long getEndTime();
+    TaskExecutionMetrics getMetrics();
     ServerMigrationTaskName getTaskName();
     String getTaskNumber();
     ServerMigrationTaskPath getTaskPath();
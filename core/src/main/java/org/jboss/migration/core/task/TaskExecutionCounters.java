@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.task;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The counters of a task execution tree, updated as its task executions start and complete, thus retrieving these does not walk the tree.
+ * @author emmartins
+ */
+public class TaskExecutionCounters {
+
+    private final AtomicInteger tasks = new AtomicInteger();
+    private final AtomicIntegerArray results = new AtomicIntegerArray(ServerMigrationTaskResult.Status.values().length);
+
+    void taskStarted() {
+        tasks.incrementAndGet();
+    }
+
+    void taskCompleted(ServerMigrationTaskResult result) {
+        if (result != null) {
+            results.incrementAndGet(result.getStatus().ordinal());
+        }
+    }
+
+    /**
+     * Retrieves the number of task executions started.
+     * @return the number of task executions started
+     */
+    public int getTaskCount() {
+        return tasks.get();
+    }
+
+    /**
+     * Retrieves the number of task executions completed with the specified status result.
+     * @param status the status result
+     * @return the number of task executions completed with the specified status result
+     */
+    public int getTaskCount(ServerMigrationTaskResult.Status status) {
+        return results.get(status.ordinal());
+    }
+}
@@ -18,26 +18,47 @@ package org.jboss.migration.core.task;
 import org.jboss.logging.Logger;
 import org.jboss.migration.core.ServerMigrationContext;
 import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.jfr.FlightRecorderEvents;
+import org.jboss.migration.core.jfr.TaskExecutionEvent;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * The server migration task execution.
+ *
+ * A migration may execute hundreds of thousands of tasks, thus each execution is kept compact: the subtasks list is only created when a subtask is executed, the subtask counter and start time are plain fields updated atomically, and the counters of the whole tree are shared by all its executions, instead of each one collecting these from its subtasks. The executor of concurrent subtasks is shared by the whole tree too, and shutdown once the root task execution completes.
  * @author emmartins
  */
 public class TaskExecutionImpl implements TaskExecution {
 
-    private final AtomicLong taskCounter = new AtomicLong(0);
+    // the task executing in each thread
+    private static final ThreadLocal<TaskExecutionImpl> CURRENT = new ThreadLocal<>();
+
+    private static final AtomicIntegerFieldUpdater<TaskExecutionImpl> SUBTASK_COUNTER = AtomicIntegerFieldUpdater.newUpdater(TaskExecutionImpl.class, "subtaskCounter");
+    private static final AtomicLongFieldUpdater<TaskExecutionImpl> START_TIME = AtomicLongFieldUpdater.newUpdater(TaskExecutionImpl.class, "startTime");
+
+    private volatile int subtaskCounter;
 
     private final ServerMigrationTask task;
     private final TaskExecutionImpl parent;
-    private final List<TaskExecutionImpl> children;
+    // guarded by this, null until a subtask is registered
+    private List<TaskExecutionImpl> children;
+    private final TaskExecutionCounters treeCounters;
+    private final SubtaskExecutor treeExecutor;
     private final ServerMigrationContext serverMigrationContext;
-    private final AtomicLong startTime = new AtomicLong(0L);
-    private ServerMigrationTaskResult result;
+    private volatile long startTime;
+    private volatile ServerMigrationTaskResult result;
+    private volatile long endTime;
+    private final TaskExecutionMetrics.Recorder metricsRecorder = new TaskExecutionMetrics.Recorder();
+    private volatile TaskExecutionMetrics metrics;
+    private volatile TaskFingerprint fingerprint;
     private final Logger logger;
     private final String taskNumber;
     private final ServerMigrationTaskPath taskPath;
@@ -54,9 +75,10 @@ public class TaskExecutionImpl implements TaskExecution {
         this.task = task;
         this.parent = parent;
         this.serverMigrationContext = serverMigrationContext;
-        this.children = new ArrayList<>();
-        taskNumber = parent == null ? "1" : parent.getTaskNumber() +":" + parent.taskCounter.incrementAndGet();
-        this.logger = Logger.getLogger(ServerMigrationTask.class.getName()+'#'+taskNumber);
+        this.treeCounters = parent == null ? new TaskExecutionCounters() : parent.treeCounters;
+        this.treeExecutor = parent == null ? new SubtaskExecutor() : parent.treeExecutor;
+        taskNumber = parent == null ? "1" : parent.getTaskNumber() +":" + SUBTASK_COUNTER.incrementAndGet(parent);
+        this.logger = new TaskLogger(taskNumber);
         this.taskPath = new ServerMigrationTaskPath(task.getName(), parent != null ? parent.getTaskPath() : null);
     }
 
@@ -97,7 +119,52 @@ public class TaskExecutionImpl implements TaskExecution {
      * @return
      */
     public long getStartTime() {
-        return startTime.get();
+        return startTime;
+    }
+
+    /**
+     * Retrieves the task execution end time in milliseconds.
+     * @return the task execution end time, 0 if the execution did not complete
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Retrieves the task execution metrics.
+     * @return the task execution metrics, null if the execution did not complete
+     */
+    public TaskExecutionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     *
+     * @return the task execution in the current thread, null if there is none
+     */
+    static TaskExecutionImpl getCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     *
+     * @return the fingerprint being recorded for the task execution, null if there is none
+     */
+    TaskFingerprint getFingerprint() {
+        return fingerprint;
+    }
+
+    void setFingerprint(TaskFingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Retrieves the metrics recorder of the task executing in the current thread.
+     * @return the metrics recorder of the task executing in the current thread, null if none
+     */
+    static TaskExecutionMetrics.Recorder getCurrentMetricsRecorder() {
+        final TaskExecutionImpl current = CURRENT.get();
+        return current != null ? current.metricsRecorder : null;
     }
 
     /**
@@ -110,10 +177,33 @@ public class TaskExecutionImpl implements TaskExecution {
 
     /**
      * Retrieves the children task executions.
-     * @return the children task executions
+     * @return the children task executions, a snapshot if the task execution did not complete
      */
-    public List<TaskExecution> getSubtasks() {
-        return Collections.unmodifiableList(children);
+    public synchronized List<TaskExecution> getSubtasks() {
+        if (children == null) {
+            return Collections.emptyList();
+        }
+        // once completed no more children are registered, and there is no need to copy these
+        return endTime != 0L ? Collections.unmodifiableList(children) : new ArrayList<TaskExecution>(children);
+    }
+
+    private synchronized List<TaskExecutionImpl> getChildren() {
+        return children != null ? children : Collections.<TaskExecutionImpl>emptyList();
+    }
+
+    private synchronized void addChild(TaskExecutionImpl child) {
+        if (children == null) {
+            children = new ArrayList<>();
+        }
+        children.add(child);
+    }
+
+    /**
+     * Retrieves the counters of the task execution's tree, i.e. of the root task execution and all its descendants.
+     * @return the counters of the task execution's tree
+     */
+    public TaskExecutionCounters getTreeCounters() {
+        return treeCounters;
     }
 
     /**
@@ -155,16 +245,115 @@ public class TaskExecutionImpl implements TaskExecution {
             throw new IllegalArgumentException("substask "+subtask+" has no name");
         }
         final TaskExecutionImpl child = new TaskExecutionImpl(subtask, this);
-        children.add(child);
+        addChild(child);
         child.run();
         return child;
     }
 
+    /**
+     * Executes subtasks, concurrently if the parallelism is greater than one. The subtask executions are registered in the order the subtasks are specified, independently of the order these complete. As with sequential execution, once a subtask fails no more subtasks are started, only the ones already executing complete.
+     * @param subtasks the subtasks to execute
+     * @param parallelism the max number of subtasks executing concurrently
+     * @return the subtask executions
+     * @throws IllegalStateException if the task result is already set
+     * @throws ServerMigrationFailureException if a subtask execution failed
+     */
+    List<TaskExecutionImpl> execute(List<? extends ServerMigrationTask> subtasks, int parallelism) throws IllegalStateException, ServerMigrationFailureException {
+        if (parallelism < 2 || subtasks.size() < 2) {
+            final List<TaskExecutionImpl> subtaskExecutions = new ArrayList<>();
+            for (ServerMigrationTask subtask : subtasks) {
+                subtaskExecutions.add(execute(subtask));
+            }
+            return subtaskExecutions;
+        }
+        if (this.result != null) {
+            throw new IllegalStateException();
+        }
+        final List<TaskExecutionImpl> subtaskExecutions = new ArrayList<>();
+        for (ServerMigrationTask subtask : subtasks) {
+            if (subtask.getName() == null) {
+                throw new IllegalArgumentException("substask "+subtask+" has no name");
+            }
+            subtaskExecutions.add(new TaskExecutionImpl(subtask, this));
+        }
+        // each worker executes the next subtask not started, till none is left
+        final AtomicInteger nextSubtask = new AtomicInteger();
+        final Throwable[] subtaskFailures = new Throwable[subtaskExecutions.size()];
+        final Runnable worker = () -> {
+            for (int i = nextSubtask.getAndIncrement(); i < subtaskExecutions.size(); i = nextSubtask.getAndIncrement()) {
+                try {
+                    subtaskExecutions.get(i).run();
+                } catch (Throwable t) {
+                    subtaskFailures[i] = t;
+                    // as with sequential execution, no more subtasks are started after a failure
+                    nextSubtask.set(subtaskExecutions.size());
+                }
+            }
+        };
+        ServerMigrationFailureException failure = null;
+        // the time waiting for the subtasks is not measured as the task's own
+        final boolean measuring = CURRENT.get() == this;
+        if (measuring) {
+            metricsRecorder.suspend();
+        }
+        final List<Future<?>> futures = new ArrayList<>();
+        try {
+            final int workers = Math.min(parallelism, subtasks.size());
+            for (int i = 0; i < workers; i++) {
+                futures.add(treeExecutor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            // the failure reported is the one of the first subtask specified
+            for (Throwable subtaskFailure : subtaskFailures) {
+                if (subtaskFailure != null) {
+                    failure = subtaskFailure instanceof ServerMigrationFailureException ? (ServerMigrationFailureException) subtaskFailure : new ServerMigrationFailureException(subtaskFailure);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // no more subtasks are started, and those executing are interrupted
+            nextSubtask.set(subtaskExecutions.size());
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            failure = new ServerMigrationFailureException(e);
+        } catch (ExecutionException e) {
+            // workers handle the subtask failures
+            failure = new ServerMigrationFailureException(e.getCause());
+        } finally {
+            if (measuring) {
+                metricsRecorder.resume();
+            }
+            // only register the subtask executions started
+            for (TaskExecutionImpl subtaskExecution : subtaskExecutions) {
+                if (subtaskExecution.getStartTime() != 0L) {
+                    addChild(subtaskExecution);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return subtaskExecutions;
+    }
+
     public void run() throws IllegalStateException, ServerMigrationFailureException {
-        if (!startTime.compareAndSet(0L, System.currentTimeMillis())) {
+        if (!START_TIME.compareAndSet(this, 0L, System.currentTimeMillis())) {
             throw new IllegalStateException("Task "+ taskPath +" already started");
         }
+        treeCounters.taskStarted();
         logger.tracef("Task %s execution starting...", taskPath);
+        final TaskExecutionImpl previous = CURRENT.get();
+        if (previous != null) {
+            // the parent's measuring is suspended while its subtask executes in the same thread
+            previous.metricsRecorder.suspend();
+        }
+        CURRENT.set(this);
+        metricsRecorder.start();
+        final TaskExecutionEvent event = FlightRecorderEvents.beginTaskExecution();
         try {
             result = task.run(new TaskContextImpl(this));
         } catch (ServerMigrationFailureException e) {
@@ -175,6 +364,21 @@ public class TaskExecutionImpl implements TaskExecution {
             result = ServerMigrationTaskResult.fail(e);
             throw e;
         } finally {
+            metrics = metricsRecorder.stop(getChildren());
+            treeCounters.taskCompleted(result);
+            endTime = System.currentTimeMillis();
+            if (event != null) {
+                event.complete(taskPath, taskNumber, result != null ? result.getStatus() : null);
+            }
+            if (previous != null) {
+                CURRENT.set(previous);
+                previous.metricsRecorder.resume();
+            } else {
+                CURRENT.remove();
+            }
+            if (parent == null) {
+                treeExecutor.shutdown();
+            }
             logger.tracef("Task %s execution completed with result status... %s", taskPath, result);
         }
     }
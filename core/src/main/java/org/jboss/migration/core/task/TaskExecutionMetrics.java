@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.task;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The metrics of a completed task execution.
+ *
+ * The self values exclude the task's subtasks, while the total values include these. Time values are in nanoseconds, and CPU time and allocated bytes are -1 if the JVM does not support measuring these.
+ * @author emmartins
+ */
+public class TaskExecutionMetrics {
+
+    private final Values self;
+    private final Values total;
+
+    public TaskExecutionMetrics(Values self, Values total) {
+        this.self = self;
+        this.total = total;
+    }
+
+    /**
+     *
+     * @return the metrics of the task, excluding its subtasks
+     */
+    public Values getSelf() {
+        return self;
+    }
+
+    /**
+     *
+     * @return the metrics of the task, including its subtasks
+     */
+    public Values getTotal() {
+        return total;
+    }
+
+    /**
+     * Records bytes copied by the task executing in the current thread.
+     * @param bytes the number of bytes copied
+     */
+    public static void recordCopiedBytes(long bytes) {
+        final Recorder recorder = TaskExecutionImpl.getCurrentMetricsRecorder();
+        if (recorder != null) {
+            recorder.copiedBytes += bytes;
+        }
+    }
+
+    /**
+     * Records a management operation executed by the task executing in the current thread.
+     * @param time the time, in nanoseconds, the operation took to execute
+     */
+    public static void recordManagementOperation(long time) {
+        final Recorder recorder = TaskExecutionImpl.getCurrentMetricsRecorder();
+        if (recorder != null) {
+            recorder.managementOperations++;
+            recorder.managementOperationsTime += time;
+        }
+    }
+
+    /**
+     * The values of task execution metrics.
+     */
+    public static class Values {
+
+        private final long duration;
+        private final long cpuTime;
+        private final long allocatedBytes;
+        private final long copiedBytes;
+        private final long managementOperations;
+        private final long managementOperationsTime;
+
+        public Values(long duration, long cpuTime, long allocatedBytes, long copiedBytes, long managementOperations, long managementOperationsTime) {
+            this.duration = duration;
+            this.cpuTime = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+            this.copiedBytes = copiedBytes;
+            this.managementOperations = managementOperations;
+            this.managementOperationsTime = managementOperationsTime;
+        }
+
+        /**
+         *
+         * @return the elapsed time, from a monotonic clock
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         *
+         * @return the CPU time of the executing threads, -1 if not supported
+         */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        /**
+         *
+         * @return the bytes allocated by the executing threads, -1 if not supported
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         *
+         * @return the bytes copied through {@link org.jboss.migration.core.MigrationFiles}
+         */
+        public long getCopiedBytes() {
+            return copiedBytes;
+        }
+
+        /**
+         *
+         * @return the number of management operations executed
+         */
+        public long getManagementOperations() {
+            return managementOperations;
+        }
+
+        /**
+         *
+         * @return the time the management operations took to execute
+         */
+        public long getManagementOperationsTime() {
+            return managementOperationsTime;
+        }
+
+        private static long sum(long a, long b) {
+            return a < 0 || b < 0 ? -1 : a + b;
+        }
+    }
+
+    /**
+     * Records the metrics of a task execution, in the thread executing the task. The measuring is suspended while the task waits for its subtasks, so that what's recorded is the task's self values.
+     */
+    static class Recorder {
+
+        private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+        private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+        private static final boolean ALLOCATED_BYTES_SUPPORTED = isAllocatedBytesSupported();
+
+        private static boolean isAllocatedBytesSupported() {
+            try {
+                return THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported()
+                        && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemoryEnabled();
+            } catch (LinkageError e) {
+                // not an Oracle/OpenJDK JVM
+                return false;
+            }
+        }
+
+        private static long getCurrentThreadCpuTime() {
+            return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+        }
+
+        private static long getCurrentThreadAllocatedBytes() {
+            return ALLOCATED_BYTES_SUPPORTED ? ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+        }
+
+        private long startTime;
+        private long resumeTime;
+        private long resumeCpuTime;
+        private long resumeAllocatedBytes;
+        private long duration;
+        private long cpuTime;
+        private long allocatedBytes;
+        long copiedBytes;
+        long managementOperations;
+        long managementOperationsTime;
+
+        void start() {
+            startTime = System.nanoTime();
+            resume();
+        }
+
+        void resume() {
+            resumeTime = System.nanoTime();
+            resumeCpuTime = getCurrentThreadCpuTime();
+            resumeAllocatedBytes = getCurrentThreadAllocatedBytes();
+        }
+
+        void suspend() {
+            duration += System.nanoTime() - resumeTime;
+            cpuTime = resumeCpuTime < 0 || cpuTime < 0 ? -1 : cpuTime + getCurrentThreadCpuTime() - resumeCpuTime;
+            allocatedBytes = resumeAllocatedBytes < 0 || allocatedBytes < 0 ? -1 : allocatedBytes + getCurrentThreadAllocatedBytes() - resumeAllocatedBytes;
+        }
+
+        /**
+         * Stops the recording.
+         * @param subtasks the task's subtask executions, all completed
+         * @return the task execution metrics
+         */
+        TaskExecutionMetrics stop(Iterable<? extends TaskExecution> subtasks) {
+            suspend();
+            final Values self = new Values(duration, cpuTime, allocatedBytes, copiedBytes, managementOperations, managementOperationsTime);
+            long totalCpuTime = self.cpuTime;
+            long totalAllocatedBytes = self.allocatedBytes;
+            long totalCopiedBytes = self.copiedBytes;
+            long totalManagementOperations = self.managementOperations;
+            long totalManagementOperationsTime = self.managementOperationsTime;
+            for (TaskExecution subtask : subtasks) {
+                final TaskExecutionMetrics subtaskMetrics = subtask.getMetrics();
+                if (subtaskMetrics != null) {
+                    totalCpuTime = Values.sum(totalCpuTime, subtaskMetrics.total.cpuTime);
+                    totalAllocatedBytes = Values.sum(totalAllocatedBytes, subtaskMetrics.total.allocatedBytes);
+                    totalCopiedBytes += subtaskMetrics.total.copiedBytes;
+                    totalManagementOperations += subtaskMetrics.total.managementOperations;
+                    totalManagementOperationsTime += subtaskMetrics.total.managementOperationsTime;
+                }
+            }
+            final Values total = new Values(System.nanoTime() - startTime, totalCpuTime, totalAllocatedBytes, totalCopiedBytes, totalManagementOperations, totalManagementOperationsTime);
+            return new TaskExecutionMetrics(self, total);
+        }
+    }
+}
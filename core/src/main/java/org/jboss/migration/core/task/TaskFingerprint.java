@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.task;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The inputs and outputs of a task execution, including its subtasks, i.e. the environment properties read, the files copied, and other files written.
+ *
+ * A fingerprint records while it's started, in the task execution which started it, and every subtask execution, no matter the thread executing it.
+ * @author emmartins
+ */
+public class TaskFingerprint {
+
+    private final Map<String, String> environmentProperties;
+    // the properties read but not set, ConcurrentHashMap does not accept null values
+    private final Set<String> environmentPropertiesNotSet;
+    private final Set<Path> inputFiles;
+    private final Set<Path> outputFiles;
+    private TaskExecutionImpl taskExecution;
+
+    private TaskFingerprint(TaskExecutionImpl taskExecution) {
+        this.environmentProperties = new ConcurrentHashMap<>();
+        this.environmentPropertiesNotSet = ConcurrentHashMap.newKeySet();
+        this.inputFiles = ConcurrentHashMap.newKeySet();
+        this.outputFiles = ConcurrentHashMap.newKeySet();
+        this.taskExecution = taskExecution;
+    }
+
+    /**
+     * Starts recording the fingerprint of the task executing in the current thread.
+     * @return the fingerprint started
+     * @throws IllegalStateException if there is no task executing in the current thread, or its fingerprint is already being recorded
+     */
+    public static TaskFingerprint start() throws IllegalStateException {
+        final TaskExecutionImpl taskExecution = TaskExecutionImpl.getCurrent();
+        if (taskExecution == null) {
+            throw new IllegalStateException("no task executing");
+        }
+        if (taskExecution.getFingerprint() != null) {
+            throw new IllegalStateException("task fingerprint already started");
+        }
+        final TaskFingerprint fingerprint = new TaskFingerprint(taskExecution);
+        taskExecution.setFingerprint(fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * Stops recording the fingerprint.
+     */
+    public void stop() {
+        if (taskExecution != null) {
+            taskExecution.setFingerprint(null);
+            taskExecution = null;
+        }
+    }
+
+    /**
+     *
+     * @return the environment properties read, a null value means the property was not set
+     */
+    public Map<String, String> getEnvironmentProperties() {
+        final Map<String, String> result = new HashMap<>(environmentProperties);
+        for (String propertyName : environmentPropertiesNotSet) {
+            result.put(propertyName, null);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     *
+     * @return the files, or dirs, read
+     */
+    public Set<Path> getInputFiles() {
+        return Collections.unmodifiableSet(inputFiles);
+    }
+
+    /**
+     *
+     * @return the files, or dirs, written
+     */
+    public Set<Path> getOutputFiles() {
+        return Collections.unmodifiableSet(outputFiles);
+    }
+
+    /**
+     * Records an environment property read by the task executing in the current thread.
+     * @param propertyName the property name
+     * @param propertyValue the property value, null if not set
+     */
+    public static void recordEnvironmentProperty(String propertyName, String propertyValue) {
+        for (TaskExecutionImpl taskExecution = TaskExecutionImpl.getCurrent(); taskExecution != null; taskExecution = taskExecution.getParent()) {
+            final TaskFingerprint fingerprint = taskExecution.getFingerprint();
+            if (fingerprint != null) {
+                if (propertyValue != null) {
+                    fingerprint.environmentProperties.put(propertyName, propertyValue);
+                } else {
+                    fingerprint.environmentPropertiesNotSet.add(propertyName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a file, or dir, written by the task executing in the current thread, without copying, e.g. a target configuration file.
+     * @param file the file, or dir
+     */
+    public static void recordOutputFile(Path file) {
+        for (TaskExecutionImpl taskExecution = TaskExecutionImpl.getCurrent(); taskExecution != null; taskExecution = taskExecution.getParent()) {
+            final TaskFingerprint fingerprint = taskExecution.getFingerprint();
+            if (fingerprint != null) {
+                fingerprint.outputFiles.add(file);
+            }
+        }
+    }
+
+    /**
+     * Records a file copy done by the task executing in the current thread.
+     * @param source the source file, or dir
+     * @param target the target file, or dir
+     */
+    public static void recordFileCopy(Path source, Path target) {
+        for (TaskExecutionImpl taskExecution = TaskExecutionImpl.getCurrent(); taskExecution != null; taskExecution = taskExecution.getParent()) {
+            final TaskFingerprint fingerprint = taskExecution.getFingerprint();
+            if (fingerprint != null) {
+                fingerprint.inputFiles.add(source);
+                fingerprint.outputFiles.add(target);
+            }
+        }
+    }
+}
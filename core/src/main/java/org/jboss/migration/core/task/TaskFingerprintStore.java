@@ -0,0 +1,451 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.task;
+
+import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.logger.ServerMigrationLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A store of task fingerprints, which allows a task whose inputs did not change, since its last execution, to replay the result of that execution, instead of executing again.
+ *
+ * Each task's entry is stored in a properties file, with the task's result, the name and result of each of its subtasks, recursively, the hash of the tool which executed the task, the environment properties read, and the digest of each file, or dir, read or written by the task, such as the target configuration file. A digest is the SHA-256 hash of the file's content, or of the relative path and content of every file in the dir. An entry is replayed only if the tool did not change, every environment property has the same value, and every input and output has the same digest, i.e. the files written by the last execution were neither modified or removed. When replayed the task's subtasks are registered again under the task, in the same order, with their stored results, and every replayed result has the {@link #RESULT_ATTRIBUTE_REPLAYED} attribute, thus the reports of a replayed task show the same task tree as its last execution. Results with fail status, or with failed subtasks, are not stored.
+ *
+ * There is no store for interactive migrations, since the user's answers are inputs which are not recorded.
+ * @author emmartins
+ */
+public class TaskFingerprintStore {
+
+    /**
+     * the dir where the fingerprints are stored, if not absolute it is relative to the target server's base dir; if not set there is no store
+     */
+    public static final String ENVIRONMENT_PROPERTY_DIR = "fingerprints.dir";
+
+    /**
+     * the attribute added to the result of a replayed task, and to the results of its replayed subtasks
+     */
+    public static final String RESULT_ATTRIBUTE_REPLAYED = "replayed";
+
+    private static final String FILE_SUFFIX = ".properties";
+    private static final String KEY = "key";
+    private static final String TOOL_HASH = "tool";
+    private static final String RESULT_STATUS = "result.status";
+    private static final String RESULT_ATTRIBUTE_PREFIX = "result.attribute.";
+    private static final String ENVIRONMENT_PROPERTY_PREFIX = "environment.";
+    private static final String ENVIRONMENT_PROPERTY_NOT_SET_PREFIX = "environment-not-set.";
+    private static final String INPUT_PREFIX = "input.";
+    private static final String OUTPUT_PREFIX = "output.";
+    private static final String NO_FILE_DIGEST = "-";
+    // the subtask properties are prefixed by the subtask's number, e.g. subtask.1.name, and nested subtasks by their parent's prefix, e.g. subtask.1.subtask.2.name
+    private static final String SUBTASK_PREFIX = "subtask.";
+    private static final String SUBTASK_NAME = "name";
+    private static final String SUBTASK_NAME_ATTRIBUTE_PREFIX = "name.attribute.";
+
+    // the digests of the tool's jars, or class dirs, which do not change while the tool runs
+    private static final Map<Path, String> CODE_SOURCE_DIGESTS = new ConcurrentHashMap<>();
+
+    private final Path dir;
+    private final String toolHash;
+
+    /**
+     *
+     * @param dir the dir where the fingerprints are stored
+     * @param toolClass the class of the tool's component which executes the tasks, the tool's hash is computed from the jars, or class dirs, of the class and its superclasses, and of the tool's core
+     */
+    public TaskFingerprintStore(Path dir, Class<?> toolClass) {
+        this.dir = dir;
+        this.toolHash = getToolHash(toolClass);
+    }
+
+    /**
+     * Retrieves the store configured by the environment of the specified task context.
+     * @param context the task context
+     * @param targetBaseDir the target server's base dir
+     * @param toolClass the class of the tool's component which executes the tasks
+     * @return the store configured by the environment, null if not configured, or if the migration is interactive
+     */
+    public static TaskFingerprintStore from(TaskContext context, Path targetBaseDir, Class<?> toolClass) {
+        if (context.isInteractive()) {
+            return null;
+        }
+        final String dirName = context.getMigrationEnvironment().getPropertyAsString(ENVIRONMENT_PROPERTY_DIR);
+        if (dirName == null || dirName.trim().isEmpty()) {
+            return null;
+        }
+        return new TaskFingerprintStore(targetBaseDir.resolve(dirName.trim()), toolClass);
+    }
+
+    /**
+     *
+     * @return the dir where the fingerprints are stored
+     */
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * Replays the last execution of a task, if its fingerprint did not change, i.e. registers the subtasks of that execution, with their results, under the task.
+     * @param key the task's key
+     * @param context the task's context
+     * @return the result of the task's last execution, with the {@link #RESULT_ATTRIBUTE_REPLAYED} attribute, or null if the task should execute
+     */
+    public ServerMigrationTaskResult replay(String key, TaskContext context) {
+        final Path file = getFile(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        final Properties entry = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            entry.load(inputStream);
+        } catch (IOException | IllegalArgumentException e) {
+            ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failed to read task fingerprint %s", file);
+            return null;
+        }
+        if (!key.equals(entry.getProperty(KEY)) || !toolHash.equals(entry.getProperty(TOOL_HASH))) {
+            // another task with the same hash, or stored by another build of the tool
+            return null;
+        }
+        final MigrationEnvironment migrationEnvironment = context.getMigrationEnvironment();
+        final ReplayedTask task = new ReplayedTask();
+        task.status = entry.getProperty(RESULT_STATUS);
+        for (String name : entry.stringPropertyNames()) {
+            final String value = entry.getProperty(name);
+            if (name.startsWith(ENVIRONMENT_PROPERTY_PREFIX)) {
+                if (!value.equals(migrationEnvironment.getPropertyAsString(name.substring(ENVIRONMENT_PROPERTY_PREFIX.length())))) {
+                    ServerMigrationLogger.ROOT_LOGGER.debugf("Task %s fingerprint changed, environment property %s", key, name.substring(ENVIRONMENT_PROPERTY_PREFIX.length()));
+                    return null;
+                }
+            } else if (name.startsWith(ENVIRONMENT_PROPERTY_NOT_SET_PREFIX)) {
+                if (migrationEnvironment.getPropertyAsString(name.substring(ENVIRONMENT_PROPERTY_NOT_SET_PREFIX.length())) != null) {
+                    ServerMigrationLogger.ROOT_LOGGER.debugf("Task %s fingerprint changed, environment property %s", key, name.substring(ENVIRONMENT_PROPERTY_NOT_SET_PREFIX.length()));
+                    return null;
+                }
+            } else if (name.startsWith(INPUT_PREFIX) || name.startsWith(OUTPUT_PREFIX)) {
+                final Path path = dir.getFileSystem().getPath(name.substring(name.indexOf('.') + 1));
+                if (!value.equals(digest(path))) {
+                    ServerMigrationLogger.ROOT_LOGGER.debugf("Task %s fingerprint changed, file %s", key, path);
+                    return null;
+                }
+            } else if (name.startsWith(RESULT_ATTRIBUTE_PREFIX)) {
+                task.resultAttributes.put(name.substring(RESULT_ATTRIBUTE_PREFIX.length()), value);
+            } else if (name.startsWith(SUBTASK_PREFIX)) {
+                if (!task.addSubtaskProperty(name.substring(SUBTASK_PREFIX.length()), value)) {
+                    ServerMigrationLogger.ROOT_LOGGER.debugf("Task %s fingerprint has an invalid subtask property %s", key, name);
+                    return null;
+                }
+            }
+        }
+        final ServerMigrationTaskResult result = task.getResult();
+        if (result == null || !task.hasValidSubtasks()) {
+            return null;
+        }
+        task.replaySubtasks(context);
+        return result;
+    }
+
+    /**
+     * Stores the fingerprint and result of a task execution.
+     * @param key the task's key
+     * @param fingerprint the fingerprint of the task execution
+     * @param result the result of the task execution, results with fail status are not stored
+     * @param subtasks the subtask executions of the task execution, results with failed subtasks are not stored
+     */
+    public void store(String key, TaskFingerprint fingerprint, ServerMigrationTaskResult result, List<? extends TaskExecution> subtasks) {
+        final Path file = getFile(key);
+        try {
+            if (result.getStatus() == ServerMigrationTaskResult.Status.FAIL) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            final Properties entry = new Properties();
+            entry.setProperty(KEY, key);
+            entry.setProperty(TOOL_HASH, toolHash);
+            entry.setProperty(RESULT_STATUS, result.getStatus().name());
+            for (Map.Entry<String, String> attribute : result.getAttributes().entrySet()) {
+                entry.setProperty(RESULT_ATTRIBUTE_PREFIX + attribute.getKey(), attribute.getValue());
+            }
+            if (!storeSubtasks("", subtasks, entry)) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            for (Map.Entry<String, String> property : fingerprint.getEnvironmentProperties().entrySet()) {
+                if (property.getValue() != null) {
+                    entry.setProperty(ENVIRONMENT_PROPERTY_PREFIX + property.getKey(), property.getValue());
+                } else {
+                    entry.setProperty(ENVIRONMENT_PROPERTY_NOT_SET_PREFIX + property.getKey(), "");
+                }
+            }
+            for (Path input : fingerprint.getInputFiles()) {
+                entry.setProperty(INPUT_PREFIX + input, digest(input));
+            }
+            for (Path output : fingerprint.getOutputFiles()) {
+                entry.setProperty(OUTPUT_PREFIX + output, digest(output));
+            }
+            Files.createDirectories(dir);
+            final Path tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(tmpFile)) {
+                    entry.store(outputStream, null);
+                }
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmpFile);
+            }
+        } catch (IOException e) {
+            ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failed to store task fingerprint %s", file);
+        }
+    }
+
+    /**
+     * Stores the names and results of the specified subtasks, and of their subtasks.
+     * @return false if a subtask did not complete, or failed, true otherwise
+     */
+    private static boolean storeSubtasks(String prefix, List<? extends TaskExecution> subtasks, Properties entry) {
+        int number = 0;
+        for (TaskExecution subtask : subtasks) {
+            final ServerMigrationTaskResult result = subtask.getResult();
+            if (result == null || result.getStatus() == ServerMigrationTaskResult.Status.FAIL) {
+                return false;
+            }
+            final String subtaskPrefix = prefix + SUBTASK_PREFIX + (++number) + ".";
+            entry.setProperty(subtaskPrefix + SUBTASK_NAME, subtask.getTaskName().getName());
+            for (Map.Entry<String, String> attribute : subtask.getTaskName().getAttributes().entrySet()) {
+                entry.setProperty(subtaskPrefix + SUBTASK_NAME_ATTRIBUTE_PREFIX + attribute.getKey(), attribute.getValue());
+            }
+            entry.setProperty(subtaskPrefix + RESULT_STATUS, result.getStatus().name());
+            for (Map.Entry<String, String> attribute : result.getAttributes().entrySet()) {
+                entry.setProperty(subtaskPrefix + RESULT_ATTRIBUTE_PREFIX + attribute.getKey(), attribute.getValue());
+            }
+            if (!storeSubtasks(subtaskPrefix, subtask.getSubtasks(), entry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A task, or subtask, of a stored entry.
+     */
+    private static class ReplayedTask {
+
+        private String name;
+        private String status;
+        private final Map<String, String> nameAttributes = new TreeMap<>();
+        private final Map<String, String> resultAttributes = new TreeMap<>();
+        // the subtasks by number
+        private final SortedMap<Integer, ReplayedTask> subtasks = new TreeMap<>();
+
+        /**
+         *
+         * @param property the subtask property, without the subtask prefix, e.g. 1.name
+         * @param value the property value
+         * @return false if the property is not valid, true otherwise
+         */
+        private boolean addSubtaskProperty(String property, String value) {
+            final int numberEnd = property.indexOf('.');
+            if (numberEnd < 1) {
+                return false;
+            }
+            final int number;
+            try {
+                number = Integer.parseInt(property.substring(0, numberEnd));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            final ReplayedTask subtask = subtasks.computeIfAbsent(number, k -> new ReplayedTask());
+            final String subtaskProperty = property.substring(numberEnd + 1);
+            if (subtaskProperty.equals(SUBTASK_NAME)) {
+                subtask.name = value;
+            } else if (subtaskProperty.equals(RESULT_STATUS)) {
+                subtask.status = value;
+            } else if (subtaskProperty.startsWith(SUBTASK_NAME_ATTRIBUTE_PREFIX)) {
+                subtask.nameAttributes.put(subtaskProperty.substring(SUBTASK_NAME_ATTRIBUTE_PREFIX.length()), value);
+            } else if (subtaskProperty.startsWith(RESULT_ATTRIBUTE_PREFIX)) {
+                subtask.resultAttributes.put(subtaskProperty.substring(RESULT_ATTRIBUTE_PREFIX.length()), value);
+            } else if (subtaskProperty.startsWith(SUBTASK_PREFIX)) {
+                return subtask.addSubtaskProperty(subtaskProperty.substring(SUBTASK_PREFIX.length()), value);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         *
+         * @return the replayed result, or null if the stored status is not valid
+         */
+        private ServerMigrationTaskResult getResult() {
+            final ServerMigrationTaskResult.Builder resultBuilder = new ServerMigrationTaskResult.Builder();
+            if (ServerMigrationTaskResult.Status.SUCCESS.name().equals(status)) {
+                resultBuilder.success();
+            } else if (ServerMigrationTaskResult.Status.SKIPPED.name().equals(status)) {
+                resultBuilder.skipped();
+            } else {
+                return null;
+            }
+            for (Map.Entry<String, String> attribute : resultAttributes.entrySet()) {
+                resultBuilder.addAttribute(attribute.getKey(), attribute.getValue());
+            }
+            resultBuilder.addAttribute(RESULT_ATTRIBUTE_REPLAYED, true);
+            return resultBuilder.build();
+        }
+
+        private boolean hasValidSubtasks() {
+            for (ReplayedTask subtask : subtasks.values()) {
+                if (subtask.name == null || subtask.getResult() == null || !subtask.hasValidSubtasks()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void replaySubtasks(TaskContext context) {
+            for (ReplayedTask subtask : subtasks.values()) {
+                final ServerMigrationTaskName.Builder taskNameBuilder = new ServerMigrationTaskName.Builder(subtask.name);
+                for (Map.Entry<String, String> attribute : subtask.nameAttributes.entrySet()) {
+                    taskNameBuilder.addAttribute(attribute.getKey(), attribute.getValue());
+                }
+                context.execute(taskNameBuilder.build(), subtaskContext -> {
+                    subtask.replaySubtasks(subtaskContext);
+                    return subtask.getResult();
+                });
+            }
+        }
+    }
+
+    private Path getFile(String key) {
+        return dir.resolve(Integer.toHexString(key.hashCode()) + FILE_SUFFIX);
+    }
+
+    /**
+     * Computes the hash of the tool, from the digests of the jars, or class dirs, of the specified class and its superclasses, and of the tool's core. The implementation version is not used, since it's not set in development builds, and neither changes with every build.
+     * @param toolClass the class of the tool's component which executes the tasks
+     * @return the tool's hash
+     */
+    private static String getToolHash(Class<?> toolClass) {
+        final Set<Path> codeSources = new LinkedHashSet<>();
+        addCodeSource(TaskFingerprintStore.class, codeSources);
+        for (Class<?> c = toolClass; c != null; c = c.getSuperclass()) {
+            addCodeSource(c, codeSources);
+        }
+        final MessageDigest messageDigest = newMessageDigest();
+        for (Path codeSource : codeSources) {
+            messageDigest.update(CODE_SOURCE_DIGESTS.computeIfAbsent(codeSource, TaskFingerprintStore::digest).getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) 0);
+        }
+        return toHexString(messageDigest.digest());
+    }
+
+    private static void addCodeSource(Class<?> c, Set<Path> codeSources) {
+        final CodeSource codeSource = c.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            // e.g. a JDK class
+            return;
+        }
+        try {
+            codeSources.add(Paths.get(codeSource.getLocation().toURI()));
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Code source %s of %s not digested", codeSource.getLocation(), c.getName());
+        }
+    }
+
+    /**
+     * Computes the digest of a file, or dir, from its content, or from the relative path and content of every file in the dir.
+     * @param path the file or dir
+     * @return the digest of the file or dir
+     */
+    private static String digest(Path path) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isDirectory()) {
+                return digestContent(path);
+            }
+            final SortedMap<String, String> files = new TreeMap<>();
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    files.put(path.relativize(file).toString(), digestContent(file));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            final MessageDigest messageDigest = newMessageDigest();
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                messageDigest.update(file.getKey().getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+                messageDigest.update(file.getValue().getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+            }
+            return toHexString(messageDigest.digest());
+        } catch (IOException e) {
+            // does not exist, or is not readable
+            return NO_FILE_DIGEST;
+        }
+    }
+
+    private static String digestContent(Path file) throws IOException {
+        final MessageDigest messageDigest = newMessageDigest();
+        final byte[] buffer = new byte[8192];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        return toHexString(messageDigest.digest());
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.task;
+
+import org.jboss.logging.Logger;
+import org.jboss.logging.MDC;
+
+/**
+ * The logger of a task execution.
+ *
+ * The logger is named after the task number, e.g. org.jboss.migration.core.task.ServerMigrationTask#1:2, yet it's not registered in the log manager, every message is logged by the shared {@link ServerMigrationTask} category logger, with the task number, prefixed with #, in the {@link #MDC_KEY} MDC entry. Thus the number of task executions does not affect the number of loggers retained by the log manager.
+ * @author emmartins
+ */
+public class TaskLogger extends Logger {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * the MDC key of the task number, prefixed with #, of the messages logged
+     */
+    public static final String MDC_KEY = "migration.task";
+
+    private static final String CATEGORY = ServerMigrationTask.class.getName();
+
+    private static final Logger DELEGATE = Logger.getLogger(CATEGORY);
+
+    private final String mdcValue;
+
+    /**
+     *
+     * @param taskNumber the task number
+     */
+    public TaskLogger(String taskNumber) {
+        super(CATEGORY + '#' + taskNumber);
+        this.mdcValue = "#" + taskNumber;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return DELEGATE.isEnabled(level);
+    }
+
+    @Override
+    protected void doLog(Level level, String loggerClassName, Object message, Object[] parameters, Throwable thrown) {
+        final Object previousMdcValue = MDC.put(MDC_KEY, mdcValue);
+        try {
+            DELEGATE.log(loggerClassName, level, message, parameters, thrown);
+        } finally {
+            restoreMdc(previousMdcValue);
+        }
+    }
+
+    @Override
+    protected void doLogf(Level level, String loggerClassName, String format, Object[] parameters, Throwable thrown) {
+        final Object previousMdcValue = MDC.put(MDC_KEY, mdcValue);
+        try {
+            DELEGATE.logf(loggerClassName, level, thrown, format, parameters);
+        } finally {
+            restoreMdc(previousMdcValue);
+        }
+    }
+
+    private static void restoreMdc(Object previousMdcValue) {
+        if (previousMdcValue != null) {
+            MDC.put(MDC_KEY, previousMdcValue);
+        } else {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.task;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The resources read and written by a task, which allow a {@link SubtaskScheduler} to execute concurrently the subtasks which do not conflict.
+ *
+ * A resource is identified by a path, with its segments separated by /, e.g. configuration/subsystem=singleton, and a resource contains all resources with paths starting with its path, e.g. the configuration resource contains all the configuration's subsystems. Two tasks conflict if one writes a resource which the other reads or writes, or which contains or is contained by a resource the other reads or writes.
+ * @author emmartins
+ */
+public class TaskResources {
+
+    /**
+     * the target server configuration being migrated
+     */
+    public static final String CONFIGURATION = "configuration";
+
+    /**
+     * the target server's modules dir
+     */
+    public static final String MODULES = "modules";
+
+    /**
+     * the target server's content, i.e. the files referenced by the configuration's paths
+     */
+    public static final String CONTENT = "content";
+
+    /**
+     * Retrieves the resource of a subsystem of the target server configuration.
+     * @param subsystem the subsystem name
+     * @return the resource of the subsystem
+     */
+    public static String subsystem(String subsystem) {
+        return CONFIGURATION + "/subsystem=" + subsystem;
+    }
+
+    /**
+     * Retrieves the resource of an extension of the target server configuration.
+     * @param module the extension's module name
+     * @return the resource of the extension
+     */
+    public static String extension(String module) {
+        return CONFIGURATION + "/extension=" + module;
+    }
+
+    private final Set<String> reads;
+    private final Set<String> writes;
+
+    private TaskResources(Builder builder) {
+        this.reads = Collections.unmodifiableSet(new LinkedHashSet<>(builder.reads));
+        this.writes = Collections.unmodifiableSet(new LinkedHashSet<>(builder.writes));
+    }
+
+    /**
+     *
+     * @return the resources read by the task
+     */
+    public Set<String> getReads() {
+        return reads;
+    }
+
+    /**
+     *
+     * @return the resources written by the task
+     */
+    public Set<String> getWrites() {
+        return writes;
+    }
+
+    /**
+     * Indicates if the task's resources conflict with other task's resources, i.e. if the tasks should not be executed concurrently.
+     * @param other the other task's resources
+     * @return true if the tasks' resources conflict, false otherwise
+     */
+    public boolean conflictsWith(TaskResources other) {
+        return overlap(writes, other.writes) || overlap(writes, other.reads) || overlap(reads, other.writes);
+    }
+
+    private static boolean overlap(Set<String> resources, Set<String> otherResources) {
+        for (String resource : resources) {
+            for (String otherResource : otherResources) {
+                if (contains(resource, otherResource) || contains(otherResource, resource)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(String resource, String otherResource) {
+        return otherResource.startsWith(resource) && (otherResource.length() == resource.length() || otherResource.charAt(resource.length()) == '/');
+    }
+
+    @Override
+    public String toString() {
+        return "TaskResources[reads="+reads+", writes="+writes+"]";
+    }
+
+    /**
+     * The task resources builder.
+     */
+    public static class Builder {
+
+        private final Set<String> reads = new LinkedHashSet<>();
+        private final Set<String> writes = new LinkedHashSet<>();
+
+        /**
+         * Adds resources read by the task.
+         * @param resources the resources read
+         * @return the builder
+         */
+        public Builder reads(String... resources) {
+            Collections.addAll(reads, resources);
+            return this;
+        }
+
+        /**
+         * Adds resources written by the task.
+         * @param resources the resources written
+         * @return the builder
+         */
+        public Builder writes(String... resources) {
+            Collections.addAll(writes, resources);
+            return this;
+        }
+
+        /**
+         * Builds the task resources.
+         * @return the task resources built
+         */
+        public TaskResources build() {
+            return new TaskResources(this);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskResources;
 
 import java.util.Objects;
 
@@ -30,6 +31,8 @@ public abstract class ComponentTask implements ServerMigrationTask {
 
     private final ServerMigrationTaskName name;
     private final TaskRunnable taskRunnable;
+    // set by the builder
+    private TaskResources resources;
 
     protected ComponentTask(ServerMigrationTaskName name, TaskRunnable taskRunnable) {
         this.name = Objects.requireNonNull(name);
@@ -46,12 +49,18 @@ public abstract class ComponentTask implements ServerMigrationTask {
         return taskRunnable.run(context);
     }
 
+    @Override
+    public TaskResources getResources() {
+        return resources;
+    }
+
     public abstract static class Builder<P extends BuildParameters, T extends Builder<P, T>> implements ComponentTaskBuilder<P, T> {
 
         private TaskNameBuilder<? super P> taskNameBuilder;
         private TaskSkipPolicy.Builder<? super P> skipPolicyBuilder;
         private BeforeTaskRun.Builder<? super P> beforeRunBuilder;
         private AfterTaskRun.Builder<? super P> afterRunBuilder;
+        private TaskResources resources;
 
         protected Builder() {
         }
@@ -106,6 +115,16 @@ public abstract class ComponentTask implements ServerMigrationTask {
             return afterRunBuilder;
         }
 
+        @Override
+        public T resources(TaskResources resources) {
+            this.resources = resources;
+            return getThis();
+        }
+
+        protected TaskResources getResources() {
+            return resources;
+        }
+
         protected ServerMigrationTaskName buildName(P parameters) {
             return  Objects.requireNonNull(taskNameBuilder).build(parameters);
         }
@@ -135,7 +154,11 @@ public abstract class ComponentTask implements ServerMigrationTask {
         }
 
         public ServerMigrationTask build(P params) {
-            return buildTask(buildName(params), buildRunnable(params));
+            final ServerMigrationTask task = buildTask(buildName(params), buildRunnable(params));
+            if (task instanceof ComponentTask) {
+                ((ComponentTask) task).resources = resources;
+            }
+            return task;
         }
 
         protected abstract T getThis();
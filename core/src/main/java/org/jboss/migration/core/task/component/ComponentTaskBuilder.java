@@ -18,6 +18,7 @@ package org.jboss.migration.core.task.component;
 
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.TaskResources;
 
 /**
  * @author emmartins
@@ -74,5 +75,7 @@ public interface ComponentTaskBuilder<P extends BuildParameters, T extends Compo
 
     T afterRunBuilder(AfterTaskRun.Builder<? super P> builder);
 
+    T resources(TaskResources resources);
+
     ServerMigrationTask build(P params);
 }
\ No newline at end of file
@@ -17,7 +17,9 @@
 package org.jboss.migration.core.task.component;
 
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.SubtaskScheduler;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskExecution;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,18 +30,34 @@ import java.util.List;
 public class CompositeSubtasks<P extends BuildParameters> implements TaskRunnable {
 
     private final List<TaskRunnable.Builder<? super P>> builders;
+    private final List<ComponentTaskBuilder<? super P, ?>> taskBuilders;
     private final P params;
 
     protected CompositeSubtasks(BaseBuilder<P, ?> baseBuilder, P params) {
         this.builders = new ArrayList<>(baseBuilder.builders);
+        this.taskBuilders = new ArrayList<>(baseBuilder.taskBuilders);
         this.params = params;
     }
 
     @Override
     public ServerMigrationTaskResult run(TaskContext context) {
         final ServerMigrationTaskResult.Builder result = new ServerMigrationTaskResult.Builder().skipped();
-        for (TaskRunnable.Builder<? super P> builder : builders) {
-            if (builder.build(params).run(context).getStatus() == ServerMigrationTaskResult.Status.SUCCESS) {
+        // the component subtasks are executed by a scheduler, which may execute concurrently those with resources not conflicting
+        final SubtaskScheduler scheduler = new SubtaskScheduler(context);
+        for (int i = 0; i < builders.size(); i++) {
+            final ComponentTaskBuilder<? super P, ?> taskBuilder = taskBuilders.get(i);
+            if (taskBuilder != null) {
+                scheduler.execute(taskBuilder.build(params));
+            } else {
+                scheduler.flush();
+                if (builders.get(i).build(params).run(context).getStatus() == ServerMigrationTaskResult.Status.SUCCESS) {
+                    result.success();
+                }
+            }
+        }
+        scheduler.flush();
+        for (TaskExecution execution : scheduler.getExecutions()) {
+            if (execution.getResult().getStatus() == ServerMigrationTaskResult.Status.SUCCESS) {
                 result.success();
             }
         }
@@ -49,11 +67,21 @@ public class CompositeSubtasks<P extends BuildParameters> implements TaskRunnabl
     public abstract static class BaseBuilder<P extends BuildParameters, T extends BaseBuilder<P, T>> implements CompositeSubtasksBuilder<P, T> {
 
         private final List<TaskRunnable.Builder<? super P>> builders = new ArrayList<>();
+        // the component task builder of each subtask, null if the subtask is not a component task
+        private final List<ComponentTaskBuilder<? super P, ?>> taskBuilders = new ArrayList<>();
 
         protected abstract T getThis();
 
         public T subtask(TaskRunnable.Builder<? super P> runnableBuilder) {
             this.builders.add(runnableBuilder);
+            this.taskBuilders.add(null);
+            return getThis();
+        }
+
+        @Override
+        public T subtask(ComponentTaskBuilder<? super P, ?> builder) {
+            this.builders.add(params -> context -> context.execute(builder.build(params)).getResult());
+            this.taskBuilders.add(builder);
             return getThis();
         }
 
@@ -20,6 +20,7 @@ import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskResources;
 
 import java.util.Objects;
 
@@ -30,6 +31,8 @@ public class SimpleComponentTask implements ServerMigrationTask {
 
     private final ServerMigrationTaskName name;
     private final TaskRunnable taskRunnable;
+    // set by the builder
+    private TaskResources resources;
 
     protected SimpleComponentTask(ServerMigrationTaskName name, TaskRunnable taskRunnable) {
         this.name = Objects.requireNonNull(name);
@@ -46,6 +49,11 @@ public class SimpleComponentTask implements ServerMigrationTask {
         return taskRunnable.run(context);
     }
 
+    @Override
+    public TaskResources getResources() {
+        return resources;
+    }
+
     public abstract static class BaseBuilder<T extends BaseBuilder<T>> implements SimpleComponentTaskBuilder<T> {
 
         private ServerMigrationTaskName name;
@@ -53,6 +61,7 @@ public class SimpleComponentTask implements ServerMigrationTask {
         private BeforeTaskRun beforeRun;
         private TaskRunnable runnable;
         private AfterTaskRun afterRun;
+        private TaskResources resources;
 
         protected BaseBuilder() {
         }
@@ -107,6 +116,16 @@ public class SimpleComponentTask implements ServerMigrationTask {
             return getThis();
         }
 
+        protected TaskResources getResources() {
+            return resources;
+        }
+
+        @Override
+        public T resources(TaskResources resources) {
+            this.resources = resources;
+            return getThis();
+        }
+
         protected TaskRunnable buildRunnable() {
             Objects.requireNonNull(runnable);
             return context -> {
@@ -125,7 +144,11 @@ public class SimpleComponentTask implements ServerMigrationTask {
         }
 
         public ServerMigrationTask build() {
-            return buildTask(Objects.requireNonNull(name), buildRunnable());
+            final ServerMigrationTask task = buildTask(Objects.requireNonNull(name), buildRunnable());
+            if (task instanceof SimpleComponentTask) {
+                ((SimpleComponentTask) task).resources = resources;
+            }
+            return task;
         }
 
         protected abstract T getThis();
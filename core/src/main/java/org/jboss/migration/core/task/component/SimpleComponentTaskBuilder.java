@@ -18,6 +18,7 @@ package org.jboss.migration.core.task.component;
 
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.TaskResources;
 
 import java.util.stream.Stream;
 
@@ -63,5 +64,7 @@ public interface SimpleComponentTaskBuilder<T extends SimpleComponentTaskBuilder
 
     T afterRun(AfterTaskRun afterRun);
 
+    T resources(TaskResources resources);
+
     ServerMigrationTask build();
 }
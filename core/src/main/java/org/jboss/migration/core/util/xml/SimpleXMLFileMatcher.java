@@ -35,13 +35,15 @@ import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
  */
 public abstract class SimpleXMLFileMatcher implements XMLFileMatcher {
 
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
     @Override
     public boolean matches(Path path) throws ServerMigrationFailureException {
         boolean match = false;
         final String fileName = path.getFileName().toString();
         if (fileNameMatches(fileName)) {
             try (final InputStream inputStream = Files.newInputStream(path)) {
-                XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(inputStream);
+                XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
                 reader.require(START_DOCUMENT, null, null);
                 while (reader.hasNext()) {
                     if (reader.next() == START_ELEMENT) {
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.util.xml;
+
+import org.jboss.migration.core.ServerMigrationFailureException;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.util.EventReaderDelegate;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single streaming read/write pass over a XML file, which applies a sequence of steps, each either a {@link XMLFileFilter} or an {@link ElementVisitor}.
+ *
+ * For each element read the steps are applied in the order these were added:
+ * <ul>
+ *     <li>a filter returning {@link XMLFileFilter.Result#ADD} or {@link XMLFileFilter.Result#NOT_APPLICABLE} lets the element through to the next steps;</li>
+ *     <li>a filter returning {@link XMLFileFilter.Result#REMOVE} ends the element processing, and only the visitors added before the filter are applied to the element's children;</li>
+ *     <li>a filter returning {@link XMLFileFilter.Result#CONTINUE} ends the element processing too, but since it writes the element itself, steps added after it would not see what it writes, as these would in their own passes. Such a filter must thus be added with {@link #lastFilter(XMLFileFilter)}, and no steps may be added after it.</li>
+ * </ul>
+ * With such constraint the pass has the same result as running each step in its own pass. The XML file is only rewritten if the pass includes filters.
+ * @author emmartins
+ */
+public class XMLFilePass {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+    private static final XMLEventFactory XML_EVENT_FACTORY = XMLEventFactory.newInstance();
+
+    private final List<Object> steps = new ArrayList<>();
+    private boolean filtering;
+    private boolean closed;
+
+    /**
+     * Adds a filter step to the pass. The filter should not return {@link XMLFileFilter.Result#CONTINUE}.
+     * @param filter the filter to add
+     * @return this pass
+     * @throws IllegalStateException if the pass already has its {@link #lastFilter(XMLFileFilter)}
+     */
+    public XMLFilePass filter(XMLFileFilter filter) throws IllegalStateException {
+        checkNotClosed();
+        steps.add(filter);
+        filtering = true;
+        return this;
+    }
+
+    /**
+     * Adds the pass's last step, a filter which may return {@link XMLFileFilter.Result#CONTINUE}. No steps may be added after it.
+     * @param filter the filter to add
+     * @return this pass
+     * @throws IllegalStateException if the pass already has its {@link #lastFilter(XMLFileFilter)}
+     */
+    public XMLFilePass lastFilter(XMLFileFilter filter) throws IllegalStateException {
+        filter(filter);
+        closed = true;
+        return this;
+    }
+
+    /**
+     * Adds a visitor step to the pass.
+     * @param visitor the visitor to add
+     * @return this pass
+     * @throws IllegalStateException if the pass already has its {@link #lastFilter(XMLFileFilter)}
+     */
+    public XMLFilePass visitor(ElementVisitor visitor) throws IllegalStateException {
+        checkNotClosed();
+        steps.add(visitor);
+        return this;
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("XML file pass steps may not be added after its last filter");
+        }
+    }
+
+    /**
+     *
+     * @return true if the pass has no steps, false otherwise
+     */
+    public boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    /**
+     *
+     * @return true if the pass has its {@link #lastFilter(XMLFileFilter)}, and thus no more steps may be added, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Runs the pass over the specified XML file.
+     * @param xmlFile the XML file
+     * @throws ServerMigrationFailureException if there was a failure running the pass
+     */
+    public void run(Path xmlFile) throws ServerMigrationFailureException {
+        if (steps.isEmpty()) {
+            return;
+        }
+        if (!filtering) {
+            try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(xmlFile))) {
+                run(inputStream, null);
+            } catch (IOException e) {
+                throw new ServerMigrationFailureException("XML file pass failed.", e);
+            }
+            return;
+        }
+        // write to a tmp file in same dir, then replace the original
+        final Path tmpFile = xmlFile.resolveSibling(xmlFile.getFileName().toString() + ".tmp" + System.nanoTime());
+        try {
+            try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(xmlFile)); OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+                run(inputStream, outputStream);
+            }
+            Files.move(tmpFile, xmlFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new ServerMigrationFailureException("XML file pass failed.", e);
+        } finally {
+            try {
+                Files.deleteIfExists(tmpFile);
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private void run(final InputStream inputStream, final OutputStream outputStream) throws ServerMigrationFailureException {
+        XMLStreamReader xmlStreamReader = null;
+        XMLEventReader xmlEventReader = null;
+        XMLEventWriter xmlEventWriter = null;
+        try {
+            xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            xmlEventReader = XML_INPUT_FACTORY.createXMLEventReader(xmlStreamReader);
+            xmlEventWriter = outputStream != null ? XML_OUTPUT_FACTORY.createXMLEventWriter(outputStream) : null;
+            while (xmlEventReader.hasNext()) {
+                final XMLEvent xmlEvent = xmlEventReader.nextEvent();
+                if (xmlEvent.isStartElement()) {
+                    processElement(xmlEvent.asStartElement(), xmlStreamReader, xmlEventReader, xmlEventWriter);
+                } else if (xmlEventWriter != null) {
+                    xmlEventWriter.add(xmlEvent);
+                }
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new ServerMigrationFailureException("XML file pass failed", e);
+        } finally {
+            if (xmlEventReader != null) {
+                try {
+                    xmlEventReader.close();
+                } catch (XMLStreamException e) {
+                    // ignore
+                }
+            }
+            if (xmlStreamReader != null) {
+                try {
+                    xmlStreamReader.close();
+                } catch (XMLStreamException e) {
+                    // ignore
+                }
+            }
+            if (xmlEventWriter != null) {
+                try {
+                    xmlEventWriter.close();
+                } catch (XMLStreamException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private void processElement(final StartElement startElement, final XMLStreamReader xmlStreamReader, final XMLEventReader xmlEventReader, final XMLEventWriter xmlEventWriter) throws XMLStreamException, IOException {
+        for (int i = 0; i < steps.size(); i++) {
+            final Object step = steps.get(i);
+            if (step instanceof ElementVisitor) {
+                visit((ElementVisitor) step, startElement, xmlStreamReader);
+            } else {
+                // children consumed by the filter must still be visited by the previous steps
+                final XMLEventReader filterEventReader = i > 0 ? new VisitingEventReader(xmlEventReader, xmlStreamReader, i) : xmlEventReader;
+                final XMLFileFilter.Result result = ((XMLFileFilter) step).filter(startElement, filterEventReader, xmlEventWriter, XML_EVENT_FACTORY);
+                if (result == XMLFileFilter.Result.REMOVE) {
+                    skipTillEndElement(filterEventReader);
+                    return;
+                } else if (result == XMLFileFilter.Result.CONTINUE) {
+                    if (!closed || i != steps.size() - 1) {
+                        throw new IllegalStateException("XML file filter returned CONTINUE but is not the pass's last filter");
+                    }
+                    return;
+                }
+            }
+        }
+        if (xmlEventWriter != null) {
+            xmlEventWriter.add(startElement);
+        }
+    }
+
+    private void visit(final ElementVisitor visitor, final StartElement startElement, final XMLStreamReader xmlStreamReader) throws XMLStreamException, IOException {
+        if (!xmlStreamReader.isStartElement() || !xmlStreamReader.getName().equals(startElement.getName())) {
+            throw new IllegalStateException("XML stream reader not positioned at element "+startElement.getName());
+        }
+        visitor.visit(xmlStreamReader);
+    }
+
+    private static void skipTillEndElement(XMLEventReader xmlEventReader) throws XMLStreamException {
+        int endElementsLeft = 1;
+        do {
+            XMLEvent xmlEvent = xmlEventReader.nextEvent();
+            if (xmlEvent.isStartElement()) {
+                endElementsLeft++;
+            }
+            else if(xmlEvent.isEndElement()){
+                endElementsLeft--;
+            }
+        } while (xmlEventReader.hasNext() && endElementsLeft > 0);
+    }
+
+    /**
+     * An event reader which applies the visitors, added before a filter, to the start elements read by the filter.
+     */
+    private class VisitingEventReader extends EventReaderDelegate {
+
+        private final XMLStreamReader xmlStreamReader;
+        private final int filterIndex;
+
+        VisitingEventReader(XMLEventReader xmlEventReader, XMLStreamReader xmlStreamReader, int filterIndex) {
+            super(xmlEventReader);
+            this.xmlStreamReader = xmlStreamReader;
+            this.filterIndex = filterIndex;
+        }
+
+        @Override
+        public XMLEvent nextEvent() throws XMLStreamException {
+            final XMLEvent xmlEvent = super.nextEvent();
+            if (xmlEvent.isStartElement()) {
+                for (int i = 0; i < filterIndex; i++) {
+                    final Object step = steps.get(i);
+                    if (step instanceof ElementVisitor) {
+                        try {
+                            visit((ElementVisitor) step, xmlEvent.asStartElement(), xmlStreamReader);
+                        } catch (IOException e) {
+                            throw new XMLStreamException(e);
+                        }
+                    }
+                }
+            }
+            return xmlEvent;
+        }
+
+        @Override
+        public Object next() {
+            try {
+                return nextEvent();
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * A pass step which visits the XML file's elements, without modifying these.
+     */
+    public interface ElementVisitor {
+        /**
+         * Visits a XML element.
+         * @param reader the XML stream reader, positioned at the start of the element, which should not be moved by the visitor
+         * @throws XMLStreamException if there was a failure reading the element
+         * @throws IOException if there was a failure processing the element
+         */
+        void visit(XMLStreamReader reader) throws XMLStreamException, IOException;
+    }
+}
@@ -17,6 +17,8 @@
 package org.jboss.migration.core.util.xml;
 
 import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.jfr.FlightRecorderEvents;
+import org.jboss.migration.core.jfr.XMLFilesEvent;
 
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventReader;
@@ -56,6 +58,7 @@ public class XMLFiles {
      */
     public static Collection<Path> scan(final Path start, final boolean recursive, final XMLFileMatcher matcher) throws ServerMigrationFailureException {
         final SortedSet<Path> result = new TreeSet<>();
+        final XMLFilesEvent event = FlightRecorderEvents.beginXMLFiles();
         try {
             Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
                 @Override
@@ -87,6 +90,10 @@ public class XMLFiles {
             });
         } catch (IOException e) {
             throw new ServerMigrationFailureException("XML file scan failed!", e);
+        } finally {
+            if (event != null) {
+                event.complete("scan", start, result.size());
+            }
         }
         return Collections.unmodifiableSet(result);
     }
@@ -113,6 +120,7 @@ public class XMLFiles {
      * @throws ServerMigrationFailureException
      */
     public static void filter(Path xmlFile, XMLFileFilter... filters) throws ServerMigrationFailureException {
+        final XMLFilesEvent event = FlightRecorderEvents.beginXMLFiles();
         try {
             byte[] xmlFileBytes = Files.readAllBytes(xmlFile);
             try (InputStream inputStream = new ByteArrayInputStream(xmlFileBytes); OutputStream outputStream = Files.newOutputStream(xmlFile)) {
@@ -120,6 +128,10 @@ public class XMLFiles {
             }
         } catch (IOException e) {
             throw new ServerMigrationFailureException("XML file filter failed.", e);
+        } finally {
+            if (event != null) {
+                event.complete("filter", xmlFile, 1);
+            }
         }
     }
 
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MigrationFilesTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path sourceDir;
+    private Path targetDir;
+
+    @Before
+    public void prepareDirs() throws IOException {
+        sourceDir = tmp.newFolder("source").toPath();
+        targetDir = tmp.newFolder("target").toPath();
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void copyFile() throws IOException {
+        final Path source = sourceDir.resolve("a").resolve("file.txt");
+        final Path target = targetDir.resolve("a").resolve("file.txt");
+        write(source, "source");
+        write(target, "target");
+        new MigrationFiles().copy(source, target);
+        assertEquals("source", read(target));
+        // the replaced target file is backed up
+        assertEquals("target", read(target.resolveSibling("file.txt.beforeMigration")));
+        assertEquals(Files.getLastModifiedTime(source), Files.getLastModifiedTime(target));
+    }
+
+    @Test
+    public void copyDir() throws IOException {
+        write(sourceDir.resolve("a").resolve("file1.txt"), "1");
+        write(sourceDir.resolve("a").resolve("b").resolve("file2.txt"), "2");
+        new MigrationFiles().copy(sourceDir.resolve("a"), targetDir.resolve("a"));
+        assertEquals("1", read(targetDir.resolve("a").resolve("file1.txt")));
+        assertEquals("2", read(targetDir.resolve("a").resolve("b").resolve("file2.txt")));
+    }
+
+    @Test
+    public void linkFile() throws IOException {
+        final Path source = sourceDir.resolve("content");
+        final Path target = targetDir.resolve("aa").resolve("content");
+        write(source, "content");
+        final MigrationFiles migrationFiles = new MigrationFiles();
+        migrationFiles.link(source, target);
+        assertEquals("content", read(target));
+        // linking again does not backup the target
+        migrationFiles.link(source, target);
+        assertEquals("content", read(target));
+        assertFalse(Files.exists(target.resolveSibling("content.beforeMigration")));
+        assertTrue(Files.exists(source));
+    }
+
+    @Test
+    public void copyReplacesLinkedFile() throws IOException {
+        final Path source = sourceDir.resolve("content");
+        final Path otherSource = sourceDir.resolve("other-content");
+        final Path target = targetDir.resolve("content");
+        write(source, "content");
+        write(otherSource, "other content");
+        final MigrationFiles migrationFiles = new MigrationFiles();
+        migrationFiles.link(source, target);
+        // copying to the linked target does not write through the link
+        migrationFiles.copy(otherSource, target);
+        assertEquals("other content", read(target));
+        assertEquals("content", read(source));
+    }
+
+    @Test
+    public void journalResume() throws IOException {
+        final Path source = sourceDir.resolve("file.txt");
+        final Path target = targetDir.resolve("file.txt");
+        write(source, "source");
+        write(target, "target");
+        final Path journalFile = tmp.getRoot().toPath().resolve("journal");
+        final MigrationFilesJournal journal = MigrationFilesJournal.open(journalFile);
+        new MigrationFiles(journal).copy(source, target);
+        // interrupted migration, journal not deleted
+        journal.close(false);
+        // the resumed migration does not copy the file again, and keeps the original backup
+        final Path backup = target.resolveSibling("file.txt.beforeMigration");
+        final MigrationFilesJournal resumedJournal = MigrationFilesJournal.open(journalFile);
+        assertTrue(resumedJournal.hasCopies());
+        assertTrue(resumedJournal.isCopied(source, target));
+        new MigrationFiles(resumedJournal).copy(source, target);
+        assertEquals("source", read(target));
+        assertEquals("target", read(backup));
+        resumedJournal.close(true);
+        assertFalse(Files.exists(journalFile));
+    }
+
+    @Test
+    public void journalRollback() throws IOException {
+        final Path source = sourceDir.resolve("file.txt");
+        final Path target = targetDir.resolve("file.txt");
+        final Path newTarget = targetDir.resolve("new.txt");
+        write(source, "source");
+        write(target, "target");
+        final Path journalFile = tmp.getRoot().toPath().resolve("journal");
+        final MigrationFilesJournal journal = MigrationFilesJournal.open(journalFile);
+        final MigrationFiles migrationFiles = new MigrationFiles(journal);
+        migrationFiles.copy(source, target);
+        migrationFiles.copy(source, newTarget);
+        journal.close(false);
+        final MigrationFilesJournal rollbackJournal = MigrationFilesJournal.open(journalFile);
+        rollbackJournal.rollback();
+        assertEquals("target", read(target));
+        assertFalse(Files.exists(target.resolveSibling("file.txt.beforeMigration")));
+        assertFalse(Files.exists(newTarget));
+        assertFalse(rollbackJournal.hasCopies());
+        rollbackJournal.close(true);
+    }
+
+    @Test
+    public void journalTargetChanged() throws IOException {
+        final Path source = sourceDir.resolve("file.txt");
+        final Path target = targetDir.resolve("file.txt");
+        write(source, "source");
+        final Path journalFile = tmp.getRoot().toPath().resolve("journal");
+        final MigrationFilesJournal journal = MigrationFilesJournal.open(journalFile);
+        new MigrationFiles(journal).copy(source, target);
+        journal.close(false);
+        // target changed after the interrupted migration, with same size
+        write(target, "change");
+        Files.setLastModifiedTime(target, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 10000));
+        final MigrationFilesJournal resumedJournal = MigrationFilesJournal.open(journalFile);
+        assertFalse(resumedJournal.isCopied(source, target));
+        new MigrationFiles(resumedJournal).copy(source, target);
+        assertEquals("source", read(target));
+        resumedJournal.close(true);
+    }
+
+    @Test
+    public void journalRollbackDirs() throws IOException {
+        final Path source = sourceDir.resolve("file.txt");
+        final Path sourceSubDir = sourceDir.resolve("dir");
+        final Path newDir = targetDir.resolve("new");
+        final Path target = newDir.resolve("sub").resolve("file.txt");
+        final Path targetSubDir = newDir.resolve("dir");
+        write(source, "source");
+        write(sourceSubDir.resolve("file.txt"), "source");
+        final Path journalFile = tmp.getRoot().toPath().resolve("journal");
+        final MigrationFilesJournal journal = MigrationFilesJournal.open(journalFile);
+        final MigrationFiles migrationFiles = new MigrationFiles(journal);
+        migrationFiles.copy(source, target);
+        migrationFiles.copy(sourceSubDir, targetSubDir);
+        journal.close(false);
+        final MigrationFilesJournal rollbackJournal = MigrationFilesJournal.open(journalFile);
+        rollbackJournal.rollback();
+        assertFalse(Files.exists(newDir));
+        assertTrue(Files.isDirectory(targetDir));
+        rollbackJournal.close(true);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core;
+
+import org.jboss.migration.core.console.JavaConsole;
+import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.report.SummaryReportWriter;
+import org.jboss.migration.core.task.ServerMigrationTask;
+import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskExecution;
+import org.jboss.migration.core.task.TaskExecutionImpl;
+import org.jboss.migration.core.task.TaskFingerprint;
+import org.jboss.migration.core.task.TaskFingerprintStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskFingerprintStoreTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String KEY = "task";
+
+    /**
+     * Runs a task, which reads environment properties, copies a file, and writes a target configuration, replaying its last result if its fingerprint did not change.
+     */
+    private static ServerMigrationTaskResult run(TaskFingerprintStore store, MigrationEnvironment environment, Path source, Path target, AtomicInteger executions) {
+        return execute(store, environment, source, target, executions).getResult();
+    }
+
+    private static TaskExecution execute(TaskFingerprintStore store, MigrationEnvironment environment, Path source, Path target, AtomicInteger executions) {
+        final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder(KEY).build();
+        final ServerMigrationTask task = new ServerMigrationTask() {
+            @Override
+            public ServerMigrationTaskName getName() {
+                return taskName;
+            }
+            @Override
+            public ServerMigrationTaskResult run(TaskContext context) {
+                final ServerMigrationTaskResult replayedResult = store.replay(KEY, context);
+                if (replayedResult != null) {
+                    return replayedResult;
+                }
+                final TaskFingerprint fingerprint = TaskFingerprint.start();
+                try {
+                    executions.incrementAndGet();
+                    context.execute(new ServerMigrationTaskName.Builder("subtask").addAttribute("file", source.getFileName().toString()).build(), subtaskContext -> {
+                        subtaskContext.getMigrationEnvironment().getPropertyAsString("a");
+                        subtaskContext.getMigrationEnvironment().getPropertyAsString("b");
+                        subtaskContext.getMigrationFiles().copy(source, target);
+                        subtaskContext.execute(new ServerMigrationTaskName.Builder("nested-subtask").build(), nestedSubtaskContext -> ServerMigrationTaskResult.SKIPPED);
+                        return new ServerMigrationTaskResult.Builder().success().addAttribute("copied", true).build();
+                    });
+                    final Path targetConfiguration = target.resolveSibling("configuration.xml");
+                    try {
+                        Files.write(targetConfiguration, "migrated".getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        throw new ServerMigrationFailureException(e);
+                    }
+                    TaskFingerprint.recordOutputFile(targetConfiguration);
+                } finally {
+                    fingerprint.stop();
+                }
+                final ServerMigrationTaskResult result = new ServerMigrationTaskResult.Builder().success().addAttribute("x", "y").build();
+                store.store(KEY, fingerprint, result, context.getSubtasks());
+                return result;
+            }
+        };
+        final TaskExecutionImpl taskExecution = new TaskExecutionImpl(task, new ServerMigrationContextImpl(new JavaConsole(), false, environment));
+        taskExecution.run();
+        return taskExecution;
+    }
+
+    /**
+     * Retrieves the store configured for a task, executed with the specified environment.
+     */
+    private static TaskFingerprintStore from(MigrationEnvironment environment, boolean interactive, Path targetBaseDir) {
+        final AtomicReference<TaskFingerprintStore> store = new AtomicReference<>();
+        final ServerMigrationTask task = new ServerMigrationTask() {
+            @Override
+            public ServerMigrationTaskName getName() {
+                return new ServerMigrationTaskName.Builder(KEY).build();
+            }
+            @Override
+            public ServerMigrationTaskResult run(TaskContext context) {
+                store.set(TaskFingerprintStore.from(context, targetBaseDir, TaskFingerprintStoreTest.class));
+                return ServerMigrationTaskResult.SUCCESS;
+            }
+        };
+        new TaskExecutionImpl(task, new ServerMigrationContextImpl(new JavaConsole(), interactive, environment)).run();
+        return store.get();
+    }
+
+    @Test
+    public void replay() throws IOException {
+        final TaskFingerprintStore store = new TaskFingerprintStore(tmp.newFolder("fingerprints").toPath(), TaskFingerprintStoreTest.class);
+        final Path source = tmp.newFolder("source").toPath().resolve("file.txt");
+        final Path target = tmp.getRoot().toPath().resolve("target").resolve("file.txt");
+        Files.write(source, "source".getBytes(StandardCharsets.UTF_8));
+        final MigrationEnvironment environment = new MigrationEnvironment();
+        environment.setProperty("a", "1");
+        environment.setProperty("c", "1");
+        final AtomicInteger executions = new AtomicInteger();
+
+        assertNull(run(store, environment, source, target, executions).getAttributes().get(TaskFingerprintStore.RESULT_ATTRIBUTE_REPLAYED));
+        assertEquals(1, executions.get());
+
+        // unchanged inputs and outputs, the result is replayed
+        ServerMigrationTaskResult result = run(store, environment, source, target, executions);
+        assertEquals(1, executions.get());
+        assertEquals("true", result.getAttributes().get(TaskFingerprintStore.RESULT_ATTRIBUTE_REPLAYED));
+        assertEquals("y", result.getAttributes().get("x"));
+
+        // a property not read by the task changed
+        environment.setProperty("c", "2");
+        run(store, environment, source, target, executions);
+        assertEquals(1, executions.get());
+
+        // a property not set was set
+        environment.setProperty("b", "1");
+        run(store, environment, source, target, executions);
+        assertEquals(2, executions.get());
+        run(store, environment, source, target, executions);
+        assertEquals(2, executions.get());
+
+        // the source file was touched, but its content is the same
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() - 10000));
+        run(store, environment, source, target, executions);
+        assertEquals(2, executions.get());
+
+        // the source file was modified
+        Files.write(source, "modified".getBytes(StandardCharsets.UTF_8));
+        run(store, environment, source, target, executions);
+        assertEquals(3, executions.get());
+
+        // the target file was removed
+        Files.delete(target);
+        run(store, environment, source, target, executions);
+        assertEquals(4, executions.get());
+        run(store, environment, source, target, executions);
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    public void replayedSubtasks() throws IOException {
+        final TaskFingerprintStore store = new TaskFingerprintStore(tmp.newFolder("fingerprints").toPath(), TaskFingerprintStoreTest.class);
+        final Path source = tmp.newFolder("source").toPath().resolve("file.txt");
+        final Path target = tmp.getRoot().toPath().resolve("target").resolve("file.txt");
+        Files.write(source, "source".getBytes(StandardCharsets.UTF_8));
+        final MigrationEnvironment environment = new MigrationEnvironment();
+        final AtomicInteger executions = new AtomicInteger();
+        execute(store, environment, source, target, executions);
+        final TaskExecution replayedTask = execute(store, environment, source, target, executions);
+        assertEquals(1, executions.get());
+        // the replayed task has the same subtasks tree, with the same names and results, each marked as replayed
+        assertEquals(1, replayedTask.getSubtasks().size());
+        final TaskExecution replayedSubtask = replayedTask.getSubtasks().get(0);
+        assertEquals("subtask", replayedSubtask.getTaskName().getName());
+        assertEquals(Collections.singletonMap("file", "file.txt"), replayedSubtask.getTaskName().getAttributes());
+        assertEquals(ServerMigrationTaskResult.Status.SUCCESS, replayedSubtask.getResult().getStatus());
+        assertEquals("true", replayedSubtask.getResult().getAttributes().get("copied"));
+        assertEquals("true", replayedSubtask.getResult().getAttributes().get(TaskFingerprintStore.RESULT_ATTRIBUTE_REPLAYED));
+        assertEquals(1, replayedSubtask.getSubtasks().size());
+        final TaskExecution replayedNestedSubtask = replayedSubtask.getSubtasks().get(0);
+        assertEquals("nested-subtask", replayedNestedSubtask.getTaskName().getName());
+        assertEquals(ServerMigrationTaskResult.Status.SKIPPED, replayedNestedSubtask.getResult().getStatus());
+        assertEquals("true", replayedNestedSubtask.getResult().getAttributes().get(TaskFingerprintStore.RESULT_ATTRIBUTE_REPLAYED));
+        assertEquals(0, replayedNestedSubtask.getSubtasks().size());
+        // and so is the replayed task's report
+        final String summary = SummaryReportWriter.INSTANCE.toString(new MigrationData(null, null, replayedTask, environment));
+        assertTrue(summary, summary.contains(new ServerMigrationTaskName.Builder("subtask").addAttribute("file", "file.txt").build().toString()));
+    }
+
+    @Test
+    public void targetChanged() throws IOException {
+        final TaskFingerprintStore store = new TaskFingerprintStore(tmp.newFolder("fingerprints").toPath(), TaskFingerprintStoreTest.class);
+        final Path source = tmp.newFolder("source").toPath().resolve("file.txt");
+        final Path target = tmp.getRoot().toPath().resolve("target").resolve("file.txt");
+        final Path targetConfiguration = target.resolveSibling("configuration.xml");
+        Files.write(source, "source".getBytes(StandardCharsets.UTF_8));
+        final MigrationEnvironment environment = new MigrationEnvironment();
+        final AtomicInteger executions = new AtomicInteger();
+        run(store, environment, source, target, executions);
+        run(store, environment, source, target, executions);
+        assertEquals(1, executions.get());
+
+        // the target configuration was modified, with the same size and last modified time
+        final FileTime lastModifiedTime = Files.getLastModifiedTime(targetConfiguration);
+        Files.write(targetConfiguration, "modified".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(targetConfiguration, lastModifiedTime);
+        run(store, environment, source, target, executions);
+        assertEquals(2, executions.get());
+        run(store, environment, source, target, executions);
+        assertEquals(2, executions.get());
+
+        // the target configuration was removed
+        Files.delete(targetConfiguration);
+        run(store, environment, source, target, executions);
+        assertEquals(3, executions.get());
+
+        // the copied target file was modified, with the same size and last modified time
+        final FileTime targetLastModifiedTime = Files.getLastModifiedTime(target);
+        Files.write(target, "target".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(target, targetLastModifiedTime);
+        run(store, environment, source, target, executions);
+        assertEquals(4, executions.get());
+        assertEquals("source", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void toolChanged() throws IOException {
+        final Path dir = tmp.newFolder("fingerprints").toPath();
+        final Path source = tmp.newFolder("source").toPath().resolve("file.txt");
+        final Path target = tmp.getRoot().toPath().resolve("target").resolve("file.txt");
+        Files.write(source, "source".getBytes(StandardCharsets.UTF_8));
+        final MigrationEnvironment environment = new MigrationEnvironment();
+        final AtomicInteger executions = new AtomicInteger();
+        run(new TaskFingerprintStore(dir, TaskFingerprintStoreTest.class), environment, source, target, executions);
+        run(new TaskFingerprintStore(dir, TaskFingerprintStoreTest.class), environment, source, target, executions);
+        assertEquals(1, executions.get());
+        // the core's classes are not the test's, and so the tool's hash is not the same
+        run(new TaskFingerprintStore(dir, TaskFingerprintStore.class), environment, source, target, executions);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void interactive() throws IOException {
+        final Path targetBaseDir = tmp.newFolder("target").toPath();
+        final MigrationEnvironment environment = new MigrationEnvironment();
+        assertNull(from(environment, false, targetBaseDir));
+        environment.setProperty(TaskFingerprintStore.ENVIRONMENT_PROPERTY_DIR, "fingerprints");
+        final TaskFingerprintStore store = from(environment, false, targetBaseDir);
+        assertNotNull(store);
+        assertEquals(targetBaseDir.resolve("fingerprints"), store.getDir());
+        // the user's answers are not in the fingerprints
+        assertNull(from(environment, true, targetBaseDir));
+    }
+}
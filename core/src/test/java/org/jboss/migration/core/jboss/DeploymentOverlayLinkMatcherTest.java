@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.jboss;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeploymentOverlayLinkMatcherTest {
+
+    private static final String[] LINKS = {"app.war", "*.ear", "lib-?.jar", "app(1).war"};
+
+    private static final String[] DEPLOYMENT_NAMES = {"app.war", "lib-1xjar", "app.ear", "app.ear.war", "lib-1.jar", "lib-10.jar", "lib-.jar", "app(1).war", "app1.war", "other.war"};
+
+    @Test
+    public void compiledMatches() {
+        final DeploymentOverlayLinkMatcher matcher = new DeploymentOverlayLinkMatcher(LINKS);
+        assertTrue(matcher.hasWildcards());
+        assertEquals(new HashSet<>(Arrays.asList("app.war", "app(1).war")), matcher.getNames());
+        assertTrue(matcher.matches("app.war"));
+        // the wildcard links' regex chars are literals
+        assertFalse(matcher.matches("lib-1xjar"));
+        assertTrue(matcher.matches("app.ear"));
+        assertFalse(matcher.matches("app.ear.war"));
+        // ? matches a single char
+        assertTrue(matcher.matches("lib-1.jar"));
+        assertFalse(matcher.matches("lib-10.jar"));
+        assertFalse(matcher.matches("lib-.jar"));
+        assertTrue(matcher.matches("app(1).war"));
+        assertFalse(matcher.matches("app1.war"));
+        assertFalse(matcher.matches("other.war"));
+    }
+
+    @Test
+    public void staticMatchesSameAsCompiled() {
+        final DeploymentOverlayLinkMatcher matcher = new DeploymentOverlayLinkMatcher(LINKS);
+        for (String deploymentName : DEPLOYMENT_NAMES) {
+            assertEquals(deploymentName, matcher.matches(deploymentName), DeploymentOverlayLinkMatcher.matches(deploymentName, LINKS));
+        }
+    }
+
+    @Test
+    public void exactNamesOnly() {
+        final DeploymentOverlayLinkMatcher matcher = new DeploymentOverlayLinkMatcher("app.war");
+        assertFalse(matcher.hasWildcards());
+        assertEquals(Collections.singleton("app.war"), matcher.getNames());
+        assertTrue(matcher.matches("app.war"));
+        assertFalse(matcher.matches("app.ear"));
+        assertFalse(new DeploymentOverlayLinkMatcher().matches("app.war"));
+    }
+
+    @Test
+    public void patternsCacheBounded() {
+        for (int i = 0; i < DeploymentOverlayLinkMatcher.MAX_PATTERNS * 2; i++) {
+            assertTrue(DeploymentOverlayLinkMatcher.matches("app" + i + ".war", new String[] {"app" + i + ".*"}));
+        }
+        assertEquals(DeploymentOverlayLinkMatcher.MAX_PATTERNS, DeploymentOverlayLinkMatcher.getCachedPatterns());
+        // evicted patterns still match
+        assertTrue(DeploymentOverlayLinkMatcher.matches("app0.war", new String[] {"app0.*"}));
+    }
+}
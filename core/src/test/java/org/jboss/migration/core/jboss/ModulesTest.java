@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.jboss;
+
+import org.jboss.migration.core.ProductInfo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModulesTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private static Path addModule(Path dir, String moduleName) throws IOException {
+        final Path moduleDir = dir.resolve(moduleName.replace('.', '/')).resolve("main");
+        Files.createDirectories(moduleDir);
+        Files.write(moduleDir.resolve("module.xml"), ("<module xmlns=\"urn:jboss:module:1.3\" name=\""+moduleName+"\"/>").getBytes(StandardCharsets.UTF_8));
+        return moduleDir;
+    }
+
+    @Test
+    public void moduleDirs() throws IOException {
+        final Path serverDir = tmp.newFolder("server").toPath().toAbsolutePath();
+        final Path modulesDir = serverDir.resolve("modules");
+        final Path layersDir = modulesDir.resolve("system").resolve("layers");
+        Files.createDirectories(modulesDir);
+        Files.write(modulesDir.resolve("layers.conf"), "layers=product".getBytes(StandardCharsets.UTF_8));
+        addModule(layersDir.resolve("base"), "a");
+        addModule(layersDir.resolve("base"), "b");
+        addModule(layersDir.resolve("base"), "c");
+        addModule(layersDir.resolve("base"), "d");
+        final Path overlayModuleDir = addModule(layersDir.resolve("base").resolve(".overlays").resolve("overlay1"), "a");
+        Files.write(layersDir.resolve("base").resolve(".overlays").resolve(".overlays"), "overlay1\n".getBytes(StandardCharsets.UTF_8));
+        final Path productModuleDir = addModule(layersDir.resolve("product"), "b");
+        final Path rootModuleDir = addModule(modulesDir, "c");
+        final Path addOnModuleDir = addModule(modulesDir.resolve("system").resolve("add-ons").resolve("addon1"), "e.f");
+        final Path indexDir = tmp.getRoot().toPath().resolve("index");
+
+        final JBossServer.Modules modules = new JBossServer.Modules(serverDir, indexDir);
+        // overlays, layers and the modules root dir have priority over the base layer
+        assertEquals(overlayModuleDir, modules.getModuleDir(ModuleIdentifier.fromString("a")));
+        assertEquals(productModuleDir, modules.getModuleDir(ModuleIdentifier.fromString("b")));
+        assertEquals(rootModuleDir, modules.getModuleDir(ModuleIdentifier.fromString("c")));
+        assertEquals(layersDir.resolve("base").resolve("d").resolve("main"), modules.getModuleDir(ModuleIdentifier.fromString("d")));
+        assertEquals(addOnModuleDir, modules.getModule("e.f:main").getModuleDir());
+        // the index was stored
+        try (Stream<Path> indexFiles = Files.list(indexDir)) {
+            assertEquals(1, indexFiles.count());
+        }
+
+        // modules added after the index was built are found in the modules root dir
+        final Path newModuleDir = addModule(modulesDir, "g");
+        assertEquals(newModuleDir, modules.getModuleDir(ModuleIdentifier.fromString("g")));
+        assertTrue(modules.getModule("g") != null);
+    }
+
+    @Test
+    public void outdatedIndex() throws IOException {
+        final Path serverDir = tmp.newFolder("server").toPath().toAbsolutePath();
+        final Path modulesDir = serverDir.resolve("modules");
+        final Path baseLayerDir = modulesDir.resolve("system").resolve("layers").resolve("base");
+        addModule(baseLayerDir, "a");
+        assertEquals(baseLayerDir.resolve("a").resolve("main"), new JBossServer.Modules(serverDir, (Path) null).getModuleDir(ModuleIdentifier.fromString("a")));
+        // a module added to a layer after the index was built, the index is rebuilt
+        final Path newModuleDir = addModule(baseLayerDir, "b");
+        Files.setLastModifiedTime(baseLayerDir, FileTime.fromMillis(Files.getLastModifiedTime(baseLayerDir).toMillis() + 10000));
+        assertEquals(newModuleDir, new JBossServer.Modules(serverDir, (Path) null).getModuleDir(ModuleIdentifier.fromString("b")));
+    }
+
+    @Test
+    public void indexBuiltOnce() throws Exception {
+        final Path serverDir = tmp.newFolder("server").toPath().toAbsolutePath();
+        final Path modulesDir = serverDir.resolve("modules");
+        addModule(modulesDir, "a");
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<ModulesIndex>> indexes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                indexes.add(executorService.submit(() -> ModulesIndex.get(modulesDir, null)));
+            }
+            // concurrent retrievals get the same index
+            final ModulesIndex index = indexes.get(0).get();
+            for (Future<ModulesIndex> otherIndex : indexes) {
+                assertSame(index, otherIndex.get());
+            }
+            // and further retrievals reuse it while valid
+            assertSame(index, ModulesIndex.get(modulesDir, null));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void specificationsSharedByProduct() throws IOException {
+        final ProductInfo productInfo = new ProductInfo("ModulesTest", "1.0");
+        final Path serverDir = tmp.newFolder("server").toPath().toAbsolutePath();
+        final Path otherServerDir = tmp.newFolder("other-server").toPath().toAbsolutePath();
+        addModule(serverDir.resolve("modules"), "a");
+        final Path otherModuleDir = addModule(otherServerDir.resolve("modules"), "a");
+        final ModuleSpecification moduleSpecification = new JBossServer.Modules(serverDir, productInfo, null).getModule("a").getModuleSpecification();
+        // the servers of the same product and version, installed in other dirs, share the parsed specification
+        assertSame(moduleSpecification, new JBossServer.Modules(otherServerDir, productInfo, null).getModule("a").getModuleSpecification());
+        // but not servers of other versions
+        assertNotSame(moduleSpecification, new JBossServer.Modules(otherServerDir, new ProductInfo("ModulesTest", "2.0"), null).getModule("a").getModuleSpecification());
+        // nor a modified module.xml
+        Files.write(otherModuleDir.resolve("module.xml"), "<module xmlns=\"urn:jboss:module:1.3\" name=\"a\"><dependencies><module name=\"b\"/></dependencies></module>".getBytes(StandardCharsets.UTF_8));
+        final ModuleSpecification otherModuleSpecification = new JBossServer.Modules(otherServerDir, productInfo, null).getModule("a").getModuleSpecification();
+        assertNotSame(moduleSpecification, otherModuleSpecification);
+        assertEquals(1, otherModuleSpecification.getDependencies().size());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.jboss;
+
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class XmlConfigurationDiscoveryTest {
+
+    private static final String SERVER_ELEMENT = "<server xmlns=\"urn:jboss:domain:4.0\">";
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private static String padding(int length) {
+        final char[] chars = new char[length];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    private static Path write(Path dir, String fileName, String content) throws IOException {
+        final Path path = dir.resolve(fileName);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    @Test
+    public void prefixSniff() throws IOException {
+        final Path dir = tmp.newFolder("configuration").toPath();
+        // the document element is in the prefix, the content after it, even if not well formed, is never read
+        final Path standalone = write(dir, "standalone.xml", "<?xml version='1.0' encoding='UTF-8'?>\n" + SERVER_ELEMENT + "<!--" + padding(20 * 1024) + "--><unclosed>");
+        final Path small = write(dir, "standalone-small.xml", SERVER_ELEMENT + "</server>");
+        write(dir, "other.xml", "<other/>");
+        write(dir, "host.xml", "<host xmlns=\"urn:jboss:domain:4.0\"/>");
+        final XmlConfigurationDiscovery discovery = new XmlConfigurationDiscovery();
+        assertEquals(Arrays.asList(small, standalone), discovery.getConfigs(dir, "server"));
+        assertEquals(0, discovery.getFullReads());
+    }
+
+    @Test
+    public void fallbackToFullRead() throws IOException {
+        final Path dir = tmp.newFolder("configuration").toPath();
+        // the document element is after the prefix
+        final Path commented = write(dir, "standalone.xml", "<?xml version='1.0' encoding='UTF-8'?>\n<!--" + padding(10 * 1024) + "-->\n" + SERVER_ELEMENT + "</server>");
+        // the prefix ends right in the document element's start tag
+        final String prolog = "<?xml version='1.0' encoding='UTF-8'?>\n<!--" + padding(8 * 1024 - 60) + "-->\n";
+        final Path split = write(dir, "standalone-split.xml", prolog + "<server                          xmlns=\"urn:jboss:domain:4.0\"></server>");
+        final XmlConfigurationDiscovery discovery = new XmlConfigurationDiscovery();
+        assertEquals(Arrays.asList(split, commented), discovery.getConfigs(dir, "server"));
+        assertEquals(2, discovery.getFullReads());
+        // not read again while not modified
+        assertEquals(Arrays.asList(split, commented), discovery.getConfigs(dir, "server"));
+        assertEquals(2, discovery.getFullReads());
+    }
+
+    @Test
+    public void notWellFormed() throws IOException {
+        final Path dir = tmp.newFolder("configuration").toPath();
+        write(dir, "standalone.xml", "<?xml version='1.0' encoding='UTF-8'?>\n<!--");
+        try {
+            new XmlConfigurationDiscovery().getConfigs(dir, "server");
+            fail();
+        } catch (ServerMigrationFailureException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void deletedFiles() throws IOException {
+        final Path dir = tmp.newFolder("configuration").toPath();
+        final Path otherDir = tmp.newFolder("other-configuration").toPath();
+        final Path standalone = write(dir, "standalone.xml", SERVER_ELEMENT + "</server>");
+        final Path standaloneHa = write(dir, "standalone-ha.xml", SERVER_ELEMENT + "</server>");
+        final Path otherStandalone = write(otherDir, "standalone.xml", SERVER_ELEMENT + "</server>");
+        final XmlConfigurationDiscovery discovery = new XmlConfigurationDiscovery();
+        assertEquals(Arrays.asList(standaloneHa, standalone), discovery.getConfigs(dir, "server"));
+        assertEquals(Collections.singletonList(otherStandalone), discovery.getConfigs(otherDir, "server"));
+        assertEquals(3, discovery.getCachedDocumentElements());
+        // the cached document elements of deleted files are dropped, only for the discovered dir
+        Files.delete(standaloneHa);
+        Files.delete(otherStandalone);
+        assertEquals(Collections.singletonList(standalone), discovery.getConfigs(dir, "server"));
+        assertEquals(2, discovery.getCachedDocumentElements());
+        assertEquals(Collections.emptyList(), discovery.getConfigs(otherDir, "server"));
+        assertEquals(1, discovery.getCachedDocumentElements());
+    }
+}
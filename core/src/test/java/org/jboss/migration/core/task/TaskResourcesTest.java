@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.migration.core.task;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskResourcesTest {
+
+    @Test
+    public void conflicts() {
+        final TaskResources modules = new TaskResources.Builder().writes(TaskResources.MODULES).build();
+        final TaskResources content = new TaskResources.Builder().writes(TaskResources.CONTENT).build();
+        final TaskResources singleton = new TaskResources.Builder()
+                .writes(TaskResources.extension("org.wildfly.extension.clustering.singleton"), TaskResources.subsystem("singleton"))
+                .reads(TaskResources.subsystem("infinispan"))
+                .build();
+        final TaskResources jberet = new TaskResources.Builder()
+                .writes(TaskResources.extension("org.wildfly.extension.batch.jberet"), TaskResources.subsystem("batch-jberet"))
+                .build();
+        final TaskResources infinispan = new TaskResources.Builder().writes(TaskResources.subsystem("infinispan")).build();
+        final TaskResources configuration = new TaskResources.Builder().reads(TaskResources.CONFIGURATION).build();
+        final TaskResources singletonReader = new TaskResources.Builder().reads(TaskResources.subsystem("singleton")).build();
+
+        assertFalse(modules.conflictsWith(content));
+        assertFalse(singleton.conflictsWith(jberet));
+        assertFalse(jberet.conflictsWith(singleton));
+        assertFalse(singleton.conflictsWith(modules));
+        // reads do not conflict with reads
+        assertFalse(configuration.conflictsWith(singletonReader));
+        // a write conflicts with reads and writes of the same resource
+        assertTrue(singleton.conflictsWith(infinispan));
+        assertTrue(infinispan.conflictsWith(singleton));
+        assertTrue(modules.conflictsWith(modules));
+        // a resource contains the resources with paths starting with its path
+        assertTrue(configuration.conflictsWith(singleton));
+        assertTrue(singleton.conflictsWith(configuration));
+        // yet not the resources with paths only starting with its path's chars
+        final TaskResources singletonDeployer = new TaskResources.Builder().writes(TaskResources.subsystem("singleton-deployer")).build();
+        assertFalse(singletonReader.conflictsWith(singletonDeployer));
+    }
+}
@@ -15,23 +15,36 @@
  */
 package org.jboss.migration.core.ts;
 
+import org.jboss.migration.core.MigrationData;
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.report.EnvironmentProperties;
 import org.jboss.migration.core.report.HtmlReportWriter;
 import org.jboss.migration.core.report.SummaryReportWriter;
 import org.jboss.migration.core.report.XmlReportWriter;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.jboss.migration.core.ts.MigrationTasksTest.migrationData;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MigrationReportTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
     @Test
     public void success_summary() throws IOException {
         String summary = SummaryReportWriter.INSTANCE.toString(migrationData(false));
@@ -122,6 +135,41 @@ public class MigrationReportTest {
         assertTrue(html.contains("test.property.value"));
     }
 
+    @Test
+    public void split_html() throws IOException {
+        final MigrationData migrationData = migrationData(false);
+        migrationData.getServerMigrationEnvironment().setProperty(EnvironmentProperties.PROPERTY_TASK_DETAILS_CHUNK_SIZE, "2");
+        final Path reportPath = tmp.getRoot().toPath().resolve("report.html");
+        HtmlReportWriter.INSTANCE.toPath(reportPath, migrationData, HtmlReportWriter.ReportTemplate.from("$SUMMARY \n $ENVIRONMENT \n $TASK_SUMMARY \n $TASK_MAP"));
+        final String html = new String(Files.readAllBytes(reportPath), StandardCharsets.UTF_8);
+        final String chunk = new String(Files.readAllBytes(tmp.getRoot().toPath().resolve("report-details").resolve("0.js")), StandardCharsets.UTF_8);
+
+        // the task map is in the report, the task details in the chunks
+        assertTrue(html.contains("subtask 1.1"));
+        assertTrue(html.contains("data-chunk=\"0\""));
+        assertFalse(html.contains("task-details-property-name"));
+        assertTrue(chunk.startsWith("migrationReportTaskDetails(0, {"));
+        assertTrue(chunk.contains("task-details-property-name"));
+    }
+
+    @Test
+    public void split_html_invalidChunkSize() throws IOException {
+        final MigrationData migrationData = migrationData(false);
+        migrationData.getServerMigrationEnvironment().setProperty(EnvironmentProperties.PROPERTY_TASK_DETAILS_CHUNK_SIZE, "two");
+        final Path reportPath = tmp.getRoot().toPath().resolve("report.html");
+        try {
+            HtmlReportWriter.INSTANCE.toPath(reportPath, migrationData, HtmlReportWriter.ReportTemplate.from("$SUMMARY \n $ENVIRONMENT \n $TASK_SUMMARY \n $TASK_MAP"));
+            fail();
+        } catch (ServerMigrationFailureException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(EnvironmentProperties.PROPERTY_TASK_DETAILS_CHUNK_SIZE));
+        }
+        assertFalse(Files.exists(reportPath));
+        // the value is trimmed
+        migrationData.getServerMigrationEnvironment().setProperty(EnvironmentProperties.PROPERTY_TASK_DETAILS_CHUNK_SIZE, " 2 ");
+        HtmlReportWriter.INSTANCE.toPath(reportPath, migrationData, HtmlReportWriter.ReportTemplate.from("$SUMMARY \n $ENVIRONMENT \n $TASK_SUMMARY \n $TASK_MAP"));
+        assertTrue(Files.exists(tmp.getRoot().toPath().resolve("report-details").resolve("0.js")));
+    }
+
     @Test
     public void success_xml() throws XMLStreamException {
         StringWriter xmlData = new StringWriter();
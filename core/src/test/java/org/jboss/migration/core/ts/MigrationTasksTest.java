@@ -17,14 +17,21 @@ package org.jboss.migration.core.ts;
 
 import org.jboss.migration.core.MigrationData;
 import org.jboss.migration.core.ServerMigration;
+import org.jboss.migration.core.ServerMigrationFailureException;
 import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.report.EnvironmentProperties;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.SubtaskScheduler;
 import org.jboss.migration.core.task.TaskExecution;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 public class MigrationTasksTest {
@@ -71,6 +78,158 @@ public class MigrationTasksTest {
         }
     }
 
+    @Test
+    public void metrics() {
+        MigrationData migrationData = migrationData(false);
+        for (TaskExecution task : migrationData.getTasks()) {
+            final TaskExecutionMetrics metrics = task.getMetrics();
+            assertNotNull(metrics);
+            assertTrue(task.getEndTime() >= task.getStartTime());
+            assertTrue(metrics.getSelf().getDuration() <= metrics.getTotal().getDuration());
+            long subtasksDuration = 0;
+            for (TaskExecution subtask : task.getSubtasks()) {
+                subtasksDuration += subtask.getMetrics().getTotal().getDuration();
+            }
+            // subtasks are executed sequentially, their time is excluded from the task's self time
+            assertTrue(metrics.getSelf().getDuration() + subtasksDuration <= metrics.getTotal().getDuration());
+        }
+    }
+
+    @Test
+    public void taskCounts() {
+        MigrationData migrationData = migrationData(false);
+        assertEquals(migrationData.getTasks().size(), migrationData.getTaskCount());
+        for (ServerMigrationTaskResult.Status status : ServerMigrationTaskResult.Status.values()) {
+            int count = 0;
+            for (TaskExecution task : migrationData.getTasks()) {
+                if (task.getResult().getStatus() == status) {
+                    count++;
+                }
+            }
+            assertEquals(count, migrationData.getTaskCount(status));
+        }
+    }
+
+    static MigrationData scheduledSubtasksMigrationData(boolean interactive) {
+        MigrationEnvironment env = new MigrationEnvironment();
+        env.setProperty(TestServer.SCHEDULED_SUBTASKS_PROPERTY, "true");
+        env.setProperty(SubtaskScheduler.ENVIRONMENT_PROPERTY_PARALLELISM, "2");
+
+        return new ServerMigration()
+                .from(TestSourceServerProvider.SERVER.getBaseDir())
+                .to(TestTargetServerProvider.SERVER.getBaseDir())
+                .interactive(interactive)
+                .userEnvironment(env)
+                .run();
+    }
+
+    @Test
+    public void scheduledSubtasks() {
+        MigrationData migrationData = scheduledSubtasksMigrationData(false);
+
+        assertEquals(ServerMigrationTaskResult.Status.SUCCESS, migrationData.getRootTask().getResult().getStatus());
+        List<TaskExecution> subtasks = checkScheduledSubtasksOrder(migrationData);
+        // a and b do not conflict, and are executed concurrently
+        assertEquals("2", subtasks.get(0).getResult().getAttributes().get("max-running"));
+        assertEquals("2", subtasks.get(1).getResult().getAttributes().get("max-running"));
+        // c conflicts with a, and is only executed after a and b complete
+        assertEquals("a,b", subtasks.get(2).getResult().getAttributes().get("completed-before"));
+        // d does not declare its resources, and is executed alone, after all previously submitted
+        assertEquals("1", subtasks.get(3).getResult().getAttributes().get("max-running"));
+        assertEquals("a,b,c", subtasks.get(3).getResult().getAttributes().get("completed-before"));
+        // e is executed after d
+        assertEquals("a,b,c,d", subtasks.get(4).getResult().getAttributes().get("completed-before"));
+    }
+
+    @Test
+    public void scheduledSubtasksFailure() {
+        MigrationEnvironment env = new MigrationEnvironment();
+        env.setProperty(TestServer.SCHEDULED_SUBTASKS_PROPERTY, "true");
+        env.setProperty(TestServer.SCHEDULED_SUBTASKS_FAILURE_PROPERTY, "true");
+        env.setProperty(SubtaskScheduler.ENVIRONMENT_PROPERTY_PARALLELISM, "2");
+        MigrationData migrationData = new ServerMigration()
+                .from(TestSourceServerProvider.SERVER.getBaseDir())
+                .to(TestTargetServerProvider.SERVER.getBaseDir())
+                .interactive(false)
+                .userEnvironment(env)
+                .run();
+
+        assertEquals(ServerMigrationTaskResult.Status.FAIL, migrationData.getRootTask().getResult().getStatus());
+        // as with sequential execution, once a fails no more subtasks are started, only b, already started concurrently, completes
+        List<TaskExecution> subtasks = migrationData.getRootTask().getSubtasks();
+        assertEquals(2, subtasks.size());
+        assertEquals("scheduled subtask a", subtasks.get(0).getTaskName().getName());
+        assertEquals(ServerMigrationTaskResult.Status.FAIL, subtasks.get(0).getResult().getStatus());
+        assertEquals("scheduled subtask b", subtasks.get(1).getTaskName().getName());
+        assertEquals(ServerMigrationTaskResult.Status.SUCCESS, subtasks.get(1).getResult().getStatus());
+    }
+
+    private static String getSubtaskExecutorName(TaskExecution subtask) {
+        final String thread = subtask.getResult().getAttributes().get("thread");
+        assertTrue(thread, thread.startsWith("migration-"));
+        return thread.substring(0, thread.indexOf("-subtask-"));
+    }
+
+    @Test
+    public void scheduledSubtasksExecutor() {
+        List<TaskExecution> subtasks = scheduledSubtasksMigrationData(false).getRootTask().getSubtasks();
+        // a and b are executed by the migration's executor
+        final String executor = getSubtaskExecutorName(subtasks.get(0));
+        assertEquals(executor, getSubtaskExecutorName(subtasks.get(1)));
+        // another migration has its own executor
+        List<TaskExecution> otherSubtasks = scheduledSubtasksMigrationData(false).getRootTask().getSubtasks();
+        assertNotEquals(executor, getSubtaskExecutorName(otherSubtasks.get(0)));
+    }
+
+    @Test
+    public void scheduledSubtasksInteractive() {
+        MigrationData migrationData = scheduledSubtasksMigrationData(true);
+
+        assertEquals(ServerMigrationTaskResult.Status.SUCCESS, migrationData.getRootTask().getResult().getStatus());
+        List<TaskExecution> subtasks = checkScheduledSubtasksOrder(migrationData);
+        // the parallelism is ignored in interactive mode, each subtask is executed when submitted
+        assertEquals("1", subtasks.get(0).getResult().getAttributes().get("max-running"));
+        assertEquals("1", subtasks.get(1).getResult().getAttributes().get("max-running"));
+        assertEquals("a", subtasks.get(1).getResult().getAttributes().get("completed-before"));
+    }
+
+    @Test
+    public void invalidIncrementalWriteInterval() {
+        MigrationEnvironment env = new MigrationEnvironment();
+        env.setProperty(EnvironmentProperties.PROPERTY_INCREMENTAL_WRITE_INTERVAL, " 1s ");
+        try {
+            new ServerMigration()
+                    .from(TestSourceServerProvider.SERVER.getBaseDir())
+                    .to(TestTargetServerProvider.SERVER.getBaseDir())
+                    .userEnvironment(env)
+                    .run();
+            Assert.fail();
+        } catch (ServerMigrationFailureException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(EnvironmentProperties.PROPERTY_INCREMENTAL_WRITE_INTERVAL));
+        }
+        // the value is trimmed
+        env.setProperty(EnvironmentProperties.PROPERTY_INCREMENTAL_WRITE_INTERVAL, " 0 ");
+        assertEquals(ServerMigrationTaskResult.Status.SUCCESS, new ServerMigration()
+                .from(TestSourceServerProvider.SERVER.getBaseDir())
+                .to(TestTargetServerProvider.SERVER.getBaseDir())
+                .userEnvironment(env)
+                .run().getRootTask().getResult().getStatus());
+    }
+
+    private List<TaskExecution> checkScheduledSubtasksOrder(MigrationData migrationData) {
+        // registered and numbered in the order the subtasks were submitted
+        List<TaskExecution> subtasks = migrationData.getRootTask().getSubtasks();
+        final String[] names = {"a", "b", "c", "d", "e"};
+        assertEquals(names.length, subtasks.size());
+        for (int i = 0; i < names.length; i++) {
+            TaskExecution subtask = subtasks.get(i);
+            assertEquals("scheduled subtask "+names[i], subtask.getTaskName().getName());
+            assertEquals(migrationData.getRootTask().getTaskNumber()+":"+(i+1), subtask.getTaskNumber());
+            assertEquals(ServerMigrationTaskResult.Status.SUCCESS, subtask.getResult().getStatus());
+        }
+        return subtasks;
+    }
+
     private void checkCommonSubtasks(List<TaskExecution> subtasks) {
         assertTrue(subtasks.size() >= 2);
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.migration.core.ts;
+
+import org.jboss.migration.core.MigrationData;
+import org.jboss.migration.core.ServerMigration;
+import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.jboss.ModulesMigrationTask;
+import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.TaskExecution;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author emmartins
+ */
+public class ModulesMigrationTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path sourceDir;
+
+    private static void addModule(Path serverDir, String moduleName, String... dependencies) throws IOException {
+        final Path moduleDir = serverDir.resolve("modules").resolve(moduleName.replace('.', '/')).resolve("main");
+        Files.createDirectories(moduleDir);
+        final StringBuilder sb = new StringBuilder("<module xmlns=\"urn:jboss:module:1.3\" name=\"").append(moduleName).append("\"><dependencies>");
+        for (String dependency : dependencies) {
+            sb.append("<module name=\"").append(dependency).append("\"/>");
+        }
+        sb.append("</dependencies></module>");
+        Files.write(moduleDir.resolve("module.xml"), sb.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(moduleDir.resolve(moduleName + ".jar"), moduleName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Before
+    public void prepareSourceModules() throws IOException {
+        sourceDir = tmp.newFolder("source").toPath().toAbsolutePath();
+        // a diamond, a module without dependencies, a dependency cycle, and a module not requested
+        addModule(sourceDir, "a", "b", "c");
+        addModule(sourceDir, "b", "d");
+        addModule(sourceDir, "c", "d");
+        addModule(sourceDir, "d");
+        addModule(sourceDir, "e");
+        addModule(sourceDir, "f", "g");
+        addModule(sourceDir, "g", "f");
+        addModule(sourceDir, "h");
+    }
+
+    private MigrationData migrateModules(String targetName, int parallelism) throws IOException {
+        final Path targetDir = tmp.newFolder(targetName).toPath().toAbsolutePath();
+        Files.createDirectories(targetDir.resolve("modules"));
+        // a module which already exists in target is not migrated
+        addModule(targetDir, "e");
+        final MigrationEnvironment env = new MigrationEnvironment();
+        env.setProperty(TestServer.MODULES_SOURCE_PROPERTY, sourceDir.toString());
+        env.setProperty(TestServer.MODULES_TARGET_PROPERTY, targetDir.toString());
+        env.setProperty(ModulesMigrationTask.ENVIRONMENT_PROPERTY_INCLUDES, "a,e,f");
+        env.setProperty(ModulesMigrationTask.ENVIRONMENT_PROPERTY_PARALLELISM, String.valueOf(parallelism));
+        return new ServerMigration()
+                .from(TestSourceServerProvider.SERVER.getBaseDir())
+                .to(TestTargetServerProvider.SERVER.getBaseDir())
+                .userEnvironment(env)
+                .run();
+    }
+
+    private static Set<String> getMigratedModules(MigrationData migrationData) {
+        assertEquals(ServerMigrationTaskResult.Status.SUCCESS, migrationData.getRootTask().getResult().getStatus());
+        final Set<String> migratedModules = new TreeSet<>();
+        for (TaskExecution task : migrationData.getTasks()) {
+            final String moduleId = task.getTaskName().getAttributes().get("id");
+            if (task.getTaskName().getName().endsWith(".migrate-module") && task.getResult().getStatus() == ServerMigrationTaskResult.Status.SUCCESS) {
+                migratedModules.add(moduleId);
+            }
+        }
+        return migratedModules;
+    }
+
+    private static List<String> getTargetFiles(Path targetDir) throws IOException {
+        try (Stream<Path> files = Files.walk(targetDir)) {
+            return files.filter(Files::isRegularFile).map(file -> targetDir.relativize(file).toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void concurrentMigrationSameModules() throws IOException {
+        final Set<String> sequential = getMigratedModules(migrateModules("sequential", 1));
+        final Set<String> concurrent = getMigratedModules(migrateModules("concurrent", 4));
+        assertEquals(new TreeSet<>(Arrays.asList("a:main", "b:main", "c:main", "d:main", "f:main", "g:main")), sequential);
+        assertEquals(sequential, concurrent);
+        final List<String> sequentialFiles = getTargetFiles(tmp.getRoot().toPath().resolve("sequential"));
+        assertEquals(sequentialFiles, getTargetFiles(tmp.getRoot().toPath().resolve("concurrent")));
+        assertTrue(sequentialFiles.contains("modules/d/main/d.jar".replace('/', File.separatorChar)));
+    }
+
+    @Test
+    public void dependenciesMigratedFirst() throws IOException {
+        final MigrationData migrationData = migrateModules("ordered", 4);
+        final List<String> migrationOrder = new ArrayList<>();
+        final Set<String> migrated = new HashSet<>();
+        for (TaskExecution task : migrationData.getTasks()) {
+            if (task.getTaskName().getName().endsWith(".migrate-module")) {
+                migrationOrder.add(task.getTaskName().getAttributes().get("id"));
+            }
+        }
+        // subtasks are listed in submission order, i.e. by level, and a module's dependencies are in previous levels
+        for (String moduleId : migrationOrder) {
+            if (moduleId.equals("a:main")) {
+                assertTrue(migrated.contains("b:main") && migrated.contains("c:main"));
+            } else if (moduleId.equals("b:main") || moduleId.equals("c:main")) {
+                assertTrue(migrated.contains("d:main"));
+            }
+            migrated.add(moduleId);
+        }
+    }
+}
@@ -19,21 +19,48 @@ import org.jboss.migration.core.AbstractServer;
 import org.jboss.migration.core.ProductInfo;
 import org.jboss.migration.core.Server;
 import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.jboss.ModulesMigrationTask;
+import org.jboss.migration.core.ts.jboss.TestJBossServer;
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.SubtaskScheduler;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.env.MigrationEnvironment;
+import org.jboss.migration.core.task.TaskResources;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author emmartins
  */
 public class TestServer extends AbstractServer {
 
+    /**
+     * if set to true the migration executes its subtasks through a {@link SubtaskScheduler}
+     */
+    static final String SCHEDULED_SUBTASKS_PROPERTY = "test.subtasks.scheduled";
+
+    /**
+     * if set to true, together with {@link #SCHEDULED_SUBTASKS_PROPERTY}, the first of the subtasks executed concurrently fails
+     */
+    static final String SCHEDULED_SUBTASKS_FAILURE_PROPERTY = "test.subtasks.scheduled.failure";
+
+    /**
+     * if set the migration only migrates, through a {@link ModulesMigrationTask}, the modules of the source server in the specified base dir
+     */
+    static final String MODULES_SOURCE_PROPERTY = "test.modules.source";
+
+    /**
+     * the base dir of the target server of the modules migration
+     */
+    static final String MODULES_TARGET_PROPERTY = "test.modules.target";
+
     static Path getBaseDir(ProductInfo productInfo) {
         return Paths.get(productInfo.getName(), productInfo.getVersion());
     }
@@ -60,6 +87,21 @@ public class TestServer extends AbstractServer {
         }
         MigrationEnvironment env = context.getMigrationEnvironment();
         env.getPropertyAsString("test.property.key");
+        final String modulesSource = env.getPropertyAsString(MODULES_SOURCE_PROPERTY);
+        if (modulesSource != null) {
+            final TestJBossServer sourceServer = new TestJBossServer(Paths.get(modulesSource), env);
+            final TestJBossServer targetServer = new TestJBossServer(Paths.get(env.getPropertyAsString(MODULES_TARGET_PROPERTY)), env);
+            context.execute(new ModulesMigrationTask(sourceServer, targetServer));
+            return ServerMigrationTaskResult.SUCCESS;
+        }
+        if (env.getPropertyAsBoolean(SCHEDULED_SUBTASKS_PROPERTY, Boolean.FALSE)) {
+            if (env.getPropertyAsBoolean(SCHEDULED_SUBTASKS_FAILURE_PROPERTY, Boolean.FALSE)) {
+                executeFailingScheduledSubtasks(context);
+            } else {
+                executeScheduledSubtasks(context);
+            }
+            return ServerMigrationTaskResult.SUCCESS;
+        }
         context.execute(new SubTask1());
         context.execute(new SubTask2());
         if (env.getPropertyAsBoolean("test.should.fail", Boolean.FALSE)) {
@@ -68,6 +110,147 @@ public class TestServer extends AbstractServer {
         return ServerMigrationTaskResult.SUCCESS;
     }
 
+    /**
+     * Executes, through a scheduler, subtasks a and b which do not conflict, then c which conflicts with a, then d which does not declare its resources, and finally e.
+     * @param context the migration's task context
+     */
+    private static void executeScheduledSubtasks(TaskContext context) {
+        final ScheduledSubtasks subtasks = new ScheduledSubtasks();
+        final SubtaskScheduler scheduler = new SubtaskScheduler(context);
+        scheduler.execute(subtasks.new Subtask("a", new TaskResources.Builder().writes(TaskResources.subsystem("a")).build(), true));
+        scheduler.execute(subtasks.new Subtask("b", new TaskResources.Builder().writes(TaskResources.subsystem("b")).build(), true));
+        scheduler.execute(subtasks.new Subtask("c", new TaskResources.Builder().reads(TaskResources.subsystem("a")).build(), false));
+        scheduler.execute(subtasks.new Subtask("d", null, false));
+        scheduler.execute(subtasks.new Subtask("e", new TaskResources.Builder().writes(TaskResources.subsystem("e")).build(), false));
+        scheduler.flush();
+    }
+
+    /**
+     * Executes, through a scheduler, subtasks a, b, c and d which do not conflict, where a fails, and b only completes after a failed.
+     * @param context the migration's task context
+     */
+    private static void executeFailingScheduledSubtasks(TaskContext context) {
+        final ScheduledSubtasks subtasks = new ScheduledSubtasks();
+        final SubtaskScheduler scheduler = new SubtaskScheduler(context);
+        scheduler.execute(subtasks.new Subtask("a", new TaskResources.Builder().writes(TaskResources.subsystem("a")).build(), true, null));
+        scheduler.execute(subtasks.new Subtask("b", new TaskResources.Builder().writes(TaskResources.subsystem("b")).build(), false, "a"));
+        scheduler.execute(subtasks.new Subtask("c", new TaskResources.Builder().writes(TaskResources.subsystem("c")).build(), false, null));
+        scheduler.execute(subtasks.new Subtask("d", new TaskResources.Builder().writes(TaskResources.subsystem("d")).build(), false, null));
+        scheduler.flush();
+    }
+
+    /**
+     * Subtasks which report, through their result's attributes, the max number of subtasks running concurrently with each, the subtasks completed before each started, and the thread which executed each.
+     */
+    private static final class ScheduledSubtasks {
+
+        // guarded by this
+        private final Set<Subtask> running = new HashSet<>();
+        private final Set<String> completed = new TreeSet<>();
+
+        private synchronized Set<String> started(Subtask subtask) {
+            running.add(subtask);
+            for (Subtask runningSubtask : running) {
+                runningSubtask.maxRunning = Math.max(runningSubtask.maxRunning, running.size());
+            }
+            return new TreeSet<>(completed);
+        }
+
+        private synchronized void completed(Subtask subtask) {
+            running.remove(subtask);
+            completed.add(subtask.name);
+        }
+
+        private synchronized int getMaxRunning(Subtask subtask) {
+            return subtask.maxRunning;
+        }
+
+        private final class Subtask implements ServerMigrationTask {
+
+            private final String name;
+            private final TaskResources resources;
+            private final boolean waitForConcurrentSubtask;
+            private final boolean fails;
+            private final String waitForCompletedSubtask;
+            // guarded by the enclosing instance
+            private int maxRunning;
+
+            Subtask(String name, TaskResources resources, boolean waitForConcurrentSubtask) {
+                this.name = name;
+                this.resources = resources;
+                this.waitForConcurrentSubtask = waitForConcurrentSubtask;
+                this.fails = false;
+                this.waitForCompletedSubtask = null;
+            }
+
+            /**
+             *
+             * @param name the subtask's name
+             * @param resources the subtask's resources
+             * @param fails if true the subtask fails, once another subtask is running concurrently
+             * @param waitForCompletedSubtask the name of a subtask which execution the subtask waits a bit to complete, if not null
+             */
+            Subtask(String name, TaskResources resources, boolean fails, String waitForCompletedSubtask) {
+                this.name = name;
+                this.resources = resources;
+                this.waitForConcurrentSubtask = false;
+                this.fails = fails;
+                this.waitForCompletedSubtask = waitForCompletedSubtask;
+            }
+
+            private boolean isCompleted(String name) {
+                synchronized (ScheduledSubtasks.this) {
+                    return completed.contains(name);
+                }
+            }
+
+            @Override
+            public ServerMigrationTaskName getName() {
+                return new ServerMigrationTaskName.Builder("scheduled subtask "+name).build();
+            }
+
+            @Override
+            public TaskResources getResources() {
+                return resources;
+            }
+
+            @Override
+            public ServerMigrationTaskResult run(TaskContext context) {
+                final Set<String> completedBefore = started(this);
+                try {
+                    if (waitForConcurrentSubtask || fails) {
+                        // wait a bit for another subtask to start, a failing subtask waits longer since the test requires it
+                        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(fails ? 10 : 1);
+                        while (getMaxRunning(this) < 2 && System.nanoTime() < deadline) {
+                            Thread.sleep(10);
+                        }
+                    }
+                    if (waitForCompletedSubtask != null) {
+                        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                        while (!isCompleted(waitForCompletedSubtask) && System.nanoTime() < deadline) {
+                            Thread.sleep(10);
+                        }
+                        // and a bit more, for the other subtask's execution to complete too
+                        Thread.sleep(200);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    completed(this);
+                }
+                if (fails) {
+                    throw new ServerMigrationFailureException("scheduled subtask "+name+" failed");
+                }
+                return new ServerMigrationTaskResult.Builder()
+                        .success()
+                        .addAttribute("max-running", getMaxRunning(this))
+                        .addAttribute("completed-before", String.join(",", completedBefore))
+                        .addAttribute("thread", Thread.currentThread().getName())
+                        .build();
+            }
+        }
+    }
+
     // ---
 
     private static final class SubTask1 implements ServerMigrationTask {
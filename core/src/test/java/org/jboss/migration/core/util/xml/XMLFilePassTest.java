@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.core.util.xml;
+
+import org.jboss.migration.core.ServerMigrationFailureException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class XMLFilePassTest {
+
+    private static final String XML = "<?xml version=\"1.0\"?>" +
+            "<server xmlns=\"urn:jboss:domain:1.7\">" +
+            "<extensions><extension module=\"a\"/><extension module=\"b\"/></extensions>" +
+            "<profile>" +
+            "<subsystem xmlns=\"urn:jboss:domain:x:1.0\"><driver module=\"d1\"/></subsystem>" +
+            "<subsystem xmlns=\"urn:jboss:domain:y:1.0\"><driver module=\"d2\"/></subsystem>" +
+            "</profile>" +
+            "</server>";
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path xmlFile;
+
+    @Before
+    public void prepareXmlFile() throws IOException {
+        xmlFile = tmp.newFile("standalone.xml").toPath();
+        Files.write(xmlFile, XML.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static XMLFileFilter removeExtension(String module) {
+        return (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
+            if (startElement.getName().getLocalPart().equals("extension")) {
+                return module.equals(startElement.getAttributeByName(new QName("module")).getValue()) ? XMLFileFilter.Result.REMOVE : XMLFileFilter.Result.ADD;
+            }
+            return XMLFileFilter.Result.NOT_APPLICABLE;
+        };
+    }
+
+    private static XMLFileFilter removeSubsystem(String namespace) {
+        return (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
+            if (startElement.getName().getLocalPart().equals("subsystem")) {
+                return namespace.equals(startElement.getName().getNamespaceURI()) ? XMLFileFilter.Result.REMOVE : XMLFileFilter.Result.ADD;
+            }
+            return XMLFileFilter.Result.NOT_APPLICABLE;
+        };
+    }
+
+    private static XMLFilePass.ElementVisitor driversVisitor(List<String> drivers) {
+        return reader -> {
+            if (reader.getLocalName().equals("driver")) {
+                drivers.add(reader.getAttributeValue(null, "module"));
+            }
+        };
+    }
+
+    private String readXmlFile() throws IOException {
+        return new String(Files.readAllBytes(xmlFile), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void filters() throws IOException {
+        new XMLFilePass()
+                .filter(removeExtension("b"))
+                .filter(removeSubsystem("urn:jboss:domain:y:1.0"))
+                .run(xmlFile);
+        final String xml = readXmlFile();
+        assertTrue(xml.contains("module=\"a\""));
+        assertFalse(xml.contains("module=\"b\""));
+        assertTrue(xml.contains("urn:jboss:domain:x:1.0"));
+        assertFalse(xml.contains("urn:jboss:domain:y:1.0"));
+        assertFalse(xml.contains("d2"));
+    }
+
+    @Test
+    public void visitorsOrder() throws IOException {
+        final List<String> driversBefore = new ArrayList<>();
+        final List<String> driversAfter = new ArrayList<>();
+        new XMLFilePass()
+                .visitor(driversVisitor(driversBefore))
+                .filter(removeSubsystem("urn:jboss:domain:y:1.0"))
+                .visitor(driversVisitor(driversAfter))
+                .run(xmlFile);
+        // a visitor added before a filter sees the elements the filter removes
+        assertEquals(Arrays.asList("d1", "d2"), driversBefore);
+        assertEquals(Arrays.asList("d1"), driversAfter);
+    }
+
+    @Test
+    public void visitorsOnly() throws IOException {
+        final List<String> drivers = new ArrayList<>();
+        new XMLFilePass()
+                .visitor(driversVisitor(drivers))
+                .run(xmlFile);
+        assertEquals(Arrays.asList("d1", "d2"), drivers);
+        assertEquals(XML, readXmlFile());
+    }
+
+    private static XMLFileFilter rewriteSubsystem(String namespace) {
+        return (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
+            if (startElement.getName().getLocalPart().equals("subsystem") && namespace.equals(startElement.getName().getNamespaceURI())) {
+                try {
+                    // write the subsystem element, and its children, without the drivers
+                    xmlEventWriter.add(startElement);
+                    int depth = 1;
+                    while (depth > 0) {
+                        final XMLEvent xmlEvent = xmlEventReader.nextEvent();
+                        if (xmlEvent.isStartElement()) {
+                            depth++;
+                        } else if (xmlEvent.isEndElement()) {
+                            depth--;
+                        }
+                        if (depth == 0) {
+                            xmlEventWriter.add(xmlEvent);
+                        }
+                    }
+                } catch (XMLStreamException e) {
+                    throw new ServerMigrationFailureException(e);
+                }
+                return XMLFileFilter.Result.CONTINUE;
+            }
+            return XMLFileFilter.Result.NOT_APPLICABLE;
+        };
+    }
+
+    @Test
+    public void lastFilter() throws IOException {
+        final List<String> drivers = new ArrayList<>();
+        final XMLFilePass pass = new XMLFilePass()
+                .visitor(driversVisitor(drivers))
+                .lastFilter(rewriteSubsystem("urn:jboss:domain:x:1.0"));
+        assertTrue(pass.isClosed());
+        pass.run(xmlFile);
+        assertEquals(Arrays.asList("d1", "d2"), drivers);
+        final String xml = readXmlFile();
+        assertTrue(xml.contains("urn:jboss:domain:x:1.0"));
+        assertFalse(xml.contains("d1"));
+        assertTrue(xml.contains("d2"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noStepsAfterLastFilter() {
+        new XMLFilePass()
+                .lastFilter(rewriteSubsystem("urn:jboss:domain:x:1.0"))
+                .filter(removeExtension("b"));
+    }
+
+    @Test
+    public void continueOnlyByLastFilter() throws IOException {
+        try {
+            new XMLFilePass()
+                    .filter(rewriteSubsystem("urn:jboss:domain:x:1.0"))
+                    .run(xmlFile);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected, a filter returning CONTINUE may only be the last filter
+        }
+        // the original file is not replaced
+        assertEquals(XML, readXmlFile());
+    }
+}
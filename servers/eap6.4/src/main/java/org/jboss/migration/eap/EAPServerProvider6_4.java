@@ -31,9 +31,11 @@ import java.nio.file.Path;
  */
 public class EAPServerProvider6_4 extends AbstractServerProvider {
 
+    private static final String PRODUCT_MODULE_ID = "org.jboss.as.product:eap";
+
     @Override
     protected ProductInfo getProductInfo(Path baseDir, MigrationEnvironment migrationEnvironment) throws IllegalArgumentException, ServerMigrationFailureException {
-        final JBossServer.Module module = new JBossServer.Modules(baseDir).getModule("org.jboss.as.product:eap");
+        final JBossServer.Module module = new JBossServer.Modules(baseDir, migrationEnvironment).getModule(PRODUCT_MODULE_ID);
         if (module == null) {
             return null;
         }
@@ -42,6 +44,12 @@ public class EAPServerProvider6_4 extends AbstractServerProvider {
         return productInfo;
     }
 
+    @Override
+    protected Object getProductInfoKey() {
+        // the product info is read from the product module's manifest
+        return PRODUCT_MODULE_ID;
+    }
+
     @Override
     protected String getProductNameRegex() {
         return "EAP";
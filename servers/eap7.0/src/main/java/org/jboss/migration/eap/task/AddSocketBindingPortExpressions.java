@@ -23,11 +23,15 @@ import org.jboss.dmr.ModelType;
 import org.jboss.dmr.ValueExpression;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
 import org.jboss.migration.wfly10.config.management.SocketBindingResource;
 import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationCompositeSubtasks;
 import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationCompositeTask;
 import org.jboss.migration.wfly10.config.task.management.resource.ManageableResourceLeafTask;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
 import static org.jboss.migration.core.task.component.TaskSkipPolicy.skipIfDefaultTaskSkipPropertyIsSet;
 
@@ -46,13 +50,24 @@ public class AddSocketBindingPortExpressions<S> extends ManageableServerConfigur
     public AddSocketBindingPortExpressions() {
         name("socket-bindings.add-port-expressions");
         skipPolicy(skipIfDefaultTaskSkipPropertyIsSet());
-        beforeRun(context -> context.getLogger().debugf("Adding socket binding's port expressions..."));
+        operationsBatch();
+        beforeRunBuilder(params -> context -> {
+            context.getLogger().debugf("Adding socket binding's port expressions...");
+            // issue the reads of all socket bindings' config at once, each subtask then retrieves its socket binding's config
+            final ManageableServerConfiguration serverConfiguration = params.getServerConfiguration();
+            final Set<SocketBindingResource> socketBindingResources = new HashSet<>();
+            for (String socketBinding : SOCKET_BINDINGS) {
+                socketBindingResources.addAll(serverConfiguration.findResources(SocketBindingResource.class, socketBinding));
+            }
+            serverConfiguration.prefetchResourceConfigurations(socketBindingResources);
+        });
         final ManageableServerConfigurationCompositeSubtasks.Builder<S> subtasks = new ManageableServerConfigurationCompositeSubtasks.Builder<>();
         for (String socketBinding : SOCKET_BINDINGS) {
             subtasks.subtask(SocketBindingResource.class, socketBinding, new AddSocketBindingPortExpression<>(socketBinding));
         }
         subtasks(subtasks);
-        afterRun(context -> {
+        afterRunBuilder(params -> context -> {
+            params.getServerConfiguration().discardPrefetchedResourceConfigurations();
             if (context.hasSucessfulSubtasks()) {
                 context.getLogger().infof("Socket binding's port expressions added.");
             } else {
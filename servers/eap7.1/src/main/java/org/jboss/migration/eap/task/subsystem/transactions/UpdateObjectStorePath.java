@@ -20,11 +20,13 @@ import org.jboss.migration.core.ServerMigrationFailureException;
 import org.jboss.migration.core.jboss.JBossServer;
 import org.jboss.migration.core.jboss.JBossServerConfiguration;
 import org.jboss.migration.core.task.ServerMigrationTask;
+import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.task.component.SimpleComponentTask;
+import org.jboss.migration.core.task.component.TaskRunnable;
 import org.jboss.migration.core.util.xml.XMLFileFilter;
-import org.jboss.migration.core.util.xml.XMLFiles;
+import org.jboss.migration.core.util.xml.XMLFilePass;
 import org.jboss.migration.wfly10.config.task.ServerConfigurationMigration;
 
 import javax.xml.namespace.QName;
@@ -45,31 +47,52 @@ import static org.jboss.migration.core.task.component.TaskSkipPolicy.skipIfDefau
 /**
  * @author emmartins
  */
-public class UpdateObjectStorePath<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationSubtaskFactory<JBossServerConfiguration<S>> {
+public class UpdateObjectStorePath<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationPassSubtaskFactory<JBossServerConfiguration<S>> {
 
     public static final String TASK_NAME = "subsystem.transactions.update-xml-object-store-paths";
 
     @Override
-    public ServerMigrationTask getTask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
-        return new SimpleComponentTask.Builder()
-                .name(TASK_NAME)
-                .skipPolicy(skipIfDefaultTaskSkipPropertyIsSet())
-                .runnable(context -> {
-                    context.getLogger().debugf("Searching for transactions subsystem XML configurations with deprecated object store paths, not supported by the target server...");
-                    final ServerMigrationTaskResult taskResult = processXMLConfiguration(source, targetConfigurationPath, context);
-                    if (taskResult.getStatus() == ServerMigrationTaskResult.Status.SKIPPED) {
-                        context.getLogger().debugf("No transactions subsystem XML configurations found with deprecated object store paths.");
-                    } else {
-                        context.getLogger().infof("Subsystem transactions XML updated.");
-                    }
-                    return taskResult;
-                })
-                .build();
+    public ServerConfigurationMigration.XMLConfigurationPassSubtask getPassSubtask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
+        final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder(TASK_NAME).build();
+        return new ServerConfigurationMigration.XMLConfigurationPassSubtask() {
+            @Override
+            public ServerMigrationTaskName getName() {
+                return taskName;
+            }
+
+            @Override
+            public boolean isLastInPass() {
+                // the filter writes the subsystem elements itself
+                return true;
+            }
+
+            @Override
+            public TaskRunnable addTo(XMLFilePass pass, TaskContext context) {
+                return processXMLConfiguration(source, targetConfigurationPath, pass, context);
+            }
+
+            @Override
+            public ServerMigrationTask getTask(TaskRunnable afterPassRunnable) {
+                return new SimpleComponentTask.Builder()
+                        .name(taskName)
+                        .skipPolicy(skipIfDefaultTaskSkipPropertyIsSet())
+                        .runnable(context -> {
+                            context.getLogger().debugf("Searching for transactions subsystem XML configurations with deprecated object store paths, not supported by the target server...");
+                            final ServerMigrationTaskResult taskResult = afterPassRunnable.run(context);
+                            if (taskResult.getStatus() == ServerMigrationTaskResult.Status.SKIPPED) {
+                                context.getLogger().debugf("No transactions subsystem XML configurations found with deprecated object store paths.");
+                            } else {
+                                context.getLogger().infof("Subsystem transactions XML updated.");
+                            }
+                            return taskResult;
+                        })
+                        .build();
+            }
+        };
     }
 
-    protected ServerMigrationTaskResult processXMLConfiguration(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath, final TaskContext context) {
-        // setup and run the xml filter
-        final Boolean updated = false;
+    protected TaskRunnable processXMLConfiguration(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath, final XMLFilePass pass, final TaskContext context) {
+        // setup the xml filter
         ServerMigrationTaskResult.Builder taskResultBuilder = new ServerMigrationTaskResult.Builder().skipped();
         final XMLFileFilter extensionsFilter = (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
             if (startElement.getName().getLocalPart().equals("subsystem") && startElement.getName().getNamespaceURI().startsWith("urn:jboss:domain:transactions:")) {
@@ -86,8 +109,8 @@ public class UpdateObjectStorePath<S extends JBossServer<S>> implements ServerCo
                 return XMLFileFilter.Result.NOT_APPLICABLE;
             }
         };
-        XMLFiles.filter(targetConfigurationPath.getPath(), extensionsFilter);
-        return taskResultBuilder.build();
+        pass.lastFilter(extensionsFilter);
+        return taskContext -> taskResultBuilder.build();
     }
 
     protected boolean processSubsystemXMLConfiguration(XMLEventReader xmlEventReader, XMLEventWriter xmlEventWriter, XMLEventFactory xmlEventFactory) throws XMLStreamException {
@@ -18,6 +18,9 @@ package org.jboss.migration.wfly10;
 import org.jboss.migration.core.Server;
 import org.jboss.migration.core.logger.ServerMigrationLogger;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.ServiceLoader;
 
 /**
@@ -27,15 +30,35 @@ import java.util.ServiceLoader;
 public class ServiceLoaderWildFlyServerMigrations10<T extends WildFlyServerMigrationProvider10> implements WildFlyServerMigrations10 {
 
     private final ServiceLoader<T> serviceLoader;
+    // a ServiceLoader's iteration is not thread safe, thus the providers are loaded once, into an immutable list
+    private volatile List<T> serverMigrationProviders;
 
     public ServiceLoaderWildFlyServerMigrations10(ServiceLoader<T> serviceLoader) {
         this.serviceLoader = serviceLoader;
     }
 
+    private List<T> getServerMigrationProviders() {
+        List<T> result = serverMigrationProviders;
+        if (result == null) {
+            synchronized (this) {
+                result = serverMigrationProviders;
+                if (result == null) {
+                    final List<T> list = new ArrayList<>();
+                    for (T serverMigrationProvider : serviceLoader) {
+                        list.add(serverMigrationProvider);
+                    }
+                    result = Collections.unmodifiableList(list);
+                    serverMigrationProviders = result;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public WildFlyServerMigration10 getMigrationFrom(Server sourceServer) {
         ServerMigrationLogger.ROOT_LOGGER.debugf("Retrieving server migration for source %s", sourceServer.getClass());
-        for (WildFlyServerMigrationProvider10 serverMigrationProvider : serviceLoader) {
+        for (WildFlyServerMigrationProvider10 serverMigrationProvider : getServerMigrationProviders()) {
             if (serverMigrationProvider.getSourceType().isInstance(sourceServer)) {
                 ServerMigrationLogger.ROOT_LOGGER.debugf("Found server migration for source %s: %s", sourceServer.getClass(), serverMigrationProvider.getClass());
                 return serverMigrationProvider.getServerMigration();
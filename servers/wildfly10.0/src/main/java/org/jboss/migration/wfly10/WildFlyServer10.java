@@ -21,6 +21,7 @@ import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.jboss.JBossServer;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.wfly10.config.management.impl.EmbeddedProcessPool;
 
 import java.nio.file.Path;
 
@@ -29,8 +30,15 @@ import java.nio.file.Path;
  */
 public abstract class WildFlyServer10 extends JBossServer<WildFlyServer10> {
 
+    public static final String PROPERTY_EMBEDDED_REUSE = "embedded.reuse";
+    public static final String PROPERTY_MANAGEMENT_BATCH = "management.batch";
+    public static final String PROPERTY_MANAGEMENT_OFFLINE = "management.offline";
+
+    private final EmbeddedProcessPool embeddedProcessPool;
+
     public WildFlyServer10(String migrationName, ProductInfo productInfo, Path baseDir, MigrationEnvironment migrationEnvironment, JBossServer.Extensions extensions) {
         super(migrationName, productInfo, baseDir, migrationEnvironment, extensions);
+        this.embeddedProcessPool = new EmbeddedProcessPool(baseDir);
     }
 
     @Override
@@ -43,6 +51,38 @@ public abstract class WildFlyServer10 extends JBossServer<WildFlyServer10> {
         }
     }
 
+    /**
+     * Indicates if the server's embedded processes should be reused to manage other configurations, instead of booting a new embedded process for each configuration.
+     * @return true if embedded processes should be reused, false otherwise
+     */
+    public boolean isEmbeddedProcessReuse() {
+        return getMigrationEnvironment().getPropertyAsBoolean(Environment.getFullEnvironmentPropertyName(getMigrationName(), PROPERTY_EMBEDDED_REUSE), Boolean.FALSE);
+    }
+
+    /**
+     * Retrieves the pool of the server's embedded processes, which is scoped to the server's migration.
+     * @return the pool of the server's embedded processes
+     */
+    public EmbeddedProcessPool getEmbeddedProcessPool() {
+        return embeddedProcessPool;
+    }
+
+    /**
+     * Indicates if the write management operations, executed by the tasks which support it, should be batched into composite operations.
+     * @return true if management operations should be batched, false otherwise
+     */
+    public boolean isManagementOperationsBatch() {
+        return getMigrationEnvironment().getPropertyAsBoolean(Environment.getFullEnvironmentPropertyName(getMigrationName(), PROPERTY_MANAGEMENT_BATCH), Boolean.FALSE);
+    }
+
+    /**
+     * Indicates if a standalone server or domain configuration should be managed by an offline model of its XML file, until a management operation which the model does not support is executed, and only then by an embedded process.
+     * @return true if offline management should be used, false otherwise
+     */
+    public boolean isManagementOffline() {
+        return getMigrationEnvironment().getPropertyAsBoolean(Environment.getFullEnvironmentPropertyName(getMigrationName(), PROPERTY_MANAGEMENT_OFFLINE), Boolean.FALSE);
+    }
+
     protected WildFlyServerMigrations10 getMigrations() {
         return null;
     }
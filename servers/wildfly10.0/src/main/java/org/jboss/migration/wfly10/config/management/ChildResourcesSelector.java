@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.management;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A selector which reads the children of the resources it selects from. When selecting from multiple resources, e.g. as the second selector of a chain, the children of all resources are prefetched in a single batch, instead of read one resource at a time.
+ * @author emmartins
+ */
+class ChildResourcesSelector<R extends ManageableResource> implements ManageableResourceSelector<R> {
+
+    private final ManageableResourceSelector<R> selector;
+
+    ChildResourcesSelector(ManageableResourceSelector<R> selector) {
+        this.selector = selector;
+    }
+
+    @Override
+    public Set<R> fromResources(ManageableResource resource) throws ManagementOperationException {
+        return selector.fromResources(resource);
+    }
+
+    @Override
+    public <I extends ManageableResource> Set<R> fromResources(I... resources) throws ManagementOperationException {
+        if (resources.length > 1) {
+            final Map<ManageableServerConfiguration, List<ManageableResource>> resourcesByServerConfiguration = new LinkedHashMap<>();
+            for (ManageableResource resource : resources) {
+                resourcesByServerConfiguration.computeIfAbsent(resource.getServerConfiguration(), serverConfiguration -> new ArrayList<>()).add(resource);
+            }
+            for (Map.Entry<ManageableServerConfiguration, List<ManageableResource>> entry : resourcesByServerConfiguration.entrySet()) {
+                entry.getKey().prefetchChildResources(entry.getValue());
+            }
+        }
+        return ManageableResourceSelector.super.fromResources(resources);
+    }
+}
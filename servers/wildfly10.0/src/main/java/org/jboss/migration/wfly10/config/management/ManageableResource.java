@@ -21,6 +21,7 @@ import org.jboss.dmr.ModelNode;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author emmartins
@@ -35,6 +36,13 @@ public interface ManageableResource {
     }
     PathAddress getResourcePathAddress();
     ModelNode getResourceConfiguration() throws ManagementOperationException;
+    /**
+     * Retrieves the resource's configuration asynchronously, which allows the reads of multiple resources to be executed concurrently.
+     * @return the future result of {@link #getResourceConfiguration()}
+     */
+    default CompletableFuture<ModelNode> getResourceConfigurationAsync() {
+        return CompletableFuture.supplyAsync(this::getResourceConfiguration, Runnable::run);
+    }
     void removeResource() throws ManagementOperationException;
     default boolean isExistentResource() throws ManagementOperationException {
         final ManageableResource parent = getParentResource();
@@ -54,6 +62,14 @@ public interface ManageableResource {
         return getResourceType().getChildTypes();
     }
     Set<String> getChildResourceNames(ManageableResourceType resourceType) throws ManagementOperationException;
+    /**
+     * Retrieves the names of the children with the specified type asynchronously, which allows the reads of multiple resources to be executed concurrently.
+     * @param resourceType the children type
+     * @return the future result of {@link #getChildResourceNames(ManageableResourceType)}
+     */
+    default CompletableFuture<Set<String>> getChildResourceNamesAsync(ManageableResourceType resourceType) {
+        return CompletableFuture.supplyAsync(() -> getChildResourceNames(resourceType), Runnable::run);
+    }
     default <T extends ManageableResource> String getChildResourceAbsoluteName(ManageableResourceType resourceType, String resourceName) {
         return getChildResourcePathAddress(resourceType, resourceName).toCLIStyleString();
     }
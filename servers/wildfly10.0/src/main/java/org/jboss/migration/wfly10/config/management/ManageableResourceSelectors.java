@@ -36,21 +36,21 @@ public interface ManageableResourceSelectors {
     }
 
     static <T extends ManageableResource> ManageableResourceSelector<T> selectResources(Class<T> resourceType) {
-        return resource -> resource.findResources(resourceType);
+        return new ChildResourcesSelector<>(resource -> resource.findResources(resourceType));
     }
 
     static <T extends ManageableResource> ManageableResourceSelector<T> selectResources(Class<T> resourceType, String resourceName) {
-        return resource -> resource.findResources(resourceType, resourceName);
+        return new ChildResourcesSelector<>(resource -> resource.findResources(resourceType, resourceName));
     }
 
     static <T extends ManageableResource> ManageableResourceSelector<T> toChildren(Class<T> resourceType) {
-        return resource -> new HashSet<>(resource.getChildResources(resourceType));
+        return new ChildResourcesSelector<>(resource -> new HashSet<>(resource.getChildResources(resourceType)));
     }
 
     static <T extends ManageableResource> ManageableResourceSelector<T> toChild(ManageableResourceType resourceType, String resourceName) {
-        return resource -> {
+        return new ChildResourcesSelector<>(resource -> {
             final T child = resource.getChildResource(resourceType, resourceName);
             return child != null ? Collections.singleton(child) : Collections.emptySet();
-        };
+        });
     }
 }
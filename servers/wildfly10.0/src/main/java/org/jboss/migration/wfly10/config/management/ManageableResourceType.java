@@ -18,8 +18,10 @@ package org.jboss.migration.wfly10.config.management;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toSet;
@@ -32,10 +34,12 @@ public class ManageableResourceType {
     private final Class<? extends ManageableResource> type;
     private final Set<ManageableResourceType> childTypes;
     private volatile Set<ManageableResourceType> descendantTypes;
+    private final Map<Class<?>, Boolean> descendantTypesAssignableTo;
 
     protected ManageableResourceType(Class<? extends ManageableResource> type) {
         this.type = Objects.requireNonNull(type);
         this.childTypes = new HashSet<>();
+        this.descendantTypesAssignableTo = new ConcurrentHashMap<>();
     }
 
     protected ManageableResourceType(Class<? extends ManageableResource> type, ManageableResourceType... childTypes) {
@@ -48,6 +52,7 @@ public class ManageableResourceType {
     protected void addChildType(ManageableResourceType childType) {
         this.childTypes.add(childType);
         this.descendantTypes = null;
+        this.descendantTypesAssignableTo.clear();
     }
 
     public Class<? extends ManageableResource> getType() {
@@ -65,6 +70,24 @@ public class ManageableResourceType {
         return descendantTypes;
     }
 
+    /**
+     * Indicates if the resources of this type are instances of the specified type.
+     * @param type the type
+     * @return true if the resources of this type are instances of the specified type, false otherwise
+     */
+    public boolean isAssignableTo(Class<?> type) {
+        return type.isAssignableFrom(this.type);
+    }
+
+    /**
+     * Indicates if any of the descendant types is assignable to the specified type. The result is indexed per type, thus the descendant types are only searched once.
+     * @param type the type
+     * @return true if any of the descendant types is assignable to the specified type, false otherwise
+     */
+    public boolean hasDescendantTypeAssignableTo(Class<?> type) {
+        return descendantTypesAssignableTo.computeIfAbsent(type, t -> getDescendantTypes().stream().anyMatch(descendantType -> descendantType.isAssignableTo(t)));
+    }
+
     private synchronized Set<ManageableResourceType> findDescendantTypes() {
         return childTypes.stream().flatMap(childType -> Stream.concat(Stream.of(childType), childType.getDescendantTypes().stream()))
                 .collect(toSet());
@@ -25,6 +25,9 @@ import org.jboss.migration.wfly10.WildFlyServer10;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * @author emmartins
@@ -35,6 +38,83 @@ public interface ManageableServerConfiguration extends AbsolutePathResolver, Man
     void stop();
     boolean isStarted();
     ModelNode executeManagementOperation(ModelNode operation) throws ManagementOperationException;
+
+    /**
+     * Executes a management operation asynchronously. Read only operations are pipelined, i.e. executed without waiting for the results of previously executed operations, while write operations are executed before returning, thus in the order these are executed.
+     * @param operation the operation
+     * @return the future result of {@link #executeManagementOperation(ModelNode)}
+     */
+    default CompletableFuture<ModelNode> executeManagementOperationAsync(ModelNode operation) {
+        return CompletableFuture.supplyAsync(() -> executeManagementOperation(operation), Runnable::run);
+    }
+
+    /**
+     * Invalidates any cached resource data which may be affected by the specified operation. Must be invoked after executing operations directly through the {@link ModelControllerClient}.
+     * @param operation the operation executed
+     */
+    void invalidateCachedResources(ModelNode operation);
+
+    /**
+     * Begins an operations batch, if enabled for the server. While the batch is active the write operations executed through {@link #executeManagementOperation(ModelNode)} are buffered, and then executed as a single composite operation, when the batch ends, or before a read operation which may depend on these. Batches may be nested, only the outermost batch end executes the buffered operations. A batch is confined to the thread which began it, the operations executed by other threads, e.g. by concurrent subtasks, are not buffered by it.
+     */
+    void beginOperationsBatch();
+
+    /**
+     * Ends an operations batch.
+     * @throws ManagementOperationException if the execution of a buffered operation failed
+     */
+    void endOperationsBatch() throws ManagementOperationException;
+
+    /**
+     * Executes the write operations buffered by the current thread's active operations batch, if any, without ending the batch. Tasks use this to execute the operations these buffered before completing, so that a failure is reported by the task which executed the operation.
+     * @throws ManagementOperationException if the execution of a buffered operation failed
+     */
+    void flushOperationsBatch() throws ManagementOperationException;
+
+    /**
+     * Retrieves a value, within an operations batch.
+     * @param supplier the value supplier
+     * @param <T> the value type
+     * @return the value retrieved
+     * @throws ManagementOperationException if the execution of a buffered operation failed
+     */
+    default <T> T executeOperationsBatch(Supplier<T> supplier) throws ManagementOperationException {
+        beginOperationsBatch();
+        final T result;
+        try {
+            result = supplier.get();
+        } catch (RuntimeException | Error e) {
+            try {
+                endOperationsBatch();
+            } catch (RuntimeException e1) {
+                e.addSuppressed(e1);
+            }
+            throw e;
+        }
+        endOperationsBatch();
+        return result;
+    }
+
+    /**
+     * Reads, in a single batch if supported by the server, the children of the specified resources, which are then retrieved without executing management operations, until invalidated.
+     * @param resources the resources
+     */
+    default void prefetchChildResources(Collection<? extends ManageableResource> resources) {
+    }
+
+    /**
+     * Reads asynchronously the configurations of the specified resources, which are then retrieved by {@link ManageableResource#getResourceConfiguration()} without waiting for a management operation to execute, unless invalidated by a write operation. Tasks which read the configuration of multiple resources, one subtask per resource, may use this to issue all reads at once.
+     * @param resources the resources
+     */
+    default void prefetchResourceConfigurations(Collection<? extends ManageableResource> resources) {
+    }
+
+    /**
+     * Discards the prefetched resource configurations not retrieved yet. Tasks which prefetch resource configurations should invoke this once their subtasks are done, since some of these may not retrieve the configuration, e.g. if skipped.
+     */
+    default void discardPrefetchedResourceConfigurations() {
+    }
+
     WildFlyServer10 getServer();
     Path resolvePath(String path) throws ManagementOperationException;
     ModelControllerClient getModelControllerClient();
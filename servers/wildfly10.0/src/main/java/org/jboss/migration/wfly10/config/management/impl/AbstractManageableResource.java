@@ -17,8 +17,10 @@
 package org.jboss.migration.wfly10.config.management.impl;
 
 import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.dmr.ModelNode;
+import org.jboss.migration.core.logger.ServerMigrationLogger;
 import org.jboss.migration.wfly10.config.management.ManageableResource;
 import org.jboss.migration.wfly10.config.management.ManageableResourceType;
 import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
@@ -31,6 +33,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 import static java.util.stream.Collectors.toList;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
@@ -80,14 +86,42 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
         if (!isExistentResource()) {
             return null;
         }
+        // get prefetched resource
+        final ManageableResourceTreeCache resourceTreeCache = getServerConfigurationResourceTreeCache();
+        final CompletableFuture<ModelNode> prefetchedResult = resourceTreeCache != null ? resourceTreeCache.takeResourceConfiguration(getResourcePathAddress()) : null;
+        if (prefetchedResult != null) {
+            try {
+                return prefetchedResult.join();
+            } catch (CompletionException | CancellationException e) {
+                // read again, so that the failure is reported by the op
+            }
+        }
         // get resource
-        final PathAddress address = getResourcePathAddress();
-        final ModelNode op = Util.createEmptyOperation(READ_RESOURCE_OPERATION, address);
-        op.get(RECURSIVE).set(true);
-        final ModelNode result = serverConfiguration.executeManagementOperation(op);
+        final ModelNode result = serverConfiguration.executeManagementOperation(getReadResourceConfigurationOperation());
         return result.get(RESULT);
     }
 
+    @Override
+    public CompletableFuture<ModelNode> getResourceConfigurationAsync() {
+        try {
+            // ensure resource exists, usually without executing an op, since the parent's children are cached
+            if (!isExistentResource()) {
+                return CompletableFuture.completedFuture(null);
+            }
+        } catch (RuntimeException e) {
+            final CompletableFuture<ModelNode> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+        return serverConfiguration.executeManagementOperationAsync(getReadResourceConfigurationOperation()).thenApply(result -> result.get(RESULT));
+    }
+
+    private ModelNode getReadResourceConfigurationOperation() {
+        final ModelNode op = Util.createEmptyOperation(READ_RESOURCE_OPERATION, getResourcePathAddress());
+        op.get(RECURSIVE).set(true);
+        return op;
+    }
+
     protected void addChildResourceFactory(Factory childResourceFactory) {
         childResourceFactories.put(childResourceFactory.getResourceType(), childResourceFactory);
     }
@@ -97,34 +131,15 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
     }
 
     protected <T extends ManageableResource> List<Factory> getChildResourceFactories(Class<T> resourceType) {
-        return childResourceFactories.values().stream().filter(factory -> isResourceTypeMatch(resourceType, factory.getResourceType().getType())).collect(toList());
+        return childResourceFactories.values().stream().filter(factory -> factory.getResourceType().isAssignableTo(resourceType)).collect(toList());
     }
 
     protected <T extends ManageableResource> List<Factory> getDescendantResourceFactories(ManageableResourceType resourceType) {
         return childResourceFactories.values().stream().filter(factory -> factory.getResourceType().getDescendantTypes().contains(resourceType)).collect(toList());
     }
 
-    private boolean isResourceTypeMatch(Class<?> resourceType, Class<?> candidateType) {
-        if (resourceType.equals(candidateType)) {
-            return true;
-        }
-        for (Class<?> candidateInterfaceType : candidateType.getInterfaces()) {
-            if (isResourceTypeMatch(resourceType, candidateInterfaceType)) {
-                return true;
-            }
-        }
-        return false;
-    }
     protected <T extends ManageableResource> List<Factory> getDescendantResourceFactories(Class<T> resourceType) {
-        return childResourceFactories.values().stream().filter(factory -> {
-            final Set<ManageableResourceType> descendantTypes = factory.getResourceType().getDescendantTypes();
-            for (ManageableResourceType t : descendantTypes) {
-                if (isResourceTypeMatch(resourceType, t.getType())) {
-                    return true;
-                }
-            }
-            return false;
-        }).collect(toList());
+        return childResourceFactories.values().stream().filter(factory -> factory.getResourceType().hasDescendantTypeAssignableTo(resourceType)).collect(toList());
     }
 
     @Override
@@ -176,6 +191,12 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
         return factory != null ? factory.getResourceNames() : null;
     }
 
+    @Override
+    public CompletableFuture<Set<String>> getChildResourceNamesAsync(ManageableResourceType resourceType) {
+        final Factory<?, ?> factory = getChildResourceFactory(resourceType);
+        return factory != null ? factory.getResourceNamesAsync() : CompletableFuture.completedFuture(null);
+    }
+
     @Override
     public <T extends ManageableResource> PathAddress getChildResourcePathAddress(ManageableResourceType resourceType, String resourceName) {
         final Factory<T, ?> factory = getChildResourceFactory(resourceType);
@@ -226,8 +247,21 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
             }
         }
         // descendants
-        for(Factory<?, ?> descendantFactory : getDescendantResourceFactories(resourceType)) {
-            for (ManageableResource child : descendantFactory.getResources()) {
+        final List<Factory> descendantFactories = getDescendantResourceFactories(resourceType);
+        if (!descendantFactories.isEmpty()) {
+            final Set<T> descendants = queryDescendantResources(new DescendantResourcesQuery(resource -> {
+                final Factory<?, ?> factory = resource.getChildResourceFactory(resourceType);
+                return factory != null ? Collections.<Factory>singletonList(factory) : Collections.<Factory>emptyList();
+            }, resource -> resource.getDescendantResourceFactories(resourceType), resourceName));
+            if (descendants != null) {
+                result.addAll(descendants);
+                return result;
+            }
+        }
+        for(Factory<?, ?> descendantFactory : descendantFactories) {
+            final List<? extends ManageableResource> children = descendantFactory.getResources();
+            prefetchChildResources(descendantFactory, children);
+            for (ManageableResource child : children) {
                 result.addAll(child.findResources(resourceType, resourceName));
             }
         }
@@ -267,14 +301,76 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
         }
 
         // descendants
-        for(Factory<?, ?> descendantFactory : getDescendantResourceFactories(resourceType)) {
-            for (ManageableResource child : descendantFactory.getResources()) {
+        final List<Factory> descendantFactories = getDescendantResourceFactories(resourceType);
+        if (!descendantFactories.isEmpty()) {
+            final Set<T> descendants = queryDescendantResources(new DescendantResourcesQuery(resource -> resource.getChildResourceFactories(resourceType), resource -> resource.getDescendantResourceFactories(resourceType), resourceName));
+            if (descendants != null) {
+                result.addAll(descendants);
+                return result;
+            }
+        }
+        for(Factory<?, ?> descendantFactory : descendantFactories) {
+            final List<? extends ManageableResource> children = descendantFactory.getResources();
+            prefetchChildResources(descendantFactory, children);
+            for (ManageableResource child : children) {
                 result.addAll(child.findResources(resourceType, resourceName));
             }
         }
         return result;
     }
 
+    /**
+     * Finds descendant resources with a query, i.e. compiles the paths from this resource to the descendant resources into wildcard addresses, e.g. /profile=* /subsystem=jgroups, which are read with a single composite op, and cached, by the resource tree cache, instead of walking the descendants, reading the children of each.
+     * @param query the descendant resources query
+     * @param <T> the descendant resources type
+     * @return the descendant resources found, or null if these must be found by walking the descendants, e.g. the configuration is not booted yet, and its offline model should be used instead
+     */
+    private <T extends ManageableResource> Set<T> queryDescendantResources(DescendantResourcesQuery query) {
+        final ManageableResourceTreeCache resourceTreeCache = getServerConfigurationResourceTreeCache();
+        if (resourceTreeCache == null) {
+            return null;
+        }
+        final Map<PathAddress, List<ManageableResourceType>> addresses = new HashMap<>();
+        if (!query.compile(this, Collections.emptyList(), addresses)) {
+            return null;
+        }
+        final Map<PathAddress, Set<PathAddress>> matches;
+        try {
+            matches = resourceTreeCache.query(addresses.keySet());
+        } catch (ManagementOperationException e) {
+            ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failed to query resources %s, walking the descendants of %s instead", addresses.keySet(), pathAddress);
+            return null;
+        }
+        if (matches == null) {
+            return null;
+        }
+        final Set<T> result = new HashSet<>();
+        for (Map.Entry<PathAddress, List<ManageableResourceType>> address : addresses.entrySet()) {
+            final List<ManageableResourceType> resourceTypes = address.getValue();
+            for (PathAddress match : matches.get(address.getKey())) {
+                // create the matched resource, and its ancestors, up to this resource
+                final int offset = match.size() - resourceTypes.size();
+                AbstractManageableResource<?> resource = this;
+                for (int i = 0; i < resourceTypes.size(); i++) {
+                    resource = (AbstractManageableResource<?>) resource.getChildResourceFactory(resourceTypes.get(i)).newResourceInstance(match.getElement(offset + i).getValue());
+                }
+                result.add((T) resource);
+            }
+        }
+        return result;
+    }
+
+    private ManageableResourceTreeCache getServerConfigurationResourceTreeCache() {
+        return serverConfiguration instanceof AbstractManageableServerConfiguration ? ((AbstractManageableServerConfiguration) serverConfiguration).getResourceTreeCache() : null;
+    }
+
+    private void prefetchChildResources(Factory<?, ?> factory, List<? extends ManageableResource> children) {
+        final ManageableResourceTreeCache resourceTreeCache = factory.getResourceTreeCache();
+        if (resourceTreeCache != null && children.size() > 1) {
+            resourceTreeCache.prefetch(children.stream().map(ManageableResource::getResourcePathAddress).collect(toList()));
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -291,6 +387,50 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
         return pathAddress.hashCode();
     }
 
+    /**
+     * A query of descendant resources, which compiles the paths from a resource to the descendants matching, into wildcard addresses.
+     */
+    private static class DescendantResourcesQuery {
+
+        private final Function<AbstractManageableResource<?>, List<Factory>> matchingFactories;
+        private final Function<AbstractManageableResource<?>, List<Factory>> descendantFactories;
+        private final String resourceName;
+
+        DescendantResourcesQuery(Function<AbstractManageableResource<?>, List<Factory>> matchingFactories, Function<AbstractManageableResource<?>, List<Factory>> descendantFactories, String resourceName) {
+            this.matchingFactories = matchingFactories;
+            this.descendantFactories = descendantFactories;
+            this.resourceName = resourceName;
+        }
+
+        /**
+         * Compiles the addresses of the resources matching, which are descendants of the specified resource's children.
+         * @param resource the resource
+         * @param resourceTypes the types of the resources in the path, from the query's resource to the specified resource
+         * @param addresses where the addresses compiled, and the types of the resources in their paths, are put
+         * @return false if a path could not be compiled, true otherwise
+         */
+        boolean compile(AbstractManageableResource<?> resource, List<ManageableResourceType> resourceTypes, Map<PathAddress, List<ManageableResourceType>> addresses) {
+            for (Factory<?, ?> descendantFactory : descendantFactories.apply(resource)) {
+                // a resource with a wildcard name is created only to navigate the types, no management op is executed
+                final ManageableResource child = descendantFactory.newResourceInstance(PathElement.WILDCARD_VALUE);
+                if (!(child instanceof AbstractManageableResource)) {
+                    return false;
+                }
+                final List<ManageableResourceType> childResourceTypes = new ArrayList<>(resourceTypes);
+                childResourceTypes.add(descendantFactory.getResourceType());
+                for (Factory<?, ?> matchingFactory : matchingFactories.apply((AbstractManageableResource<?>) child)) {
+                    final List<ManageableResourceType> matchingResourceTypes = new ArrayList<>(childResourceTypes);
+                    matchingResourceTypes.add(matchingFactory.getResourceType());
+                    addresses.put(matchingFactory.getResourcePathAddress(resourceName != null ? resourceName : PathElement.WILDCARD_VALUE), matchingResourceTypes);
+                }
+                if (!compile((AbstractManageableResource<?>) child, childResourceTypes, addresses)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     protected abstract static class Factory<T extends ManageableResource, P extends ManageableResource> {
 
         protected final P parentResource;
@@ -313,6 +453,26 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
         }
 
         public Set<String> getResourceNames() {
+            final ManageableResourceTreeCache resourceTreeCache = getResourceTreeCache();
+            if (resourceTreeCache != null) {
+                return resourceTreeCache.getChildrenNames(pathAddressBase, pathElementKey);
+            }
+            return readResourceNames();
+        }
+
+        public CompletableFuture<Set<String>> getResourceNamesAsync() {
+            final ManageableResourceTreeCache resourceTreeCache = getResourceTreeCache();
+            if (resourceTreeCache != null) {
+                return resourceTreeCache.getChildrenNamesAsync(pathAddressBase, pathElementKey);
+            }
+            return CompletableFuture.supplyAsync(this::readResourceNames, Runnable::run);
+        }
+
+        protected ManageableResourceTreeCache getResourceTreeCache() {
+            return serverConfiguration instanceof AbstractManageableServerConfiguration ? ((AbstractManageableServerConfiguration) serverConfiguration).getResourceTreeCache() : null;
+        }
+
+        protected Set<String> readResourceNames() {
             try {
                 final ModelNode op = Util.createEmptyOperation(READ_CHILDREN_NAMES_OPERATION, pathAddressBase);
                 op.get(CHILD_TYPE).set(pathElementKey);
@@ -370,7 +530,7 @@ public abstract class AbstractManageableResource<P extends ManageableResource> i
             } else {
                 final List<T> result = new ArrayList<>();
                 for (String resourceName : resourceNames) {
-                    result.add(getResource(resourceName));
+                    result.add(newResourceInstance(resourceName));
                 }
                 return result;
             }
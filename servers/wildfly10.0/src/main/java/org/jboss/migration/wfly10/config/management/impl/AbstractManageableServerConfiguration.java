@@ -18,38 +18,64 @@ package org.jboss.migration.wfly10.config.management.impl;
 
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.helpers.Operations;
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.dmr.ModelNode;
 import org.jboss.migration.core.jboss.JBossServerConfiguration;
+import org.jboss.migration.core.jfr.EmbeddedServerEvent;
+import org.jboss.migration.core.jfr.FlightRecorderEvents;
+import org.jboss.migration.core.jfr.ManagementOperationEvent;
+import org.jboss.migration.core.logger.ServerMigrationLogger;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
 import org.jboss.migration.wfly10.WildFlyServer10;
+import org.jboss.migration.wfly10.config.management.ManageableResource;
 import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
 import org.jboss.migration.wfly10.config.management.ManagementOperationException;
 import org.jboss.migration.wfly10.config.management.PathResource;
+import org.jboss.threads.AsyncFuture;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+import static java.util.stream.Collectors.toList;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
 
 /**
+ * The base implementation of a manageable server configuration.
+ *
+ * If the server's offline management is enabled, a standalone server or domain configuration is managed by an {@link OfflineManagementModel}, read from the configuration's XML file, until a management operation not supported by the model is executed. The model is then written back to the XML file, and the embedded process which manages the configuration is booted, and executes that and all further operations. A configuration which only needs operations supported by the model is migrated without booting an embedded process.
  * @author emmartins
  */
 public abstract class AbstractManageableServerConfiguration extends AbstractManageableResource implements ManageableServerConfiguration {
 
+    private static final String WRITE_CONFIG_OPERATION = "write-config";
+
     private final JBossServerConfiguration configurationPath;
     private final WildFlyServer10 server;
-    private ModelControllerClient modelControllerClient;
+    private volatile ModelControllerClient modelControllerClient;
+    private volatile OfflineManagementModel offlineModel;
     private final ExtensionResourceImpl.Factory extensionConfigurations;
     private final InterfaceResourceImpl.Factory interfaceResources;
     private final PathResourceImpl.Factory pathResources;
     private final SocketBindingGroupResourceImpl.Factory socketBindingGroupResources;
     private final SystemPropertyResourceImpl.Factory systemPropertyResources;
+    private final ManageableResourceTreeCache resourceTreeCache;
+    // the operations batch is per thread, thus concurrent subtasks never flush or buffer each other's operations
+    private final ThreadLocal<ManagementOperationsBatch> operationsBatch = ThreadLocal.withInitial(ManagementOperationsBatch::new);
+    private volatile boolean writeConfigOperationUnsupported;
 
     protected AbstractManageableServerConfiguration(String resourceName, PathAddress pathAddress, JBossServerConfiguration configurationPath, WildFlyServer10 server) {
         super(resourceName, pathAddress, null);
         this.server = server;
         this.configurationPath = configurationPath;
+        this.resourceTreeCache = new ManageableResourceTreeCache(this);
         extensionConfigurations = new ExtensionResourceImpl.Factory(pathAddress, this);
         interfaceResources = new InterfaceResourceImpl.Factory(pathAddress, this);
         pathResources = new PathResourceImpl.Factory(pathAddress, this);
@@ -67,7 +93,62 @@ public abstract class AbstractManageableServerConfiguration extends AbstractMana
         if (isStarted()) {
             throw new IllegalStateException("server started");
         }
-        modelControllerClient = startConfiguration();
+        getResourceTreeCache().clear();
+        if (getServer().isManagementOffline() && isOfflineManageable()) {
+            final OfflineManagementModel offlineModel = readOfflineModel();
+            if (offlineModel != null) {
+                getResourceTreeCache().setOfflineModel(offlineModel);
+                this.offlineModel = offlineModel;
+                return;
+            }
+        }
+        modelControllerClient = boot();
+    }
+
+    /**
+     *
+     * @return true if the configuration may be managed by an offline model, false otherwise
+     */
+    protected boolean isOfflineManageable() {
+        return true;
+    }
+
+    private OfflineManagementModel readOfflineModel() {
+        try {
+            return OfflineManagementModel.read(configurationPath.getPath(), getServer().getExtensions());
+        } catch (IOException e) {
+            ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failed to read the offline management model of %s", configurationPath.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Closes the offline model, writing it back to the configuration's XML file if modified.
+     */
+    private void closeOfflineModel() {
+        final OfflineManagementModel offlineModel = this.offlineModel;
+        if (offlineModel == null) {
+            return;
+        }
+        try {
+            offlineModel.close(configurationPath.getPath());
+        } catch (IOException e) {
+            throw new ManagementOperationException(e);
+        } finally {
+            getResourceTreeCache().setOfflineModel(null);
+            getResourceTreeCache().clear();
+        }
+    }
+
+    private ModelControllerClient boot() {
+        final EmbeddedServerEvent event = FlightRecorderEvents.beginEmbeddedServer();
+        try {
+            return startConfiguration();
+        } finally {
+            if (event != null) {
+                event.complete(configurationPath.getPath(), "start");
+            }
+        }
     }
 
     protected abstract ModelControllerClient startConfiguration();
@@ -77,15 +158,32 @@ public abstract class AbstractManageableServerConfiguration extends AbstractMana
         if (!isStarted()) {
             throw new IllegalStateException("server not started");
         }
-        stopConfiguration();
+        if (offlineModel != null) {
+            try {
+                closeOfflineModel();
+            } finally {
+                offlineModel = null;
+            }
+            ServerMigrationLogger.ROOT_LOGGER.debugf("Configuration %s managed without booting an embedded process", configurationPath.getPath());
+            return;
+        }
+        final EmbeddedServerEvent event = FlightRecorderEvents.beginEmbeddedServer();
+        try {
+            stopConfiguration();
+        } finally {
+            if (event != null) {
+                event.complete(configurationPath.getPath(), "stop");
+            }
+        }
         modelControllerClient = null;
+        getResourceTreeCache().clear();
     }
 
     protected abstract void stopConfiguration();
 
     @Override
     public boolean isStarted() {
-        return modelControllerClient != null;
+        return modelControllerClient != null || offlineModel != null;
     }
 
     @Override
@@ -106,20 +204,253 @@ public abstract class AbstractManageableServerConfiguration extends AbstractMana
 
     @Override
     public ModelNode executeManagementOperation(ModelNode operation) throws ManagementOperationException {
+        final ManagementOperationsBatch operationsBatch = getOperationsBatch();
+        if (operationsBatch.isActive()) {
+            if (!isStarted()) {
+                throw new IllegalStateException("configuration not started");
+            }
+            if (!ManagementOperationsBatch.isReadOnly(operation)) {
+                // buffer the write op, and assume it succeeds, the leaf task executing it flushes the batch before completing
+                operationsBatch.add(operation);
+                getResourceTreeCache().update(operation);
+                final ModelNode result = new ModelNode();
+                result.get(OUTCOME).set(SUCCESS);
+                return result;
+            }
+            if (operationsBatch.isAffectedBy(operation)) {
+                flushOperationsBatch();
+            }
+        }
+        return executeOperation(operation);
+    }
+
+    private ModelNode executeOperation(ModelNode operation) throws ManagementOperationException {
+        final ModelNode offlineResult = executeOfflineOperation(operation);
+        if (offlineResult != null) {
+            return offlineResult;
+        }
         final ModelControllerClient modelControllerClient = getModelControllerClient();
         if (modelControllerClient == null) {
             throw new IllegalStateException("configuration not started");
         }
+        boolean succeeded = false;
+        final ManagementOperationEvent event = FlightRecorderEvents.beginManagementOperation();
         try {
+            final long startTime = System.nanoTime();
             final ModelNode result = modelControllerClient.execute(operation);
+            TaskExecutionMetrics.recordManagementOperation(System.nanoTime() - startTime);
             //ServerMigrationLogger.ROOT_LOGGER.infof("Op result %s", result.toString());
             processResult(result);
+            succeeded = true;
             return result;
         } catch (IOException e) {
             throw new ManagementOperationException(e);
+        } finally {
+            if (event != null) {
+                event.complete(operation.get(OP).asString(), operation.get(OP_ADDR), succeeded ? SUCCESS : FAILED);
+            }
+            if (succeeded) {
+                getResourceTreeCache().update(operation);
+            } else {
+                invalidateCachedResources(operation);
+            }
+        }
+    }
+
+    /**
+     * Executes an operation through the offline model, if any.
+     * @param operation the operation to execute
+     * @return the operation's result, or null if there is no offline model, or the model does not support the operation
+     * @throws ManagementOperationException if the operation failed
+     */
+    private ModelNode executeOfflineOperation(ModelNode operation) throws ManagementOperationException {
+        final OfflineManagementModel offlineModel = this.offlineModel;
+        if (offlineModel == null) {
+            return null;
+        }
+        final ManagementOperationEvent event = FlightRecorderEvents.beginManagementOperation();
+        final long startTime = System.nanoTime();
+        final ModelNode result = offlineModel.execute(operation);
+        if (result == null) {
+            return null;
+        }
+        TaskExecutionMetrics.recordManagementOperation(System.nanoTime() - startTime);
+        boolean succeeded = false;
+        try {
+            processResult(result);
+            succeeded = true;
+            return result;
+        } finally {
+            if (event != null) {
+                event.complete(operation.get(OP).asString(), operation.get(OP_ADDR), succeeded ? SUCCESS : FAILED);
+            }
+            if (succeeded) {
+                getResourceTreeCache().update(operation);
+            } else {
+                invalidateCachedResources(operation);
+            }
         }
     }
 
+    @Override
+    public CompletableFuture<ModelNode> executeManagementOperationAsync(ModelNode operation) {
+        if (!ManagementOperationsBatch.isReadOnly(operation)) {
+            // write ops are executed in order
+            return ManageableServerConfiguration.super.executeManagementOperationAsync(operation);
+        }
+        final CompletableFuture<ModelNode> future = new CompletableFuture<>();
+        try {
+            final ManagementOperationsBatch operationsBatch = getOperationsBatch();
+            if (operationsBatch.isActive() && operationsBatch.isAffectedBy(operation)) {
+                flushOperationsBatch();
+            }
+            final ModelNode offlineResult = executeOfflineOperation(operation);
+            if (offlineResult != null) {
+                future.complete(offlineResult);
+                return future;
+            }
+            final ModelControllerClient modelControllerClient = getModelControllerClient();
+            if (modelControllerClient == null) {
+                throw new IllegalStateException("configuration not started");
+            }
+            // the op is counted by the task executing it, yet not its time, which overlaps the time of the task's other ops
+            TaskExecutionMetrics.recordManagementOperation(0);
+            final ManagementOperationEvent event = FlightRecorderEvents.beginManagementOperation();
+            modelControllerClient.executeAsync(operation, OperationMessageHandler.DISCARD).addListener(new AsyncFuture.Listener<ModelNode, Void>() {
+                @Override
+                public void handleComplete(AsyncFuture<? extends ModelNode> asyncFuture, Void attachment) {
+                    try {
+                        final ModelNode result = asyncFuture.get();
+                        processResult(result);
+                        completed(true);
+                        future.complete(result);
+                    } catch (InterruptedException | ExecutionException | RuntimeException e) {
+                        completed(false);
+                        future.completeExceptionally(e instanceof ManagementOperationException ? e : new ManagementOperationException(e));
+                    }
+                }
+
+                @Override
+                public void handleFailed(AsyncFuture<? extends ModelNode> asyncFuture, Throwable cause, Void attachment) {
+                    completed(false);
+                    future.completeExceptionally(new ManagementOperationException(cause));
+                }
+
+                @Override
+                public void handleCancelled(AsyncFuture<? extends ModelNode> asyncFuture, Void attachment) {
+                    completed(false);
+                    future.cancel(false);
+                }
+
+                private void completed(boolean succeeded) {
+                    if (event != null) {
+                        event.complete(operation.get(OP).asString(), operation.get(OP_ADDR), succeeded ? SUCCESS : FAILED);
+                    }
+                }
+            }, null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public void beginOperationsBatch() {
+        if (getServer().isManagementOperationsBatch()) {
+            getOperationsBatch().begin();
+        }
+    }
+
+    @Override
+    public void endOperationsBatch() throws ManagementOperationException {
+        if (getServer().isManagementOperationsBatch() && getOperationsBatch().end()) {
+            flushOperationsBatch();
+        }
+    }
+
+    /**
+     * Executes the operations buffered by the operations batch, as a single composite operation. If the composite operation fails the operations are executed one by one, so that the failure is reported by the operation which failed, together with the buffered operations not executed due to it.
+     * @throws ManagementOperationException if a buffered operation failed
+     */
+    @Override
+    public void flushOperationsBatch() throws ManagementOperationException {
+        final List<ModelNode> operations = getOperationsBatch().drain();
+        if (operations.isEmpty()) {
+            return;
+        }
+        try {
+            if (operations.size() == 1) {
+                executeOperation(operations.get(0));
+                return;
+            }
+            final Operations.CompositeOperationBuilder compositeOperationBuilder = Operations.CompositeOperationBuilder.create();
+            for (ModelNode operation : operations) {
+                compositeOperationBuilder.addStep(operation);
+            }
+            try {
+                executeOperation(compositeOperationBuilder.build().getOperation());
+            } catch (ManagementOperationException e) {
+                // the composite op was rolled back, execute each op to find which one fails
+                ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Batch of %d management operations failed, executing each operation...", operations.size());
+                for (int i = 0; i < operations.size(); i++) {
+                    try {
+                        executeOperation(operations.get(i));
+                    } catch (ManagementOperationException e1) {
+                        final List<ModelNode> operationsNotExecuted = operations.subList(i + 1, operations.size());
+                        if (operationsNotExecuted.isEmpty()) {
+                            throw e1;
+                        }
+                        throw new ManagementOperationException("Management operation "+operations.get(i)+" failed: "+e1.getMessage()+". The following "+operationsNotExecuted.size()+" management operations were not executed: "+operationsNotExecuted, e1);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // the cache was updated assuming all buffered ops succeed
+            getResourceTreeCache().clear();
+            throw e;
+        }
+    }
+
+    /**
+     *
+     * @return the configuration's operations batch of the current thread
+     */
+    ManagementOperationsBatch getOperationsBatch() {
+        return operationsBatch.get();
+    }
+
+    @Override
+    public void invalidateCachedResources(ModelNode operation) {
+        getResourceTreeCache().invalidate(operation);
+    }
+
+    /**
+     *
+     * @return the cache of the configuration's resource tree
+     */
+    protected ManageableResourceTreeCache getResourceTreeCache() {
+        return resourceTreeCache;
+    }
+
+    @Override
+    public void prefetchChildResources(Collection<? extends ManageableResource> resources) {
+        getResourceTreeCache().prefetch(resources.stream().map(ManageableResource::getResourcePathAddress).collect(toList()));
+    }
+
+    @Override
+    public void prefetchResourceConfigurations(Collection<? extends ManageableResource> resources) {
+        // the resources' existence is checked through their parents' children, read in a single batch
+        prefetchChildResources(resources.stream().map(ManageableResource::getParentResource).filter(Objects::nonNull).distinct().collect(toList()));
+        for (ManageableResource resource : resources) {
+            getResourceTreeCache().putResourceConfiguration(resource.getResourcePathAddress(), resource.getResourceConfigurationAsync());
+        }
+    }
+
+    @Override
+    public void discardPrefetchedResourceConfigurations() {
+        getResourceTreeCache().discardResourceConfigurations();
+    }
+
     @Override
     public Path resolvePath(String pathName) throws ManagementOperationException {
         Path resolvedByServer = server.resolvePath(pathName);
@@ -143,10 +474,30 @@ public abstract class AbstractManageableServerConfiguration extends AbstractMana
 
     @Override
     public ModelControllerClient getModelControllerClient() {
+        if (offlineModel != null) {
+            synchronized (this) {
+                if (offlineModel != null) {
+                    // an operation not supported by the offline model, which is written back to the XML file, before booting the embedded process which reads it
+                    ServerMigrationLogger.ROOT_LOGGER.debugf("Booting the embedded process of configuration %s, an operation is not supported by its offline model", configurationPath.getPath());
+                    closeOfflineModel();
+                    modelControllerClient = boot();
+                    offlineModel = null;
+                }
+            }
+        }
         return modelControllerClient;
     }
 
     protected void writeConfiguration() {
+        if (!writeConfigOperationUnsupported) {
+            try {
+                executeManagementOperation(Util.createEmptyOperation(WRITE_CONFIG_OPERATION, getResourcePathAddress()));
+                return;
+            } catch (ManagementOperationException e) {
+                // not supported by the server
+                writeConfigOperationUnsupported = true;
+            }
+        }
         // force write of xml config by tmp setting a system property
         final String systemPropertyName = "org.jboss.migration.tmp."+System.nanoTime();
         final PathAddress pathAddress = getSystemPropertyResourcePathAddress(systemPropertyName);
@@ -63,6 +63,30 @@ public class EmbeddedHostConfiguration extends AbstractManageableServerConfigura
         writeConfiguration();
     }
 
+    @Override
+    protected boolean isOfflineManageable() {
+        // the host's resources are managed by the host controller
+        return false;
+    }
+
+    @Override
+    protected ManageableResourceTreeCache getResourceTreeCache() {
+        // the host's resources are part of the host controller's resource tree
+        if (hostController instanceof AbstractManageableServerConfiguration) {
+            return ((AbstractManageableServerConfiguration) hostController).getResourceTreeCache();
+        }
+        return super.getResourceTreeCache();
+    }
+
+    @Override
+    ManagementOperationsBatch getOperationsBatch() {
+        // the host's ops are executed by the host controller's client
+        if (hostController instanceof AbstractManageableServerConfiguration) {
+            return ((AbstractManageableServerConfiguration) hostController).getOperationsBatch();
+        }
+        return super.getOperationsBatch();
+    }
+
     public static class HostConfigFileMigrationFactory implements HostMigration.HostConfigurationProvider {
         @Override
         public EmbeddedHostConfiguration getHostConfiguration(String host, HostControllerConfiguration hostController) {
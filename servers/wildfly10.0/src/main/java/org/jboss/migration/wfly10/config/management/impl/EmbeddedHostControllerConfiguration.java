@@ -18,21 +18,25 @@ package org.jboss.migration.wfly10.config.management.impl;
 
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.dmr.ModelNode;
 import org.jboss.migration.core.jboss.JBossServerConfiguration;
 import org.jboss.migration.wfly10.WildFlyServer10;
 import org.jboss.migration.wfly10.config.management.HostControllerConfiguration;
+import org.jboss.migration.wfly10.config.management.ManagementOperationException;
 import org.jboss.migration.wfly10.config.task.ServerConfigurationMigration;
 import org.wildfly.core.embedded.EmbeddedProcessFactory;
 import org.wildfly.core.embedded.EmbeddedProcessStartException;
 import org.wildfly.core.embedded.HostController;
-import org.wildfly.security.manager.WildFlySecurityManager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADMIN_ONLY;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RELOAD;
+
 /**
  * @author emmartins
  */
@@ -40,7 +44,7 @@ public class EmbeddedHostControllerConfiguration extends AbstractManageableServe
 
     private final String domainConfig;
     private final String hostConfig;
-    private HostController hostController;
+    private EmbeddedProcessPool.PooledProcess pooledProcess;
 
     private final DeploymentResourceImpl.Factory deploymentResources;
     private final DeploymentOverlayResourceImpl.Factory deploymentOverlayResources;
@@ -49,11 +53,9 @@ public class EmbeddedHostControllerConfiguration extends AbstractManageableServe
 
     private final ProfileResourceImpl.Factory profileResources;
     private final ServerGroupResourceImpl.Factory serverGroupResources;
-    private final Map<String, String> propertiesToReset;
 
     protected EmbeddedHostControllerConfiguration(String domainConfig, String hostConfig, JBossServerConfiguration configurationPath, WildFlyServer10 server) {
         super("", PathAddress.EMPTY_ADDRESS, configurationPath, server);
-        propertiesToReset = new HashMap<>();
         this.domainConfig = domainConfig;
         this.hostConfig = hostConfig;
         deploymentResources = new DeploymentResourceImpl.Factory(getResourcePathAddress(), this);
@@ -72,7 +74,23 @@ public class EmbeddedHostControllerConfiguration extends AbstractManageableServe
 
     @Override
     protected ModelControllerClient startConfiguration() {
-
+        final EmbeddedProcessPool pool = getServer().getEmbeddedProcessPool();
+        final JBossServerConfiguration.Type poolType = domainConfig != null ? JBossServerConfiguration.Type.DOMAIN : JBossServerConfiguration.Type.HOST;
+        if (getServer().isEmbeddedProcessReuse()) {
+            // reload an idle embedded host controller with the config
+            final ModelNode reloadOperation = Util.createEmptyOperation(RELOAD, null);
+            reloadOperation.get(ADMIN_ONLY).set(true);
+            if (domainConfig != null) {
+                reloadOperation.get("domain-config").set(domainConfig);
+            }
+            if (hostConfig != null) {
+                reloadOperation.get("host-config").set(hostConfig);
+            }
+            pooledProcess = pool.acquire(poolType, reloadOperation);
+            if (pooledProcess != null) {
+                return pooledProcess.getModelControllerClient();
+            }
+        }
         final List<String> cmds = new ArrayList<>();
         if (domainConfig != null) {
             cmds.add("--domain-config="+ domainConfig);
@@ -82,20 +100,30 @@ public class EmbeddedHostControllerConfiguration extends AbstractManageableServe
         }
         cmds.add("--admin-only");
         cmds.add("-Dorg.wildfly.logging.embedded=false");
+        final Map<String, Object> systemProperties = new HashMap<>();
         if (!getServer().getEnvironment().isDefaultDomainBaseDir()) {
-            setSystemProperty("jboss.domain.base.dir", getServer().getDomainDir());
+            systemProperties.put("jboss.domain.base.dir", getServer().getDomainDir());
         }
         if (!getServer().getEnvironment().isDefaultDomainConfigDir()) {
-            setSystemProperty("jboss.domain.config.dir", getServer().getDomainConfigurationDir());
+            systemProperties.put("jboss.domain.config.dir", getServer().getDomainConfigurationDir());
+        }
+        final EmbeddedProcessEnvironment processEnvironment = new EmbeddedProcessEnvironment();
+        try {
+            // concurrent embedded processes of other target servers may use the same properties
+            processEnvironment.setSystemProperties(systemProperties);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagementOperationException(e);
         }
         final String[] systemPackages = {"org.jboss.logmanager"};
-        hostController = EmbeddedProcessFactory.createHostController(getServer().getBaseDir().toString(), null, systemPackages, cmds.toArray(new String[cmds.size()]));
+        final HostController hostController = EmbeddedProcessEnvironment.createProcess(() -> EmbeddedProcessFactory.createHostController(getServer().getBaseDir().toString(), null, systemPackages, cmds.toArray(new String[cmds.size()])));
         try {
-            hostController.start();
+            pooledProcess = pool.boot(poolType, hostController, processEnvironment);
         } catch (EmbeddedProcessStartException e) {
+            processEnvironment.resetSystemProperties();
             throw new RuntimeException(e);
         }
-        return hostController.getModelControllerClient();
+        return pooledProcess.getModelControllerClient();
     }
 
     @Override
@@ -103,9 +131,9 @@ public class EmbeddedHostControllerConfiguration extends AbstractManageableServe
         if (hostConfig == null) {
             writeConfiguration();
         }
-        hostController.stop();
-        hostController = null;
-        resetProperties();
+        final EmbeddedProcessPool.PooledProcess pooledProcess = this.pooledProcess;
+        this.pooledProcess = null;
+        getServer().getEmbeddedProcessPool().release(pooledProcess, getServer().isEmbeddedProcessReuse());
     }
 
     public static class DomainConfigFileMigrationFactory implements ServerConfigurationMigration.ManageableConfigurationProvider {
@@ -121,25 +149,4 @@ public class EmbeddedHostControllerConfiguration extends AbstractManageableServe
             return new EmbeddedHostControllerConfiguration(null, configurationPath.getPathRelativeToConfigurationDir().toString(), configurationPath, server);
         }
     }
-
-    private void setSystemProperty(final String name, final Object value) {
-        if (value != null) {
-            final String currentValue = WildFlySecurityManager.getPropertyPrivileged(name, null);
-            WildFlySecurityManager.setPropertyPrivileged(name, value.toString());
-            propertiesToReset.put(name, currentValue);
-        }
-    }
-
-    private void resetProperties() {
-        final Iterator<Map.Entry<String, String>> iterator = propertiesToReset.entrySet().iterator();
-        while (iterator.hasNext()) {
-            final Map.Entry<String, String> entry = iterator.next();
-            if (entry.getValue() == null) {
-                WildFlySecurityManager.clearPropertyPrivileged(entry.getKey());
-            } else {
-                WildFlySecurityManager.setPropertyPrivileged(entry.getKey(), entry.getValue());
-            }
-            iterator.remove();
-        }
-    }
 }
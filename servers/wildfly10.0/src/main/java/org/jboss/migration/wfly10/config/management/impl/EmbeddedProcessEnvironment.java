@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.management.impl;
+
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The JVM environment of an embedded process, which may be shared with other embedded processes running concurrently, e.g. by the migrations of a fleet.
+ *
+ * System properties are global, thus a property set by an embedded process is only reset when no other embedded process running uses it. An embedded process which needs a property set with another value, by other embedded processes, waits till these are stopped, and idle pooled processes holding the property are stopped right away. The properties of an embedded process are set all at once, thus a process waiting holds no properties, and processes waiting for each other can't deadlock.
+ * @author emmartins
+ */
+class EmbeddedProcessEnvironment {
+
+    private static final Object LOCK = new Object();
+    // guarded by LOCK
+    private static final Map<String, SharedSystemProperty> SHARED_SYSTEM_PROPERTIES = new HashMap<>();
+
+    // guarded by LOCK
+    private final Set<String> systemProperties = new HashSet<>();
+    // guarded by LOCK, stops the embedded process while idle in a pool, null otherwise
+    private Runnable idleProcessStopper;
+
+    /**
+     * Creates an embedded process. The creation of embedded processes is serialized, since it may setup the JVM's modules environment.
+     * @param processFactory the embedded process factory
+     * @param <T> the embedded process type
+     * @return the embedded process created
+     */
+    static <T> T createProcess(Supplier<T> processFactory) {
+        synchronized (LOCK) {
+            return processFactory.get();
+        }
+    }
+
+    /**
+     * Sets the system properties for the embedded process, waiting till every property set with another value, by other embedded processes, is reset.
+     * @param properties the properties to set, a property with null value is not set
+     * @throws InterruptedException if interrupted while waiting for other embedded processes
+     */
+    void setSystemProperties(final Map<String, ?> properties) throws InterruptedException {
+        final Map<String, String> propertiesToSet = new HashMap<>();
+        for (Map.Entry<String, ?> property : properties.entrySet()) {
+            if (property.getValue() != null) {
+                propertiesToSet.put(property.getKey(), property.getValue().toString());
+            }
+        }
+        while (true) {
+            final List<Runnable> idleProcessStoppers = new ArrayList<>();
+            synchronized (LOCK) {
+                boolean conflict = false;
+                for (Map.Entry<String, String> property : propertiesToSet.entrySet()) {
+                    final SharedSystemProperty sharedSystemProperty = SHARED_SYSTEM_PROPERTIES.get(property.getKey());
+                    if (sharedSystemProperty != null && !sharedSystemProperty.value.equals(property.getValue())) {
+                        conflict = true;
+                        for (EmbeddedProcessEnvironment user : sharedSystemProperty.users) {
+                            if (user.idleProcessStopper != null) {
+                                idleProcessStoppers.add(user.idleProcessStopper);
+                                user.idleProcessStopper = null;
+                            }
+                        }
+                    }
+                }
+                if (!conflict) {
+                    for (Map.Entry<String, String> property : propertiesToSet.entrySet()) {
+                        setSystemProperty(property.getKey(), property.getValue());
+                    }
+                    return;
+                }
+                if (idleProcessStoppers.isEmpty()) {
+                    // only running processes use the properties, wait till these stop
+                    LOCK.wait();
+                    continue;
+                }
+            }
+            // idle processes are stopped without holding the lock, since stopping resets their properties
+            for (Runnable idleProcessStopper : idleProcessStoppers) {
+                idleProcessStopper.run();
+            }
+        }
+    }
+
+    private void setSystemProperty(final String name, final String value) {
+        SharedSystemProperty sharedSystemProperty = SHARED_SYSTEM_PROPERTIES.get(name);
+        if (sharedSystemProperty == null) {
+            sharedSystemProperty = new SharedSystemProperty(WildFlySecurityManager.getPropertyPrivileged(name, null), value);
+            WildFlySecurityManager.setPropertyPrivileged(name, value);
+            SHARED_SYSTEM_PROPERTIES.put(name, sharedSystemProperty);
+        }
+        if (systemProperties.add(name)) {
+            sharedSystemProperty.users.add(this);
+        }
+    }
+
+    /**
+     * Sets how the embedded process is stopped while idle, i.e. pooled, and thus may be stopped to reset its system properties for other embedded processes.
+     * @param idleProcessStopper the stopper of the idle embedded process, null if the process is not idle
+     */
+    void setIdleProcessStopper(final Runnable idleProcessStopper) {
+        synchronized (LOCK) {
+            this.idleProcessStopper = idleProcessStopper;
+            if (idleProcessStopper != null) {
+                // embedded processes waiting may stop this one
+                LOCK.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Resets the system properties set for the embedded process, which are not used by other embedded processes running.
+     */
+    void resetSystemProperties() {
+        synchronized (LOCK) {
+            idleProcessStopper = null;
+            for (String name : systemProperties) {
+                final SharedSystemProperty sharedSystemProperty = SHARED_SYSTEM_PROPERTIES.get(name);
+                sharedSystemProperty.users.remove(this);
+                if (sharedSystemProperty.users.isEmpty()) {
+                    SHARED_SYSTEM_PROPERTIES.remove(name);
+                    if (sharedSystemProperty.originalValue == null) {
+                        WildFlySecurityManager.clearPropertyPrivileged(name);
+                    } else {
+                        WildFlySecurityManager.setPropertyPrivileged(name, sharedSystemProperty.originalValue);
+                    }
+                }
+            }
+            systemProperties.clear();
+            LOCK.notifyAll();
+        }
+    }
+
+    private static class SharedSystemProperty {
+        private final String originalValue;
+        private final String value;
+        private final Set<EmbeddedProcessEnvironment> users = new HashSet<>();
+
+        SharedSystemProperty(String originalValue, String value) {
+            this.originalValue = originalValue;
+            this.value = value;
+        }
+    }
+}
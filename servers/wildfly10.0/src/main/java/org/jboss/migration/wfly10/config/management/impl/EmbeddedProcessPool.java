@@ -0,0 +1,328 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.management.impl;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.dmr.ModelNode;
+import org.jboss.migration.core.jboss.JBossServerConfiguration;
+import org.jboss.migration.core.logger.ServerMigrationLogger;
+import org.jboss.migration.wfly10.config.management.ManagementOperationException;
+import org.wildfly.core.embedded.EmbeddedManagedProcess;
+import org.wildfly.core.embedded.EmbeddedProcessStartException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
+
+/**
+ * A pool of booted embedded processes of a target server, which may be reused to manage other configurations, of the same type, by reloading these with the new configuration, instead of booting a new embedded process.
+ *
+ * The pool is owned by the target server of a migration, thus its processes and metrics are scoped to the migration.
+ *
+ * Reloading with another configuration, i.e. with a server-config, domain-config or host-config parameter, is not supported by every target server version. If an idle process fails to reload, it's stopped and the configuration is managed by a newly booted embedded process instead, and no more processes of the same configuration type are pooled.
+ * @author emmartins
+ */
+public class EmbeddedProcessPool {
+
+    private static final long RELOAD_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+    private static final String RUNNING = "running";
+
+    private final Path baseDir;
+    // guarded by this
+    private final Map<JBossServerConfiguration.Type, Deque<PooledProcess>> idleProcesses = new EnumMap<>(JBossServerConfiguration.Type.class);
+    // guarded by this, the configuration types which processes failed to reload
+    private final Set<JBossServerConfiguration.Type> reloadFailures = EnumSet.noneOf(JBossServerConfiguration.Type.class);
+    private final Metrics metrics = new Metrics();
+
+    /**
+     *
+     * @param baseDir the target server's base dir
+     */
+    public EmbeddedProcessPool(Path baseDir) {
+        this.baseDir = baseDir;
+    }
+
+    /**
+     * Retrieves an idle embedded process, reloaded with the specified configuration.
+     * @param type the configuration type
+     * @param reloadOperation the operation which reloads the embedded process with the configuration, its address is set by the pool for host controllers
+     * @return the pooled process, or null if there is no idle process, or if reloading it failed
+     */
+    PooledProcess acquire(final JBossServerConfiguration.Type type, final ModelNode reloadOperation) {
+        final PooledProcess pooledProcess;
+        synchronized (this) {
+            final Deque<PooledProcess> typeIdleProcesses = idleProcesses.get(type);
+            pooledProcess = typeIdleProcesses != null ? typeIdleProcesses.pollFirst() : null;
+        }
+        if (pooledProcess == null) {
+            return null;
+        }
+        pooledProcess.setIdle(null);
+        final long startTime = System.currentTimeMillis();
+        try {
+            pooledProcess.reload(reloadOperation);
+        } catch (Throwable e) {
+            // e.g. the target server does not support reloading with another configuration, fallback to booting a new process
+            ServerMigrationLogger.ROOT_LOGGER.debugf(e, "Failed to reload embedded process %s, stopping it...", pooledProcess);
+            ServerMigrationLogger.ROOT_LOGGER.infof("Embedded %s processes of %s could not be reloaded with another configuration, a new embedded process is booted for each configuration instead.", type.name().toLowerCase(), baseDir);
+            synchronized (this) {
+                reloadFailures.add(type);
+            }
+            pooledProcess.stop();
+            return null;
+        }
+        final long reloadTime = System.currentTimeMillis() - startTime;
+        metrics.reuses.incrementAndGet();
+        metrics.reloadTime.addAndGet(reloadTime);
+        ServerMigrationLogger.ROOT_LOGGER.debugf("Embedded process %s reused, reloaded in %d ms.", pooledProcess, reloadTime);
+        return pooledProcess;
+    }
+
+    /**
+     * Boots a new embedded process.
+     * @param type the configuration type
+     * @param process the embedded process, not started yet
+     * @param processEnvironment the embedded process environment
+     * @return the pooled process
+     * @throws EmbeddedProcessStartException if the embedded process failed to start
+     */
+    PooledProcess boot(final JBossServerConfiguration.Type type, final EmbeddedManagedProcess process, final EmbeddedProcessEnvironment processEnvironment) throws EmbeddedProcessStartException {
+        final long startTime = System.currentTimeMillis();
+        process.start();
+        final long bootTime = System.currentTimeMillis() - startTime;
+        metrics.boots.incrementAndGet();
+        metrics.bootTime.addAndGet(bootTime);
+        final PooledProcess pooledProcess = new PooledProcess(type, baseDir, process, processEnvironment);
+        ServerMigrationLogger.ROOT_LOGGER.debugf("Embedded process %s booted in %d ms.", pooledProcess, bootTime);
+        return pooledProcess;
+    }
+
+    /**
+     * Releases an embedded process, which is either kept booted, to be reused, or stopped.
+     * @param pooledProcess the pooled process
+     * @param reuse if true the process is kept booted, unless processes of its configuration type failed to reload, otherwise it's stopped
+     */
+    void release(final PooledProcess pooledProcess, final boolean reuse) {
+        final boolean pooled;
+        synchronized (this) {
+            pooled = reuse && !reloadFailures.contains(pooledProcess.type);
+            if (pooled) {
+                idleProcesses.computeIfAbsent(pooledProcess.type, k -> new ArrayDeque<>()).addFirst(pooledProcess);
+            }
+        }
+        if (!pooled) {
+            pooledProcess.stop();
+            return;
+        }
+        // embedded processes of other target servers, which need its system properties with other values, may stop it while idle
+        pooledProcess.setIdle(() -> stopIdleProcess(pooledProcess));
+    }
+
+    /**
+     * Stops an idle embedded process, unless acquired meanwhile.
+     * @param pooledProcess the pooled process
+     */
+    private void stopIdleProcess(final PooledProcess pooledProcess) {
+        synchronized (this) {
+            final Deque<PooledProcess> typeIdleProcesses = idleProcesses.get(pooledProcess.type);
+            if (typeIdleProcesses == null || !typeIdleProcesses.remove(pooledProcess)) {
+                return;
+            }
+        }
+        ServerMigrationLogger.ROOT_LOGGER.debugf("Stopping idle embedded process %s, its system properties are needed by another embedded process", pooledProcess);
+        pooledProcess.stop();
+    }
+
+    /**
+     * Stops all idle embedded processes.
+     */
+    public void stopIdleProcesses() {
+        final List<PooledProcess> processesToStop = new ArrayList<>();
+        synchronized (this) {
+            for (Deque<PooledProcess> typeIdleProcesses : idleProcesses.values()) {
+                processesToStop.addAll(typeIdleProcesses);
+            }
+            idleProcesses.clear();
+        }
+        for (PooledProcess pooledProcess : processesToStop) {
+            pooledProcess.stop();
+        }
+    }
+
+    /**
+     *
+     * @return the metrics of the pool's embedded processes
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * An embedded process, which may be pooled.
+     */
+    static class PooledProcess {
+
+        private final JBossServerConfiguration.Type type;
+        private final Path baseDir;
+        private final EmbeddedManagedProcess process;
+        private final EmbeddedProcessEnvironment processEnvironment;
+
+        PooledProcess(JBossServerConfiguration.Type type, Path baseDir, EmbeddedManagedProcess process, EmbeddedProcessEnvironment processEnvironment) {
+            this.type = type;
+            this.baseDir = baseDir;
+            this.process = process;
+            this.processEnvironment = processEnvironment;
+        }
+
+        ModelControllerClient getModelControllerClient() {
+            return process.getModelControllerClient();
+        }
+
+        void reload(ModelNode reloadOperation) throws IOException, InterruptedException {
+            if (type != JBossServerConfiguration.Type.STANDALONE) {
+                // a host controller's reload is an op of its host resource
+                reloadOperation = reloadOperation.clone();
+                reloadOperation.get(OP_ADDR).set(readHostAddress().toModelNode());
+            }
+            final ModelNode result = getModelControllerClient().execute(reloadOperation);
+            if (!SUCCESS.equals(result.get(OUTCOME).asString())) {
+                throw new ManagementOperationException(result.get(FAILURE_DESCRIPTION).asString());
+            }
+            // wait till the process is running again
+            final long deadline = System.currentTimeMillis() + RELOAD_TIMEOUT;
+            while (true) {
+                try {
+                    if (isRunning()) {
+                        return;
+                    }
+                } catch (IOException | ManagementOperationException e) {
+                    // process still reloading
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new ManagementOperationException("Timeout waiting for embedded process "+this+" reload");
+                }
+                Thread.sleep(50);
+            }
+        }
+
+        private boolean isRunning() throws IOException, ManagementOperationException {
+            final ModelNode operation = type == JBossServerConfiguration.Type.STANDALONE ? Util.getReadAttributeOperation(PathAddress.EMPTY_ADDRESS, "server-state") : Util.getReadAttributeOperation(readHostAddress(), "host-state");
+            final ModelNode result = getModelControllerClient().execute(operation);
+            return SUCCESS.equals(result.get(OUTCOME).asString()) && RUNNING.equals(result.get(RESULT).asString());
+        }
+
+        private PathAddress readHostAddress() throws IOException {
+            final ModelNode operation = Util.createEmptyOperation(READ_CHILDREN_NAMES_OPERATION, null);
+            operation.get(CHILD_TYPE).set(HOST);
+            final ModelNode result = getModelControllerClient().execute(operation);
+            if (!SUCCESS.equals(result.get(OUTCOME).asString()) || result.get(RESULT).asList().isEmpty()) {
+                throw new ManagementOperationException("Failed to read the embedded host controller's host");
+            }
+            return PathAddress.pathAddress(HOST, result.get(RESULT).get(0).asString());
+        }
+
+        /**
+         * Sets how the process is stopped while idle.
+         * @param idleProcessStopper the stopper of the idle process, null if the process is not idle
+         */
+        void setIdle(Runnable idleProcessStopper) {
+            if (processEnvironment != null) {
+                processEnvironment.setIdleProcessStopper(idleProcessStopper);
+            }
+        }
+
+        void stop() {
+            try {
+                stopProcess();
+            } finally {
+                if (processEnvironment != null) {
+                    processEnvironment.resetSystemProperties();
+                }
+            }
+        }
+
+        void stopProcess() {
+            process.stop();
+        }
+
+        @Override
+        public String toString() {
+            return type.name().toLowerCase()+"@"+baseDir;
+        }
+    }
+
+    /**
+     * The pool's metrics.
+     */
+    public static class Metrics {
+
+        private final AtomicLong boots = new AtomicLong();
+        private final AtomicLong bootTime = new AtomicLong();
+        private final AtomicLong reuses = new AtomicLong();
+        private final AtomicLong reloadTime = new AtomicLong();
+
+        /**
+         *
+         * @return the number of embedded processes booted
+         */
+        public long getBoots() {
+            return boots.get();
+        }
+
+        /**
+         *
+         * @return the total time, in milliseconds, spent booting embedded processes
+         */
+        public long getBootTime() {
+            return bootTime.get();
+        }
+
+        /**
+         *
+         * @return the number of times an embedded process was reused
+         */
+        public long getReuses() {
+            return reuses.get();
+        }
+
+        /**
+         *
+         * @return the total time, in milliseconds, spent reloading reused embedded processes
+         */
+        public long getReloadTime() {
+            return reloadTime.get();
+        }
+
+        @Override
+        public String toString() {
+            return "boots="+getBoots()+", bootTime="+getBootTime()+"ms, reuses="+getReuses()+", reloadTime="+getReloadTime()+"ms";
+        }
+    }
+}
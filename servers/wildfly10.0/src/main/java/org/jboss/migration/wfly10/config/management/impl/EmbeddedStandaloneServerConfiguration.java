@@ -18,6 +18,8 @@ package org.jboss.migration.wfly10.config.management.impl;
 
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.dmr.ModelNode;
 import org.jboss.migration.core.jboss.JBossServerConfiguration;
 import org.jboss.migration.wfly10.WildFlyServer10;
 import org.jboss.migration.wfly10.config.management.DeploymentResource;
@@ -27,17 +29,17 @@ import org.jboss.migration.wfly10.config.task.ServerConfigurationMigration;
 import org.wildfly.core.embedded.EmbeddedProcessFactory;
 import org.wildfly.core.embedded.EmbeddedProcessStartException;
 import org.wildfly.core.embedded.StandaloneServer;
-import org.wildfly.security.manager.WildFlySecurityManager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADMIN_ONLY;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CORE_SERVICE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MANAGEMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RELOAD;
 
 /**
  * @author emmartins
@@ -45,18 +47,16 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAN
 public class EmbeddedStandaloneServerConfiguration extends AbstractManageableServerConfiguration implements StandaloneServerConfiguration {
 
     private final String config;
-    private StandaloneServer standaloneServer;
+    private EmbeddedProcessPool.PooledProcess pooledProcess;
 
     private final DeploymentResourceImpl.Factory deploymentResources;
     private final DeploymentOverlayResourceImpl.Factory deploymentOverlayResources;
     private final ManagementInterfaceResourceImpl.Factory managementInterfaceResources;
     private final SecurityRealmResourceImpl.Factory securityRealmResources;
     private final SubsystemResourceImpl.Factory subsystemResources;
-    private final Map<String, String> propertiesToReset;
 
     public EmbeddedStandaloneServerConfiguration(JBossServerConfiguration configurationPath, WildFlyServer10 server) {
         super("", PathAddress.EMPTY_ADDRESS, configurationPath, server);
-        propertiesToReset = new HashMap<>();
         this.config = configurationPath.getPathRelativeToConfigurationDir().toString();
         deploymentResources = new DeploymentResourceImpl.Factory(getResourcePathAddress(), this);
         addChildResourceFactory(deploymentResources);
@@ -73,32 +73,53 @@ public class EmbeddedStandaloneServerConfiguration extends AbstractManageableSer
 
     @Override
     protected ModelControllerClient startConfiguration() {
+        final EmbeddedProcessPool pool = getServer().getEmbeddedProcessPool();
+        if (getServer().isEmbeddedProcessReuse()) {
+            // reload an idle embedded server with the config
+            final ModelNode reloadOperation = Util.createEmptyOperation(RELOAD, null);
+            reloadOperation.get(ADMIN_ONLY).set(true);
+            reloadOperation.get("server-config").set(config);
+            pooledProcess = pool.acquire(JBossServerConfiguration.Type.STANDALONE, reloadOperation);
+            if (pooledProcess != null) {
+                return pooledProcess.getModelControllerClient();
+            }
+        }
         final List<String> cmds = new ArrayList<>();
         cmds.add("--server-config="+config);
         cmds.add("--admin-only");
         cmds.add("-Dorg.wildfly.logging.embedded=false");
+        final Map<String, Object> systemProperties = new HashMap<>();
         if (!getServer().getEnvironment().isDefaultStandaloneServerDir()) {
-            setSystemProperty("jboss.server.base.dir", getServer().getStandaloneDir());
+            systemProperties.put("jboss.server.base.dir", getServer().getStandaloneDir());
         }
         if (!getServer().getEnvironment().isDefaultStandaloneConfigDir()) {
-            setSystemProperty("jboss.server.config.dir", getServer().getStandaloneConfigurationDir());
+            systemProperties.put("jboss.server.config.dir", getServer().getStandaloneConfigurationDir());
+        }
+        final EmbeddedProcessEnvironment processEnvironment = new EmbeddedProcessEnvironment();
+        try {
+            // concurrent embedded processes of other target servers may use the same properties
+            processEnvironment.setSystemProperties(systemProperties);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagementOperationException(e);
         }
         final String[] systemPackages = {"org.jboss.logmanager"};
-        standaloneServer = EmbeddedProcessFactory.createStandaloneServer(getServer().getBaseDir().toString(), null, systemPackages, cmds.toArray(new String[cmds.size()]));
+        final StandaloneServer standaloneServer = EmbeddedProcessEnvironment.createProcess(() -> EmbeddedProcessFactory.createStandaloneServer(getServer().getBaseDir().toString(), null, systemPackages, cmds.toArray(new String[cmds.size()])));
         try {
-            standaloneServer.start();
+            pooledProcess = pool.boot(JBossServerConfiguration.Type.STANDALONE, standaloneServer, processEnvironment);
         } catch (EmbeddedProcessStartException e) {
+            processEnvironment.resetSystemProperties();
             throw new ManagementOperationException(e);
         }
-        return standaloneServer.getModelControllerClient();
+        return pooledProcess.getModelControllerClient();
     }
 
     @Override
     protected void stopConfiguration() {
         writeConfiguration();
-        standaloneServer.stop();
-        standaloneServer = null;
-        resetProperties();
+        final EmbeddedProcessPool.PooledProcess pooledProcess = this.pooledProcess;
+        this.pooledProcess = null;
+        getServer().getEmbeddedProcessPool().release(pooledProcess, getServer().isEmbeddedProcessReuse());
     }
 
     @Override
@@ -132,25 +153,4 @@ public class EmbeddedStandaloneServerConfiguration extends AbstractManageableSer
             return new EmbeddedStandaloneServerConfiguration(configurationPath, server);
         }
     }
-
-    private void setSystemProperty(final String name, final Object value) {
-        if (value != null) {
-            final String currentValue = WildFlySecurityManager.getPropertyPrivileged(name, null);
-            WildFlySecurityManager.setPropertyPrivileged(name, value.toString());
-            propertiesToReset.put(name, currentValue);
-        }
-    }
-
-    private void resetProperties() {
-        final Iterator<Map.Entry<String, String>> iterator = propertiesToReset.entrySet().iterator();
-        while (iterator.hasNext()) {
-            final Map.Entry<String, String> entry = iterator.next();
-            if (entry.getValue() == null) {
-                WildFlySecurityManager.clearPropertyPrivileged(entry.getKey());
-            } else {
-                WildFlySecurityManager.setPropertyPrivileged(entry.getKey(), entry.getValue());
-            }
-            iterator.remove();
-        }
-    }
 }
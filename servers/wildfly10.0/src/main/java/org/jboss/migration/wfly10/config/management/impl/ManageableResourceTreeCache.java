@@ -0,0 +1,371 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.management.impl;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.dmr.ModelNode;
+import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
+import org.jboss.migration.wfly10.config.management.ManagementOperationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
+
+/**
+ * A cache of the children names of a server configuration's resources.
+ *
+ * The children of a resource, for all child types, are read with a single composite op, and several resources may be read in one batch. The cache also holds the results of resource queries, i.e. the resources matching addresses with wildcard values, and the prefetched configurations of resources, which are retrieved once. Cached entries are invalidated by the write ops executed through {@link ManageableServerConfiguration#executeManagementOperation(ModelNode)}. Children read while a write op is executed, e.g. asynchronously, are not cached, since these may be outdated.
+ *
+ * If the cache has an offline model, which is kept up to date by the ops it executes, the children modelled are retrieved from it instead.
+ * @author emmartins
+ */
+public class ManageableResourceTreeCache {
+
+    private static final String RESOLVE_EXPRESSION_OPERATION = "resolve-expression";
+
+    private final ManageableServerConfiguration serverConfiguration;
+    private final Map<PathAddress, Map<String, Set<String>>> children;
+    private final Map<PathAddress, Set<PathAddress>> queries;
+    private final Map<PathAddress, CompletableFuture<ModelNode>> configurations;
+    private volatile OfflineManagementModel offlineModel;
+    // incremented by each write op, so that children read before the write are not cached after it
+    private final AtomicLong version = new AtomicLong();
+
+    public ManageableResourceTreeCache(ManageableServerConfiguration serverConfiguration) {
+        this.serverConfiguration = serverConfiguration;
+        this.children = new ConcurrentHashMap<>();
+        this.queries = new ConcurrentHashMap<>();
+        this.configurations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Retrieves the names of the children, with the specified type, of the resource with the specified address.
+     * @param address the resource's address
+     * @param childType the children type
+     * @return the names of the children
+     * @throws ManagementOperationException if the resource does not exists, or the children could not be read
+     */
+    public Set<String> getChildrenNames(PathAddress address, String childType) throws ManagementOperationException {
+        Map<String, Set<String>> resourceChildren = children.get(address);
+        if (resourceChildren == null) {
+            final OfflineManagementModel offlineModel = this.offlineModel;
+            if (offlineModel != null) {
+                final Set<String> names = offlineModel.getChildrenNames(address, childType);
+                if (names != null) {
+                    return new HashSet<>(names);
+                }
+            }
+            resourceChildren = readChildren(Collections.singletonList(address)).get(address);
+        }
+        final Set<String> names = resourceChildren.get(childType);
+        return names != null ? new HashSet<>(names) : new HashSet<>();
+    }
+
+    /**
+     * Retrieves asynchronously the names of the children, with the specified type, of the resource with the specified address.
+     * @param address the resource's address
+     * @param childType the children type
+     * @return the future names of the children
+     */
+    public CompletableFuture<Set<String>> getChildrenNamesAsync(PathAddress address, String childType) {
+        if (offlineModel != null || children.containsKey(address)) {
+            // retrieved without executing management ops
+            return CompletableFuture.supplyAsync(() -> getChildrenNames(address, childType), Runnable::run);
+        }
+        final List<PathAddress> addresses = Collections.singletonList(address);
+        final long readVersion = version.get();
+        return serverConfiguration.executeManagementOperationAsync(getReadChildrenOperation(addresses)).thenApply(result -> {
+            final Set<String> names = putChildren(addresses, result.get(RESULT), readVersion).get(address).get(childType);
+            return names != null ? new HashSet<>(names) : new HashSet<>();
+        });
+    }
+
+    /**
+     * Reads, in a single batch, the children of the specified resources which are not cached yet.
+     * @param addresses the resources' addresses
+     */
+    public void prefetch(Collection<PathAddress> addresses) {
+        if (offlineModel != null) {
+            // children are retrieved from the offline model, reading these would boot the configuration
+            return;
+        }
+        final List<PathAddress> missing = new ArrayList<>();
+        for (PathAddress address : addresses) {
+            if (!children.containsKey(address)) {
+                missing.add(address);
+            }
+        }
+        if (missing.size() > 1) {
+            try {
+                readChildren(missing);
+            } catch (ManagementOperationException e) {
+                // ignore, each resource will be read when needed
+            }
+        }
+    }
+
+    /**
+     * Retrieves the addresses of the existent resources matching each of the specified addresses, which may have wildcard values, e.g. /profile=* /subsystem=jgroups. The queries not cached are read with a single composite op.
+     * @param addresses the addresses to match
+     * @return the addresses of the resources matching each of the specified addresses, or null if the cache has an offline model, which should be navigated instead, to not boot the configuration
+     * @throws ManagementOperationException if the resources could not be read
+     */
+    public Map<PathAddress, Set<PathAddress>> query(Collection<PathAddress> addresses) throws ManagementOperationException {
+        if (offlineModel != null) {
+            return null;
+        }
+        final Map<PathAddress, Set<PathAddress>> result = new HashMap<>();
+        final List<PathAddress> missing = new ArrayList<>();
+        for (PathAddress address : addresses) {
+            final Set<PathAddress> matches = queries.get(address);
+            if (matches != null) {
+                result.put(address, matches);
+            } else {
+                missing.add(address);
+            }
+        }
+        if (!missing.isEmpty()) {
+            final Operations.CompositeOperationBuilder compositeOperationBuilder = Operations.CompositeOperationBuilder.create();
+            for (PathAddress address : missing) {
+                compositeOperationBuilder.addStep(Util.createEmptyOperation(READ_RESOURCE_OPERATION, address));
+            }
+            final ModelNode opResult = serverConfiguration.executeManagementOperation(compositeOperationBuilder.build().getOperation()).get(RESULT);
+            int step = 0;
+            for (PathAddress address : missing) {
+                final ModelNode stepResult = opResult.get("step-" + (++step)).get(RESULT);
+                final Set<PathAddress> matches = new HashSet<>();
+                if (stepResult.isDefined()) {
+                    // the result of a read with a wildcard address is a list, with the address and result of each resource matched
+                    for (ModelNode match : stepResult.asList()) {
+                        if (SUCCESS.equals(match.get(OUTCOME).asString())) {
+                            matches.add(PathAddress.pathAddress(match.get(ADDRESS)));
+                        }
+                    }
+                }
+                queries.put(address, Collections.unmodifiableSet(matches));
+                result.put(address, Collections.unmodifiableSet(matches));
+            }
+        }
+        return result;
+    }
+
+    private Map<PathAddress, Map<String, Set<String>>> readChildren(List<PathAddress> addresses) throws ManagementOperationException {
+        final ModelNode result = serverConfiguration.executeManagementOperation(getReadChildrenOperation(addresses)).get(RESULT);
+        // the read executes after any buffered write op it depends on, and before returning, thus its result is current
+        return putChildren(addresses, result, version.get());
+    }
+
+    private static ModelNode getReadChildrenOperation(List<PathAddress> addresses) {
+        final Operations.CompositeOperationBuilder compositeOperationBuilder = Operations.CompositeOperationBuilder.create();
+        for (PathAddress address : addresses) {
+            compositeOperationBuilder.addStep(Util.createEmptyOperation(READ_CHILDREN_TYPES_OPERATION, address));
+            compositeOperationBuilder.addStep(Util.createEmptyOperation(READ_RESOURCE_OPERATION, address));
+        }
+        return compositeOperationBuilder.build().getOperation();
+    }
+
+    /**
+     * Puts the children read, unless a write op was executed since the read was issued.
+     * @param addresses the resources' addresses
+     * @param result the result of the read op
+     * @param readVersion the cache's version when the read op was issued
+     * @return the children read
+     */
+    private Map<PathAddress, Map<String, Set<String>>> putChildren(List<PathAddress> addresses, ModelNode result, long readVersion) {
+        final Map<PathAddress, Map<String, Set<String>>> resourcesChildren = new HashMap<>();
+        int step = 0;
+        for (PathAddress address : addresses) {
+            final ModelNode childTypes = result.get("step-" + (++step)).get(RESULT);
+            final ModelNode resource = result.get("step-" + (++step)).get(RESULT);
+            final Map<String, Set<String>> resourceChildren = new HashMap<>();
+            for (ModelNode childType : childTypes.asList()) {
+                final String childTypeName = childType.asString();
+                final Set<String> names = new HashSet<>();
+                if (resource.hasDefined(childTypeName)) {
+                    names.addAll(resource.get(childTypeName).keys());
+                }
+                resourceChildren.put(childTypeName, Collections.unmodifiableSet(names));
+            }
+            if (version.get() == readVersion) {
+                children.put(address, resourceChildren);
+                if (version.get() != readVersion) {
+                    // invalidated concurrently, after the check
+                    children.remove(address, resourceChildren);
+                }
+            }
+            resourcesChildren.put(address, resourceChildren);
+        }
+        return resourcesChildren;
+    }
+
+    /**
+     * Puts the prefetched configuration of a resource, which is retrieved once, unless invalidated before by a write op.
+     * @param address the resource's address
+     * @param configuration the future configuration of the resource
+     */
+    public void putResourceConfiguration(PathAddress address, CompletableFuture<ModelNode> configuration) {
+        configurations.put(address, configuration);
+    }
+
+    /**
+     * Retrieves, and removes from the cache, the prefetched configuration of a resource.
+     * @param address the resource's address
+     * @return the future configuration of the resource, null if not prefetched, or invalidated
+     */
+    public CompletableFuture<ModelNode> takeResourceConfiguration(PathAddress address) {
+        return configurations.isEmpty() ? null : configurations.remove(address);
+    }
+
+    /**
+     * Discards the prefetched configurations not retrieved yet, e.g. due to skipped subtasks.
+     */
+    public void discardResourceConfigurations() {
+        configurations.clear();
+    }
+
+    /**
+     * Invalidates the cached entries which may be affected by the specified operation.
+     * @param operation the operation executed
+     */
+    public void invalidate(ModelNode operation) {
+        writeOperationExecuted(operation);
+        if (children.isEmpty() && queries.isEmpty() && configurations.isEmpty()) {
+            return;
+        }
+        final String operationName = operation.get(OP).asString();
+        if (COMPOSITE.equals(operationName)) {
+            for (ModelNode step : operation.get(STEPS).asList()) {
+                invalidate(step);
+            }
+        } else if (operationName.startsWith("read-") || RESOLVE_EXPRESSION_OPERATION.equals(operationName)) {
+            // read only
+        } else {
+            final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+            invalidateResourceConfigurations(address);
+            if (ADD.equals(operationName) || REMOVE.equals(operationName)) {
+                invalidateTree(address);
+                invalidateQueries(address);
+                if (address.size() > 0) {
+                    children.remove(address.getParent());
+                }
+            } else if (WRITE_ATTRIBUTE_OPERATION.equals(operationName) || UNDEFINE_ATTRIBUTE_OPERATION.equals(operationName)) {
+                children.remove(address);
+            } else {
+                // unknown op, may change any resource
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Updates the cached entries affected by the specified operation, which succeeded. Unlike {@link #invalidate(ModelNode)} the children names of an added or removed resource's parent are updated, instead of removed from the cache.
+     * @param operation the operation executed
+     */
+    public void update(ModelNode operation) {
+        writeOperationExecuted(operation);
+        if (children.isEmpty() && queries.isEmpty() && configurations.isEmpty()) {
+            return;
+        }
+        final String operationName = operation.get(OP).asString();
+        if (COMPOSITE.equals(operationName)) {
+            for (ModelNode step : operation.get(STEPS).asList()) {
+                update(step);
+            }
+        } else if (ADD.equals(operationName) || REMOVE.equals(operationName)) {
+            final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+            if (address.size() == 0) {
+                clear();
+                return;
+            }
+            invalidateTree(address);
+            invalidateQueries(address);
+            invalidateResourceConfigurations(address);
+            final PathElement element = address.getLastElement();
+            children.computeIfPresent(address.getParent(), (parentAddress, parentChildren) -> {
+                final Set<String> names = parentChildren.get(element.getKey());
+                if (names == null) {
+                    // unknown child type
+                    return null;
+                }
+                final Set<String> updatedNames = new HashSet<>(names);
+                if (ADD.equals(operationName)) {
+                    updatedNames.add(element.getValue());
+                } else {
+                    updatedNames.remove(element.getValue());
+                }
+                final Map<String, Set<String>> updatedParentChildren = new HashMap<>(parentChildren);
+                updatedParentChildren.put(element.getKey(), Collections.unmodifiableSet(updatedNames));
+                return updatedParentChildren;
+            });
+        } else {
+            invalidate(operation);
+        }
+    }
+
+    private void invalidateTree(PathAddress address) {
+        children.keySet().removeIf(cachedAddress -> cachedAddress.size() >= address.size() && cachedAddress.subAddress(0, address.size()).equals(address));
+    }
+
+    private void invalidateQueries(PathAddress address) {
+        // the resources added or removed may be matched by queries with such address, or with descendant addresses
+        queries.keySet().removeIf(query -> ManagementOperationsBatch.isPrefix(address, query));
+    }
+
+    private void invalidateResourceConfigurations(PathAddress address) {
+        if (!configurations.isEmpty()) {
+            // the configurations are read recursively, thus affected by writes on the resource, its parents, or its descendants
+            configurations.keySet().removeIf(configuration -> ManagementOperationsBatch.isPrefix(address, configuration) || ManagementOperationsBatch.isPrefix(configuration, address));
+        }
+    }
+
+    private void writeOperationExecuted(ModelNode operation) {
+        if (!ManagementOperationsBatch.isReadOnly(operation)) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Sets the cache's offline model.
+     * @param offlineModel the model of the configuration's XML file, null if the configuration is no longer managed by an offline model
+     */
+    void setOfflineModel(OfflineManagementModel offlineModel) {
+        this.offlineModel = offlineModel;
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        version.incrementAndGet();
+        children.clear();
+        queries.clear();
+        configurations.clear();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.management.impl;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
+
+/**
+ * The write operations buffered by a server configuration's operations batch.
+ *
+ * Each thread has its own batch, thus tasks executed concurrently never buffer their operations in, or flush, the batch of another task. A batch begun by a task is not visible to the subtasks it executes in other threads, which operations are thus executed immediately.
+ *
+ * A read operation only requires the buffered operations to be executed first if it may read the resources these change, which allows resource checks, such as resource existence, to be done through the resource tree cache, without flushing the batch.
+ * @author emmartins
+ */
+class ManagementOperationsBatch {
+
+    private static final Set<String> READ_ONLY_OPERATIONS = new HashSet<>(Arrays.asList("resolve-expression", "query", "whoami", "validate-address", "validate-operation"));
+    private static final Set<String> ADDRESSED_WRITE_OPERATIONS = new HashSet<>(Arrays.asList(ADD, REMOVE, WRITE_ATTRIBUTE_OPERATION, UNDEFINE_ATTRIBUTE_OPERATION, "map-put", "map-remove", "map-clear", "list-add", "list-remove", "list-clear"));
+    private static final int ALL_RESOURCES = -1;
+
+    private final List<ModelNode> operations = new ArrayList<>();
+    private int depth;
+
+    void begin() {
+        depth++;
+    }
+
+    /**
+     *
+     * @return true if the outermost batch ended, false otherwise
+     */
+    boolean end() {
+        if (depth == 0) {
+            throw new IllegalStateException("operations batch not started");
+        }
+        return --depth == 0;
+    }
+
+    boolean isActive() {
+        return depth > 0;
+    }
+
+    void add(ModelNode operation) {
+        operations.add(operation.clone());
+    }
+
+    /**
+     * Removes all buffered operations.
+     * @return the operations removed, in the order these were added
+     */
+    List<ModelNode> drain() {
+        final List<ModelNode> result = new ArrayList<>(operations);
+        operations.clear();
+        return result;
+    }
+
+    /**
+     * Indicates if the specified read operation may read resources changed by the buffered operations.
+     * @param readOperation the read operation
+     * @return true if the buffered operations should be executed before the read operation, false otherwise
+     */
+    boolean isAffectedBy(ModelNode readOperation) {
+        if (operations.isEmpty()) {
+            return false;
+        }
+        if (COMPOSITE.equals(readOperation.get(OP).asString())) {
+            for (ModelNode step : readOperation.get(STEPS).asList()) {
+                if (isAffectedBy(step)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        final int readDepth = getReadDepth(readOperation);
+        final PathAddress readAddress = PathAddress.pathAddress(readOperation.get(OP_ADDR));
+        for (ModelNode operation : operations) {
+            if (readDepth == ALL_RESOURCES || !ADDRESSED_WRITE_OPERATIONS.contains(operation.get(OP).asString())) {
+                return true;
+            }
+            final PathAddress writeAddress = PathAddress.pathAddress(operation.get(OP_ADDR));
+            if (isPrefix(writeAddress, readAddress)) {
+                // write on the read resource, or on one of its parents
+                return true;
+            }
+            if (isPrefix(readAddress, writeAddress) && writeAddress.size() - readAddress.size() <= readDepth) {
+                // write on a child visible to the read
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int getReadDepth(ModelNode readOperation) {
+        final String operationName = readOperation.get(OP).asString();
+        if (!operationName.startsWith("read-")) {
+            return ALL_RESOURCES;
+        }
+        if (readOperation.get(RECURSIVE).asBoolean(false) || readOperation.hasDefined(RECURSIVE_DEPTH)) {
+            return Integer.MAX_VALUE;
+        }
+        return READ_CHILDREN_RESOURCES_OPERATION.equals(operationName) ? 2 : 1;
+    }
+
+    /**
+     * Indicates if an address is a prefix of another address, wildcard values matching any value.
+     * @param prefix the prefix address
+     * @param address the address
+     * @return true if prefix is a prefix of address, false otherwise
+     */
+    static boolean isPrefix(PathAddress prefix, PathAddress address) {
+        if (prefix.size() > address.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            final PathElement prefixElement = prefix.getElement(i);
+            final PathElement element = address.getElement(i);
+            if (!prefixElement.getKey().equals(element.getKey())) {
+                return false;
+            }
+            if (!prefixElement.isWildcard() && !element.isWildcard() && !prefixElement.getValue().equals(element.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indicates if the specified operation is read only, and thus should not be buffered.
+     * @param operation the operation
+     * @return true if the operation is read only, false otherwise
+     */
+    static boolean isReadOnly(ModelNode operation) {
+        final String operationName = operation.get(OP).asString();
+        if (COMPOSITE.equals(operationName)) {
+            for (ModelNode step : operation.get(STEPS).asList()) {
+                if (!isReadOnly(step)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return operationName.startsWith("read-") || READ_ONLY_OPERATIONS.contains(operationName);
+    }
+}
@@ -0,0 +1,847 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.migration.wfly10.config.management.impl;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ValueExpression;
+import org.jboss.migration.core.jboss.Extension;
+import org.jboss.migration.core.jboss.JBossServer;
+import org.jboss.migration.core.jboss.Subsystem;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
+
+/**
+ * A management model of a standalone server or domain configuration, backed by the configuration's XML file, which executes some management operations without booting an embedded process.
+ *
+ * The model executes the read-children-names, read-resource, read-attribute, add, remove, write-attribute and undefine-attribute ops, and composites of these, only on resources which the XML file fully describes, and only if the ops do not require validations which only the server can do: the extensions known by the target server may be read, but not recursively, added, and removed if none of their subsystems is in the configuration, the system properties may be read, added, removed and written, and the socket bindings may be read, added and written, but not removed, since subsystems may reference these. The names of the interfaces, socket binding groups, deployments, deployment overlays, profiles, server groups, and of the subsystems known by the target server are also read. Any other op is not executed by the model, and should be executed by an embedded process instead, after the model is written back to the XML file. When written back the XML file keeps its comments and whitespace, yet the attributes of each element may be written in a different order.
+ * @author emmartins
+ */
+class OfflineManagementModel {
+
+    private static final String DOMAIN_NAMESPACE_PREFIX = "urn:jboss:domain:";
+
+    private static final Set<String> SYSTEM_PROPERTY_ATTRIBUTES = Collections.singleton(VALUE);
+    private static final Set<String> DOMAIN_SYSTEM_PROPERTY_ATTRIBUTES = new HashSet<>(Arrays.asList(VALUE, BOOT_TIME));
+    private static final Set<String> SOCKET_BINDING_ATTRIBUTES = new HashSet<>(Arrays.asList(INTERFACE, PORT, FIXED_PORT, MULTICAST_ADDRESS, MULTICAST_PORT));
+    // the socket binding attributes which are read but not written, the client mappings are only read if not defined
+    private static final Set<String> SOCKET_BINDING_READ_ONLY_ATTRIBUTES = new HashSet<>(Arrays.asList(NAME, CLIENT_MAPPINGS));
+    // the params every op may have, and which do not affect the op's execution
+    private static final Set<String> COMMON_PARAMS = new HashSet<>(Arrays.asList(OP, OP_ADDR, OPERATION_HEADERS));
+
+    private final JBossServer.Extensions extensions;
+    private final boolean domain;
+    // guarded by this
+    private Document document;
+    private boolean modified;
+    private boolean closed;
+
+    private OfflineManagementModel(Document document, boolean domain, JBossServer.Extensions extensions) {
+        this.document = document;
+        this.domain = domain;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Reads the model of a standalone server or domain configuration.
+     * @param xmlFile the configuration's XML file
+     * @param extensions the extensions known by the target server, which subsystems may be identified and extensions managed by the model
+     * @return the model read, or null if the XML file is not a standalone server or domain configuration
+     * @throws IOException if the XML file could not be read or parsed
+     */
+    static OfflineManagementModel read(Path xmlFile, JBossServer.Extensions extensions) throws IOException {
+        final Document document;
+        try (InputStream inputStream = Files.newInputStream(xmlFile)) {
+            final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+            documentBuilderFactory.setNamespaceAware(true);
+            documentBuilderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            documentBuilderFactory.setExpandEntityReferences(false);
+            document = documentBuilderFactory.newDocumentBuilder().parse(inputStream);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Failed to parse "+xmlFile, e);
+        }
+        final Element root = document.getDocumentElement();
+        final String namespaceURI = root.getNamespaceURI();
+        if (namespaceURI == null || !namespaceURI.startsWith(DOMAIN_NAMESPACE_PREFIX)) {
+            return null;
+        }
+        switch (root.getLocalName()) {
+            case "server":
+                return new OfflineManagementModel(document, false, extensions);
+            case "domain":
+                return new OfflineManagementModel(document, true, extensions);
+            default:
+                // a host configuration
+                return null;
+        }
+    }
+
+    /**
+     * Retrieves the names of the children, with the specified type, of the resource with the specified address.
+     * @param address the resource's address
+     * @param childType the children type
+     * @return the names of the children, or null if such children are not modelled, or the model is closed
+     */
+    synchronized Set<String> getChildrenNames(PathAddress address, String childType) {
+        if (closed) {
+            return null;
+        }
+        try {
+            final Element resource = getResource(address);
+            if (resource == null) {
+                return null;
+            }
+            return getChildrenNames(getChildren(resource, address, childType), childType);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executes a management operation.
+     * @param operation the operation to execute
+     * @return the operation's result, which outcome may be failed, or null if the operation is not supported by the model, or the model is closed
+     */
+    synchronized ModelNode execute(ModelNode operation) {
+        if (closed) {
+            return null;
+        }
+        try {
+            if (COMPOSITE.equals(operation.get(OP).asString())) {
+                return executeComposite(operation);
+            }
+            final ModelNode result = new ModelNode();
+            final String failure = executeStep(operation, result.get(RESULT));
+            return failure == null ? success(result) : failed(failure);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private ModelNode executeComposite(ModelNode operation) {
+        checkParams(operation, STEPS);
+        final List<ModelNode> steps = operation.get(STEPS).asList();
+        // the steps are rolled back, if any fails, by restoring a copy of the model
+        final Document backup = (Document) document.cloneNode(true);
+        final boolean backupModified = modified;
+        final ModelNode result = new ModelNode();
+        try {
+            for (int i = 0; i < steps.size(); i++) {
+                final String step = "step-" + (i + 1);
+                final ModelNode stepResult = new ModelNode();
+                final String failure = executeStep(steps.get(i), stepResult.get(RESULT));
+                if (failure != null) {
+                    document = backup;
+                    modified = backupModified;
+                    final ModelNode failedResult = failed(null);
+                    failedResult.get(FAILURE_DESCRIPTION).get("WFLYCTL0062: Composite operation failed and was rolled back. Steps that failed:").get("Operation " + step).set(failure);
+                    return failedResult;
+                }
+                result.get(RESULT).get(step).set(success(stepResult));
+            }
+        } catch (UnsupportedOperationException e) {
+            document = backup;
+            modified = backupModified;
+            throw e;
+        }
+        return success(result);
+    }
+
+    /**
+     *
+     * @return the failure description, or null if the step succeeded
+     * @throws UnsupportedOperationException if the step is not supported
+     */
+    private String executeStep(ModelNode operation, ModelNode result) throws UnsupportedOperationException {
+        final String operationName = operation.get(OP).asString();
+        final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+        switch (operationName) {
+            case READ_CHILDREN_NAMES_OPERATION: {
+                checkParams(operation, CHILD_TYPE);
+                final String childType = operation.get(CHILD_TYPE).asString();
+                final Element resource = getResource(address);
+                if (resource == null) {
+                    return resourceNotFound(address);
+                }
+                final Set<String> names = getChildrenNames(getChildren(resource, address, childType), childType);
+                if (names == null) {
+                    throw new UnsupportedOperationException();
+                }
+                result.setEmptyList();
+                for (String name : names) {
+                    result.add(name);
+                }
+                return null;
+            }
+            case READ_RESOURCE_OPERATION: {
+                checkParams(operation, RECURSIVE, INCLUDE_DEFAULTS);
+                final boolean recursive = operation.hasDefined(RECURSIVE) && operation.get(RECURSIVE).asBoolean();
+                final ModelNode resource = readResource(address, recursive, isIncludeDefaults(operation));
+                if (resource == null) {
+                    return resourceNotFound(address);
+                }
+                result.set(resource);
+                return null;
+            }
+            case READ_ATTRIBUTE_OPERATION: {
+                checkParams(operation, NAME, INCLUDE_DEFAULTS);
+                final ModelNode attributes = readAttributes(address, isIncludeDefaults(operation));
+                if (attributes == null) {
+                    return resourceNotFound(address);
+                }
+                final String attribute = operation.get(NAME).asString();
+                if (!attributes.has(attribute)) {
+                    // e.g. a child type, or a runtime attribute
+                    throw new UnsupportedOperationException();
+                }
+                result.set(attributes.get(attribute));
+                return null;
+            }
+            case ADD:
+                return add(operation, address);
+            case REMOVE:
+                checkParams(operation);
+                return remove(address);
+            case WRITE_ATTRIBUTE_OPERATION:
+                checkParams(operation, NAME, VALUE);
+                return writeAttribute(address, operation.get(NAME).asString(), operation.get(VALUE));
+            case UNDEFINE_ATTRIBUTE_OPERATION:
+                checkParams(operation, NAME);
+                return writeAttribute(address, operation.get(NAME).asString(), new ModelNode());
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private static boolean isIncludeDefaults(ModelNode operation) {
+        return !operation.hasDefined(INCLUDE_DEFAULTS) || operation.get(INCLUDE_DEFAULTS).asBoolean();
+    }
+
+    /**
+     *
+     * @return the resource's attributes and, if the resource has children, the names of these, or null if there is no such resource
+     * @throws UnsupportedOperationException if the resource, or the recursive read of its children, is not modelled
+     */
+    private ModelNode readResource(PathAddress address, boolean recursive, boolean includeDefaults) throws UnsupportedOperationException {
+        final ModelNode resource = readAttributes(address, includeDefaults);
+        if (resource == null) {
+            return null;
+        }
+        if (address.getLastElement().getKey().equals(EXTENSION)) {
+            if (recursive) {
+                // the attributes of the extension's subsystems are defined by the extension's module
+                throw new UnsupportedOperationException();
+            }
+            final Set<String> subsystemNames = extensions.getExtension(address.getLastElement().getValue()).getSubsystemNames();
+            if (subsystemNames.isEmpty()) {
+                resource.get(SUBSYSTEM);
+            } else {
+                for (String subsystemName : subsystemNames) {
+                    resource.get(SUBSYSTEM).get(subsystemName);
+                }
+            }
+        }
+        // system properties and socket bindings have no children, their recursive read is the same
+        return resource;
+    }
+
+    /**
+     *
+     * @return the resource's attributes, or null if there is no such resource
+     * @throws UnsupportedOperationException if the resource's attributes are not modelled
+     */
+    private ModelNode readAttributes(PathAddress address, boolean includeDefaults) throws UnsupportedOperationException {
+        if (address.size() == 0) {
+            throw new UnsupportedOperationException();
+        }
+        final PathElement element = address.getLastElement();
+        final Set<String> attributes;
+        switch (element.getKey()) {
+            case EXTENSION:
+                if (extensions.getExtension(element.getValue()) == null) {
+                    // the extension's subsystems are unknown
+                    throw new UnsupportedOperationException();
+                }
+                attributes = Collections.singleton(MODULE);
+                break;
+            case SYSTEM_PROPERTY:
+                attributes = getSystemPropertyAttributes();
+                break;
+            case SOCKET_BINDING:
+                attributes = SOCKET_BINDING_ATTRIBUTES;
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+        final Element resource = getResource(address);
+        if (resource == null) {
+            return null;
+        }
+        final ModelNode result = new ModelNode();
+        for (String attribute : attributes) {
+            result.get(attribute).set(readAttribute(resource, attribute, includeDefaults));
+        }
+        if (element.getKey().equals(SOCKET_BINDING)) {
+            if (getFirstChildElement(resource) != null) {
+                // the client mappings
+                throw new UnsupportedOperationException();
+            }
+            for (String attribute : SOCKET_BINDING_READ_ONLY_ATTRIBUTES) {
+                result.get(attribute).set(readAttribute(resource, attribute, includeDefaults));
+            }
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return the attribute's value, typed as the server would, and if not defined its default value, if any and included
+     * @throws UnsupportedOperationException if the attribute's value is not valid
+     */
+    private static ModelNode readAttribute(Element resource, String attribute, boolean includeDefaults) throws UnsupportedOperationException {
+        final ModelNode value = new ModelNode();
+        final String stringValue = getAttribute(resource, attribute);
+        if (stringValue == null) {
+            if (includeDefaults) {
+                switch (attribute) {
+                    case PORT:
+                        value.set(0);
+                        break;
+                    case FIXED_PORT:
+                        value.set(false);
+                        break;
+                    case BOOT_TIME:
+                        value.set(true);
+                        break;
+                }
+            }
+            return value;
+        }
+        if (stringValue.contains("${")) {
+            return value.set(new ValueExpression(stringValue));
+        }
+        switch (attribute) {
+            case PORT:
+            case MULTICAST_PORT:
+                try {
+                    return value.set(Integer.parseInt(stringValue));
+                } catch (NumberFormatException e) {
+                    // the server fails to boot such configuration
+                    throw new UnsupportedOperationException();
+                }
+            case FIXED_PORT:
+            case BOOT_TIME:
+                return value.set(Boolean.parseBoolean(stringValue));
+            default:
+                return value.set(stringValue);
+        }
+    }
+
+    private String add(ModelNode operation, PathAddress address) {
+        if (address.size() == 0) {
+            throw new UnsupportedOperationException();
+        }
+        final PathElement element = address.getLastElement();
+        final PathAddress parentAddress = address.subAddress(0, address.size() - 1);
+        final Element parent = getResource(parentAddress);
+        if (parent == null) {
+            return resourceNotFound(parentAddress);
+        }
+        final List<Element> siblings = getChildren(parent, parentAddress, element.getKey());
+        if (getChild(siblings, element) != null) {
+            return "WFLYCTL0212: Duplicate resource " + address;
+        }
+        final Element container;
+        final Element resource;
+        switch (element.getKey()) {
+            case EXTENSION:
+                if (parentAddress.size() != 0 || extensions.getExtension(element.getValue()) == null) {
+                    // the extension's module may not be installed
+                    throw new UnsupportedOperationException();
+                }
+                checkParams(operation);
+                container = getChildElement(parent, "extensions");
+                resource = createElement("extension");
+                resource.setAttribute(MODULE, element.getValue());
+                break;
+            case SYSTEM_PROPERTY:
+                checkParams(operation, getSystemPropertyAttributes());
+                container = getChildElement(parent, "system-properties");
+                resource = createElement("property");
+                resource.setAttribute(NAME, element.getValue());
+                break;
+            case SOCKET_BINDING:
+                checkParams(operation, SOCKET_BINDING_ATTRIBUTES);
+                container = parent;
+                resource = createElement("socket-binding");
+                resource.setAttribute(NAME, element.getValue());
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+        if (container == null) {
+            // the container's position in the XML depends on the schema
+            throw new UnsupportedOperationException();
+        }
+        for (String attribute : operation.keys()) {
+            if (!COMMON_PARAMS.contains(attribute)) {
+                final String failure = setAttribute(resource, element.getKey(), attribute, operation.get(attribute));
+                if (failure != null) {
+                    return failure;
+                }
+            }
+        }
+        insertChild(container, resource, siblings);
+        modified = true;
+        return null;
+    }
+
+    private String remove(PathAddress address) {
+        if (address.size() == 0) {
+            throw new UnsupportedOperationException();
+        }
+        final PathElement element = address.getLastElement();
+        switch (element.getKey()) {
+            case EXTENSION:
+                final Extension extension = extensions.getExtension(element.getValue());
+                if (extension == null) {
+                    throw new UnsupportedOperationException();
+                }
+                final Element resource = getResource(address);
+                if (resource == null) {
+                    return resourceNotFound(address);
+                }
+                // an extension in use by a subsystem can't be removed, and a subsystem not identified may be one of the extension's
+                for (Element profile : getProfiles()) {
+                    for (Element subsystem : getChildElements(profile, "subsystem")) {
+                        final String subsystemName = getSubsystemName(subsystem);
+                        if (subsystemName == null) {
+                            throw new UnsupportedOperationException();
+                        }
+                        if (extension.getSubsystemNames().contains(subsystemName)) {
+                            return "WFLYCTL0171: Removing extension '" + element.getValue() + "' is not allowed since it is still used by subsystem '" + subsystemName + "'";
+                        }
+                    }
+                }
+                removeChild(resource);
+                break;
+            case SYSTEM_PROPERTY:
+                final Element systemProperty = getResource(address);
+                if (systemProperty == null) {
+                    return resourceNotFound(address);
+                }
+                removeChild(systemProperty);
+                break;
+            default:
+                // e.g. a subsystem or a socket binding, which other subsystems may require
+                throw new UnsupportedOperationException();
+        }
+        modified = true;
+        return null;
+    }
+
+    private String writeAttribute(PathAddress address, String attribute, ModelNode value) {
+        if (address.size() == 0) {
+            throw new UnsupportedOperationException();
+        }
+        final String type = address.getLastElement().getKey();
+        final Set<String> attributes;
+        switch (type) {
+            case SYSTEM_PROPERTY:
+                attributes = getSystemPropertyAttributes();
+                break;
+            case SOCKET_BINDING:
+                attributes = SOCKET_BINDING_ATTRIBUTES;
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+        if (!attributes.contains(attribute)) {
+            throw new UnsupportedOperationException();
+        }
+        final Element resource = getResource(address);
+        if (resource == null) {
+            return resourceNotFound(address);
+        }
+        final String failure = setAttribute(resource, type, attribute, value);
+        if (failure == null) {
+            modified = true;
+        }
+        return failure;
+    }
+
+    /**
+     *
+     * @return the failure description, or null if the attribute was set
+     */
+    private String setAttribute(Element resource, String type, String attribute, ModelNode value) {
+        if (!value.isDefined()) {
+            resource.removeAttribute(attribute);
+            return null;
+        }
+        final String stringValue = value.asString();
+        final boolean expression = stringValue.contains("${");
+        switch (attribute) {
+            case PORT:
+            case MULTICAST_PORT:
+                if (!expression) {
+                    try {
+                        final int port = Integer.parseInt(stringValue);
+                        if (port < 0 || port > 65535) {
+                            return "WFLYCTL0117: '" + attribute + "' is an invalid value for parameter " + attribute + ". Values must be in the range 0 to 65535";
+                        }
+                    } catch (NumberFormatException e) {
+                        return "WFLYCTL0097: Wrong type for '" + attribute + "'. Expected INT but was " + stringValue;
+                    }
+                }
+                break;
+            case FIXED_PORT:
+            case BOOT_TIME:
+                if (!expression && !stringValue.equalsIgnoreCase("true") && !stringValue.equalsIgnoreCase("false")) {
+                    return "WFLYCTL0097: Wrong type for '" + attribute + "'. Expected BOOLEAN but was " + stringValue;
+                }
+                break;
+            case INTERFACE:
+                // the interface is a reference, the server checks it exists
+                if (expression) {
+                    throw new UnsupportedOperationException();
+                }
+                if (getChild(getChildren(document.getDocumentElement(), PathAddress.EMPTY_ADDRESS, INTERFACE), PathElement.pathElement(INTERFACE, stringValue)) == null) {
+                    return "WFLYCTL0369: Required capabilities are not available: org.wildfly.network.interface." + stringValue;
+                }
+                break;
+            default:
+                if (!type.equals(SYSTEM_PROPERTY)) {
+                    throw new UnsupportedOperationException();
+                }
+        }
+        resource.setAttribute(attribute, stringValue);
+        return null;
+    }
+
+    private Set<String> getSystemPropertyAttributes() {
+        return domain ? DOMAIN_SYSTEM_PROPERTY_ATTRIBUTES : SYSTEM_PROPERTY_ATTRIBUTES;
+    }
+
+    private static void checkParams(ModelNode operation, String... params) throws UnsupportedOperationException {
+        checkParams(operation, new HashSet<>(Arrays.asList(params)));
+    }
+
+    private static void checkParams(ModelNode operation, Set<String> params) throws UnsupportedOperationException {
+        for (String param : operation.keys()) {
+            if (!COMMON_PARAMS.contains(param) && !params.contains(param)) {
+                // e.g. a recursive read, or an attribute which the server derives from others
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the XML element of the resource with the specified address, or null if there is no such resource
+     * @throws UnsupportedOperationException if the resource is not modelled
+     */
+    private Element getResource(PathAddress address) throws UnsupportedOperationException {
+        Element resource = document.getDocumentElement();
+        for (int i = 0; i < address.size(); i++) {
+            final PathElement element = address.getElement(i);
+            resource = getChild(getChildren(resource, address.subAddress(0, i), element.getKey()), element);
+            if (resource == null) {
+                return null;
+            }
+        }
+        return resource;
+    }
+
+    /**
+     *
+     * @return the XML elements of the resource's children with the specified type
+     * @throws UnsupportedOperationException if such children are not modelled
+     */
+    private List<Element> getChildren(Element resource, PathAddress address, String childType) throws UnsupportedOperationException {
+        if (address.size() == 0) {
+            switch (childType) {
+                case EXTENSION:
+                    return getChildElements(getChildElement(resource, "extensions"), "extension");
+                case SYSTEM_PROPERTY:
+                    return getChildElements(getChildElement(resource, "system-properties"), "property");
+                case INTERFACE:
+                    return getChildElements(getChildElement(resource, "interfaces"), "interface");
+                case DEPLOYMENT:
+                    return getChildElements(getChildElement(resource, "deployments"), "deployment");
+                case DEPLOYMENT_OVERLAY:
+                    return getChildElements(getChildElement(resource, "deployment-overlays"), "deployment-overlay");
+                case SOCKET_BINDING_GROUP:
+                    return domain ? getChildElements(getChildElement(resource, "socket-binding-groups"), "socket-binding-group") : getChildElements(resource, "socket-binding-group");
+                case SUBSYSTEM:
+                    if (!domain) {
+                        return getChildElements(getChildElement(resource, "profile"), "subsystem");
+                    }
+                    break;
+                case PROFILE:
+                    if (domain) {
+                        return getChildElements(getChildElement(resource, "profiles"), "profile");
+                    }
+                    break;
+                case SERVER_GROUP:
+                    if (domain) {
+                        return getChildElements(getChildElement(resource, "server-groups"), "server-group");
+                    }
+                    break;
+            }
+        } else if (address.size() == 1) {
+            final String type = address.getElement(0).getKey();
+            if (type.equals(SOCKET_BINDING_GROUP) && childType.equals(SOCKET_BINDING)) {
+                // outbound socket bindings are not modelled, their type depends on their content
+                return getChildElements(resource, "socket-binding");
+            } else if (type.equals(PROFILE) && childType.equals(SUBSYSTEM)) {
+                return getChildElements(resource, "subsystem");
+            }
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    private Element getChild(List<Element> children, PathElement element) throws UnsupportedOperationException {
+        for (Element child : children) {
+            final String name = getName(child, element.getKey());
+            if (name == null) {
+                // the child may be the one to retrieve
+                throw new UnsupportedOperationException();
+            }
+            if (name.equals(element.getValue())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private Set<String> getChildrenNames(List<Element> children, String childType) {
+        final Set<String> names = new LinkedHashSet<>();
+        for (Element child : children) {
+            final String name = getName(child, childType);
+            if (name == null) {
+                return null;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    private String getName(Element resource, String type) {
+        switch (type) {
+            case EXTENSION:
+                return getAttribute(resource, MODULE);
+            case SUBSYSTEM:
+                return getSubsystemName(resource);
+            default:
+                return getAttribute(resource, NAME);
+        }
+    }
+
+    private static String getAttribute(Element element, String attribute) {
+        return element.hasAttribute(attribute) ? element.getAttribute(attribute) : null;
+    }
+
+    /**
+     * Retrieves the name of a subsystem, from its namespace, which the target server's extensions define.
+     * @param subsystem the subsystem's XML element
+     * @return the subsystem's name, or null if the subsystem is not known by the target server
+     */
+    private String getSubsystemName(Element subsystem) {
+        final String namespaceURI = subsystem.getNamespaceURI();
+        if (namespaceURI == null) {
+            return null;
+        }
+        for (Extension extension : extensions.getExtensions()) {
+            for (Subsystem knownSubsystem : extension.getSubsystems()) {
+                final String namespaceWithoutVersion = knownSubsystem.getNamespaceWithoutVersion();
+                if (namespaceURI.startsWith(namespaceWithoutVersion) && namespaceURI.length() > namespaceWithoutVersion.length() && namespaceURI.charAt(namespaceWithoutVersion.length()) == ':') {
+                    return knownSubsystem.getName();
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<Element> getProfiles() {
+        final Element root = document.getDocumentElement();
+        return domain ? getChildElements(getChildElement(root, "profiles"), "profile") : getChildElements(root, "profile");
+    }
+
+    private static Element getChildElement(Element parent, String localName) {
+        final List<Element> children = getChildElements(parent, localName);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    private static List<Element> getChildElements(Element parent, String localName) {
+        if (parent == null) {
+            return Collections.emptyList();
+        }
+        final List<Element> children = new ArrayList<>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && localName.equals(node.getLocalName())) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+
+    private Element createElement(String localName) {
+        return document.createElementNS(document.getDocumentElement().getNamespaceURI(), localName);
+    }
+
+    /**
+     * Inserts a child element after its last sibling, with the same indentation, or as the container's first child.
+     */
+    private void insertChild(Element container, Element child, List<Element> siblings) {
+        final Node reference;
+        final String indentation;
+        if (!siblings.isEmpty()) {
+            final Element lastSibling = siblings.get(siblings.size() - 1);
+            reference = lastSibling.getNextSibling();
+            indentation = getIndentation(lastSibling);
+        } else {
+            reference = getFirstChildElement(container);
+            indentation = reference != null ? getIndentation(reference) : null;
+        }
+        if (reference == null || indentation == null) {
+            // no element to take the indentation from, e.g. all were removed
+            throw new UnsupportedOperationException();
+        }
+        if (siblings.isEmpty()) {
+            container.insertBefore(child, reference);
+            container.insertBefore(document.createTextNode(indentation), reference);
+        } else {
+            container.insertBefore(document.createTextNode(indentation), reference);
+            container.insertBefore(child, reference);
+        }
+    }
+
+    private static Element getFirstChildElement(Element parent) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static String getIndentation(Node node) {
+        final Node previous = node.getPreviousSibling();
+        if (previous != null && previous.getNodeType() == Node.TEXT_NODE && previous.getNodeValue().trim().isEmpty()) {
+            return previous.getNodeValue();
+        }
+        return null;
+    }
+
+    private static void removeChild(Element child) {
+        final Node parent = child.getParentNode();
+        final Node previous = child.getPreviousSibling();
+        if (previous != null && previous.getNodeType() == Node.TEXT_NODE && previous.getNodeValue().trim().isEmpty()) {
+            parent.removeChild(previous);
+        }
+        parent.removeChild(child);
+    }
+
+    private static ModelNode success(ModelNode result) {
+        result.get(OUTCOME).set(SUCCESS);
+        return result;
+    }
+
+    private static ModelNode failed(String failureDescription) {
+        final ModelNode result = new ModelNode();
+        result.get(OUTCOME).set(FAILED);
+        if (failureDescription != null) {
+            result.get(FAILURE_DESCRIPTION).set(failureDescription);
+        }
+        return result;
+    }
+
+    private static String resourceNotFound(PathAddress address) {
+        return "WFLYCTL0216: Management resource '" + address + "' not found";
+    }
+
+    /**
+     *
+     * @return true if the model was changed by the ops executed, false otherwise
+     */
+    synchronized boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Closes the model, which is written back to the configuration's XML file if modified. A closed model executes no ops, which should be executed by an embedded process instead.
+     * @param xmlFile the configuration's XML file
+     * @throws IOException if the XML file write failed
+     */
+    synchronized void close(Path xmlFile) throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (modified) {
+            write(xmlFile);
+        }
+    }
+
+    private void write(Path xmlFile) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(xmlFile, StandardCharsets.UTF_8)) {
+            // the declaration is written by the model, since the transformer does not end it with a new line
+            writer.write("<?xml version='1.0' encoding='UTF-8'?>\n");
+            final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+            transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+            final Transformer transformer = transformerFactory.newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
+            // the document's top level nodes are written one per line, since the parser drops the whitespace between these
+            for (Node node = document.getFirstChild(); node != null; node = node.getNextSibling()) {
+                transformer.transform(new DOMSource(node), new StreamResult(writer));
+                writer.write('\n');
+            }
+        } catch (TransformerException e) {
+            throw new IOException("Failed to write "+xmlFile, e);
+        }
+    }
+}
@@ -18,12 +18,19 @@ package org.jboss.migration.wfly10.config.task;
 
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.dmr.ModelNode;
+import org.jboss.migration.core.ServerMigrationFailureException;
 import org.jboss.migration.core.console.ConsoleWrapper;
+import org.jboss.migration.core.env.TaskEnvironment;
 import org.jboss.migration.core.jboss.JBossServerConfiguration;
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.SubtaskScheduler;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskFingerprint;
+import org.jboss.migration.core.task.TaskFingerprintStore;
+import org.jboss.migration.core.task.component.TaskRunnable;
+import org.jboss.migration.core.util.xml.XMLFilePass;
 import org.jboss.migration.wfly10.WildFlyServer10;
 import org.jboss.migration.wfly10.config.management.ManageableResource;
 import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
@@ -77,17 +84,36 @@ public class ServerConfigurationMigration<S, T extends ManageableServerConfigura
 
             @Override
             public ServerMigrationTaskResult run(TaskContext context) {
+                final TaskFingerprintStore fingerprintStore = TaskFingerprintStore.from(context, target.getBaseDir(), target.getClass());
+                if (fingerprintStore == null) {
+                    return migrate(context);
+                }
+                final String fingerprintKey = taskName + " " + targetConfigurationType + " " + target.getProductInfo() + " " + target.getBaseDir();
+                final ServerMigrationTaskResult replayedResult = fingerprintStore.replay(fingerprintKey, context);
+                if (replayedResult != null) {
+                    context.getLogger().infof("Inputs of %s configuration %s unchanged since its last migration, migration result replayed.", getConfigType(), source);
+                    return replayedResult;
+                }
+                final TaskFingerprint fingerprint = TaskFingerprint.start();
+                final ServerMigrationTaskResult result;
+                try {
+                    result = migrate(context);
+                } finally {
+                    fingerprint.stop();
+                }
+                fingerprintStore.store(fingerprintKey, fingerprint, result, context.getSubtasks());
+                return result;
+            }
+
+            private ServerMigrationTaskResult migrate(TaskContext context) {
                 final ConsoleWrapper consoleWrapper = context.getConsoleWrapper();
                 context.getLogger().infof("Migrating %s configuration %s...", getConfigType(), source);
                 // create xml config
                 final JBossServerConfiguration targetConfiguration = xmlConfigurationProvider.getXMLConfiguration(source, targetConfigurationType, target, context);
+                // the target configuration's state, once migrated, is part of the fingerprint
+                TaskFingerprint.recordOutputFile(targetConfiguration.getPath());
                 // execute xml config subtasks
-                for (XMLConfigurationSubtaskFactory subtaskFactory : xmlConfigurationSubtaskFactories) {
-                    final ServerMigrationTask subtask = subtaskFactory.getTask(source, targetConfiguration);
-                    if (subtask != null) {
-                        context.execute(subtask);
-                    }
-                }
+                executeXMLConfigurationSubtasks(source, targetConfiguration, context);
                 // config through management
                 if (manageableConfigurationProvider != null) {
                     final T configurationManagement = manageableConfigurationProvider.getManageableConfiguration(targetConfiguration, target);
@@ -99,13 +125,15 @@ public class ServerConfigurationMigration<S, T extends ManageableServerConfigura
                         op.get(RECURSIVE).set(true);
                         op.get(INCLUDE_DEFAULTS).set(false);
                         //context.getLogger().tracef("Configuration resource description: %s", configurationManagement.executeManagementOperation(op));
-                        // execute config management subtasks
+                        // execute config management subtasks, those with resources not conflicting may be executed concurrently
+                        final SubtaskScheduler subtaskScheduler = new SubtaskScheduler(context);
                         for (ManageableServerConfigurationTaskFactory subtaskFactory : manageableConfigurationSubtaskFactories) {
                             final ServerMigrationTask subtask = subtaskFactory.getTask(source, configurationManagement);
                             if (subtask != null) {
-                                context.execute(subtask);
+                                subtaskScheduler.execute(subtask);
                             }
                         }
+                        subtaskScheduler.flush();
                     } finally {
                         configurationManagement.stop();
                     }
@@ -116,6 +144,74 @@ public class ServerConfigurationMigration<S, T extends ManageableServerConfigura
         };
     }
 
+    /**
+     * Executes the XML configuration subtasks, in the order these were added. The XML processing of consecutive {@link XMLConfigurationPassSubtask}s is fused into a single pass over the configuration file, which ends with a subtask that {@link XMLConfigurationPassSubtask#isLastInPass()}.
+     * @param source the source configuration
+     * @param targetConfiguration the target configuration
+     * @param context the configuration migration task's context
+     */
+    protected void executeXMLConfigurationSubtasks(final S source, final JBossServerConfiguration targetConfiguration, final TaskContext context) {
+        final List<XMLConfigurationPassSubtask> passSubtasks = new ArrayList<>();
+        for (XMLConfigurationSubtaskFactory<S> subtaskFactory : xmlConfigurationSubtaskFactories) {
+            if (subtaskFactory instanceof XMLConfigurationPassSubtaskFactory) {
+                final XMLConfigurationPassSubtask passSubtask = ((XMLConfigurationPassSubtaskFactory<S>) subtaskFactory).getPassSubtask(source, targetConfiguration);
+                if (passSubtask != null) {
+                    passSubtasks.add(passSubtask);
+                    if (passSubtask.isLastInPass()) {
+                        // no more steps may be added to the pass
+                        executeXMLConfigurationPassSubtasks(passSubtasks, targetConfiguration, context);
+                        passSubtasks.clear();
+                    }
+                }
+            } else {
+                // subtask may depend on the xml processing of previous subtasks
+                executeXMLConfigurationPassSubtasks(passSubtasks, targetConfiguration, context);
+                passSubtasks.clear();
+                final ServerMigrationTask subtask = subtaskFactory.getTask(source, targetConfiguration);
+                if (subtask != null) {
+                    context.execute(subtask);
+                }
+            }
+        }
+        executeXMLConfigurationPassSubtasks(passSubtasks, targetConfiguration, context);
+    }
+
+    private void executeXMLConfigurationPassSubtasks(final List<XMLConfigurationPassSubtask> passSubtasks, final JBossServerConfiguration targetConfiguration, final TaskContext context) {
+        if (passSubtasks.isEmpty()) {
+            return;
+        }
+        // run a single pass for all subtasks not skipped
+        final XMLFilePass pass = new XMLFilePass();
+        final List<TaskRunnable> afterPassRunnables = new ArrayList<>();
+        for (XMLConfigurationPassSubtask passSubtask : passSubtasks) {
+            afterPassRunnables.add(passSubtask.isSkipped(context) ? null : passSubtask.addTo(pass, context));
+        }
+        context.getLogger().debugf("Running XML pass over %s, for %d subtask(s)...", targetConfiguration.getPath(), passSubtasks.size());
+        ServerMigrationFailureException passFailure = null;
+        try {
+            pass.run(targetConfiguration.getPath());
+        } catch (ServerMigrationFailureException e) {
+            passFailure = e;
+        }
+        // execute each subtask, which completes its processing with the data gathered by the pass, those with resources not conflicting may be executed concurrently
+        final SubtaskScheduler subtaskScheduler = new SubtaskScheduler(context);
+        for (int i = 0; i < passSubtasks.size(); i++) {
+            TaskRunnable afterPassRunnable = afterPassRunnables.get(i);
+            if (afterPassRunnable == null) {
+                afterPassRunnable = taskContext -> ServerMigrationTaskResult.SKIPPED;
+            } else if (passFailure != null) {
+                // the failure is reported by the first subtask not skipped, the following subtasks are not executed
+                final ServerMigrationFailureException failure = passFailure;
+                subtaskScheduler.execute(passSubtasks.get(i).getTask(taskContext -> {
+                    throw failure;
+                }));
+                break;
+            }
+            subtaskScheduler.execute(passSubtasks.get(i).getTask(afterPassRunnable));
+        }
+        subtaskScheduler.flush();
+    }
+
     /**
      * Component responsible for providing the target XML configuration.
      * @param <S>
@@ -136,6 +232,74 @@ public class ServerConfigurationMigration<S, T extends ManageableServerConfigura
         ServerMigrationTask getTask(S source, JBossServerConfiguration targetConfigFilePath);
     }
 
+    /**
+     * A {@link XMLConfigurationSubtaskFactory} whose subtask's XML processing may be fused, with the XML processing of other subtasks, into a single pass over the configuration file.
+     * @param <S>
+     */
+    public interface XMLConfigurationPassSubtaskFactory<S> extends XMLConfigurationSubtaskFactory<S> {
+
+        XMLConfigurationPassSubtask getPassSubtask(S source, JBossServerConfiguration targetConfigFilePath);
+
+        @Override
+        default ServerMigrationTask getTask(S source, JBossServerConfiguration targetConfigFilePath) {
+            final XMLConfigurationPassSubtask passSubtask = getPassSubtask(source, targetConfigFilePath);
+            if (passSubtask == null) {
+                return null;
+            }
+            // the subtask's own pass
+            return passSubtask.getTask(context -> {
+                final XMLFilePass pass = new XMLFilePass();
+                final TaskRunnable afterPassRunnable = passSubtask.addTo(pass, context);
+                pass.run(targetConfigFilePath.getPath());
+                return afterPassRunnable.run(context);
+            });
+        }
+    }
+
+    /**
+     * A XML configuration subtask, which splits its XML processing, done by a pass over the configuration file, from its task.
+     */
+    public interface XMLConfigurationPassSubtask {
+
+        /**
+         *
+         * @return the subtask's name
+         */
+        ServerMigrationTaskName getName();
+
+        /**
+         * Indicates if the subtask is skipped, and thus should not be added to the pass.
+         * @param context the context of the task running the pass
+         * @return true if the subtask is skipped, false otherwise
+         */
+        default boolean isSkipped(TaskContext context) {
+            return new TaskEnvironment(context.getMigrationEnvironment(), getName()).isSkippedByEnvironment();
+        }
+
+        /**
+         * Indicates if the subtask's XML processing adds the pass's {@link XMLFilePass#lastFilter(org.jboss.migration.core.util.xml.XMLFileFilter)}, and thus no other subtasks may be added to the pass after it.
+         * @return true if the subtask must be the last in its pass, false otherwise
+         */
+        default boolean isLastInPass() {
+            return false;
+        }
+
+        /**
+         * Adds the subtask's XML processing to the specified pass. The processing should not execute subtasks, these should be executed instead by the returned {@link TaskRunnable}.
+         * @param pass the pass over the configuration file
+         * @param context the context of the task running the pass
+         * @return the {@link TaskRunnable} which completes the subtask, after the pass is run
+         */
+        TaskRunnable addTo(XMLFilePass pass, TaskContext context);
+
+        /**
+         * Retrieves the subtask's task.
+         * @param afterPassRunnable the {@link TaskRunnable} which completes the subtask, after the pass is run
+         * @return the subtask's task
+         */
+        ServerMigrationTask getTask(TaskRunnable afterPassRunnable);
+    }
+
 
     /**
      * The ServerConfigurationMigration ext base builder.
@@ -28,7 +28,9 @@ import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.wfly10.WildFlyServer10;
 import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
+import org.jboss.migration.wfly10.config.management.impl.EmbeddedProcessPool;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -40,6 +42,13 @@ import static org.jboss.migration.core.logger.ServerMigrationLogger.ROOT_LOGGER;
  */
 public class ServerConfigurationsMigration<S extends Server, C, T extends ManageableServerConfiguration> {
 
+    public interface EnvironmentProperties {
+        /**
+         * the max number of configurations migrated concurrently, in non interactive mode
+         */
+        String PARALLELISM = "parallelism";
+    }
+
     private final ServerMigrationTaskName taskName;
     private final SourceConfigurations<S, C> sourceConfigurations;
     private final ServerConfigurationMigration<C, T> configFileMigration;
@@ -94,25 +103,54 @@ public class ServerConfigurationsMigration<S extends Server, C, T extends Manage
                 return ServerMigrationTaskResult.SKIPPED;
             }
 
-            if (taskContext.isInteractive()) {
-                final BasicResultHandlers.UserConfirmation resultHandler = new BasicResultHandlers.UserConfirmation();
-                new UserConfirmation(consoleWrapper, "Migrate all configurations?", ROOT_LOGGER.yesNo(), resultHandler).execute();
-                switch (resultHandler.getResult()) {
-                    case NO:
-                        confirmAllConfigs(sourceConfigs, targetConfigurationType, target, taskContext);
-                        break;
-                    case YES:
+            // the pool is of the migration's target server, its metrics may include those of other configuration types
+            final EmbeddedProcessPool.Metrics embeddedProcessMetrics = target.getEmbeddedProcessPool().getMetrics();
+            final long embeddedProcessBoots = embeddedProcessMetrics.getBoots();
+            final long embeddedProcessBootTime = embeddedProcessMetrics.getBootTime();
+            final long embeddedProcessReuses = embeddedProcessMetrics.getReuses();
+            try {
+                if (taskContext.isInteractive()) {
+                    final BasicResultHandlers.UserConfirmation resultHandler = new BasicResultHandlers.UserConfirmation();
+                    new UserConfirmation(consoleWrapper, "Migrate all configurations?", ROOT_LOGGER.yesNo(), resultHandler).execute();
+                    switch (resultHandler.getResult()) {
+                        case NO:
+                            confirmAllConfigs(sourceConfigs, targetConfigurationType, target, taskContext);
+                            break;
+                        case YES:
+                            migrateAllConfigs(sourceConfigs, targetConfigurationType, target, taskContext);
+                            break;
+                        case ERROR:
+                            return run(taskContext);
+                        default:
+                            throw new ServerMigrationFailureException("unexpected user interaction result");
+                    }
+                } else {
+                    final int parallelism = getParallelism(taskContext);
+                    if (parallelism > 1) {
+                        migrateAllConfigs(sourceConfigs, targetConfigurationType, target, parallelism, taskContext);
+                    } else {
                         migrateAllConfigs(sourceConfigs, targetConfigurationType, target, taskContext);
-                        break;
-                    case ERROR:
-                        return run(taskContext);
-                    default:
-                        throw new ServerMigrationFailureException("unexpected user interaction result");
+                    }
                 }
-            } else {
-                migrateAllConfigs(sourceConfigs, targetConfigurationType, target, taskContext);
+            } finally {
+                // the configurations' embedded processes are not needed anymore
+                target.getEmbeddedProcessPool().stopIdleProcesses();
             }
-            return taskContext.hasSucessfulSubtasks() ? ServerMigrationTaskResult.SUCCESS : ServerMigrationTaskResult.SKIPPED;
+            if (!taskContext.hasSucessfulSubtasks()) {
+                return ServerMigrationTaskResult.SKIPPED;
+            }
+            final ServerMigrationTaskResult.Builder resultBuilder = new ServerMigrationTaskResult.Builder().success();
+            if (target.isEmbeddedProcessReuse()) {
+                final long boots = embeddedProcessMetrics.getBoots() - embeddedProcessBoots;
+                final long bootTime = embeddedProcessMetrics.getBootTime() - embeddedProcessBootTime;
+                final long reuses = embeddedProcessMetrics.getReuses() - embeddedProcessReuses;
+                taskContext.getLogger().debugf("Embedded processes of the %s configurations: boots=%d, bootTime=%dms, reuses=%d", configFileMigration.getConfigType(), boots, bootTime, reuses);
+                resultBuilder
+                        .addAttribute("embedded-process-boots", boots)
+                        .addAttribute("embedded-process-boot-time", bootTime)
+                        .addAttribute("embedded-process-reuses", reuses);
+            }
+            return resultBuilder.build();
         }
 
         protected void migrateAllConfigs(Collection<S> sourceConfigs, final JBossServerConfiguration.Type targetConfigurationType, WildFlyServer10 target, final TaskContext taskContext) {
@@ -121,6 +159,24 @@ public class ServerConfigurationsMigration<S extends Server, C, T extends Manage
             }
         }
 
+        protected void migrateAllConfigs(Collection<S> sourceConfigs, final JBossServerConfiguration.Type targetConfigurationType, WildFlyServer10 target, int parallelism, final TaskContext taskContext) {
+            taskContext.getLogger().debugf("Migrating configurations concurrently, with parallelism %d...", parallelism);
+            final List<ServerMigrationTask> subtasks = new ArrayList<>();
+            for (S sourceConfig : sourceConfigs) {
+                subtasks.add(configFileMigration.getServerMigrationTask(sourceConfig, targetConfigurationType, target));
+            }
+            taskContext.execute(subtasks, parallelism);
+        }
+
+        protected int getParallelism(final TaskContext taskContext) {
+            final String parallelism = taskContext.getMigrationEnvironment().getPropertyAsString(EnvironmentProperties.PARALLELISM, "1");
+            try {
+                return Integer.parseInt(parallelism.trim());
+            } catch (NumberFormatException e) {
+                throw new ServerMigrationFailureException("Invalid value for environment property "+EnvironmentProperties.PARALLELISM+": "+parallelism);
+            }
+        }
+
         protected void confirmAllConfigs(Collection<S> sourceConfigs, final JBossServerConfiguration.Type targetConfigurationType, WildFlyServer10 target, final TaskContext taskContext) {
             for (S sourceConfig : sourceConfigs) {
                 confirmConfig(sourceConfig, targetConfigurationType, target, taskContext);
@@ -35,6 +35,7 @@ public class AddHostExcludes<S> extends ManageableServerConfigurationCompositeTa
     public AddHostExcludes(HostExcludes hostExcludes) {
         name("host-excludes.add");
         skipPolicy(TaskSkipPolicy.skipIfDefaultTaskSkipPropertyIsSet());
+        operationsBatch();
         beforeRun(context -> context.getLogger().debug("Adding host-excludes configuration..."));
         final ManageableServerConfigurationCompositeSubtasks.Builder<S> subtasksBuilder = new ManageableServerConfigurationCompositeSubtasks.Builder<>();
         // first we remove all existent
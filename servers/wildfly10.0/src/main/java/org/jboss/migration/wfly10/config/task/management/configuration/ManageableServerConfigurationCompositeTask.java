@@ -39,6 +39,26 @@ public class ManageableServerConfigurationCompositeTask extends CompositeTask {
 
     public abstract static class BaseBuilder<S,T extends BaseBuilder<S, T>> extends CompositeTask.BaseBuilder<ManageableServerConfigurationBuildParameters<S>, T> implements ManageableServerConfigurationCompositeTaskBuilder<S, T> {
 
+        private boolean operationsBatch;
+
+        /**
+         * Executes the task, including its subtasks, within an operations batch of the server configuration. The write operations buffered by a leaf subtask are executed when it completes, thus a failure is reported by the subtask. The batch is per thread, thus subtasks executed concurrently execute their operations without it.
+         * @return this builder
+         */
+        public T operationsBatch() {
+            this.operationsBatch = true;
+            return getThis();
+        }
+
+        @Override
+        protected TaskRunnable buildRunnable(ManageableServerConfigurationBuildParameters<S> parameters) {
+            final TaskRunnable runnable = super.buildRunnable(parameters);
+            if (!operationsBatch) {
+                return runnable;
+            }
+            return context -> parameters.getServerConfiguration().executeOperationsBatch(() -> runnable.run(context));
+        }
+
         @Override
         protected ServerMigrationTask buildTask(ServerMigrationTaskName name, TaskRunnable taskRunnable) {
             return new ManageableServerConfigurationCompositeTask(name, taskRunnable);
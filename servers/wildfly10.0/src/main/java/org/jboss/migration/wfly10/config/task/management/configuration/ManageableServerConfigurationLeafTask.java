@@ -18,8 +18,10 @@ package org.jboss.migration.wfly10.config.task.management.configuration;
 
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.component.LeafTask;
 import org.jboss.migration.core.task.component.TaskRunnable;
+import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
 
 /**
  * @author emmartins
@@ -30,6 +32,30 @@ public class ManageableServerConfigurationLeafTask extends LeafTask {
         super(name, taskRunnable);
     }
 
+    /**
+     * Wraps the runnable of a leaf task, which executes the write operations buffered by the server configuration's operations batch, before the task completes, thus a failure of an operation executed by the task fails the task, and not the task ending the batch.
+     * @param runnable the leaf task's runnable
+     * @param serverConfiguration the server configuration
+     * @return the wrapped runnable
+     */
+    public static TaskRunnable flushOperationsBatchAfterRun(TaskRunnable runnable, ManageableServerConfiguration serverConfiguration) {
+        return context -> {
+            final ServerMigrationTaskResult result;
+            try {
+                result = runnable.run(context);
+            } catch (RuntimeException | Error e) {
+                try {
+                    serverConfiguration.flushOperationsBatch();
+                } catch (RuntimeException e1) {
+                    e.addSuppressed(e1);
+                }
+                throw e;
+            }
+            serverConfiguration.flushOperationsBatch();
+            return result;
+        };
+    }
+
     public static class Builder<S> extends BaseBuilder<ManageableServerConfigurationBuildParameters<S>, Builder<S>> implements ManageableServerConfigurationLeafTaskBuilder<S, Builder<S>> {
 
         @Override
@@ -37,6 +63,11 @@ public class ManageableServerConfigurationLeafTask extends LeafTask {
             return this;
         }
 
+        @Override
+        protected TaskRunnable buildRunnable(ManageableServerConfigurationBuildParameters<S> parameters) {
+            return flushOperationsBatchAfterRun(super.buildRunnable(parameters), parameters.getServerConfiguration());
+        }
+
         @Override
         protected ServerMigrationTask buildTask(ServerMigrationTaskName name, TaskRunnable taskRunnable) {
             return new ManageableServerConfigurationLeafTask(name, taskRunnable);
@@ -21,6 +21,7 @@ import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.component.LeafTask;
 import org.jboss.migration.core.task.component.TaskRunnable;
 import org.jboss.migration.wfly10.config.management.ManageableResource;
+import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationLeafTask;
 
 /**
  * @author emmartins
@@ -38,6 +39,11 @@ public class ManageableResourceLeafTask extends LeafTask {
             return this;
         }
 
+        @Override
+        protected TaskRunnable buildRunnable(ManageableResourceBuildParameters<S, R> parameters) {
+            return ManageableServerConfigurationLeafTask.flushOperationsBatchAfterRun(super.buildRunnable(parameters), parameters.getServerConfiguration());
+        }
+
         @Override
         protected ServerMigrationTask buildTask(ServerMigrationTaskName name, TaskRunnable taskRunnable) {
             return new ManageableResourceLeafTask(name, taskRunnable);
@@ -21,6 +21,7 @@ import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.component.LeafTask;
 import org.jboss.migration.core.task.component.TaskRunnable;
 import org.jboss.migration.wfly10.config.management.ManageableResource;
+import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationLeafTask;
 
 /**
  * @author emmartins
@@ -37,6 +38,11 @@ public class ManageableResourcesLeafTask extends LeafTask {
             return this;
         }
 
+        @Override
+        protected TaskRunnable buildRunnable(ManageableResourcesBuildParameters<S, R> parameters) {
+            return ManageableServerConfigurationLeafTask.flushOperationsBatchAfterRun(super.buildRunnable(parameters), parameters.getServerConfiguration());
+        }
+
         @Override
         protected ServerMigrationTask buildTask(ServerMigrationTaskName name, TaskRunnable taskRunnable) {
             return new ManageableResourcesLeafTask(name, taskRunnable);
@@ -17,6 +17,7 @@
 package org.jboss.migration.wfly10.config.task.management.subsystem;
 
 import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.TaskResources;
 import org.jboss.migration.core.task.component.TaskSkipPolicy;
 import org.jboss.migration.wfly10.config.management.ManageableResource;
 import org.jboss.migration.wfly10.config.management.SubsystemResource;
@@ -29,11 +30,16 @@ import org.jboss.migration.wfly10.config.task.management.resources.ManageableRes
  */
 public class AddSubsystemResources<S> extends ManageableResourcesCompositeTask.Builder<S, ManageableResource> {
 
+    private final String extension;
+    private final String subsystem;
+
     public AddSubsystemResources(String extension, String subsystem) {
         this(extension, new AddSubsystemResourceSubtaskBuilder<>(subsystem));
     }
 
     public AddSubsystemResources(final String extension, AddSubsystemResourceSubtaskBuilder<S> subtask) {
+        this.extension = extension;
+        this.subsystem = subtask.getSubsystem();
         final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder("subsystem."+subtask.getSubsystem()+".add").build();
         name(taskName);
         skipPolicy(TaskSkipPolicy.skipIfDefaultTaskSkipPropertyIsSet());
@@ -47,4 +53,17 @@ public class AddSubsystemResources<S> extends ManageableResourcesCompositeTask.B
             }
         });
     }
+
+    /**
+     * Declares that the task only writes the extension and the subsystem it adds, and reads the specified subsystems, which allows the task to be executed concurrently with other subtasks not using these.
+     * @param readSubsystems the subsystems read by the task
+     * @return this builder
+     */
+    protected AddSubsystemResources<S> onlySubsystemResources(String... readSubsystems) {
+        final TaskResources.Builder resourcesBuilder = new TaskResources.Builder().writes(TaskResources.extension(extension), TaskResources.subsystem(subsystem));
+        for (String readSubsystem : readSubsystems) {
+            resourcesBuilder.reads(TaskResources.subsystem(readSubsystem));
+        }
+        return resources(resourcesBuilder.build());
+    }
 }
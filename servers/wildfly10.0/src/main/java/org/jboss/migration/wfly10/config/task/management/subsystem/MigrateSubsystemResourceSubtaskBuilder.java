@@ -21,6 +21,7 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.migration.core.ServerMigrationFailureException;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskExecutionMetrics;
 import org.jboss.migration.wfly10.config.management.SubsystemResource;
 import org.jboss.migration.wfly10.config.task.management.resource.ManageableResourceLeafTask;
 
@@ -49,9 +50,13 @@ public class MigrateSubsystemResourceSubtaskBuilder<S> extends ManageableResourc
         final ModelNode op = Util.createEmptyOperation("migrate", subsystemResource.getResourcePathAddress());
         final ModelNode result;
         try {
+            final long startTime = System.nanoTime();
             result = subsystemResource.getServerConfiguration().getModelControllerClient().execute(op);
+            TaskExecutionMetrics.recordManagementOperation(System.nanoTime() - startTime);
         } catch (IOException e) {
             throw new ServerMigrationFailureException("Subsystem config "+configName+" migration failed", e);
+        } finally {
+            subsystemResource.getServerConfiguration().invalidateCachedResources(op);
         }
         taskContext.getLogger().tracef("Op result: %s", result.asString());
         final String outcome = result.get(OUTCOME).asString();
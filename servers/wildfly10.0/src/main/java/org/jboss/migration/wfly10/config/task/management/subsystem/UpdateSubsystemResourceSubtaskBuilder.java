@@ -46,7 +46,8 @@ public abstract class UpdateSubsystemResourceSubtaskBuilder<S> extends Manageabl
                 return ServerMigrationTaskResult.SKIPPED;
             }
             context.getLogger().debugf("Updating subsystem config %s...", configName);
-            final ServerMigrationTaskResult taskResult = updateConfiguration(config, params.getSource(), resource, context, taskEnvironment);
+            // the update's write ops may be batched
+            final ServerMigrationTaskResult taskResult = resource.getServerConfiguration().executeOperationsBatch(() -> updateConfiguration(config, params.getSource(), resource, context, taskEnvironment));
             context.getLogger().debugf("Subsystem config %s updated.", configName);
             return taskResult;
         });
@@ -16,35 +16,33 @@
 
 package org.jboss.migration.wfly10.config.task.module;
 
-import org.jboss.migration.core.ServerMigrationFailureException;
+import org.jboss.migration.core.env.MigrationEnvironment;
 import org.jboss.migration.core.env.SkippableByEnvServerMigrationTask;
 import org.jboss.migration.core.jboss.JBossServer;
 import org.jboss.migration.core.jboss.JBossServerConfiguration;
+import org.jboss.migration.core.jboss.ModuleIdentifier;
 import org.jboss.migration.core.jboss.ModulesMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.component.TaskRunnable;
+import org.jboss.migration.core.util.xml.XMLFilePass;
 import org.jboss.migration.wfly10.config.task.ServerConfigurationMigration;
 
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import static javax.xml.stream.XMLStreamConstants.START_DOCUMENT;
-import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
-
 /**
  * @author emmartins
  */
-public class ConfigurationModulesMigrationTaskFactory<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationSubtaskFactory<JBossServerConfiguration<S>> {
+public class ConfigurationModulesMigrationTaskFactory<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationPassSubtaskFactory<JBossServerConfiguration<S>> {
 
     private final Map<String, List<ModulesFinder>> modulesFinders;
 
@@ -53,21 +51,48 @@ public class ConfigurationModulesMigrationTaskFactory<S extends JBossServer<S>>
     }
 
     @Override
-    public ServerMigrationTask getTask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
-        return new SkippableByEnvServerMigrationTask(new Task(source.getServer(), targetConfigurationPath, modulesFinders));
+    public ServerConfigurationMigration.XMLConfigurationPassSubtask getPassSubtask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
+        final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder("modules.migrate-modules-requested-by-configuration").addAttribute("path", targetConfigurationPath.getPath().toString()).build();
+        return new ServerConfigurationMigration.XMLConfigurationPassSubtask() {
+            @Override
+            public ServerMigrationTaskName getName() {
+                return taskName;
+            }
+
+            @Override
+            public TaskRunnable addTo(XMLFilePass pass, TaskContext context) {
+                // the finders' module migrations are recorded during the pass, and replayed by the task
+                final RecordingModuleMigrator moduleMigrator = new RecordingModuleMigrator(source.getServer(), targetConfigurationPath.getServer(), context.getMigrationEnvironment());
+                pass.visitor(reader -> {
+                    final List<ModulesFinder> elementModulesFinders = modulesFinders.get(reader.getLocalName());
+                    if (elementModulesFinders != null) {
+                        for (ModulesFinder modulesFinder : elementModulesFinders) {
+                            modulesFinder.processElement(reader, moduleMigrator, context);
+                        }
+                    }
+                });
+                return taskContext -> {
+                    moduleMigrator.replay(taskContext);
+                    return taskContext.hasSucessfulSubtasks() ? ServerMigrationTaskResult.SUCCESS : ServerMigrationTaskResult.SKIPPED;
+                };
+            }
+
+            @Override
+            public ServerMigrationTask getTask(TaskRunnable afterPassRunnable) {
+                return new SkippableByEnvServerMigrationTask(new Task(source.getServer(), targetConfigurationPath, taskName, afterPassRunnable));
+            }
+        };
     }
 
     private static class Task extends ModulesMigrationTask {
 
         private final ServerMigrationTaskName taskName;
-        private final JBossServerConfiguration targetConfigurationPath;
-        private final Map<String, List<ModulesFinder>> modulesFinders;
+        private final TaskRunnable afterPassRunnable;
 
-        public Task(JBossServer source, JBossServerConfiguration targetConfigurationPath, Map<String, List<ModulesFinder>> modulesFinders) {
+        public Task(JBossServer source, JBossServerConfiguration targetConfigurationPath, ServerMigrationTaskName taskName, TaskRunnable afterPassRunnable) {
             super(source, targetConfigurationPath.getServer(), "configuration");
-            this.taskName = new ServerMigrationTaskName.Builder("modules.migrate-modules-requested-by-configuration").addAttribute("path", targetConfigurationPath.getPath().toString()).build();
-            this.targetConfigurationPath = targetConfigurationPath;
-            this.modulesFinders = modulesFinders;
+            this.taskName = taskName;
+            this.afterPassRunnable = afterPassRunnable;
         }
 
         @Override
@@ -78,31 +103,37 @@ public class ConfigurationModulesMigrationTaskFactory<S extends JBossServer<S>>
         @Override
         protected void migrateModules(ModuleMigrator moduleMigrator, TaskContext context) {
             context.getLogger().debugf("Migrating modules referenced by the configuration...");
-            try (InputStream in = new BufferedInputStream(new FileInputStream(targetConfigurationPath.getPath().toFile()))) {
-                XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
-                reader.require(START_DOCUMENT, null, null);
-                while (reader.hasNext()) {
-                    if (reader.next() == START_ELEMENT) {
-                        processElement(reader, moduleMigrator, context);
-                    }
-                }
-            } catch (Exception e) {
-                throw new ServerMigrationFailureException(e);
-            }
+            afterPassRunnable.run(context);
             if (!context.hasSucessfulSubtasks()) {
                 context.getLogger().debugf("No referenced modules to migrate.");
             }
         }
+    }
+
+    /**
+     * A module migrator which records the requested module migrations, to be replayed later, in the context of the modules migration task.
+     */
+    private static class RecordingModuleMigrator extends ModulesMigrationTask.ModuleMigrator {
+
+        private final Map<ModuleIdentifier, String> modules = new LinkedHashMap<>();
+
+        RecordingModuleMigrator(JBossServer source, JBossServer target, MigrationEnvironment environment) {
+            super(source, target, environment);
+        }
 
-        protected void processElement(XMLStreamReader reader, ModuleMigrator moduleMigrator, TaskContext context) throws IOException {
-            final List<ModulesFinder> elementModulesFinders = modulesFinders.get(reader.getLocalName());
-            if (elementModulesFinders != null) {
-                for (ModulesFinder modulesFinder : elementModulesFinders) {
-                    modulesFinder.processElement(reader, moduleMigrator, context);
-                }
+        @Override
+        public void migrateModules(Map<ModuleIdentifier, String> modules, TaskContext context) throws IllegalStateException {
+            for (Map.Entry<ModuleIdentifier, String> module : modules.entrySet()) {
+                this.modules.putIfAbsent(module.getKey(), module.getValue());
             }
         }
+
+        void replay(TaskContext context) {
+            // all recorded modules, and their dependencies, are resolved and migrated together
+            super.migrateModules(modules, context);
+        }
     }
+
     /**
      * A module finder.
      */
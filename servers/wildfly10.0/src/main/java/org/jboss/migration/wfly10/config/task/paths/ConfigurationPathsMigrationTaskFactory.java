@@ -21,13 +21,17 @@ import org.jboss.migration.core.jboss.JBossServerConfiguration;
 import org.jboss.migration.core.jboss.XmlConfigurationMigration;
 import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
+import org.jboss.migration.core.task.TaskContext;
+import org.jboss.migration.core.task.TaskResources;
 import org.jboss.migration.core.task.component.SimpleComponentTask;
+import org.jboss.migration.core.task.component.TaskRunnable;
+import org.jboss.migration.core.util.xml.XMLFilePass;
 import org.jboss.migration.wfly10.config.task.ServerConfigurationMigration;
 
 /**
  * @author emmartins
  */
-public class ConfigurationPathsMigrationTaskFactory<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationSubtaskFactory<JBossServerConfiguration<S>> {
+public class ConfigurationPathsMigrationTaskFactory<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationPassSubtaskFactory<JBossServerConfiguration<S>> {
 
     private final XmlConfigurationMigration.Builder<S> runnableBuilder;
 
@@ -36,18 +40,36 @@ public class ConfigurationPathsMigrationTaskFactory<S extends JBossServer<S>> im
     }
 
     @Override
-    public ServerMigrationTask getTask(final JBossServerConfiguration<S> sourceConfiguration, final JBossServerConfiguration targetConfiguration) {
-        return new SimpleComponentTask.Builder()
-                .name(new ServerMigrationTaskName.Builder("paths.migrate-paths-requested-by-configuration").addAttribute("path", targetConfiguration.getPath().toString()).build())
-                .beforeRun(context -> context.getLogger().debugf("Migrating referenced paths..."))
-                .runnable(runnableBuilder.build(sourceConfiguration, targetConfiguration))
-                .afterRun(context -> {
-                    if (context.hasSucessfulSubtasks()) {
-                        context.getLogger().infof("Referenced paths migrated.");
-                    } else {
-                        context.getLogger().debugf("No referenced paths found to migrate.");
-                    }
-                })
-                .build();
+    public ServerConfigurationMigration.XMLConfigurationPassSubtask getPassSubtask(final JBossServerConfiguration<S> sourceConfiguration, final JBossServerConfiguration targetConfiguration) {
+        final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder("paths.migrate-paths-requested-by-configuration").addAttribute("path", targetConfiguration.getPath().toString()).build();
+        return new ServerConfigurationMigration.XMLConfigurationPassSubtask() {
+            @Override
+            public ServerMigrationTaskName getName() {
+                return taskName;
+            }
+
+            @Override
+            public TaskRunnable addTo(XMLFilePass pass, TaskContext context) {
+                return runnableBuilder.build(sourceConfiguration, targetConfiguration).addTo(pass, context);
+            }
+
+            @Override
+            public ServerMigrationTask getTask(TaskRunnable afterPassRunnable) {
+                return new SimpleComponentTask.Builder()
+                        .name(taskName)
+                        // the referenced paths are copied to the target server's content, which is not used by other after pass subtasks
+                        .resources(new TaskResources.Builder().writes(TaskResources.CONTENT).build())
+                        .beforeRun(context -> context.getLogger().debugf("Migrating referenced paths..."))
+                        .runnable(afterPassRunnable)
+                        .afterRun(context -> {
+                            if (context.hasSucessfulSubtasks()) {
+                                context.getLogger().infof("Referenced paths migrated.");
+                            } else {
+                                context.getLogger().debugf("No referenced paths found to migrate.");
+                            }
+                        })
+                        .build();
+            }
+        };
     }
 }
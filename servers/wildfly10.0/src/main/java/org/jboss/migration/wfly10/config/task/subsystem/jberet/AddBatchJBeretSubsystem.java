@@ -28,5 +28,7 @@ public class AddBatchJBeretSubsystem<S> extends AddSubsystemResources<S> {
         // do not add subsystem config to "standalone-load-balancer.xml" config
         skipPolicyBuilders(getSkipPolicyBuilder(),
                 buildParameters -> context -> buildParameters.getServerConfiguration().getConfigurationPath().getPath().endsWith("standalone-load-balancer.xml"));
+        // the subsystem config added only references resources of its own
+        onlySubsystemResources();
     }
 }
@@ -31,6 +31,8 @@ public class AddRequestControllerSubsystem<S> extends AddSubsystemResources<S> {
         // do not add subsystem config to "standalone-load-balancer.xml" config
         skipPolicyBuilders(getSkipPolicyBuilder(),
                 buildParameters -> context -> buildParameters.getServerConfiguration().getConfigurationPath().getPath().endsWith("standalone-load-balancer.xml"));
+        // the subsystem config added does not reference other resources
+        onlySubsystemResources();
     }
 
     static class AddRequestControllerSubsystemResourceSubtaskBuilder<S> extends AddSubsystemResourceSubtaskBuilder<S> {
@@ -28,5 +28,7 @@ public class AddSecurityManagerSubsystem<S> extends AddSubsystemResources<S> {
         // do not add subsystem config to "standalone-load-balancer.xml" config
         skipPolicyBuilders(getSkipPolicyBuilder(),
                 buildParameters -> context -> buildParameters.getServerConfiguration().getConfigurationPath().getPath().endsWith("standalone-load-balancer.xml"));
+        // the subsystem config added does not reference other resources
+        onlySubsystemResources();
     }
 }
@@ -16,6 +16,7 @@
 
 package org.jboss.migration.wfly10.config.task.subsystem.singleton;
 
+import org.jboss.migration.core.jboss.JBossSubsystemNames;
 import org.jboss.migration.wfly10.config.task.management.subsystem.AddSubsystemResources;
 import org.jboss.migration.core.jboss.JBossExtensionNames;
 
@@ -28,5 +29,7 @@ public class AddSingletonSubsystem<S> extends AddSubsystemResources<S> {
         // do not add subsystem config to "standalone-load-balancer.xml" config
         skipPolicyBuilders(getSkipPolicyBuilder(),
                 buildParameters -> context -> buildParameters.getServerConfiguration().getConfigurationPath().getPath().endsWith("standalone-load-balancer.xml"));
+        // the subsystem config added references the infinispan subsystem's server cache container
+        onlySubsystemResources(JBossSubsystemNames.INFINISPAN);
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.task.update;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.migration.core.jboss.DeploymentOverlayLinkMatcher;
+import org.jboss.migration.wfly10.config.management.DeploymentOverlayResource;
+import org.jboss.migration.wfly10.config.management.DeploymentResource;
+import org.jboss.migration.wfly10.config.management.HostControllerConfiguration;
+import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
+import org.jboss.migration.wfly10.config.management.ServerGroupResource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
+import static org.jboss.migration.wfly10.config.management.ManageableResourceSelectors.selectResources;
+
+/**
+ * An index of a server configuration's deployments, and of its domain server groups' deployment overlays, which answers which deployment, if any, is linked by a deployment overlay.
+ *
+ * The deployments, and the server groups' deployment overlays, are retrieved once, when the index is created, and each overlay's deployment links are compiled into a single {@link DeploymentOverlayLinkMatcher}, thus an overlay's exact links are looked up in the deployment names, and only its wildcard links are matched against every deployment.
+ * @author emmartins
+ */
+public class DeploymentOverlayLinkIndex {
+
+    private final Set<String> deploymentNames;
+    // the server groups' deployment overlays, by name, empty if not a domain configuration
+    private final Map<String, List<DeploymentOverlayResource>> serverGroupOverlays;
+
+    public DeploymentOverlayLinkIndex(ManageableServerConfiguration serverConfiguration) {
+        this.deploymentNames = Collections.unmodifiableSet(new TreeSet<>(serverConfiguration.getChildResourceNames(DeploymentResource.RESOURCE_TYPE)));
+        final Map<String, List<DeploymentOverlayResource>> serverGroupOverlays = new HashMap<>();
+        if (serverConfiguration instanceof HostControllerConfiguration) {
+            for (DeploymentOverlayResource serverGroupOverlay : selectResources(ServerGroupResource.class).andThen(selectResources(DeploymentOverlayResource.class)).fromResources(serverConfiguration)) {
+                serverGroupOverlays.computeIfAbsent(serverGroupOverlay.getResourceName(), k -> new ArrayList<>()).add(serverGroupOverlay);
+            }
+        }
+        this.serverGroupOverlays = serverGroupOverlays;
+    }
+
+    /**
+     *
+     * @return the names of the server configuration's deployments
+     */
+    public Set<String> getDeploymentNames() {
+        return deploymentNames;
+    }
+
+    /**
+     * Retrieves the server groups' deployment overlays with the specified name.
+     * @param overlayName the deployment overlay's name
+     * @return the server groups' deployment overlays with the specified name, empty if not a domain configuration
+     */
+    public List<DeploymentOverlayResource> getServerGroupOverlays(String overlayName) {
+        final List<DeploymentOverlayResource> overlays = serverGroupOverlays.get(overlayName);
+        return overlays != null ? Collections.unmodifiableList(overlays) : Collections.emptyList();
+    }
+
+    /**
+     * Retrieves a deployment overlay's deployment links, which in a domain configuration are in the server groups' deployment overlays with same name.
+     * @param overlay the deployment overlay
+     * @return the deployment overlay's deployment links
+     * @throws IllegalStateException if the deployment overlay does not exists
+     */
+    public String[] getDeploymentLinks(DeploymentOverlayResource overlay) throws IllegalStateException {
+        if (!(overlay.getServerConfiguration() instanceof HostControllerConfiguration)) {
+            return overlay.getDeploymentLinks();
+        }
+        // same as DeploymentOverlayResource#getDeploymentLinks()
+        if (overlay.getResourceConfiguration() == null) {
+            throw new IllegalStateException("resource does not exists");
+        }
+        final Set<String> deploymentLinks = new LinkedHashSet<>();
+        for (DeploymentOverlayResource serverGroupOverlay : getServerGroupOverlays(overlay.getResourceName())) {
+            final ModelNode serverGroupOverlayConfig = serverGroupOverlay.getResourceConfiguration();
+            if (serverGroupOverlayConfig != null && serverGroupOverlayConfig.hasDefined(DEPLOYMENT)) {
+                deploymentLinks.addAll(serverGroupOverlayConfig.get(DEPLOYMENT).keys());
+            }
+        }
+        return deploymentLinks.toArray(new String[deploymentLinks.size()]);
+    }
+
+    /**
+     * Retrieves a deployment linked by a deployment overlay.
+     * @param overlay the deployment overlay
+     * @return the name of a deployment linked by the overlay, null if the overlay links no deployment
+     */
+    public String getLinkedDeployment(DeploymentOverlayResource overlay) {
+        final DeploymentOverlayLinkMatcher matcher = new DeploymentOverlayLinkMatcher(getDeploymentLinks(overlay));
+        for (String name : matcher.getNames()) {
+            if (deploymentNames.contains(name)) {
+                return name;
+            }
+        }
+        if (matcher.hasWildcards()) {
+            for (String deploymentName : deploymentNames) {
+                if (matcher.matches(deploymentName)) {
+                    return deploymentName;
+                }
+            }
+        }
+        return null;
+    }
+}
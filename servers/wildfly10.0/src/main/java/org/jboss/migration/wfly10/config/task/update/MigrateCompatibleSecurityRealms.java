@@ -26,6 +26,7 @@ import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.task.component.TaskSkipPolicy;
+import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
 import org.jboss.migration.wfly10.config.management.SecurityRealmResource;
 import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationCompositeTask;
 import org.jboss.migration.wfly10.config.task.management.resource.ManageableResourceCompositeSubtasks;
@@ -43,9 +44,15 @@ public class MigrateCompatibleSecurityRealms<S extends JBossServer<S>> extends M
     public MigrateCompatibleSecurityRealms() {
         name("security-realms.migrate-properties");
         skipPolicy(TaskSkipPolicy.skipIfDefaultTaskSkipPropertyIsSet());
-        beforeRun(context -> context.getLogger().debugf("Migrating security realms..."));
+        beforeRunBuilder(params -> context -> {
+            context.getLogger().debugf("Migrating security realms...");
+            // issue the reads of all realms' config at once, each subtask then retrieves its realm's config
+            final ManageableServerConfiguration serverConfiguration = params.getServerConfiguration();
+            serverConfiguration.prefetchResourceConfigurations(serverConfiguration.findResources(SecurityRealmResource.class));
+        });
         subtasks(SecurityRealmResource.class, ManageableResourceCompositeSubtasks.of(new Subtask<>()));
-        afterRun(context -> {
+        afterRunBuilder(params -> context -> {
+            params.getServerConfiguration().discardPrefetchedResourceConfigurations();
             if (context.hasSucessfulSubtasks()) {
                 context.getLogger().infof("Security realms migrated.");
             }
@@ -17,24 +17,52 @@
 package org.jboss.migration.wfly10.config.task.update;
 
 import org.jboss.migration.core.ServerMigrationFailureException;
-import org.jboss.migration.core.jboss.CopyPath;
+import org.jboss.migration.core.env.TaskEnvironment;
+import org.jboss.migration.core.jboss.ContentHashToPathMapper;
 import org.jboss.migration.core.jboss.JBossServer;
+import org.jboss.migration.core.task.ServerMigrationTask;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
+import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.task.component.SimpleComponentTask;
+import org.jboss.migration.core.task.component.TaskRunnable;
 import org.jboss.migration.core.task.component.TaskSkipPolicy;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.stream.Collectors.toList;
 
 /**
+ * Migrates a content repository. Each content is migrated by a subtask, and these may be executed concurrently, by a bounded number of threads, if the task's parallelism environment property is greater than one.
+ *
+ * A target content with the expected hash is not migrated. Contents are copied, unless the task's link environment property is set to true, then the target content is hard linked to the source content, if possible. Linked contents share the source content's file, including its owner and permissions, thus a change made through either server is seen by the other.
  * @author emmartins
  */
 public class MigrateContentDir<S extends JBossServer<S>> extends SimpleComponentTask.Builder {
+
+    public interface EnvironmentProperties {
+        /**
+         * the max number of contents migrated concurrently
+         */
+        String PARALLELISM = "parallelism";
+        /**
+         * if true contents are hard linked, instead of copied
+         */
+        String LINK = "link";
+    }
+
+    public static final int DEFAULT_PARALLELISM = 1;
+
     protected MigrateContentDir(String contentsName, Path sourceContentDir, Path targetContentDir) {
         name("contents."+contentsName+".migrate-content-dir");
         skipPolicies(TaskSkipPolicy.skipIfDefaultTaskSkipPropertyIsSet(), context -> !Files.isDirectory(sourceContentDir));
@@ -56,14 +84,148 @@ public class MigrateContentDir<S extends JBossServer<S>> extends SimpleComponent
                 return ServerMigrationTaskResult.SKIPPED;
             } else {
                 context.getLogger().debugf("Source's %s content found: %s", contentsName, contents);
+                final TaskEnvironment taskEnvironment = new TaskEnvironment(context.getMigrationEnvironment(), context.getTaskName());
+                final int parallelism = getParallelism(taskEnvironment, context);
+                final boolean link = taskEnvironment.getPropertyAsBoolean(EnvironmentProperties.LINK, Boolean.FALSE);
                 // execute subtasks
+                final AtomicLong copiedBytes = new AtomicLong();
+                final AtomicLong linkedBytes = new AtomicLong();
+                final List<ServerMigrationTask> subtasks = new ArrayList<>();
                 for (Path content : contents) {
                     final ServerMigrationTaskName subtaskName = new ServerMigrationTaskName.Builder("contents."+contentsName+".migrate-content").addAttribute("path", content.toString()).build();
-                    context.execute(subtaskName, new CopyPath(sourceContentDir.resolve(content), targetContentDir.resolve(content)));
+                    subtasks.add(new SimpleComponentTask.Builder()
+                            .name(subtaskName)
+                            .runnable(new MigrateContent(content, sourceContentDir, targetContentDir, link, copiedBytes, linkedBytes))
+                            .build());
                 }
+                final long startTime = System.nanoTime();
+                context.execute(subtasks, parallelism);
+                final long time = System.nanoTime() - startTime;
+                final long bytesPerSecond = time > 0 ? (long) (copiedBytes.get() * 1e9 / time) : 0;
                 context.getLogger().infof("Source's %s content migrated.", contentsName);
-                return ServerMigrationTaskResult.SUCCESS;
+                context.getLogger().debugf("Source's %s content migration copied %d bytes, at %d bytes/s, and linked %d bytes.", contentsName, copiedBytes.get(), bytesPerSecond, linkedBytes.get());
+                return new ServerMigrationTaskResult.Builder()
+                        .success()
+                        .addAttribute("bytes", copiedBytes.get())
+                        .addAttribute("bytes-per-second", bytesPerSecond)
+                        .addAttribute("linked-bytes", linkedBytes.get())
+                        .build();
             }
         });
     }
+
+    protected int getParallelism(TaskEnvironment taskEnvironment, TaskContext context) {
+        final String parallelism = taskEnvironment.getPropertyAsString(EnvironmentProperties.PARALLELISM, String.valueOf(DEFAULT_PARALLELISM));
+        try {
+            return Integer.parseInt(parallelism.trim());
+        } catch (NumberFormatException e) {
+            throw new ServerMigrationFailureException("Invalid value for environment property "+context.getTaskName().getName()+"."+EnvironmentProperties.PARALLELISM+": "+parallelism);
+        }
+    }
+
+    /**
+     * Migrates a single content, unless the target already has it.
+     */
+    static class MigrateContent implements TaskRunnable {
+
+        private static final ContentHashToPathMapper CONTENT_HASH_TO_PATH_MAPPER = new ContentHashToPathMapper();
+
+        // the buffer used to hash contents, reused by each thread migrating contents
+        private static final ThreadLocal<ByteBuffer> HASH_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(64 * 1024));
+
+        private final Path content;
+        private final Path sourcePath;
+        private final Path targetPath;
+        private final boolean link;
+        private final AtomicLong copiedBytes;
+        private final AtomicLong linkedBytes;
+
+        MigrateContent(Path content, Path sourceContentDir, Path targetContentDir, boolean link, AtomicLong copiedBytes, AtomicLong linkedBytes) {
+            this.content = content;
+            this.sourcePath = sourceContentDir.resolve(content);
+            this.targetPath = targetContentDir.resolve(content);
+            this.link = link;
+            this.copiedBytes = copiedBytes;
+            this.linkedBytes = linkedBytes;
+        }
+
+        @Override
+        public ServerMigrationTaskResult run(TaskContext context) {
+            context.getLogger().tracef("Source's path: %s", sourcePath);
+            context.getLogger().tracef("Target's path: %s", targetPath);
+            if (sourcePath.equals(targetPath) || isTargetContentValid()) {
+                context.getLogger().debugf("Resource %s already in target.", sourcePath);
+                return new ServerMigrationTaskResult.Builder()
+                        .skipped()
+                        .addAttribute("sourcePath", sourcePath)
+                        .addAttribute("targetPath", targetPath)
+                        .build();
+            }
+            final long size;
+            try {
+                size = Files.size(sourcePath);
+            } catch (IOException e) {
+                throw new ServerMigrationFailureException("Failed to read content "+sourcePath, e);
+            }
+            if (link) {
+                context.getMigrationFiles().link(sourcePath, targetPath);
+            } else {
+                context.getMigrationFiles().copy(sourcePath, targetPath);
+            }
+            // the file is copied if it could not be linked
+            if (link && isLinked()) {
+                linkedBytes.addAndGet(size);
+            } else {
+                copiedBytes.addAndGet(size);
+            }
+            context.getLogger().debugf("Resource %s migrated.", sourcePath);
+            return new ServerMigrationTaskResult.Builder()
+                    .success()
+                    .addAttribute("sourcePath", sourcePath)
+                    .addAttribute("targetPath", targetPath)
+                    .build();
+        }
+
+        private boolean isLinked() {
+            try {
+                return Files.isSameFile(sourcePath, targetPath);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         *
+         * @return true if the target content exists, and its SHA-1 hash matches its path, false otherwise
+         */
+        private boolean isTargetContentValid() {
+            if (!Files.isRegularFile(targetPath) || content.getParent() == null) {
+                return false;
+            }
+            try {
+                return CONTENT_HASH_TO_PATH_MAPPER.apply(hash(targetPath)).equals(content.getParent());
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private static byte[] hash(Path path) throws IOException {
+            final MessageDigest messageDigest;
+            try {
+                messageDigest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            final ByteBuffer buffer = HASH_BUFFER.get();
+            buffer.clear();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    messageDigest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return messageDigest.digest();
+        }
+    }
 }
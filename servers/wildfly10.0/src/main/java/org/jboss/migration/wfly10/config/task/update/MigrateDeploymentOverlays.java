@@ -18,20 +18,19 @@ package org.jboss.migration.wfly10.config.task.update;
 
 import org.jboss.dmr.ModelNode;
 import org.jboss.migration.core.ServerMigrationFailureException;
-import org.jboss.migration.core.jboss.DeploymentOverlayLinkMatcher;
 import org.jboss.migration.core.jboss.JBossServer;
 import org.jboss.migration.core.jboss.JBossServerConfiguration;
 import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.component.TaskRunnable;
 import org.jboss.migration.wfly10.config.management.DeploymentOverlayResource;
-import org.jboss.migration.wfly10.config.management.DeploymentResource;
 import org.jboss.migration.wfly10.config.management.HostControllerConfiguration;
 import org.jboss.migration.wfly10.config.management.ServerGroupResource;
 import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationBuildParameters;
 import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationCompositeTask;
 import org.jboss.migration.wfly10.config.task.management.configuration.ManageableServerConfigurationLeafTask;
 
+import java.util.Collection;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -55,23 +54,19 @@ public class MigrateDeploymentOverlays<S extends JBossServer<S>> extends Managea
                 return ServerMigrationTaskResult.SKIPPED;
             } else {
                 context.getLogger().debugf("Deployment overlays found: %s", overlays.stream().map(overlay -> overlay.getResourceName()).collect(toList()));
-                // migrate only overlays linked to migrated deployments
-                final DeploymentOverlayLinkMatcher matcher = new DeploymentOverlayLinkMatcher();
+                // migrate only overlays linked to migrated deployments, the deployments, and the server groups' overlays, are retrieved once for all overlays
+                final DeploymentOverlayLinkIndex linkIndex = new DeploymentOverlayLinkIndex(params.getServerConfiguration());
                 for (DeploymentOverlayResource overlay : overlays) {
                     boolean migrateResource = false;
-                    final String[] deploymentLinks = overlay.getDeploymentLinks();
-                    final List<DeploymentResource> deployments = params.getServerConfiguration().getChildResources(DeploymentResource.RESOURCE_TYPE);
-                    for (DeploymentResource deployment : deployments) {
-                        if (matcher.matches(deployment.getResourceName(), deploymentLinks)) {
-                            context.getLogger().debugf("Migrating deployment overlay %s, linked to deployment %s.", overlay.getResourceName(), deployment.getResourceName());
-                            migrateResource = true;
-                            break;
-                        }
+                    final String linkedDeployment = linkIndex.getLinkedDeployment(overlay);
+                    if (linkedDeployment != null) {
+                        context.getLogger().debugf("Migrating deployment overlay %s, linked to deployment %s.", overlay.getResourceName(), linkedDeployment);
+                        migrateResource = true;
                     }
                     // until deployment overlays missing content don't fail to boot server we first copy all content, and then filter
                     //final ManageableServerConfigurationLeafTask.Builder<JBossServerConfigurationPath<S>> subtaskBuilder = migrateResource ? new MigrateResourceSubtask<>(overlay) : new RemoveResourceSubtask<>(overlay);
                     if (!migrateResource) {
-                        final ManageableServerConfigurationLeafTask.Builder<JBossServerConfiguration<S>> subtaskBuilder = new RemoveResourceSubtask<>(overlay);
+                        final ManageableServerConfigurationLeafTask.Builder<JBossServerConfiguration<S>> subtaskBuilder = new RemoveResourceSubtask<>(overlay, linkIndex);
                         context.execute(subtaskBuilder.build(params));
                     } else {
                         context.getLogger().infof("Deployment overlay %s migrated.", overlay.getResourceName());
@@ -112,11 +107,21 @@ public class MigrateDeploymentOverlays<S extends JBossServer<S>> extends Managea
 
     public static class RemoveResourceSubtask<S extends JBossServer<S>> extends ManageableServerConfigurationLeafTask.Builder<JBossServerConfiguration<S>> {
         protected RemoveResourceSubtask(DeploymentOverlayResource resource) {
+            this(resource, null);
+        }
+
+        /**
+         *
+         * @param resource the deployment overlay to remove
+         * @param linkIndex the index to look up the server groups' deployment overlays, if null these are retrieved when removing
+         */
+        protected RemoveResourceSubtask(DeploymentOverlayResource resource, DeploymentOverlayLinkIndex linkIndex) {
             nameBuilder(parameters -> new ServerMigrationTaskName.Builder("deployments.overlay."+resource.getResourceName()+".remove").addAttribute("resource", resource.getResourceAbsoluteName()).build());
             final TaskRunnable.Builder<ManageableServerConfigurationBuildParameters<JBossServerConfiguration<S>>> runnableBuilder = params -> context -> {
                 if (params.getServerConfiguration() instanceof HostControllerConfiguration) {
                     // the resource may be referenced in server groups, remove these first
-                    for (DeploymentOverlayResource serverGroupDeploymentResource : selectResources(ServerGroupResource.class).andThen(selectResources(DeploymentOverlayResource.class, resource.getResourceName())).fromResources(params.getServerConfiguration())) {
+                    final Collection<DeploymentOverlayResource> serverGroupDeploymentResources = linkIndex != null ? linkIndex.getServerGroupOverlays(resource.getResourceName()) : selectResources(ServerGroupResource.class).andThen(selectResources(DeploymentOverlayResource.class, resource.getResourceName())).fromResources(params.getServerConfiguration());
+                    for (DeploymentOverlayResource serverGroupDeploymentResource : serverGroupDeploymentResources) {
                         serverGroupDeploymentResource.removeResource();
                         context.getLogger().debugf("Deployment overlay from server group %s removed.", resource.getResourceAbsoluteName());
                     }
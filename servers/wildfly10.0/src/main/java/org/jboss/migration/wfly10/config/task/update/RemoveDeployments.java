@@ -35,6 +35,7 @@ public class RemoveDeployments<S> extends ManageableServerConfigurationComposite
     public RemoveDeployments() {
         name("deployments.remove");
         skipPolicy(TaskSkipPolicy.skipIfDefaultTaskSkipPropertyIsSet());
+        operationsBatch();
         beforeRun(context -> context.getLogger().infof("Deployments removal starting..."));
         final ManageableServerConfigurationCompositeSubtasks.Builder<S> subtasks = new ManageableServerConfigurationCompositeSubtasks.Builder<S>()
                 .subtask(DeploymentResource.class, new RemoveDeploymentSubtask<>())
@@ -24,14 +24,17 @@ import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.task.component.SimpleComponentTask;
+import org.jboss.migration.core.task.component.TaskRunnable;
 import org.jboss.migration.core.util.xml.XMLFileFilter;
-import org.jboss.migration.core.util.xml.XMLFiles;
+import org.jboss.migration.core.util.xml.XMLFilePass;
 import org.jboss.migration.wfly10.config.task.ServerConfigurationMigration;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.events.Attribute;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.jboss.migration.core.task.component.TaskSkipPolicy.skipIfDefaultTaskSkipPropertyIsSet;
@@ -39,7 +42,7 @@ import static org.jboss.migration.core.task.component.TaskSkipPolicy.skipIfDefau
 /**
  * @author emmartins
  */
-public class RemoveUnsupportedExtensions<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationSubtaskFactory<JBossServerConfiguration<S>> {
+public class RemoveUnsupportedExtensions<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationPassSubtaskFactory<JBossServerConfiguration<S>> {
 
     public interface EnvironmentProperties {
         /**
@@ -63,29 +66,45 @@ public class RemoveUnsupportedExtensions<S extends JBossServer<S>> implements Se
     public static final String SUBTASK_NAME_ATTRIBUTE_MODULE = "module";
 
     @Override
-    public ServerMigrationTask getTask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
-        return new SimpleComponentTask.Builder()
-                .name(TASK_NAME)
-                .skipPolicy(skipIfDefaultTaskSkipPropertyIsSet())
-                .runnable(context -> {
-                    context.getLogger().debugf("Searching for extensions not supported by the target server...");
-                    removeExtensions(source, targetConfigurationPath, context);
-                    if (!context.hasSucessfulSubtasks()) {
-                        context.getLogger().debugf("No unsupported extensions found.");
-                    }
-                    return ServerMigrationTaskResult.SUCCESS;
-                })
-                .build();
+    public ServerConfigurationMigration.XMLConfigurationPassSubtask getPassSubtask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
+        final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder(TASK_NAME).build();
+        return new ServerConfigurationMigration.XMLConfigurationPassSubtask() {
+            @Override
+            public ServerMigrationTaskName getName() {
+                return taskName;
+            }
+
+            @Override
+            public TaskRunnable addTo(XMLFilePass pass, TaskContext context) {
+                return removeExtensions(source, targetConfigurationPath, pass, context);
+            }
+
+            @Override
+            public ServerMigrationTask getTask(TaskRunnable afterPassRunnable) {
+                return new SimpleComponentTask.Builder()
+                        .name(taskName)
+                        .skipPolicy(skipIfDefaultTaskSkipPropertyIsSet())
+                        .runnable(context -> {
+                            context.getLogger().debugf("Searching for extensions not supported by the target server...");
+                            afterPassRunnable.run(context);
+                            if (!context.hasSucessfulSubtasks()) {
+                                context.getLogger().debugf("No unsupported extensions found.");
+                            }
+                            return ServerMigrationTaskResult.SUCCESS;
+                        })
+                        .build();
+            }
+        };
     }
 
-    protected void removeExtensions(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath, final TaskContext context) {
+    protected TaskRunnable removeExtensions(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath, final XMLFilePass pass, final TaskContext context) {
         // gather the module names of extensions to accept (env property includes + target server extensions - env property excludes)
         final Set<String> accepted = new HashSet<>(targetConfigurationPath.getServer().getExtensions().getExtensionModuleNames());
         final MigrationEnvironment environment = context.getMigrationEnvironment();
         accepted.addAll(environment.getPropertyAsList(EnvironmentProperties.INCLUDES, Collections.emptyList()));
         accepted.removeAll(environment.getPropertyAsList(EnvironmentProperties.EXCLUDES, Collections.emptyList()));
-        // setup and run the xml filter to remove not accepted extensions
-        final Set<String> removed = new HashSet<>();
+        // setup the xml filter to remove not accepted extensions
+        final List<String> notAccepted = new ArrayList<>();
         final XMLFileFilter extensionsFilter = (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
             if (startElement.getName().getLocalPart().equals("extension")) {
                 Attribute moduleAttr = startElement.getAttributeByName(new QName("module"));
@@ -94,26 +113,34 @@ public class RemoveUnsupportedExtensions<S extends JBossServer<S>> implements Se
                     return XMLFileFilter.Result.ADD;
                 } else {
                     // TODO if interactive mode, extension not excluded, and not a source server extension, then confirm with user its removal (feature to provide configless custom extension migration)
-                    final ServerMigrationTask subtask = new SimpleComponentTask.Builder()
-                            .name(new ServerMigrationTaskName.Builder(SUBTASK_NAME)
-                                    .addAttribute(SUBTASK_NAME_ATTRIBUTE_MODULE, moduleName)
-                                    .build())
-                            .runnable(subtaskContext -> {
-                                subtaskContext.getLogger().debugf("Extension with module '%s' removed.", moduleName);
-                                removed.add(moduleName);
-                                return ServerMigrationTaskResult.SUCCESS;
-                            })
-                            .build();
-                    context.execute(subtask);
+                    notAccepted.add(moduleName);
                     return XMLFileFilter.Result.REMOVE;
                 }
             } else {
                 return XMLFileFilter.Result.NOT_APPLICABLE;
             }
         };
-        XMLFiles.filter(targetConfigurationPath.getPath(), extensionsFilter);
-        if (!removed.isEmpty()) {
-            context.getLogger().infof("Unsupported extensions removed: %s", removed);
-        }
+        pass.filter(extensionsFilter);
+        // once the filter is done, report each removal as a subtask
+        return taskContext -> {
+            final Set<String> removed = new HashSet<>();
+            for (String moduleName : notAccepted) {
+                final ServerMigrationTask subtask = new SimpleComponentTask.Builder()
+                        .name(new ServerMigrationTaskName.Builder(SUBTASK_NAME)
+                                .addAttribute(SUBTASK_NAME_ATTRIBUTE_MODULE, moduleName)
+                                .build())
+                        .runnable(subtaskContext -> {
+                            subtaskContext.getLogger().debugf("Extension with module '%s' removed.", moduleName);
+                            removed.add(moduleName);
+                            return ServerMigrationTaskResult.SUCCESS;
+                        })
+                        .build();
+                taskContext.execute(subtask);
+            }
+            if (!removed.isEmpty()) {
+                taskContext.getLogger().infof("Unsupported extensions removed: %s", removed);
+            }
+            return ServerMigrationTaskResult.SUCCESS;
+        };
     }
 }
\ No newline at end of file
@@ -24,12 +24,15 @@ import org.jboss.migration.core.task.ServerMigrationTaskName;
 import org.jboss.migration.core.task.ServerMigrationTaskResult;
 import org.jboss.migration.core.task.TaskContext;
 import org.jboss.migration.core.task.component.SimpleComponentTask;
+import org.jboss.migration.core.task.component.TaskRunnable;
 import org.jboss.migration.core.util.xml.XMLFileFilter;
-import org.jboss.migration.core.util.xml.XMLFiles;
+import org.jboss.migration.core.util.xml.XMLFilePass;
 import org.jboss.migration.wfly10.config.task.ServerConfigurationMigration;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static java.util.stream.Collectors.toList;
@@ -38,7 +41,7 @@ import static org.jboss.migration.core.task.component.TaskSkipPolicy.skipIfDefau
 /**
  * @author emmartins
  */
-public class RemoveUnsupportedSubsystems<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationSubtaskFactory<JBossServerConfiguration<S>> {
+public class RemoveUnsupportedSubsystems<S extends JBossServer<S>> implements ServerConfigurationMigration.XMLConfigurationPassSubtaskFactory<JBossServerConfiguration<S>> {
 
     public interface EnvironmentProperties {
         /**
@@ -62,22 +65,38 @@ public class RemoveUnsupportedSubsystems<S extends JBossServer<S>> implements Se
     public static final String SUBTASK_NAME_ATTRIBUTE_NAMESPACE = "namespace";
 
     @Override
-    public ServerMigrationTask getTask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
-        return new SimpleComponentTask.Builder()
-                .name(TASK_NAME)
-                .skipPolicy(skipIfDefaultTaskSkipPropertyIsSet())
-                .runnable(context -> {
-                    context.getLogger().debugf("Searching for subsystems not supported by the target server...");
-                    run(source, targetConfigurationPath, context);
-                    if (!context.hasSucessfulSubtasks()) {
-                        context.getLogger().debugf("No unsupported subsystems found.");
-                    }
-                    return ServerMigrationTaskResult.SUCCESS;
-                })
-                .build();
+    public ServerConfigurationMigration.XMLConfigurationPassSubtask getPassSubtask(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath) {
+        final ServerMigrationTaskName taskName = new ServerMigrationTaskName.Builder(TASK_NAME).build();
+        return new ServerConfigurationMigration.XMLConfigurationPassSubtask() {
+            @Override
+            public ServerMigrationTaskName getName() {
+                return taskName;
+            }
+
+            @Override
+            public TaskRunnable addTo(XMLFilePass pass, TaskContext context) {
+                return run(source, targetConfigurationPath, pass, context);
+            }
+
+            @Override
+            public ServerMigrationTask getTask(TaskRunnable afterPassRunnable) {
+                return new SimpleComponentTask.Builder()
+                        .name(taskName)
+                        .skipPolicy(skipIfDefaultTaskSkipPropertyIsSet())
+                        .runnable(context -> {
+                            context.getLogger().debugf("Searching for subsystems not supported by the target server...");
+                            afterPassRunnable.run(context);
+                            if (!context.hasSucessfulSubtasks()) {
+                                context.getLogger().debugf("No unsupported subsystems found.");
+                            }
+                            return ServerMigrationTaskResult.SUCCESS;
+                        })
+                        .build();
+            }
+        };
     }
 
-    protected void run(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath, final TaskContext context) {
+    protected TaskRunnable run(final JBossServerConfiguration<S> source, final JBossServerConfiguration targetConfigurationPath, final XMLFilePass pass, final TaskContext context) {
         // gather the namespaces of subsystems to accept (env property includes + target server subsystems - env property excludes)
         final Set<String> accepted = new HashSet<>(targetConfigurationPath.getServer().getExtensions().getExtensions().stream()
                 .flatMap(extension -> extension.getSubsystems().stream())
@@ -86,8 +105,8 @@ public class RemoveUnsupportedSubsystems<S extends JBossServer<S>> implements Se
         final MigrationEnvironment environment = context.getMigrationEnvironment();
         accepted.addAll(environment.getPropertyAsList(EnvironmentProperties.INCLUDES, Collections.emptyList()));
         accepted.removeAll(environment.getPropertyAsList(EnvironmentProperties.EXCLUDES, Collections.emptyList()));
-        // setup and run the xml filter to remove the ones not accepted
-        final Set<String> removed = new HashSet<>();
+        // setup the xml filter to remove the ones not accepted
+        final List<String> notAccepted = new ArrayList<>();
         final XMLFileFilter extensionsFilter = (startElement, xmlEventReader, xmlEventWriter, xmlEventFactory) -> {
             if (startElement.getName().getLocalPart().equals("subsystem")) {
                 final String namespaceURI = startElement.getName().getNamespaceURI();
@@ -99,6 +118,17 @@ public class RemoveUnsupportedSubsystems<S extends JBossServer<S>> implements Se
                 }
                 // not supported, remove subsystem
                 // TODO if interactive mode, subsystem not excluded, and not a source server subsystem, then confirm with user its removal (feature to provide configless "custom subsystem" migration)
+                notAccepted.add(namespaceURI);
+                return XMLFileFilter.Result.REMOVE;
+            } else {
+                return XMLFileFilter.Result.NOT_APPLICABLE;
+            }
+        };
+        pass.filter(extensionsFilter);
+        // once the filter is done, report each removal as a subtask
+        return taskContext -> {
+            final Set<String> removed = new HashSet<>();
+            for (String namespaceURI : notAccepted) {
                 final ServerMigrationTask subtask = new SimpleComponentTask.Builder()
                         .name(new ServerMigrationTaskName.Builder(SUBTASK_NAME)
                                 .addAttribute(SUBTASK_NAME_ATTRIBUTE_NAMESPACE, namespaceURI)
@@ -109,15 +139,12 @@ public class RemoveUnsupportedSubsystems<S extends JBossServer<S>> implements Se
                             return ServerMigrationTaskResult.SUCCESS;
                         })
                         .build();
-                context.execute(subtask);
-                return XMLFileFilter.Result.REMOVE;
-            } else {
-                return XMLFileFilter.Result.NOT_APPLICABLE;
+                taskContext.execute(subtask);
+            }
+            if (!removed.isEmpty()) {
+                taskContext.getLogger().infof("Unsupported subsystems removed: %s", removed);
             }
+            return ServerMigrationTaskResult.SUCCESS;
         };
-        XMLFiles.filter(targetConfigurationPath.getPath(), extensionsFilter);
-        if (!removed.isEmpty()) {
-            context.getLogger().infof("Unsupported subsystems removed: %s", removed);
-        }
     }
 }
\ No newline at end of file
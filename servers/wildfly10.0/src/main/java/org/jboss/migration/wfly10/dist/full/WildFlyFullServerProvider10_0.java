@@ -30,8 +30,10 @@ import java.nio.file.Path;
  */
 public class WildFlyFullServerProvider10_0 extends AbstractServerProvider {
 
+    private static final String PRODUCT_MODULE_ID = "org.jboss.as.product:wildfly-full";
+
     protected ProductInfo getProductInfo(Path baseDir, MigrationEnvironment migrationEnvironment) throws IllegalArgumentException {
-        final JBossServer.Module module = new JBossServer.Modules(baseDir).getModule("org.jboss.as.product:wildfly-full");
+        final JBossServer.Module module = new JBossServer.Modules(baseDir, migrationEnvironment).getModule(PRODUCT_MODULE_ID);
         if (module == null) {
             return null;
         }
@@ -40,6 +42,12 @@ public class WildFlyFullServerProvider10_0 extends AbstractServerProvider {
         return productInfo;
     }
 
+    @Override
+    protected Object getProductInfoKey() {
+        // the product info is read from the product module's manifest
+        return PRODUCT_MODULE_ID;
+    }
+
     @Override
     protected String getProductNameRegex() {
         return "WildFly Full";
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.management.impl;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.migration.core.jboss.JBossServerConfiguration;
+import org.jboss.migration.wfly10.config.management.ManagementOperationException;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EmbeddedProcessPoolTest {
+
+    private static final Path BASE_DIR = Paths.get("wildfly");
+
+    /**
+     * A pooled process which is not backed by an embedded process, and may fail to reload.
+     */
+    private static class TestProcess extends EmbeddedProcessPool.PooledProcess {
+
+        private final boolean reloadFails;
+        private int reloads;
+        private boolean stopped;
+
+        TestProcess(JBossServerConfiguration.Type type, boolean reloadFails) {
+            this(type, reloadFails, null);
+        }
+
+        TestProcess(JBossServerConfiguration.Type type, boolean reloadFails, EmbeddedProcessEnvironment processEnvironment) {
+            super(type, BASE_DIR, null, processEnvironment);
+            this.reloadFails = reloadFails;
+        }
+
+        @Override
+        void reload(ModelNode reloadOperation) {
+            if (reloadFails) {
+                throw new ManagementOperationException("reload with server-config not supported");
+            }
+            reloads++;
+        }
+
+        @Override
+        void stopProcess() {
+            stopped = true;
+        }
+    }
+
+    @Test
+    public void reuse() {
+        final EmbeddedProcessPool pool = new EmbeddedProcessPool(BASE_DIR);
+        final TestProcess process = new TestProcess(JBossServerConfiguration.Type.STANDALONE, false);
+        pool.release(process, true);
+        assertFalse(process.stopped);
+        // only reused for configurations of the same type
+        assertNull(pool.acquire(JBossServerConfiguration.Type.DOMAIN, new ModelNode()));
+        assertSame(process, pool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+        assertEquals(1, process.reloads);
+        assertEquals(1, pool.getMetrics().getReuses());
+        // acquired processes are not idle anymore
+        assertNull(pool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+        // not reused processes are stopped when released
+        pool.release(process, false);
+        assertTrue(process.stopped);
+        assertNull(pool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+    }
+
+    @Test
+    public void reloadFailure() {
+        final EmbeddedProcessPool pool = new EmbeddedProcessPool(BASE_DIR);
+        final TestProcess process = new TestProcess(JBossServerConfiguration.Type.STANDALONE, true);
+        pool.release(process, true);
+        // falls back to booting a new process
+        assertNull(pool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+        assertTrue(process.stopped);
+        assertEquals(0, pool.getMetrics().getReuses());
+        // no more processes of the type are pooled
+        final TestProcess otherProcess = new TestProcess(JBossServerConfiguration.Type.STANDALONE, false);
+        pool.release(otherProcess, true);
+        assertTrue(otherProcess.stopped);
+        // other types are still pooled
+        final TestProcess domainProcess = new TestProcess(JBossServerConfiguration.Type.DOMAIN, false);
+        pool.release(domainProcess, true);
+        assertFalse(domainProcess.stopped);
+        assertSame(domainProcess, pool.acquire(JBossServerConfiguration.Type.DOMAIN, new ModelNode()));
+    }
+
+    @Test
+    public void scope() {
+        final EmbeddedProcessPool pool = new EmbeddedProcessPool(BASE_DIR);
+        final EmbeddedProcessPool otherMigrationPool = new EmbeddedProcessPool(BASE_DIR);
+        final TestProcess process = new TestProcess(JBossServerConfiguration.Type.STANDALONE, false);
+        pool.release(process, true);
+        // the idle processes of a migration's target are not shared with other migrations, even with the same target base dir
+        assertNull(otherMigrationPool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+        otherMigrationPool.stopIdleProcesses();
+        assertFalse(process.stopped);
+        pool.stopIdleProcesses();
+        assertTrue(process.stopped);
+        assertNull(pool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+    }
+
+    @Test
+    public void idleProcessStoppedForSystemProperties() throws InterruptedException {
+        final String property = EmbeddedProcessPoolTest.class.getName() + ".dir";
+        final EmbeddedProcessPool pool = new EmbeddedProcessPool(BASE_DIR);
+        final EmbeddedProcessEnvironment processEnvironment = new EmbeddedProcessEnvironment();
+        processEnvironment.setSystemProperties(Collections.singletonMap(property, "a"));
+        final TestProcess process = new TestProcess(JBossServerConfiguration.Type.STANDALONE, false, processEnvironment);
+        pool.release(process, true);
+        // another target server's process needs the property with another value, the idle process is stopped
+        final EmbeddedProcessEnvironment otherProcessEnvironment = new EmbeddedProcessEnvironment();
+        otherProcessEnvironment.setSystemProperties(Collections.singletonMap(property, "b"));
+        assertTrue(process.stopped);
+        assertEquals("b", System.getProperty(property));
+        assertNull(pool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+        otherProcessEnvironment.resetSystemProperties();
+        assertNull(System.getProperty(property));
+    }
+
+    @Test
+    public void acquiredProcessNotStoppedForSystemProperties() throws Exception {
+        final String property = EmbeddedProcessPoolTest.class.getName() + ".dir";
+        final EmbeddedProcessPool pool = new EmbeddedProcessPool(BASE_DIR);
+        final EmbeddedProcessEnvironment processEnvironment = new EmbeddedProcessEnvironment();
+        processEnvironment.setSystemProperties(Collections.singletonMap(property, "a"));
+        final TestProcess process = new TestProcess(JBossServerConfiguration.Type.STANDALONE, false, processEnvironment);
+        pool.release(process, true);
+        assertSame(process, pool.acquire(JBossServerConfiguration.Type.STANDALONE, new ModelNode()));
+        // the running process is not stopped, the other waits till it is
+        final EmbeddedProcessEnvironment otherProcessEnvironment = new EmbeddedProcessEnvironment();
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> future = executorService.submit(() -> {
+                otherProcessEnvironment.setSystemProperties(Collections.singletonMap(property, "b"));
+                return null;
+            });
+            try {
+                future.get(200, TimeUnit.MILLISECONDS);
+                fail();
+            } catch (TimeoutException e) {
+                // expected
+            }
+            assertFalse(process.stopped);
+            assertEquals("a", System.getProperty(property));
+            pool.release(process, false);
+            future.get(10, TimeUnit.SECONDS);
+            assertEquals("b", System.getProperty(property));
+        } finally {
+            executorService.shutdownNow();
+            otherProcessEnvironment.resetSystemProperties();
+        }
+        assertNull(System.getProperty(property));
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.management.impl;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.dmr.ModelNode;
+import org.jboss.migration.core.jboss.Extension;
+import org.jboss.migration.core.jboss.JBossServer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OfflineManagementModelTest {
+
+    private static final String STANDALONE_XML = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+            "\n" +
+            "<server xmlns=\"urn:jboss:domain:4.0\">\n" +
+            "    <extensions>\n" +
+            "        <extension module=\"org.jboss.as.logging\"/>\n" +
+            "        <extension module=\"org.jboss.as.naming\"/>\n" +
+            "    </extensions>\n" +
+            "    <system-properties>\n" +
+            "        <property name=\"a\" value=\"1\"/>\n" +
+            "    </system-properties>\n" +
+            "    <profile>\n" +
+            "        <!-- the logging subsystem -->\n" +
+            "        <subsystem xmlns=\"urn:jboss:domain:logging:3.0\"/>\n" +
+            "    </profile>\n" +
+            "    <interfaces>\n" +
+            "        <interface name=\"public\">\n" +
+            "            <inet-address value=\"127.0.0.1\"/>\n" +
+            "        </interface>\n" +
+            "    </interfaces>\n" +
+            "    <socket-binding-group name=\"standard-sockets\" default-interface=\"public\">\n" +
+            "        <socket-binding name=\"http\" port=\"8080\"/>\n" +
+            "        <outbound-socket-binding name=\"mail-smtp\">\n" +
+            "            <remote-destination host=\"localhost\" port=\"25\"/>\n" +
+            "        </outbound-socket-binding>\n" +
+            "    </socket-binding-group>\n" +
+            "</server>\n";
+
+    private static final String DOMAIN_XML = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+            "<domain xmlns=\"urn:jboss:domain:4.0\">\n" +
+            "    <extensions>\n" +
+            "        <extension module=\"org.jboss.as.logging\"/>\n" +
+            "    </extensions>\n" +
+            "    <profiles>\n" +
+            "        <profile name=\"default\">\n" +
+            "            <subsystem xmlns=\"urn:jboss:domain:logging:3.0\"/>\n" +
+            "        </profile>\n" +
+            "    </profiles>\n" +
+            "</domain>\n";
+
+    private static final String HOST_XML = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+            "<host xmlns=\"urn:jboss:domain:4.0\" name=\"master\"/>\n";
+
+    private static final JBossServer.Extensions EXTENSIONS = JBossServer.Extensions.builder()
+            .extension(Extension.builder().module("org.jboss.as.logging").subsystem("logging").build())
+            .extension(Extension.builder().module("org.jboss.as.naming").subsystem("naming").build())
+            .extension(Extension.builder().module("org.jboss.as.mail").subsystem("mail").build())
+            .build();
+
+    private static final PathAddress SOCKET_BINDING_GROUP_ADDRESS = PathAddress.pathAddress(SOCKET_BINDING_GROUP, "standard-sockets");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path write(String xml) throws IOException {
+        final Path xmlFile = temporaryFolder.newFile().toPath();
+        Files.write(xmlFile, xml.getBytes(StandardCharsets.UTF_8));
+        return xmlFile;
+    }
+
+    private static String read(Path xmlFile) throws IOException {
+        return new String(Files.readAllBytes(xmlFile), StandardCharsets.UTF_8);
+    }
+
+    private static void assertSuccess(ModelNode result) {
+        assertNotNull(result);
+        assertEquals(result.toString(), SUCCESS, result.get(OUTCOME).asString());
+    }
+
+    private static void assertFailed(ModelNode result) {
+        assertNotNull(result);
+        assertEquals(result.toString(), FAILED, result.get(OUTCOME).asString());
+        assertTrue(result.hasDefined(FAILURE_DESCRIPTION));
+    }
+
+    private static ModelNode composite(ModelNode... steps) {
+        final ModelNode operation = Util.createEmptyOperation(COMPOSITE, PathAddress.EMPTY_ADDRESS);
+        operation.get(STEPS).setEmptyList();
+        for (ModelNode step : steps) {
+            operation.get(STEPS).add().set(step);
+        }
+        return operation;
+    }
+
+    private static ModelNode addSystemProperty(String name, String value) {
+        final ModelNode operation = Util.createAddOperation(PathAddress.pathAddress(SYSTEM_PROPERTY, name));
+        operation.get(VALUE).set(value);
+        return operation;
+    }
+
+    @Test
+    public void childrenNames() throws IOException {
+        final OfflineManagementModel model = OfflineManagementModel.read(write(STANDALONE_XML), EXTENSIONS);
+        assertNotNull(model);
+        assertEquals(new HashSet<>(Arrays.asList("org.jboss.as.logging", "org.jboss.as.naming")), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, EXTENSION));
+        assertEquals(Collections.singleton("a"), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SYSTEM_PROPERTY));
+        // the subsystem's name is the one of the extension's subsystem with the same namespace
+        assertEquals(Collections.singleton("logging"), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SUBSYSTEM));
+        assertEquals(Collections.singleton("public"), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, INTERFACE));
+        assertEquals(Collections.emptySet(), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, DEPLOYMENT));
+        // outbound socket bindings are not socket bindings
+        assertEquals(Collections.singleton("http"), model.getChildrenNames(SOCKET_BINDING_GROUP_ADDRESS, SOCKET_BINDING));
+        // profiles are only modelled for domains
+        assertNull(model.getChildrenNames(PathAddress.EMPTY_ADDRESS, PROFILE));
+        assertNull(model.getChildrenNames(PathAddress.pathAddress(SUBSYSTEM, "logging"), "logger"));
+        final ModelNode operation = Util.createEmptyOperation(READ_CHILDREN_NAMES_OPERATION, PathAddress.EMPTY_ADDRESS);
+        operation.get(CHILD_TYPE).set(SOCKET_BINDING_GROUP);
+        final ModelNode result = model.execute(operation);
+        assertSuccess(result);
+        assertEquals(1, result.get(RESULT).asList().size());
+        assertEquals("standard-sockets", result.get(RESULT).asList().get(0).asString());
+        assertFalse(model.isModified());
+    }
+
+    private static ModelNode readResource(PathAddress address, boolean recursive) {
+        final ModelNode operation = Util.createEmptyOperation(READ_RESOURCE_OPERATION, address);
+        operation.get(RECURSIVE).set(recursive);
+        return operation;
+    }
+
+    @Test
+    public void readOperations() throws IOException {
+        final OfflineManagementModel model = OfflineManagementModel.read(write(STANDALONE_XML.replace("<socket-binding name=\"http\" port=\"8080\"/>", "<socket-binding name=\"http\" port=\"8080\"/>\n        <socket-binding name=\"jgroups\" multicast-port=\"${jgroups.port:45688}\"/>")), EXTENSIONS);
+        assertNotNull(model);
+        // an extension's children are the subsystems of the target server's extension
+        ModelNode result = model.execute(readResource(PathAddress.pathAddress(EXTENSION, "org.jboss.as.logging"), false));
+        assertSuccess(result);
+        assertEquals("org.jboss.as.logging", result.get(RESULT).get(MODULE).asString());
+        assertEquals(Collections.singleton("logging"), result.get(RESULT).get(SUBSYSTEM).keys());
+        result = model.execute(readResource(PathAddress.pathAddress(SYSTEM_PROPERTY, "a"), true));
+        assertSuccess(result);
+        assertEquals(Collections.singleton(VALUE), result.get(RESULT).keys());
+        assertEquals("1", result.get(RESULT).get(VALUE).asString());
+        // the attributes are typed, and not defined attributes have their default value
+        final PathAddress httpAddress = SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "http");
+        result = model.execute(readResource(httpAddress, false));
+        assertSuccess(result);
+        assertEquals(new HashSet<>(Arrays.asList(NAME, INTERFACE, PORT, FIXED_PORT, MULTICAST_ADDRESS, MULTICAST_PORT, CLIENT_MAPPINGS)), result.get(RESULT).keys());
+        assertEquals("http", result.get(RESULT).get(NAME).asString());
+        assertEquals(8080, result.get(RESULT).get(PORT).asInt());
+        assertFalse(result.get(RESULT).get(FIXED_PORT).asBoolean());
+        assertFalse(result.get(RESULT).hasDefined(INTERFACE));
+        final ModelNode readResourceWithoutDefaults = readResource(httpAddress, false);
+        readResourceWithoutDefaults.get(INCLUDE_DEFAULTS).set(false);
+        result = model.execute(readResourceWithoutDefaults);
+        assertSuccess(result);
+        assertFalse(result.get(RESULT).hasDefined(FIXED_PORT));
+        result = model.execute(Util.getReadAttributeOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "jgroups"), MULTICAST_PORT));
+        assertSuccess(result);
+        assertEquals("${jgroups.port:45688}", result.get(RESULT).asExpression().getExpressionString());
+        result = model.execute(Util.getReadAttributeOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "jgroups"), PORT));
+        assertSuccess(result);
+        assertEquals(0, result.get(RESULT).asInt());
+        assertFailed(model.execute(Util.getReadAttributeOperation(PathAddress.pathAddress(SYSTEM_PROPERTY, "b"), VALUE)));
+        assertFailed(model.execute(readResource(PathAddress.pathAddress(EXTENSION, "org.jboss.as.mail"), false)));
+        // the recursive read of an extension, its children types, and extensions not known by the target server, are not modelled
+        assertNull(model.execute(readResource(PathAddress.pathAddress(EXTENSION, "org.jboss.as.logging"), true)));
+        assertNull(model.execute(Util.getReadAttributeOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.logging"), SUBSYSTEM)));
+        assertNull(model.execute(readResource(PathAddress.pathAddress(EXTENSION, "org.jboss.as.unknown"), false)));
+        assertNull(model.execute(readResource(PathAddress.pathAddress(SUBSYSTEM, "logging"), false)));
+        assertFalse(model.isModified());
+    }
+
+    @Test
+    public void migrationWithoutBoot() throws IOException {
+        final Path xmlFile = write(STANDALONE_XML);
+        final OfflineManagementModel model = OfflineManagementModel.read(xmlFile, EXTENSIONS);
+        assertNotNull(model);
+        // the ops of a migration which only updates extensions, system properties and socket bindings are all executed by the model, i.e. an embedded process is never booted
+        final PathAddress systemPropertyAddress = PathAddress.pathAddress(SYSTEM_PROPERTY, "a");
+        final ModelNode systemProperty = model.execute(readResource(systemPropertyAddress, true));
+        assertSuccess(systemProperty);
+        assertSuccess(model.execute(Util.getWriteAttributeOperation(systemPropertyAddress, VALUE, systemProperty.get(RESULT).get(VALUE).asString() + "0")));
+        final PathAddress httpAddress = SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "http");
+        final ModelNode port = model.execute(Util.getReadAttributeOperation(httpAddress, PORT));
+        assertSuccess(port);
+        final ModelNode addSocketBinding = Util.createAddOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "https"));
+        addSocketBinding.get(PORT).set(String.valueOf(port.get(RESULT).asInt() + 363));
+        assertSuccess(model.execute(composite(addSocketBinding, Util.createAddOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.mail")))));
+        final ModelNode naming = model.execute(readResource(PathAddress.pathAddress(EXTENSION, "org.jboss.as.naming"), false));
+        assertSuccess(naming);
+        assertSuccess(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(EXTENSION, naming.get(RESULT).get(MODULE).asString()))));
+        model.close(xmlFile);
+        final String expected = STANDALONE_XML
+                .replace("\n\n", "\n")
+                .replace("        <extension module=\"org.jboss.as.naming\"/>\n", "        <extension module=\"org.jboss.as.mail\"/>\n")
+                .replace("<property name=\"a\" value=\"1\"/>", "<property name=\"a\" value=\"10\"/>")
+                .replace("<socket-binding-group name=\"standard-sockets\" default-interface=\"public\">", "<socket-binding-group default-interface=\"public\" name=\"standard-sockets\">")
+                .replace("<socket-binding name=\"http\" port=\"8080\"/>\n", "<socket-binding name=\"http\" port=\"8080\"/>\n        <socket-binding name=\"https\" port=\"8443\"/>\n");
+        assertEquals(expected, read(xmlFile));
+    }
+
+    @Test
+    public void unknownSubsystem() throws IOException {
+        final OfflineManagementModel model = OfflineManagementModel.read(write(STANDALONE_XML.replace("urn:jboss:domain:logging:3.0", "urn:jboss:domain:unknown:1.0")), EXTENSIONS);
+        assertNotNull(model);
+        // a subsystem not known by the target server may not be named
+        assertNull(model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SUBSYSTEM));
+        // and may be the one of an extension to remove
+        assertNull(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.naming"))));
+        assertFalse(model.isModified());
+    }
+
+    @Test
+    public void notModelled() throws IOException {
+        assertNull(OfflineManagementModel.read(write(HOST_XML), EXTENSIONS));
+        assertNull(OfflineManagementModel.read(write("<?xml version='1.0' encoding='UTF-8'?>\n<server xmlns=\"urn:other:1.0\"/>\n"), EXTENSIONS));
+    }
+
+    @Test
+    public void writeOperations() throws IOException {
+        final Path xmlFile = write(STANDALONE_XML);
+        final OfflineManagementModel model = OfflineManagementModel.read(xmlFile, EXTENSIONS);
+        assertNotNull(model);
+        assertSuccess(model.execute(addSystemProperty("b", "2")));
+        assertSuccess(model.execute(Util.getWriteAttributeOperation(PathAddress.pathAddress(SYSTEM_PROPERTY, "a"), VALUE, "${c:3}")));
+        final ModelNode addSocketBinding = Util.createAddOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "https"));
+        addSocketBinding.get(INTERFACE).set("public");
+        addSocketBinding.get(PORT).set("8443");
+        assertSuccess(model.execute(addSocketBinding));
+        assertSuccess(model.execute(Util.getWriteAttributeOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "http"), PORT, "8081")));
+        assertSuccess(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.naming"))));
+        assertSuccess(model.execute(Util.createAddOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.mail"))));
+        assertTrue(model.isModified());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SYSTEM_PROPERTY));
+        // the XML file is only written when the model is closed
+        assertEquals(STANDALONE_XML, read(xmlFile));
+        model.close(xmlFile);
+        assertNull(model.execute(addSystemProperty("c", "3")));
+        assertNull(model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SYSTEM_PROPERTY));
+        // the changed elements are written with the indentation of their siblings, and everything else as read
+        final String expected = STANDALONE_XML
+                .replace("\n\n", "\n")
+                .replace("        <extension module=\"org.jboss.as.naming\"/>\n", "        <extension module=\"org.jboss.as.mail\"/>\n")
+                .replace("<property name=\"a\" value=\"1\"/>\n", "<property name=\"a\" value=\"${c:3}\"/>\n        <property name=\"b\" value=\"2\"/>\n")
+                .replace("<socket-binding-group name=\"standard-sockets\" default-interface=\"public\">", "<socket-binding-group default-interface=\"public\" name=\"standard-sockets\">")
+                .replace("<socket-binding name=\"http\" port=\"8080\"/>\n", "<socket-binding name=\"http\" port=\"8081\"/>\n        <socket-binding interface=\"public\" name=\"https\" port=\"8443\"/>\n");
+        assertEquals(expected, read(xmlFile));
+        final OfflineManagementModel writtenModel = OfflineManagementModel.read(xmlFile, EXTENSIONS);
+        assertNotNull(writtenModel);
+        assertEquals(new HashSet<>(Arrays.asList("http", "https")), writtenModel.getChildrenNames(SOCKET_BINDING_GROUP_ADDRESS, SOCKET_BINDING));
+    }
+
+    @Test
+    public void removeAll() throws IOException {
+        final Path xmlFile = write(STANDALONE_XML);
+        final OfflineManagementModel model = OfflineManagementModel.read(xmlFile, EXTENSIONS);
+        assertNotNull(model);
+        assertSuccess(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(SYSTEM_PROPERTY, "a"))));
+        assertEquals(Collections.emptySet(), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SYSTEM_PROPERTY));
+        // without siblings the indentation of an added element is unknown
+        assertNull(model.execute(addSystemProperty("b", "2")));
+        model.close(xmlFile);
+        assertTrue(read(xmlFile).contains("    <system-properties>\n    </system-properties>\n"));
+    }
+
+    @Test
+    public void failedOperations() throws IOException {
+        final Path xmlFile = write(STANDALONE_XML);
+        final OfflineManagementModel model = OfflineManagementModel.read(xmlFile, EXTENSIONS);
+        assertNotNull(model);
+        assertFailed(model.execute(addSystemProperty("a", "2")));
+        assertFailed(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(SYSTEM_PROPERTY, "b"))));
+        assertFailed(model.execute(Util.getWriteAttributeOperation(PathAddress.pathAddress(SYSTEM_PROPERTY, "b"), VALUE, "2")));
+        // an extension in use by a subsystem
+        assertFailed(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.logging"))));
+        final PathAddress httpAddress = SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "http");
+        assertFailed(model.execute(Util.getWriteAttributeOperation(httpAddress, PORT, "http")));
+        assertFailed(model.execute(Util.getWriteAttributeOperation(httpAddress, PORT, "65536")));
+        assertFailed(model.execute(Util.getWriteAttributeOperation(httpAddress, FIXED_PORT, "yes")));
+        assertFailed(model.execute(Util.getWriteAttributeOperation(httpAddress, INTERFACE, "private")));
+        assertFalse(model.isModified());
+        // an unmodified model is not written
+        model.close(xmlFile);
+        assertEquals(STANDALONE_XML, read(xmlFile));
+    }
+
+    @Test
+    public void unsupportedOperations() throws IOException {
+        final OfflineManagementModel model = OfflineManagementModel.read(write(STANDALONE_XML), EXTENSIONS);
+        assertNotNull(model);
+        assertNull(model.execute(Util.createEmptyOperation(READ_RESOURCE_OPERATION, PathAddress.EMPTY_ADDRESS)));
+        assertNull(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(SUBSYSTEM, "logging"))));
+        assertNull(model.execute(Util.createAddOperation(PathAddress.pathAddress(SUBSYSTEM, "naming"))));
+        assertNull(model.execute(Util.createRemoveOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "http"))));
+        // an extension not known by the target server
+        assertNull(model.execute(Util.createAddOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.unknown"))));
+        // an attribute not modelled
+        assertNull(model.execute(Util.getWriteAttributeOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "http"), "client-mappings", "[]")));
+        assertNull(model.execute(Util.getWriteAttributeOperation(SOCKET_BINDING_GROUP_ADDRESS.append(SOCKET_BINDING, "http"), INTERFACE, "${iface:public}")));
+        // an op param not modelled
+        final ModelNode readChildrenNames = Util.createEmptyOperation(READ_CHILDREN_NAMES_OPERATION, PathAddress.EMPTY_ADDRESS);
+        readChildrenNames.get(CHILD_TYPE).set(SYSTEM_PROPERTY);
+        readChildrenNames.get(INCLUDE_SINGLETONS).set(true);
+        assertNull(model.execute(readChildrenNames));
+        assertFalse(model.isModified());
+    }
+
+    @Test
+    public void composite() throws IOException {
+        final OfflineManagementModel model = OfflineManagementModel.read(write(STANDALONE_XML), EXTENSIONS);
+        assertNotNull(model);
+        final ModelNode result = model.execute(composite(addSystemProperty("b", "2"), addSystemProperty("c", "3")));
+        assertSuccess(result);
+        assertSuccess(result.get(RESULT).get("step-1"));
+        assertSuccess(result.get(RESULT).get("step-2"));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SYSTEM_PROPERTY));
+    }
+
+    @Test
+    public void compositeRollback() throws IOException {
+        final OfflineManagementModel model = OfflineManagementModel.read(write(STANDALONE_XML), EXTENSIONS);
+        assertNotNull(model);
+        // a failed step rolls back the previous
+        assertFailed(model.execute(composite(addSystemProperty("b", "2"), addSystemProperty("a", "2"))));
+        assertEquals(Collections.singleton("a"), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SYSTEM_PROPERTY));
+        assertFalse(model.isModified());
+        // and so does an unsupported step, the whole composite should then be executed by an embedded process
+        assertNull(model.execute(composite(addSystemProperty("b", "2"), Util.createRemoveOperation(PathAddress.pathAddress(SUBSYSTEM, "logging")))));
+        assertEquals(Collections.singleton("a"), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SYSTEM_PROPERTY));
+        assertFalse(model.isModified());
+    }
+
+    @Test
+    public void domain() throws IOException {
+        final Path xmlFile = write(DOMAIN_XML);
+        final OfflineManagementModel model = OfflineManagementModel.read(xmlFile, EXTENSIONS);
+        assertNotNull(model);
+        assertEquals(Collections.singleton("default"), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, PROFILE));
+        assertEquals(Collections.singleton("logging"), model.getChildrenNames(PathAddress.pathAddress(PROFILE, "default"), SUBSYSTEM));
+        assertNull(model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SUBSYSTEM));
+        assertEquals(Collections.emptySet(), model.getChildrenNames(PathAddress.EMPTY_ADDRESS, SERVER_GROUP));
+        // the extension is in use by a profile's subsystem
+        assertFailed(model.execute(Util.createRemoveOperation(PathAddress.pathAddress(EXTENSION, "org.jboss.as.logging"))));
+        // there is no system properties element to add to
+        assertNull(model.execute(addSystemProperty("a", "1")));
+    }
+}
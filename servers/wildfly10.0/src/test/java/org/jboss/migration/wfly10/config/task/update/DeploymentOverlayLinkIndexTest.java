@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.migration.wfly10.config.task.update;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.migration.wfly10.config.management.DeploymentOverlayResource;
+import org.jboss.migration.wfly10.config.management.HostControllerConfiguration;
+import org.jboss.migration.wfly10.config.management.ManageableServerConfiguration;
+import org.jboss.migration.wfly10.config.management.ServerGroupResource;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class DeploymentOverlayLinkIndexTest {
+
+    /**
+     * Creates a resource which answers the specified methods, by name, and ignores the other methods without return value.
+     */
+    private static <T> T resource(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(DeploymentOverlayLinkIndexTest.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "@" + System.identityHashCode(proxy);
+            }
+            final Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getReturnType() == void.class) {
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+    }
+
+    private static Map<String, Function<Object[], Object>> answers(Object... nameAndAnswers) {
+        final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        for (int i = 0; i < nameAndAnswers.length; i += 2) {
+            final Object answer = nameAndAnswers[i + 1];
+            answers.put((String) nameAndAnswers[i], args -> answer);
+        }
+        return answers;
+    }
+
+    private static ManageableServerConfiguration standaloneConfiguration(AtomicInteger deploymentReads, String... deploymentNames) {
+        final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getChildResourceNames", args -> {
+            deploymentReads.incrementAndGet();
+            return new HashSet<>(Arrays.asList(deploymentNames));
+        });
+        return resource(ManageableServerConfiguration.class, answers);
+    }
+
+    private static DeploymentOverlayResource standaloneOverlay(ManageableServerConfiguration serverConfiguration, String name, String... deploymentLinks) {
+        return resource(DeploymentOverlayResource.class, answers("getResourceName", name, "getServerConfiguration", serverConfiguration, "getDeploymentLinks", deploymentLinks));
+    }
+
+    private static ModelNode overlayConfiguration(String... deploymentLinks) {
+        final ModelNode config = new ModelNode();
+        for (String deploymentLink : deploymentLinks) {
+            config.get(DEPLOYMENT).get(deploymentLink).setEmptyObject();
+        }
+        return config;
+    }
+
+    @Test
+    public void standalone() {
+        final AtomicInteger deploymentReads = new AtomicInteger();
+        final ManageableServerConfiguration serverConfiguration = standaloneConfiguration(deploymentReads, "app.war", "app.ear", "lib-1.jar");
+        final DeploymentOverlayLinkIndex index = new DeploymentOverlayLinkIndex(serverConfiguration);
+        assertEquals(new HashSet<>(Arrays.asList("app.war", "app.ear", "lib-1.jar")), index.getDeploymentNames());
+        // exact links
+        assertEquals("app.war", index.getLinkedDeployment(standaloneOverlay(serverConfiguration, "exact", "missing.war", "app.war")));
+        assertNull(index.getLinkedDeployment(standaloneOverlay(serverConfiguration, "missing", "missing.war")));
+        // wildcard links
+        assertEquals("app.ear", index.getLinkedDeployment(standaloneOverlay(serverConfiguration, "wildcard", "*.ear")));
+        assertEquals("lib-1.jar", index.getLinkedDeployment(standaloneOverlay(serverConfiguration, "single-char-wildcard", "lib-?.jar")));
+        assertNull(index.getLinkedDeployment(standaloneOverlay(serverConfiguration, "wildcard-missing", "lib-??.jar", "*.rar")));
+        // no links
+        assertNull(index.getLinkedDeployment(standaloneOverlay(serverConfiguration, "empty")));
+        assertEquals(Collections.emptyList(), index.getServerGroupOverlays("exact"));
+        // the deployments are read once, for all overlays
+        assertEquals(1, deploymentReads.get());
+    }
+
+    @Test
+    public void domain() {
+        final AtomicInteger deploymentReads = new AtomicInteger();
+        final Map<String, Function<Object[], Object>> hostControllerAnswers = new HashMap<>();
+        final HostControllerConfiguration hostControllerConfiguration = resource(HostControllerConfiguration.class, hostControllerAnswers);
+        hostControllerAnswers.put("getChildResourceNames", args -> {
+            deploymentReads.incrementAndGet();
+            return new HashSet<>(Arrays.asList("app.war", "app.ear", "other.war"));
+        });
+        // the overlays' links are in the server groups' overlays with same name
+        final DeploymentOverlayResource group1Overlay1 = resource(DeploymentOverlayResource.class, answers("getResourceName", "overlay1", "getServerConfiguration", hostControllerConfiguration, "getResourceConfiguration", overlayConfiguration("missing.war")));
+        final DeploymentOverlayResource group1Overlay2 = resource(DeploymentOverlayResource.class, answers("getResourceName", "overlay2", "getServerConfiguration", hostControllerConfiguration, "getResourceConfiguration", overlayConfiguration("missing.war")));
+        final DeploymentOverlayResource group2Overlay1 = resource(DeploymentOverlayResource.class, answers("getResourceName", "overlay1", "getServerConfiguration", hostControllerConfiguration, "getResourceConfiguration", overlayConfiguration("missing.war", "*.ear")));
+        final ServerGroupResource group1 = resource(ServerGroupResource.class, answers("getServerConfiguration", hostControllerConfiguration, "findResources", new LinkedHashSet<>(Arrays.asList(group1Overlay1, group1Overlay2))));
+        final ServerGroupResource group2 = resource(ServerGroupResource.class, answers("getServerConfiguration", hostControllerConfiguration, "findResources", Collections.singleton(group2Overlay1)));
+        final AtomicInteger serverGroupOverlayReads = new AtomicInteger();
+        hostControllerAnswers.put("findResources", args -> {
+            assertEquals(ServerGroupResource.class, args[0]);
+            serverGroupOverlayReads.incrementAndGet();
+            return new LinkedHashSet<>(Arrays.asList(group1, group2));
+        });
+
+        final DeploymentOverlayLinkIndex index = new DeploymentOverlayLinkIndex(hostControllerConfiguration);
+        final DeploymentOverlayResource overlay1 = resource(DeploymentOverlayResource.class, answers("getResourceName", "overlay1", "getServerConfiguration", hostControllerConfiguration, "getResourceConfiguration", new ModelNode()));
+        final DeploymentOverlayResource overlay2 = resource(DeploymentOverlayResource.class, answers("getResourceName", "overlay2", "getServerConfiguration", hostControllerConfiguration, "getResourceConfiguration", new ModelNode()));
+        final DeploymentOverlayResource overlay3 = resource(DeploymentOverlayResource.class, answers("getResourceName", "overlay3", "getServerConfiguration", hostControllerConfiguration, "getResourceConfiguration", new ModelNode()));
+        assertEquals(new HashSet<>(Arrays.asList(group1Overlay1, group2Overlay1)), new HashSet<>(index.getServerGroupOverlays("overlay1")));
+        assertEquals(Collections.singletonList(group1Overlay2), index.getServerGroupOverlays("overlay2"));
+        assertEquals(Collections.emptyList(), index.getServerGroupOverlays("overlay3"));
+        // the server groups' links are merged, without duplicates
+        final String[] overlay1Links = index.getDeploymentLinks(overlay1);
+        Arrays.sort(overlay1Links);
+        assertArrayEquals(new String[] {"*.ear", "missing.war"}, overlay1Links);
+        assertEquals("app.ear", index.getLinkedDeployment(overlay1));
+        assertNull(index.getLinkedDeployment(overlay2));
+        assertNull(index.getLinkedDeployment(overlay3));
+        // the deployments, and the server groups' overlays, are read once, for all overlays
+        assertEquals(1, deploymentReads.get());
+        assertEquals(1, serverGroupOverlayReads.get());
+    }
+
+    @Test
+    public void domainOverlayNotFound() {
+        final Map<String, Function<Object[], Object>> hostControllerAnswers = new HashMap<>();
+        hostControllerAnswers.put("getChildResourceNames", args -> Collections.singleton("app.war"));
+        hostControllerAnswers.put("findResources", args -> Collections.emptySet());
+        final HostControllerConfiguration hostControllerConfiguration = resource(HostControllerConfiguration.class, hostControllerAnswers);
+        final DeploymentOverlayLinkIndex index = new DeploymentOverlayLinkIndex(hostControllerConfiguration);
+        final Map<String, Function<Object[], Object>> overlayAnswers = answers("getResourceName", "removed", "getServerConfiguration", hostControllerConfiguration);
+        overlayAnswers.put("getResourceConfiguration", args -> null);
+        final DeploymentOverlayResource overlay = resource(DeploymentOverlayResource.class, overlayAnswers);
+        try {
+            index.getLinkedDeployment(overlay);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
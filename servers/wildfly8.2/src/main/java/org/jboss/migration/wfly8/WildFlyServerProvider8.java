@@ -39,7 +39,7 @@ public class WildFlyServerProvider8 extends AbstractServerProvider {
 
     @Override
     protected ProductInfo getProductInfo(Path baseDir, MigrationEnvironment migrationEnvironment) throws IllegalArgumentException, ServerMigrationFailureException {
-        final JBossServer.Modules modules = new JBossServer.Modules(baseDir);
+        final JBossServer.Modules modules = new JBossServer.Modules(baseDir, migrationEnvironment);
         if (modules.getModule("org.jboss.as.product:wildfly-full") != null) {
             return null;
         }
@@ -87,6 +87,12 @@ public class WildFlyServerProvider8 extends AbstractServerProvider {
         return fileVisitor.productInfo;
     }
 
+    @Override
+    protected Object getProductInfoKey() {
+        // the product info is read from the version module's jar
+        return WildFlyServerProvider8.class;
+    }
+
     @Override
     protected String getProductNameRegex() {
         return "WildFly";